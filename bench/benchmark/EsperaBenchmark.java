@@ -0,0 +1,135 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import comum.EstrategiaEspera;
+import comum.Relogio;
+import comum.Topologia;
+import tarefa3.Garfo;
+import tarefa4.Arbitro;
+import tarefa4.Mesa;
+import tarefa4.MesaLockFree;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Estratégias de espera (bloquear, girar, híbrida) × duração da refeição.
+ *
+ * Cada operação pega os garfos, "come" ocupando a CPU por refeicaoNs e
+ * solta. Com refeições curtas o garfo volta antes de um park/unpark e
+ * girar ganha; com refeições longas girar só rouba CPU de quem come. O
+ * ponto em que as curvas se cruzam indica a estratégia de cada mesa.
+ *
+ * Os modos são a Mesa (monitor), a MesaLockFree e o Garfo da Tarefa 3
+ * (com o semáforo de N-1 da mesa).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EsperaBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Mesas {
+        @Param({"5", "64", "1024"})
+        public int lugares;
+
+        @Param({"monitor", "lockfree", "semaforo"})
+        public String modo;
+
+        @Param({"bloquear", "hibrida", "girar"})
+        public String estrategia;
+
+        @Param({"0", "1000", "10000", "100000"})
+        public long refeicaoNs;
+
+        public Arbitro arbitro; // monitor e lockfree
+        public Garfo[] garfos; // semaforo
+        public Semaphore semaforoMesa;
+
+        @Setup
+        public void setup() {
+            EstrategiaEspera espera = EstrategiaEspera.de(estrategia);
+            Topologia topologia = Topologia.anel(lugares);
+            switch (modo) {
+                case "monitor":
+                    arbitro = new Mesa(topologia, Relogio.SISTEMA, espera);
+                    break;
+                case "lockfree":
+                    arbitro = new MesaLockFree(topologia, Relogio.SISTEMA, espera);
+                    break;
+                case "semaforo":
+                    semaforoMesa = new Semaphore(lugares - 1);
+                    garfos = new Garfo[lugares];
+                    for (int i = 0; i < lugares; i++) {
+                        garfos[i] = new Garfo(i, Relogio.SISTEMA, espera);
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Modo desconhecido: " + modo);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Lugar {
+        int id;
+        Garfo esquerdo;
+        Garfo direito;
+
+        @Setup
+        public void setup(Mesas mesas, ThreadParams threads) {
+            id = Lugares.idDaThread(mesas.lugares, threads);
+            if (mesas.garfos != null) {
+                esquerdo = mesas.garfos[id];
+                direito = mesas.garfos[(id + 1) % mesas.lugares];
+            }
+        }
+    }
+
+    @Benchmark
+    public void pegarComerESoltar(Mesas mesas, Lugar lugar) throws InterruptedException {
+        if (mesas.arbitro != null) {
+            mesas.arbitro.pegarGarfos(lugar.id);
+            comer(mesas.refeicaoNs);
+            mesas.arbitro.soltarGarfos(lugar.id);
+            return;
+        }
+        mesas.semaforoMesa.acquire();
+        try {
+            lugar.esquerdo.pegar();
+            lugar.direito.pegar();
+            comer(mesas.refeicaoNs);
+            lugar.direito.soltar();
+            lugar.esquerdo.soltar();
+        } finally {
+            mesas.semaforoMesa.release();
+        }
+    }
+
+    /**
+     * Refeição ocupando a CPU: sleep não tem resolução de microssegundos.
+     */
+    private static void comer(long refeicaoNs) {
+        if (refeicaoNs == 0) {
+            return;
+        }
+        long fim = System.nanoTime() + refeicaoNs;
+        while (System.nanoTime() < fim) {
+            Thread.onSpinWait();
+        }
+    }
+}
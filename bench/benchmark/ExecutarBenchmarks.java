@@ -0,0 +1,57 @@
+package benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Roda os benchmarks para cada combinação de threads × lugares e grava
+ * um CSV por combinação, gerando as curvas de ops/s × threads × lugares.
+ *
+ * Uso: java -cp ... benchmark.ExecutarBenchmarks [prefixo] [threads...]
+ *   Ex.: java -cp ... benchmark.ExecutarBenchmarks jmh 1 2 4 8
+ *   grava jmh-t1-n5.csv, jmh-t1-n64.csv, ... (um ".csv" no fim do
+ *   prefixo é ignorado: jmh.csv também gera jmh-t1-n5.csv)
+ *
+ * Combinações com mais threads que lugares são puladas.
+ */
+public class ExecutarBenchmarks {
+    private static final int[] THREADS_PADRAO = {1, 2, 4, 8};
+    private static final String[] LUGARES = {"5", "64", "1024"};
+
+    public static void main(String[] args) throws RunnerException {
+        String prefixo = args.length > 0 ? args[0] : "jmh-resultados";
+        if (prefixo.endsWith(".csv")) {
+            prefixo = prefixo.substring(0, prefixo.length() - ".csv".length());
+        }
+        int[] contagens = THREADS_PADRAO;
+        if (args.length > 1) {
+            contagens = new int[args.length - 1];
+            for (int i = 1; i < args.length; i++) {
+                contagens[i - 1] = Integer.parseInt(args[i]);
+            }
+        }
+
+        for (int threads : contagens) {
+            for (String lugares : LUGARES) {
+                if (threads > Integer.parseInt(lugares)) {
+                    continue;
+                }
+                Options opcoes = new OptionsBuilder()
+                        .include(Tarefa2Benchmark.class.getSimpleName())
+                        .include(Tarefa3Benchmark.class.getSimpleName())
+                        .include(Tarefa4Benchmark.class.getSimpleName())
+                        .include(RecursosBenchmark.class.getSimpleName())
+                        .include(EsperaBenchmark.class.getSimpleName())
+                        .param("lugares", lugares)
+                        .threads(threads)
+                        .resultFormat(ResultFormatType.CSV)
+                        .result(prefixo + "-t" + threads + "-n" + lugares + ".csv")
+                        .build();
+                new Runner(opcoes).run();
+            }
+        }
+    }
+}
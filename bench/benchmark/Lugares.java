@@ -0,0 +1,26 @@
+package benchmark;
+
+import org.openjdk.jmh.infra.ThreadParams;
+
+/**
+ * Distribui as threads do JMH pelos lugares da mesa.
+ */
+final class Lugares {
+
+    private Lugares() {
+    }
+
+    /**
+     * Espalha as threads igualmente pela mesa (thread i → lugar i·N/T), de
+     * modo que com T = N todos os vizinhos disputam e com T &lt; N a disputa
+     * diminui. Cada lugar só pode ter UMA thread, pois as Mesas assumem que
+     * um filósofo não pede garfos duas vezes ao mesmo tempo.
+     */
+    static int idDaThread(int lugares, ThreadParams threads) {
+        int total = threads.getThreadCount();
+        if (total > lugares) {
+            throw new IllegalStateException(total + " threads para apenas " + lugares + " lugares");
+        }
+        return (int) ((long) threads.getThreadIndex() * lugares / total);
+    }
+}
@@ -0,0 +1,101 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import tarefa4.MesaLockFree;
+import tarefa4.MesaRecursos;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MesaRecursos.pegarRecursos()/soltarRecursos() com conjuntos de tamanho
+ * variável, comparada ao caso de dois garfos da MesaLockFree.
+ *
+ * O lugar i pede os recursos i, i+1, ..., i+tamanho-1 (módulo lugares):
+ * com tamanho 2 é exatamente o anel de garfos; com tamanhos maiores cada
+ * pedido disputa com mais vizinhos e, acima do limite, passa pela fila.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecursosBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Recursos {
+        @Param({"5", "64", "1024"})
+        public int lugares;
+
+        @Param({"2", "8", "32"})
+        public int tamanho;
+
+        public MesaRecursos mesa;
+
+        @Setup
+        public void setup() {
+            mesa = new MesaRecursos(lugares);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class DoisGarfos {
+        @Param({"5", "64", "1024"})
+        public int lugares;
+
+        public MesaLockFree mesa;
+
+        @Setup
+        public void setup() {
+            mesa = new MesaLockFree(lugares);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Pedido {
+        MesaRecursos.Conjunto conjunto;
+
+        @Setup
+        public void setup(Recursos recursos, ThreadParams threads) {
+            int id = Lugares.idDaThread(recursos.lugares, threads);
+            int[] ids = new int[Math.min(recursos.tamanho, recursos.lugares)];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = (id + i) % recursos.lugares;
+            }
+            conjunto = recursos.mesa.preparar(ids);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Lugar {
+        int id;
+
+        @Setup
+        public void setup(DoisGarfos mesas, ThreadParams threads) {
+            id = Lugares.idDaThread(mesas.lugares, threads);
+        }
+    }
+
+    @Benchmark
+    public void pegarESoltarConjunto(Recursos recursos, Pedido pedido) throws InterruptedException {
+        recursos.mesa.pegarRecursos(pedido.conjunto);
+        recursos.mesa.soltarRecursos(pedido.conjunto);
+    }
+
+    @Benchmark
+    public void pegarESoltarDoisGarfos(DoisGarfos mesas, Lugar lugar) throws InterruptedException {
+        mesas.mesa.pegarGarfos(lugar.id);
+        mesas.mesa.soltarGarfos(lugar.id);
+    }
+}
@@ -0,0 +1,70 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import tarefa2.Garfo;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tarefa 2: par de garfos pego em ordem (o último lugar inverte), sem
+ * tempo de pensar/comer. Mede apenas o custo de pegar + soltar.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Tarefa2Benchmark {
+
+    @State(Scope.Benchmark)
+    public static class Mesa {
+        @Param({"5", "64", "1024"})
+        public int lugares;
+
+        public Garfo[] garfos;
+
+        @Setup
+        public void setup() {
+            garfos = new Garfo[lugares];
+            for (int i = 0; i < lugares; i++) {
+                garfos[i] = new Garfo(i);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Lugar {
+        Garfo primeiro;
+        Garfo segundo;
+
+        @Setup
+        public void setup(Mesa mesa, ThreadParams threads) {
+            int id = Lugares.idDaThread(mesa.lugares, threads);
+            Garfo esquerdo = mesa.garfos[id];
+            Garfo direito = mesa.garfos[(id + 1) % mesa.lugares];
+            boolean ordemInversa = id == mesa.lugares - 1;
+            primeiro = ordemInversa ? direito : esquerdo;
+            segundo = ordemInversa ? esquerdo : direito;
+        }
+    }
+
+    @Benchmark
+    public void pegarESoltar(Lugar lugar) {
+        lugar.primeiro.pegar();
+        lugar.segundo.pegar();
+        lugar.segundo.soltar();
+        lugar.primeiro.soltar();
+    }
+}
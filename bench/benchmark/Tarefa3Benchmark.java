@@ -0,0 +1,75 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import tarefa3.Garfo;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tarefa 3: semáforo da mesa (N-1 permissões) + Garfo.pegar()/soltar(),
+ * sem tempo de pensar/comer.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Tarefa3Benchmark {
+
+    @State(Scope.Benchmark)
+    public static class Mesa {
+        @Param({"5", "64", "1024"})
+        public int lugares;
+
+        public Garfo[] garfos;
+        public Semaphore semaforoMesa;
+
+        @Setup
+        public void setup() {
+            semaforoMesa = new Semaphore(lugares - 1);
+            garfos = new Garfo[lugares];
+            for (int i = 0; i < lugares; i++) {
+                garfos[i] = new Garfo(i);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Lugar {
+        Garfo esquerdo;
+        Garfo direito;
+
+        @Setup
+        public void setup(Mesa mesa, ThreadParams threads) {
+            int id = Lugares.idDaThread(mesa.lugares, threads);
+            esquerdo = mesa.garfos[id];
+            direito = mesa.garfos[(id + 1) % mesa.lugares];
+        }
+    }
+
+    @Benchmark
+    public void pegarESoltar(Mesa mesa, Lugar lugar) throws InterruptedException {
+        mesa.semaforoMesa.acquire();
+        try {
+            lugar.esquerdo.pegar();
+            lugar.direito.pegar();
+            lugar.direito.soltar();
+            lugar.esquerdo.soltar();
+        } finally {
+            mesa.semaforoMesa.release();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import comum.EstrategiaEspera;
+import comum.Relogio;
+import comum.Topologia;
+import tarefa4.Arbitro;
+import tarefa4.Mesa;
+import tarefa4.MesaAssincrona;
+import tarefa4.MesaCondicoes;
+import tarefa4.MesaLockFree;
+import tarefa4.MesaParticionada;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tarefa 4: Arbitro.pegarGarfos()/soltarGarfos() para cada variante da
+ * Mesa, sem tempo de pensar/comer.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Tarefa4Benchmark {
+
+    @State(Scope.Benchmark)
+    public static class Mesas {
+        @Param({"5", "64", "1024"})
+        public int lugares;
+
+        @Param({"monitor", "entrega", "condicoes", "lockfree", "particionada", "assincrona"})
+        public String modo;
+
+        public Arbitro arbitro;
+
+        @Setup
+        public void setup() {
+            switch (modo) {
+                case "monitor":
+                    arbitro = new Mesa(lugares);
+                    break;
+                case "entrega":
+                    arbitro = new Mesa(Topologia.anel(lugares), Relogio.SISTEMA, EstrategiaEspera.BLOQUEAR, true);
+                    break;
+                case "condicoes":
+                    arbitro = new MesaCondicoes(lugares);
+                    break;
+                case "lockfree":
+                    arbitro = new MesaLockFree(lugares);
+                    break;
+                case "particionada":
+                    arbitro = new MesaParticionada(lugares, Math.max(1, lugares / 4));
+                    break;
+                case "assincrona":
+                    arbitro = new MesaAssincrona(lugares); // pegarGarfos = pedirGarfos().get()
+                    break;
+                default:
+                    throw new IllegalArgumentException("Modo desconhecido: " + modo);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Lugar {
+        int id;
+
+        @Setup
+        public void setup(Mesas mesas, ThreadParams threads) {
+            id = Lugares.idDaThread(mesas.lugares, threads);
+        }
+    }
+
+    @Benchmark
+    public void pegarESoltar(Mesas mesas, Lugar lugar) throws InterruptedException {
+        mesas.arbitro.pegarGarfos(lugar.id);
+        mesas.arbitro.soltarGarfos(lugar.id);
+    }
+}
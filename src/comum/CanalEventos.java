@@ -0,0 +1,85 @@
+package comum;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Buffer circular de registros binários de tamanho fixo, com UM produtor
+ * (a thread do filósofo) e UM consumidor (a escritora do RegistroEventos).
+ *
+ * Cada registro ocupa {@value #CAMPOS} longs: instante (nanoTime), filósofo e
+ * código do evento, e três argumentos numéricos. Gravar não aloca, não
+ * trava e não formata nada. Se o buffer estiver cheio o evento é descartado
+ * e contado, para que o log nunca atrase um filósofo.
+ */
+public final class CanalEventos {
+    static final int CAMPOS = 5;
+
+    private final long[] dados;
+    private final int mascara;
+    private final AtomicLong escrita = new AtomicLong(); // Só o produtor escreve
+    private final AtomicLong leitura = new AtomicLong(); // Só o consumidor escreve
+    private final AtomicLong descartados = new AtomicLong();
+    private volatile boolean fechado = false;
+
+    CanalEventos(int capacidade) {
+        int potencia = Integer.highestOneBit(Math.max(2, capacidade - 1)) << 1;
+        this.dados = new long[potencia * CAMPOS];
+        this.mascara = potencia - 1;
+    }
+
+    /**
+     * Grava um evento. Não bloqueia; retorna false se o buffer estava cheio.
+     */
+    public boolean registrar(TipoEvento tipo, int filosofo, long a, long b, long c) {
+        long w = escrita.get();
+        if (w - leitura.get() > mascara) {
+            descartados.lazySet(descartados.get() + 1);
+            return false;
+        }
+        int base = (int) (w & mascara) * CAMPOS;
+        dados[base] = System.nanoTime();
+        dados[base + 1] = ((long) filosofo << 32) | tipo.ordinal();
+        dados[base + 2] = a;
+        dados[base + 3] = b;
+        dados[base + 4] = c;
+        escrita.lazySet(w + 1); // Publica o registro para o consumidor
+        return true;
+    }
+
+    /**
+     * Copia os registros pendentes para {@code destino} a partir de
+     * {@code posicao} (em registros) e retorna quantos foram copiados.
+     */
+    int drenar(long[] destino, int posicao, int maximo) {
+        long r = leitura.get();
+        long w = escrita.get();
+        int quantidade = (int) Math.min(w - r, maximo);
+        for (int i = 0; i < quantidade; i++) {
+            int origem = (int) ((r + i) & mascara) * CAMPOS;
+            System.arraycopy(dados, origem, destino, (posicao + i) * CAMPOS, CAMPOS);
+        }
+        leitura.lazySet(r + quantidade); // Libera o espaço para o produtor
+        return quantidade;
+    }
+
+    /**
+     * O produtor não vai mais gravar: a escritora drena o que restar e
+     * tira o canal do RegistroEventos. Chamar da thread produtora, depois
+     * do último registrar().
+     */
+    public void fechar() {
+        fechado = true;
+    }
+
+    boolean isFechado() {
+        return fechado;
+    }
+
+    boolean isVazio() {
+        return leitura.get() == escrita.get();
+    }
+
+    long getDescartados() {
+        return descartados.get();
+    }
+}
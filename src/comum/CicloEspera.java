@@ -0,0 +1,48 @@
+package comum;
+
+/**
+ * Ciclo no grafo de espera encontrado pelo RegistroPosse: filosofos[i]
+ * espera o garfo garfos[i], que está com filosofos[i + 1] (o último espera
+ * o primeiro).
+ */
+public final class CicloEspera {
+    private final int[] filosofos;
+    private final int[] garfos;
+    private final long instante;
+
+    CicloEspera(int[] filosofos, int[] garfos, long instante) {
+        this.filosofos = filosofos;
+        this.garfos = garfos;
+        this.instante = instante;
+    }
+
+    public int[] getFilosofos() {
+        return filosofos.clone();
+    }
+
+    public int[] getGarfos() {
+        return garfos.clone();
+    }
+
+    /**
+     * Instante (Relogio do registro, ns) em que a aresta que fechou o ciclo
+     * nasceu.
+     */
+    public long getInstante() {
+        return instante;
+    }
+
+    public int tamanho() {
+        return filosofos.length;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("Ciclo de espera: ");
+        for (int i = 0; i < filosofos.length; i++) {
+            sb.append('F').append(filosofos[i])
+              .append(" -(garfo ").append(garfos[i]).append(")-> ");
+        }
+        return sb.append('F').append(filosofos[0]).toString();
+    }
+}
@@ -0,0 +1,49 @@
+package comum;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Contador de estatística com UM escritor por vez e leitores quaisquer.
+ *
+ * Os contadores dos garfos e filósofos só são alterados por quem segura o
+ * garfo (ou pela thread do próprio filósofo), então não precisam de
+ * synchronized nem de incremento atômico: basta ler o valor, somar e
+ * publicar com escrita release. Os leitores (relatório, testes) usam leitura
+ * acquire e veem sempre um valor já publicado, nunca um long pela metade.
+ *
+ * "Um escritor por vez" também vale quando o escritor muda, desde que a
+ * troca passe por um lock ou semáforo (ex.: o próximo dono do garfo): a
+ * aquisição garante que ele vê a última escrita do dono anterior.
+ *
+ * Com vários escritores simultâneos as somas se perdem; nesse caso use
+ * LongAdder ou AtomicLong.
+ */
+public final class ContadorEscritorUnico {
+    private static final VarHandle VALOR;
+
+    static {
+        try {
+            VALOR = MethodHandles.lookup().findVarHandle(ContadorEscritorUnico.class, "valor", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private long valor;
+
+    /**
+     * Só o escritor atual pode chamar.
+     */
+    public void somar(long delta) {
+        VALOR.setRelease(this, valor + delta);
+    }
+
+    public void incrementar() {
+        somar(1);
+    }
+
+    public long get() {
+        return (long) VALOR.getAcquire(this);
+    }
+}
@@ -0,0 +1,95 @@
+package comum;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Quanto tempo os filósofos pensam e comem: uma faixa [mín, máx) em ms
+ * para cada um, sorteada a cada vez. O padrão é 1-3 segundos para os dois.
+ *
+ * Os filósofos de uma mesa compartilham a mesma instância, e as faixas
+ * podem mudar durante a execução (JMX, ver RegistroJmx): cada sorteio lê os
+ * limites atuais, então a mudança vale a partir da próxima vez que alguém
+ * pensa ou come. Como mínimo e máximo mudam um de cada vez, uma faixa
+ * momentaneamente invertida (máx <= mín) sorteia sempre o mínimo.
+ */
+public class Duracoes implements DuracoesMBean {
+    private volatile int pensarMinMs;
+    private volatile int pensarMaxMs;
+    private volatile int comerMinMs;
+    private volatile int comerMaxMs;
+
+    public Duracoes() {
+        this(1000, 3000, 1000, 3000);
+    }
+
+    public Duracoes(int pensarMinMs, int pensarMaxMs, int comerMinMs, int comerMaxMs) {
+        setPensarMinMs(pensarMinMs);
+        setPensarMaxMs(pensarMaxMs);
+        setComerMinMs(comerMinMs);
+        setComerMaxMs(comerMaxMs);
+    }
+
+    public long sortearPensar() {
+        return sortear(pensarMinMs, pensarMaxMs);
+    }
+
+    public long sortearComer() {
+        return sortear(comerMinMs, comerMaxMs);
+    }
+
+    private static long sortear(int minMs, int maxMs) {
+        return maxMs > minMs ? ThreadLocalRandom.current().nextInt(minMs, maxMs) : minMs;
+    }
+
+    @Override
+    public int getPensarMinMs() {
+        return pensarMinMs;
+    }
+
+    @Override
+    public void setPensarMinMs(int ms) {
+        pensarMinMs = validar(ms);
+    }
+
+    @Override
+    public int getPensarMaxMs() {
+        return pensarMaxMs;
+    }
+
+    @Override
+    public void setPensarMaxMs(int ms) {
+        pensarMaxMs = validar(ms);
+    }
+
+    @Override
+    public int getComerMinMs() {
+        return comerMinMs;
+    }
+
+    @Override
+    public void setComerMinMs(int ms) {
+        comerMinMs = validar(ms);
+    }
+
+    @Override
+    public int getComerMaxMs() {
+        return comerMaxMs;
+    }
+
+    @Override
+    public void setComerMaxMs(int ms) {
+        comerMaxMs = validar(ms);
+    }
+
+    private static int validar(int ms) {
+        if (ms < 0) {
+            throw new IllegalArgumentException("Duração negativa: " + ms);
+        }
+        return ms;
+    }
+
+    @Override
+    public String toString() {
+        return "pensar " + pensarMinMs + "-" + pensarMaxMs + " ms, comer " + comerMinMs + "-" + comerMaxMs + " ms";
+    }
+}
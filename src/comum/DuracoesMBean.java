@@ -0,0 +1,23 @@
+package comum;
+
+/**
+ * Interface JMX de Duracoes: faixas de pensar e comer, em ms.
+ */
+public interface DuracoesMBean {
+
+    int getPensarMinMs();
+
+    void setPensarMinMs(int ms);
+
+    int getPensarMaxMs();
+
+    void setPensarMaxMs(int ms);
+
+    int getComerMinMs();
+
+    void setComerMinMs(int ms);
+
+    int getComerMaxMs();
+
+    void setComerMaxMs(int ms);
+}
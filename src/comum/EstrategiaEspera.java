@@ -0,0 +1,115 @@
+package comum;
+
+/**
+ * Como esperar por um garfo ocupado antes de bloquear a thread.
+ *
+ * Bloquear (wait(), Semaphore.acquire(), park) custa uma ida e volta ao
+ * escalonador: dezenas de microssegundos para dormir e ser acordado. Se as
+ * refeições são curtas, o garfo volta antes disso e compensa GIRAR um pouco,
+ * testando de novo a cada rodada. Se são longas, girar só queima CPU.
+ *
+ * FASES:
+ * ------
+ *   1. giros : Thread.onSpinWait() e tenta de novo (não cede a CPU)
+ *   2. yields: Thread.yield() e tenta de novo (cede a vez, sem dormir)
+ *   3. bloqueia do jeito de quem chama (wait(), acquire(), park)
+ *
+ * Predefinidas:
+ *   BLOQUEAR  0 giros, 0 yields: bloqueia já (o comportamento original)
+ *   GIRAR     gira para sempre: nunca bloqueia (só com CPUs sobrando)
+ *   HIBRIDA   {@value #GIROS_PADRAO} giros e {@value #YIELDS_PADRAO} yields, depois bloqueia
+ *
+ * Cada mesa recebe a sua estratégia no construtor; nos Main ela vem de
+ * -Dfilosofos.espera=bloquear|girar|hibrida[:giros[:yields]].
+ * O ponto em que girar deixa de compensar depende da duração da refeição:
+ * ver benchmark.EsperaBenchmark.
+ */
+public final class EstrategiaEspera {
+    public static final String PROPRIEDADE = "filosofos.espera";
+    public static final int GIROS_PADRAO = 100;
+    public static final int YIELDS_PADRAO = 50;
+
+    public static final EstrategiaEspera BLOQUEAR = new EstrategiaEspera("bloquear", 0, 0);
+    public static final EstrategiaEspera GIRAR = new EstrategiaEspera("girar", Integer.MAX_VALUE, 0);
+    public static final EstrategiaEspera HIBRIDA = hibrida(GIROS_PADRAO, YIELDS_PADRAO);
+
+    private final String nome;
+    private final int giros;
+    private final int yields;
+
+    private EstrategiaEspera(String nome, int giros, int yields) {
+        this.nome = nome;
+        this.giros = giros;
+        this.yields = yields;
+    }
+
+    public static EstrategiaEspera hibrida(int giros, int yields) {
+        if (giros < 0 || yields < 0) {
+            throw new IllegalArgumentException("Giros e yields não podem ser negativos: " + giros + ", " + yields);
+        }
+        return new EstrategiaEspera("hibrida:" + giros + ":" + yields, giros, yields);
+    }
+
+    /**
+     * Interpreta "bloquear", "girar" ou "hibrida[:giros[:yields]]".
+     */
+    public static EstrategiaEspera de(String especificacao) {
+        String[] partes = especificacao.split(":");
+        switch (partes[0]) {
+            case "bloquear":
+                return BLOQUEAR;
+            case "girar":
+                return GIRAR;
+            case "hibrida": {
+                int giros = partes.length > 1 ? Integer.parseInt(partes[1]) : GIROS_PADRAO;
+                int yields = partes.length > 2 ? Integer.parseInt(partes[2]) : YIELDS_PADRAO;
+                return hibrida(giros, yields);
+            }
+            default:
+                throw new IllegalArgumentException("Estratégia de espera desconhecida: " + especificacao
+                        + " (use bloquear, girar ou hibrida[:giros[:yields]])");
+        }
+    }
+
+    /**
+     * Lê -Dfilosofos.espera; sem a propriedade, usa o padrão da mesa.
+     */
+    public static EstrategiaEspera dePropriedades(EstrategiaEspera padrao) {
+        String especificacao = System.getProperty(PROPRIEDADE);
+        return especificacao == null ? padrao : de(especificacao);
+    }
+
+    /**
+     * Uma rodada de espera ativa, antes de quem chama tentar de novo.
+     *
+     * @param tentativa quantas rodadas já foram feitas nesta espera (0, 1, ...)
+     * @return false quando as fases ativas acabaram e quem chama deve bloquear
+     * @throws InterruptedException se a thread foi interrompida (limpa o sinal)
+     */
+    public boolean girar(int tentativa) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        if (tentativa < giros) {
+            Thread.onSpinWait();
+            return true;
+        }
+        if (tentativa - giros < yields) {
+            Thread.yield();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Rodadas ativas antes de bloquear (Integer.MAX_VALUE em GIRAR).
+     */
+    public int getRodadasAtivas() {
+        return (int) Math.min((long) giros + yields, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public String toString() {
+        return nome;
+    }
+}
@@ -0,0 +1,47 @@
+package comum;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento do Java Flight Recorder: o filósofo conseguiu o(s) garfo(s). A
+ * duração do evento é a espera.
+ *
+ * Uso (o mesmo do JDK para eventos com duração):
+ *   EventoGarfosPegos evento = new EventoGarfosPegos();
+ *   evento.begin();
+ *   ... espera ...
+ *   if (evento.shouldCommit()) { preencher campos; evento.commit(); }
+ *
+ * Sem gravação ativa, begin() e shouldCommit() não fazem nada e o objeto,
+ * que não sai do método, costuma nem ser alocado; os campos (inclusive a
+ * String dos garfos) só são preenchidos quando o evento vai ser gravado.
+ */
+@Name("filosofos.GarfosPegos")
+@Label("Garfos pegos")
+@Category({"Filósofos", "Garfos"})
+@Description("Espera do filósofo até ter o(s) garfo(s)")
+public class EventoGarfosPegos extends Event {
+    @Label("Filósofo")
+    public int filosofo;
+
+    @Label("Garfos")
+    public String garfos;
+
+    /**
+     * Garfos no formato dos campos "garfos": IDs separados por vírgula.
+     */
+    public static String descrever(int[] ids) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < ids.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(ids[i]);
+        }
+        return sb.toString();
+    }
+}
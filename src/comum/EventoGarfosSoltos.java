@@ -0,0 +1,29 @@
+package comum;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Evento do Java Flight Recorder: o filósofo soltou o(s) garfo(s), com o
+ * tempo que os segurou. Mesmo custo de EventoGarfosPegos: só
+ * shouldCommit() quando não há gravação.
+ */
+@Name("filosofos.GarfosSoltos")
+@Label("Garfos soltos")
+@Category({"Filósofos", "Garfos"})
+@Description("Filósofo soltou o(s) garfo(s) depois de segurá-los")
+public class EventoGarfosSoltos extends Event {
+    @Label("Filósofo")
+    public int filosofo;
+
+    @Label("Garfos")
+    public String garfos;
+
+    @Label("Tempo segurando")
+    @Timespan(Timespan.NANOSECONDS)
+    public long segurado;
+}
@@ -0,0 +1,147 @@
+package comum;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Publica as métricas de uma FonteMetricas em /metrics, no formato texto
+ * do Prometheus, com o servidor HTTP do próprio JDK (sem dependências).
+ *
+ * Métricas:
+ *   filosofos_refeicoes_total{filosofo}        counter
+ *   filosofos_espera_segundos{filosofo}        summary (p50, p90, p99)
+ *   filosofos_garfo_em_uso_segundos_total{garfo} counter (rate() = utilização)
+ *   filosofos_fila_espera                      gauge
+ *
+ * A coleta só lê o que a fonte já publicou (ver FonteMetricas), então um
+ * scrape nunca disputa o monitor ou os locks da mesa. O servidor escuta só
+ * no loopback e atende numa única thread daemon.
+ *
+ * Ligado com -Dfilosofos.metricas=PORTA (0: porta livre qualquer).
+ */
+public final class ExportadorMetricas {
+    public static final String PROPRIEDADE = "filosofos.metricas";
+    public static final String CAMINHO = "/metrics";
+
+    private static final double[] PERCENTIS = {50, 90, 99};
+    private static final String[] QUANTIS = {"0.5", "0.9", "0.99"};
+
+    private final FonteMetricas fonte;
+    private final HttpServer servidor;
+    private final ExecutorService executor;
+
+    public ExportadorMetricas(FonteMetricas fonte, int porta) throws IOException {
+        this.fonte = fonte;
+        this.servidor = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), porta), 0);
+        this.executor = Executors.newSingleThreadExecutor(tarefa -> {
+            Thread thread = new Thread(tarefa, "exportador-metricas");
+            thread.setDaemon(true);
+            return thread;
+        });
+        servidor.setExecutor(executor);
+        servidor.createContext(CAMINHO, this::responder);
+    }
+
+    /**
+     * Exportador já iniciado na porta de -Dfilosofos.metricas, ou null se a
+     * propriedade não foi dada (ou a porta não pôde ser aberta).
+     */
+    public static ExportadorMetricas dePropriedades(FonteMetricas fonte) {
+        Integer porta = Integer.getInteger(PROPRIEDADE);
+        if (porta == null) {
+            return null;
+        }
+        try {
+            ExportadorMetricas exportador = new ExportadorMetricas(fonte, porta);
+            exportador.iniciar();
+            System.out.println("Métricas em http://localhost:" + exportador.getPorta() + CAMINHO);
+            return exportador;
+        } catch (IOException e) {
+            System.err.println("Não foi possível abrir a porta " + porta + " para as métricas: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public void iniciar() {
+        servidor.start();
+    }
+
+    public void parar() {
+        servidor.stop(0);
+        executor.shutdownNow();
+    }
+
+    public int getPorta() {
+        return servidor.getAddress().getPort();
+    }
+
+    private void responder(HttpExchange troca) throws IOException {
+        try {
+            byte[] corpo = formatar(fonte).getBytes(StandardCharsets.UTF_8);
+            troca.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            troca.sendResponseHeaders(200, corpo.length);
+            try (OutputStream saida = troca.getResponseBody()) {
+                saida.write(corpo);
+            }
+        } finally {
+            troca.close();
+        }
+    }
+
+    /**
+     * Texto que o /metrics devolve agora.
+     */
+    public static String formatar(FonteMetricas fonte) {
+        int numFilosofos = fonte.getNumFilosofos();
+        int numGarfos = fonte.getNumGarfos();
+        StringBuilder sb = new StringBuilder(256 + 200 * numFilosofos + 64 * numGarfos);
+
+        cabecalho(sb, "filosofos_refeicoes_total", "Refeições terminadas por filósofo.", "counter");
+        for (int i = 0; i < numFilosofos; i++) {
+            sb.append("filosofos_refeicoes_total{filosofo=\"").append(i).append("\"} ")
+              .append(fonte.getRefeicoes(i)).append('\n');
+        }
+
+        cabecalho(sb, "filosofos_espera_segundos", "Espera até ter todos os garfos.", "summary");
+        for (int i = 0; i < numFilosofos; i++) {
+            Histograma histograma = fonte.getHistogramaEspera(i);
+            for (int q = 0; q < PERCENTIS.length; q++) {
+                sb.append("filosofos_espera_segundos{filosofo=\"").append(i)
+                  .append("\",quantile=\"").append(QUANTIS[q]).append("\"} ")
+                  .append(segundos(histograma.getPercentil(PERCENTIS[q]))).append('\n');
+            }
+            sb.append("filosofos_espera_segundos_sum{filosofo=\"").append(i).append("\"} ")
+              .append(segundos(histograma.getSoma())).append('\n');
+            sb.append("filosofos_espera_segundos_count{filosofo=\"").append(i).append("\"} ")
+              .append(histograma.getTotal()).append('\n');
+        }
+
+        cabecalho(sb, "filosofos_garfo_em_uso_segundos_total", "Tempo total com o garfo na mão de alguém.", "counter");
+        for (int i = 0; i < numGarfos; i++) {
+            sb.append("filosofos_garfo_em_uso_segundos_total{garfo=\"").append(i).append("\"} ")
+              .append(segundos(fonte.getTempoGarfoEmUso(i))).append('\n');
+        }
+
+        cabecalho(sb, "filosofos_fila_espera", "Filósofos esperando garfos agora.", "gauge");
+        sb.append("filosofos_fila_espera ").append(fonte.getFilaEspera()).append('\n');
+        return sb.toString();
+    }
+
+    private static void cabecalho(StringBuilder sb, String nome, String ajuda, String tipo) {
+        sb.append("# HELP ").append(nome).append(' ').append(ajuda).append('\n');
+        sb.append("# TYPE ").append(nome).append(' ').append(tipo).append('\n');
+    }
+
+    // Double.toString não depende do Locale (String.format daria vírgula em pt-BR)
+    private static String segundos(long nanos) {
+        return Double.toString(nanos / 1e9);
+    }
+}
@@ -0,0 +1,78 @@
+package comum;
+
+import java.lang.reflect.Method;
+
+/**
+ * Cria as threads dos filósofos em todas as Tarefas.
+ *
+ * Modo escolhido pela propriedade de sistema "filosofos.threads":
+ *   - plataforma (padrão): new Thread(...), uma thread do SO por filósofo
+ *   - virtual: threads virtuais (Java 21+), que permitem mesas com centenas
+ *     de milhares de filósofos sem esgotar memória de pilha
+ *
+ * Ex.: java -Dfilosofos.threads=virtual -cp src tarefa2.Main
+ *
+ * A API de threads virtuais é acessada por reflexão para que o projeto
+ * continue compilando com JDK 11+. Se não estiver disponível, usa threads
+ * de plataforma e avisa uma única vez.
+ *
+ * ATENÇÃO (pinning): até o Java 23, uma thread virtual que bloqueia dentro
+ * de synchronized/wait() prende a thread carregadora. Por isso a Tarefa 2
+ * usa ReentrantLock nos garfos e, na Tarefa 4, o modo "condicoes" deve ser
+ * preferido ao "monitor". A Tarefa 1 mantém synchronized de propósito.
+ */
+public final class FabricaThreads {
+    public static final String PROPRIEDADE = "filosofos.threads";
+
+    private static final Method START_VIRTUAL_THREAD = procurarThreadsVirtuais();
+    private static volatile boolean avisou = false;
+
+    private FabricaThreads() {
+    }
+
+    private static Method procurarThreadsVirtuais() {
+        try {
+            return Thread.class.getMethod("startVirtualThread", Runnable.class);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    public static boolean isVirtualDisponivel() {
+        return START_VIRTUAL_THREAD != null;
+    }
+
+    /**
+     * Indica se o modo virtual foi pedido E está disponível nesta JVM.
+     */
+    public static boolean isModoVirtual() {
+        return "virtual".equalsIgnoreCase(System.getProperty(PROPRIEDADE, "plataforma"))
+                && isVirtualDisponivel();
+    }
+
+    public static String getDescricaoModo() {
+        return isModoVirtual() ? "threads virtuais" : "threads de plataforma";
+    }
+
+    /**
+     * Cria e inicia a thread do filósofo no modo configurado.
+     */
+    public static Thread iniciar(Runnable tarefa) {
+        if ("virtual".equalsIgnoreCase(System.getProperty(PROPRIEDADE, "plataforma"))) {
+            if (isVirtualDisponivel()) {
+                try {
+                    return (Thread) START_VIRTUAL_THREAD.invoke(null, tarefa);
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException("Falha ao criar thread virtual", e);
+                }
+            }
+            if (!avisou) {
+                avisou = true;
+                System.out.println("⚠ Threads virtuais exigem Java 21+; usando threads de plataforma.");
+            }
+        }
+        Thread thread = new Thread(tarefa);
+        thread.start();
+        return thread;
+    }
+}
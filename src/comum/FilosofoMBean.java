@@ -0,0 +1,16 @@
+package comum;
+
+/**
+ * Interface JMX comum aos filósofos com thread própria (Tarefas 2-4).
+ */
+public interface FilosofoMBean {
+
+    int getId();
+
+    int getContadorRefeicoes();
+
+    /**
+     * Tempo médio de espera em ms (com fração).
+     */
+    double getTempoMedioEspera();
+}
@@ -0,0 +1,35 @@
+package comum;
+
+/**
+ * O que o ExportadorMetricas publica de uma mesa, qualquer que seja a
+ * estratégia (garfos com lock, semáforos, monitor, CAS...).
+ *
+ * Todos os métodos são chamados pela thread do servidor HTTP enquanto os
+ * filósofos comem, então NÃO podem travar a mesa: só leem contadores já
+ * publicados (ContadorEscritorUnico, atômicos, Histograma). O valor pode
+ * estar uma refeição atrasado, mas a coleta nunca faz um filósofo esperar.
+ */
+public interface FonteMetricas {
+
+    int getNumFilosofos();
+
+    int getNumGarfos();
+
+    long getRefeicoes(int idFilosofo);
+
+    /**
+     * Esperas do filósofo até ter todos os garfos (ns).
+     */
+    Histograma getHistogramaEspera(int idFilosofo);
+
+    /**
+     * Tempo total (ns) em que o garfo esteve na mão de alguém; a taxa de
+     * utilização é a derivada disto.
+     */
+    long getTempoGarfoEmUso(int idGarfo);
+
+    /**
+     * Filósofos esperando garfos (ou admissão) neste instante.
+     */
+    int getFilaEspera();
+}
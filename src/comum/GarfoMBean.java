@@ -0,0 +1,18 @@
+package comum;
+
+/**
+ * Interface JMX comum aos garfos das Tarefas 2 e 3. Só leituras sem lock.
+ */
+public interface GarfoMBean {
+
+    int getId();
+
+    int getVezesUsado();
+
+    /**
+     * Tempo total (ns) em que o garfo esteve em uso.
+     */
+    long getTempoTotalEmUso();
+
+    int getFilaEspera();
+}
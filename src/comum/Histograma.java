@@ -0,0 +1,265 @@
+package comum;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Histograma de latências com baldes logarítmicos (estilo HdrHistogram).
+ *
+ * A média esconde a cauda: um filósofo que espera 30 s de vez em quando
+ * quase não altera o tempo médio de espera. Este histograma guarda a
+ * distribuição inteira e responde p50/p90/p99/p99.9/máx.
+ *
+ * BALDES:
+ * -------
+ * Valores de 0 a 31 têm balde exato. Acima disso, cada faixa [2^e, 2^(e+1))
+ * é dividida em 16 sub-baldes lineares, o que dá erro relativo de no
+ * máximo ~6% com {@value #NUM_BALDES} baldes. Valores acima de
+ * {@value #VALOR_MAXIMO} são truncados nele.
+ *
+ * MEMÓRIA:
+ * --------
+ * Há um histograma por filósofo e por garfo, então o tamanho conta: com um
+ * milhão de lugares, cada KB vira um GB. Os baldes são guardados em BANDAS
+ * de 16 contadores (uma por faixa [2^e, 2^(e+1))), alocadas só quando a
+ * primeira amostra cai nelas. Vazio, o histograma ocupa ~300 bytes (a
+ * tabela de {@value #NUM_BANDAS} referências mais os contadores); cada
+ * banda usada soma ~160 bytes. Como as esperas de um filósofo costumam
+ * ocupar poucas faixas, na prática são 1-2 KB por instância; com todas as
+ * bandas, ~6 KB (antes eram ~9 KB fixos, alocados já no construtor).
+ *
+ * CUSTO:
+ * ------
+ * registrar() só aloca na primeira amostra de cada banda: calcula o índice
+ * com numberOfLeadingZeros e incrementa um AtomicLongArray. É seguro com
+ * vários escritores (ex.: os dois vizinhos que disputam um garfo): a banda
+ * nova é publicada por CAS e quem perder a corrida usa a do vencedor.
+ *
+ * A unidade é de quem registra; o histograma só vê números. Garfos e
+ * Mesas registram em nanossegundos (ver Relogio), o que cobre esperas de
+ * até ~18 minutos antes do truncamento.
+ */
+public class Histograma {
+    private static final int BITS_SUB_BALDES = 4;
+    private static final int SUB_BALDES = 1 << BITS_SUB_BALDES; // 16
+    private static final int BITS_VALOR = 40;
+    public static final long VALOR_MAXIMO = (1L << BITS_VALOR) - 1;
+    // Maior deslocamento possível é BITS_VALOR - 1 - BITS_SUB_BALDES
+    public static final int NUM_BALDES = (BITS_VALOR - 1 - BITS_SUB_BALDES) * SUB_BALDES + 2 * SUB_BALDES;
+    public static final int NUM_BANDAS = NUM_BALDES / SUB_BALDES;
+
+    // Banda b guarda os baldes [b * SUB_BALDES, (b + 1) * SUB_BALDES); null = vazia
+    private final AtomicReferenceArray<AtomicLongArray> bandas = new AtomicReferenceArray<>(NUM_BANDAS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong soma = new AtomicLong();
+    private final AtomicLong maximo = new AtomicLong();
+
+    /**
+     * Registra uma amostra. Valores negativos contam como 0.
+     */
+    public void registrar(long valor) {
+        long v = Math.max(0, Math.min(valor, VALOR_MAXIMO));
+        int i = indice(v);
+        banda(i / SUB_BALDES).incrementAndGet(i % SUB_BALDES);
+        total.incrementAndGet();
+        soma.addAndGet(v);
+        long atual;
+        while (v > (atual = maximo.get()) && !maximo.compareAndSet(atual, v)) {
+            // Outro escritor mudou o máximo; tenta de novo
+        }
+    }
+
+    /**
+     * A banda, alocando-a se ainda não existir.
+     */
+    private AtomicLongArray banda(int b) {
+        AtomicLongArray banda = bandas.get(b);
+        if (banda == null) {
+            AtomicLongArray nova = new AtomicLongArray(SUB_BALDES);
+            banda = bandas.compareAndSet(b, null, nova) ? nova : bandas.get(b);
+        }
+        return banda;
+    }
+
+    static int indice(long valor) {
+        if (valor < 2 * SUB_BALDES) {
+            return (int) valor;
+        }
+        int expoente = 63 - Long.numberOfLeadingZeros(valor);
+        int deslocamento = expoente - BITS_SUB_BALDES;
+        int sub = (int) (valor >>> deslocamento); // Entre SUB_BALDES e 2 * SUB_BALDES - 1 (16 a 31)
+        return deslocamento * SUB_BALDES + sub;
+    }
+
+    /**
+     * Maior valor que cai no mesmo balde do índice (limite superior).
+     */
+    static long limiteSuperior(int indice) {
+        if (indice < 2 * SUB_BALDES) {
+            return indice;
+        }
+        int deslocamento = indice / SUB_BALDES - 1;
+        long sub = indice % SUB_BALDES + SUB_BALDES;
+        return ((sub + 1) << deslocamento) - 1;
+    }
+
+    /**
+     * Quantas das NUM_BANDAS bandas já foram alocadas (memória em uso).
+     */
+    public int getBandasAlocadas() {
+        int alocadas = 0;
+        for (int b = 0; b < NUM_BANDAS; b++) {
+            if (bandas.get(b) != null) {
+                alocadas++;
+            }
+        }
+        return alocadas;
+    }
+
+    public long getTotal() {
+        return total.get();
+    }
+
+    public long getMaximo() {
+        return maximo.get();
+    }
+
+    /**
+     * Soma das amostras (já truncadas). Com getTotal() permite calcular a
+     * média de uma janela sem zerar o histograma.
+     */
+    public long getSoma() {
+        return soma.get();
+    }
+
+    public double getMedia() {
+        long n = total.get();
+        return n > 0 ? (double) soma.get() / n : 0;
+    }
+
+    /**
+     * Valor abaixo do qual estão {@code percentil}% das amostras
+     * (com a precisão do balde). Retorna 0 se não houver amostras.
+     */
+    public long getPercentil(double percentil) {
+        long n = total.get();
+        if (n == 0) {
+            return 0;
+        }
+        long alvo = Math.max(1, (long) Math.ceil(n * percentil / 100.0));
+        long acumulado = 0;
+        for (int b = 0; b < NUM_BANDAS; b++) {
+            AtomicLongArray banda = bandas.get(b);
+            if (banda == null) {
+                continue;
+            }
+            for (int j = 0; j < SUB_BALDES; j++) {
+                acumulado += banda.get(j);
+                if (acumulado >= alvo) {
+                    return Math.min(limiteSuperior(b * SUB_BALDES + j), maximo.get());
+                }
+            }
+        }
+        return maximo.get();
+    }
+
+    /**
+     * Soma as amostras de outro histograma neste (ex.: juntar todos os filósofos).
+     */
+    public void adicionar(Histograma outro) {
+        for (int b = 0; b < NUM_BANDAS; b++) {
+            AtomicLongArray origem = outro.bandas.get(b);
+            if (origem == null) {
+                continue;
+            }
+            for (int j = 0; j < SUB_BALDES; j++) {
+                long c = origem.get(j);
+                if (c != 0) {
+                    banda(b).addAndGet(j, c);
+                }
+            }
+        }
+        total.addAndGet(outro.total.get());
+        soma.addAndGet(outro.soma.get());
+        long atual;
+        long max = outro.maximo.get();
+        while (max > (atual = maximo.get()) && !maximo.compareAndSet(atual, max)) {
+            // Tenta de novo
+        }
+    }
+
+    /**
+     * Zera todas as amostras (início de um novo intervalo de relatório).
+     */
+    public void zerar() {
+        for (int b = 0; b < NUM_BANDAS; b++) {
+            AtomicLongArray banda = bandas.get(b);
+            if (banda == null) {
+                continue;
+            }
+            for (int j = 0; j < SUB_BALDES; j++) {
+                banda.set(j, 0);
+            }
+        }
+        total.set(0);
+        soma.set(0);
+        maximo.set(0);
+    }
+
+    /**
+     * Copia o conteúdo atual e zera este histograma. Amostras registradas
+     * durante a cópia podem cair em qualquer um dos dois intervalos.
+     */
+    public Histograma copiarEZerar() {
+        Histograma copia = new Histograma();
+        for (int b = 0; b < NUM_BANDAS; b++) {
+            AtomicLongArray banda = bandas.get(b);
+            if (banda == null) {
+                continue;
+            }
+            for (int j = 0; j < SUB_BALDES; j++) {
+                long c = banda.getAndSet(j, 0);
+                if (c != 0) {
+                    copia.banda(b).set(j, c);
+                }
+            }
+        }
+        copia.total.set(total.getAndSet(0));
+        copia.soma.set(soma.getAndSet(0));
+        copia.maximo.set(maximo.getAndSet(0));
+        return copia;
+    }
+
+    /**
+     * Junta vários histogramas num novo, sem alterar os originais.
+     */
+    public static Histograma juntar(Iterable<Histograma> histogramas) {
+        Histograma resultado = new Histograma();
+        for (Histograma h : histogramas) {
+            resultado.adicionar(h);
+        }
+        return resultado;
+    }
+
+    /**
+     * Resumo de uma linha: "p50=... p90=... p99=... p99.9=... máx=...".
+     */
+    public String resumo(String unidade) {
+        return String.format("p50=%d%s p90=%d%s p99=%d%s p99.9=%d%s máx=%d%s",
+                getPercentil(50), unidade, getPercentil(90), unidade,
+                getPercentil(99), unidade, getPercentil(99.9), unidade,
+                getMaximo(), unidade);
+    }
+
+    /**
+     * Como resumo(), para histogramas registrados em nanossegundos: exibe
+     * em ms com três casas, sem perder as esperas abaixo de 1 ms.
+     */
+    public String resumoNanosEmMs() {
+        return String.format("p50=%.3fms p90=%.3fms p99=%.3fms p99.9=%.3fms máx=%.3fms",
+                Relogio.emMs(getPercentil(50)), Relogio.emMs(getPercentil(90)),
+                Relogio.emMs(getPercentil(99)), Relogio.emMs(getPercentil(99.9)),
+                Relogio.emMs(getMaximo()));
+    }
+}
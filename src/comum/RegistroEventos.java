@@ -0,0 +1,157 @@
+package comum;
+
+import java.io.PrintStream;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Log assíncrono dos filósofos.
+ *
+ * Antes, cada log() formatava a data com SimpleDateFormat, concatenava
+ * strings e chamava System.out.println, que trava o stdout — várias vezes
+ * por refeição. O log serializava os filósofos mais que os garfos.
+ *
+ * Agora cada filósofo grava registros binários no seu próprio CanalEventos
+ * e uma única thread escritora (daemon) drena todos os canais, ordena o lote
+ * pelo instante, formata e imprime tudo de uma vez.
+ *
+ * O filósofo abre o canal no primeiro evento e o fecha quando o run()
+ * termina; a escritora drena o canal fechado e o descarta. Assim cada
+ * drenagem só percorre os filósofos vivos, e mesas (ou testes) que já
+ * acabaram não deixam buffers para trás.
+ *
+ * Nível escolhido pela propriedade de sistema "filosofos.log":
+ *   - eventos (padrão): imprime todos os eventos
+ *   - desligado: nada é gravado (benchmarks, mesas muito grandes)
+ *
+ * Ex.: java -Dfilosofos.log=desligado -cp src tarefa4.Main
+ */
+public final class RegistroEventos {
+    public static final String PROPRIEDADE = "filosofos.log";
+    private static final int CAPACIDADE_CANAL = 256;
+    private static final int MAXIMO_LOTE = 1 << 16;
+    private static final long PAUSA_NS = 20_000_000; // 20 ms entre lotes
+
+    private static final boolean ATIVO =
+            !"desligado".equalsIgnoreCase(System.getProperty(PROPRIEDADE, "eventos"));
+
+    private static final Queue<CanalEventos> canais = new ConcurrentLinkedQueue<>();
+    private static final Object drenagem = new Object();
+    private static final long[] lote = new long[MAXIMO_LOTE * CanalEventos.CAMPOS];
+    private static final long[] ordem = new long[MAXIMO_LOTE];
+    private static final SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss.SSS");
+    private static final StringBuilder texto = new StringBuilder();
+    private static final PrintStream saida = System.out;
+    // Referência para converter nanoTime em hora do relógio só na formatação
+    private static final long BASE_NANOS = System.nanoTime();
+    private static final long BASE_MILLIS = System.currentTimeMillis();
+    private static long descartadosInformados = 0;
+    private static long descartadosFechados = 0; // Dos canais já descartados
+    private static Thread escritora;
+
+    private RegistroEventos() {
+    }
+
+    public static boolean isAtivo() {
+        return ATIVO;
+    }
+
+    /**
+     * Cria o canal de um filósofo. Deve ser usado por uma única thread, que
+     * o fecha (CanalEventos.fechar()) quando terminar. Retorna null se o
+     * log estiver desligado.
+     */
+    public static CanalEventos abrirCanal() {
+        if (!ATIVO) {
+            return null;
+        }
+        CanalEventos canal = new CanalEventos(CAPACIDADE_CANAL);
+        canais.add(canal);
+        iniciarEscritora();
+        return canal;
+    }
+
+    private static synchronized void iniciarEscritora() {
+        if (escritora != null) {
+            return;
+        }
+        escritora = new Thread(() -> {
+            while (true) {
+                if (descarregar() == 0) {
+                    LockSupport.parkNanos(PAUSA_NS);
+                }
+            }
+        }, "registro-eventos");
+        escritora.setDaemon(true);
+        escritora.start();
+    }
+
+    /**
+     * Drena, formata e imprime o que estiver pendente em todos os canais.
+     * Os Main chamam antes de imprimir as estatísticas finais, para que o
+     * log não se misture com o relatório.
+     *
+     * @return número de eventos impressos
+     */
+    public static int descarregar() {
+        if (!ATIVO) {
+            return 0;
+        }
+        synchronized (drenagem) {
+            int quantidade = 0;
+            long descartados = descartadosFechados;
+            for (Iterator<CanalEventos> it = canais.iterator(); it.hasNext(); ) {
+                CanalEventos canal = it.next();
+                // Lido antes de drenar: se já estava fechado, a drenagem vê o último evento
+                boolean fechado = canal.isFechado();
+                quantidade += canal.drenar(lote, quantidade, MAXIMO_LOTE - quantidade);
+                descartados += canal.getDescartados();
+                if (fechado && canal.isVazio()) {
+                    descartadosFechados += canal.getDescartados();
+                    it.remove();
+                }
+            }
+
+            // Ordena por instante: chave = (µs desde a base << 16) | índice no lote
+            for (int i = 0; i < quantidade; i++) {
+                long micros = (lote[i * CanalEventos.CAMPOS] - BASE_NANOS) / 1_000;
+                ordem[i] = (micros << 16) | i;
+            }
+            Arrays.sort(ordem, 0, quantidade);
+
+            texto.setLength(0);
+            for (int k = 0; k < quantidade; k++) {
+                int base = (int) (ordem[k] & 0xFFFF) * CanalEventos.CAMPOS;
+                long instante = BASE_MILLIS + (lote[base] - BASE_NANOS) / 1_000_000;
+                int filosofo = (int) (lote[base + 1] >>> 32);
+                TipoEvento tipo = TipoEvento.doCodigo((int) lote[base + 1]);
+                texto.append('[').append(timeFormat.format(new Date(instante))).append("] Filósofo ")
+                     .append(filosofo).append(' ')
+                     .append(tipo.formatar(lote[base + 2], lote[base + 3], lote[base + 4]))
+                     .append(System.lineSeparator());
+            }
+            if (descartados > descartadosInformados) {
+                texto.append("[LOG] ").append(descartados - descartadosInformados)
+                     .append(" evento(s) descartado(s) por buffer cheio").append(System.lineSeparator());
+                descartadosInformados = descartados;
+            }
+            if (texto.length() > 0) {
+                saida.print(texto);
+                saida.flush();
+            }
+            return quantidade;
+        }
+    }
+
+    /**
+     * Canais ainda registrados (abertos, ou fechados e ainda não drenados).
+     */
+    public static int getNumCanais() {
+        return canais.size();
+    }
+}
@@ -0,0 +1,52 @@
+package comum;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+/**
+ * Registra MBeans da simulação no servidor da plataforma, sob o domínio
+ * "filosofos" (ex.: filosofos:type=Garfo,id=3), para ver contadores e
+ * ajustar parâmetros com jconsole/VisualVM sem reiniciar.
+ *
+ * Desligado por padrão (uma mesa de milhares de lugares teria milhares de
+ * MBeans); ligado com -Dfilosofos.jmx=ligado.
+ */
+public final class RegistroJmx {
+    public static final String PROPRIEDADE = "filosofos.jmx";
+    public static final String DOMINIO = "filosofos";
+
+    private RegistroJmx() {
+    }
+
+    public static boolean isLigado() {
+        return "ligado".equalsIgnoreCase(System.getProperty(PROPRIEDADE, "desligado"));
+    }
+
+    /**
+     * Registra o objeto com a interface dada, substituindo um MBean de mesmo
+     * nome (execuções seguidas na mesma JVM). Falhas só geram aviso: JMX é
+     * diagnóstico e não deve derrubar a simulação.
+     *
+     * @param id identificador dentro do tipo, ou null para um MBean único
+     */
+    public static <T> void registrar(String tipo, Object id, T objeto, Class<T> interfaceMBean) {
+        try {
+            MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+            ObjectName nome = nome(tipo, id);
+            if (servidor.isRegistered(nome)) {
+                servidor.unregisterMBean(nome);
+            }
+            servidor.registerMBean(new StandardMBean(objeto, interfaceMBean), nome);
+        } catch (JMException e) {
+            System.err.println("Não foi possível registrar o MBean " + tipo + ": " + e.getMessage());
+        }
+    }
+
+    public static ObjectName nome(String tipo, Object id) throws JMException {
+        return new ObjectName(DOMINIO + ":type=" + tipo + (id == null ? "" : ",id=" + id));
+    }
+}
@@ -0,0 +1,319 @@
+package comum;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Registro de posse dos garfos: quem segura cada garfo (e desde quando) e
+ * quem espera por ele, informado por qualquer implementação de garfo ou
+ * mesa (monitor, ReentrantLock, Semaphore, boolean[]...).
+ *
+ * Sobre ele roda um detector de ciclos INCREMENTAL. No grafo de espera há
+ * uma aresta F -> H quando F espera um garfo que H segura. Ciclo só pode
+ * surgir quando uma aresta nasce:
+ * - F passa a esperar um garfo que tem dono H, ou
+ * - H pega um garfo que outros já esperavam.
+ * Só então o detector procura, a partir de H, um caminho de volta até quem
+ * ganhou a aresta. A busca percorre apenas o que é alcançável de H (na
+ * prática, a vizinhança que acabou de mudar), nunca a mesa toda, e as marcas
+ * de visita usam época, então não há array para limpar a cada busca.
+ * Soltar ou desistir só remove arestas e não dispara busca nenhuma.
+ *
+ * Para o grafo não mentir, a implementação informa adquiriu() DEPOIS de
+ * obter o garfo e liberou() ANTES de soltá-lo: assim toda aresta F -> H
+ * aponta para quem realmente segura o garfo, e todo ciclo é um deadlock.
+ *
+ * Thread-safe com um único lock; os ouvintes são chamados fora dele. É uma
+ * ferramenta de diagnóstico: desligada por padrão, ligada com
+ * -Dfilosofos.posse=ligado (dePropriedades).
+ */
+public final class RegistroPosse {
+    public static final String PROPRIEDADE = "filosofos.posse";
+    /** Dono de um garfo pego sem identificar o filósofo (não gera arestas). */
+    public static final int DESCONHECIDO = -1;
+    public static final int LIVRE = -2;
+
+    /**
+     * Avisado a cada ciclo novo, fora do lock do registro.
+     */
+    public interface Ouvinte {
+        void cicloDetectado(CicloEspera ciclo);
+    }
+
+    private final Relogio relogio;
+    private final int[] dono;
+    private final long[] donoDesde;
+    private final int[][] esperando; // Por garfo: quem espera
+    private final int[] numEsperando;
+    private final int[][] aguardados; // Por filósofo: garfos que espera
+    private final int[] numAguardados;
+    private final long[] esperandoDesde;
+    // Busca em profundidade sem alocação: marca por época, pai e garfo da aresta
+    private final int[] visita;
+    private final int[] pai;
+    private final int[] garfoPai;
+    private final int[] pilha;
+    private int epoca = 0;
+    private final List<CicloEspera> ciclos = new CopyOnWriteArrayList<>();
+    private final List<Ouvinte> ouvintes = new CopyOnWriteArrayList<>();
+
+    public RegistroPosse(int numFilosofos, int numGarfos) {
+        this(numFilosofos, numGarfos, Relogio.SISTEMA);
+    }
+
+    public RegistroPosse(int numFilosofos, int numGarfos, Relogio relogio) {
+        this.relogio = relogio;
+        this.dono = new int[numGarfos];
+        this.donoDesde = new long[numGarfos];
+        this.esperando = new int[numGarfos][2];
+        this.numEsperando = new int[numGarfos];
+        this.aguardados = new int[numFilosofos][2];
+        this.numAguardados = new int[numFilosofos];
+        this.esperandoDesde = new long[numFilosofos];
+        this.visita = new int[numFilosofos];
+        this.pai = new int[numFilosofos];
+        this.garfoPai = new int[numFilosofos];
+        this.pilha = new int[numFilosofos];
+        Arrays.fill(dono, LIVRE);
+    }
+
+    /**
+     * Registro ligado por -Dfilosofos.posse=ligado, que imprime cada ciclo
+     * encontrado; null se desligado.
+     */
+    public static RegistroPosse dePropriedades(int numFilosofos, int numGarfos) {
+        if (!"ligado".equalsIgnoreCase(System.getProperty(PROPRIEDADE, "desligado"))) {
+            return null;
+        }
+        RegistroPosse registro = new RegistroPosse(numFilosofos, numGarfos);
+        registro.adicionarOuvinte(ciclo -> System.out.println("[POSSE] " + ciclo));
+        return registro;
+    }
+
+    public void adicionarOuvinte(Ouvinte ouvinte) {
+        ouvintes.add(ouvinte);
+    }
+
+    /**
+     * O filósofo vai esperar o garfo (chamar antes de bloquear).
+     */
+    public void aguardando(int filosofo, int garfo) {
+        if (filosofo < 0) {
+            return;
+        }
+        CicloEspera ciclo;
+        synchronized (this) {
+            if (numAguardados[filosofo] == 0) {
+                esperandoDesde[filosofo] = relogio.nanos();
+            }
+            aguardados[filosofo] = adicionar(aguardados[filosofo], numAguardados[filosofo]++, garfo);
+            esperando[garfo] = adicionar(esperando[garfo], numEsperando[garfo]++, filosofo);
+            int h = dono[garfo];
+            ciclo = h >= 0 && h != filosofo ? procurarCiclo(h, filosofo, garfo) : null;
+        }
+        avisar(ciclo);
+    }
+
+    /**
+     * O filósofo obteve o garfo (chamar depois de obtê-lo). Se ele estava
+     * esperando o garfo, deixa de esperar.
+     */
+    public void adquiriu(int filosofo, int garfo) {
+        List<CicloEspera> novos = Collections.emptyList();
+        synchronized (this) {
+            if (filosofo >= 0) {
+                pararDeEsperar(filosofo, garfo);
+            }
+            dono[garfo] = filosofo;
+            donoDesde[garfo] = relogio.nanos();
+            if (filosofo >= 0 && numEsperando[garfo] > 0) {
+                // Cada um que espera este garfo ganhou uma aresta para o novo dono
+                for (int i = 0; i < numEsperando[garfo]; i++) {
+                    CicloEspera ciclo = procurarCiclo(filosofo, esperando[garfo][i], garfo);
+                    if (ciclo != null) {
+                        if (novos.isEmpty()) {
+                            novos = new ArrayList<>();
+                        }
+                        novos.add(ciclo);
+                    }
+                }
+            }
+        }
+        for (CicloEspera ciclo : novos) {
+            avisar(ciclo);
+        }
+    }
+
+    /**
+     * O filósofo vai soltar o garfo (chamar antes de soltá-lo).
+     */
+    public synchronized void liberou(int filosofo, int garfo) {
+        if (dono[garfo] == filosofo) {
+            dono[garfo] = LIVRE;
+        }
+    }
+
+    /**
+     * O filósofo desistiu de esperar o garfo (prazo, interrupção).
+     */
+    public synchronized void desistiu(int filosofo, int garfo) {
+        if (filosofo >= 0) {
+            pararDeEsperar(filosofo, garfo);
+        }
+    }
+
+    private void pararDeEsperar(int filosofo, int garfo) {
+        if (remover(aguardados[filosofo], numAguardados[filosofo], garfo)) {
+            numAguardados[filosofo]--;
+        }
+        if (remover(esperando[garfo], numEsperando[garfo], filosofo)) {
+            numEsperando[garfo]--;
+        }
+    }
+
+    /**
+     * A aresta origem -(garfo)-> destino acabou de nascer: procura um
+     * caminho destino -> ... -> origem, que fecharia o ciclo.
+     */
+    private CicloEspera procurarCiclo(int destino, int origem, int garfo) {
+        if (++epoca == 0) { // Deu a volta: zera as marcas uma vez
+            Arrays.fill(visita, 0);
+            epoca = 1;
+        }
+        int topo = 0;
+        visita[destino] = epoca;
+        pai[destino] = -1;
+        pilha[topo++] = destino;
+        while (topo > 0) {
+            int atual = pilha[--topo];
+            if (atual == origem) {
+                return montarCiclo(origem, destino, garfo);
+            }
+            for (int i = 0; i < numAguardados[atual]; i++) {
+                int g = aguardados[atual][i];
+                int h = dono[g];
+                if (h >= 0 && h != atual && visita[h] != epoca) {
+                    visita[h] = epoca;
+                    pai[h] = atual;
+                    garfoPai[h] = g;
+                    pilha[topo++] = h;
+                }
+            }
+        }
+        return null;
+    }
+
+    private CicloEspera montarCiclo(int origem, int destino, int garfo) {
+        // Caminho destino -> ... -> origem, de trás para frente pelos pais
+        List<Integer> caminho = new ArrayList<>();
+        List<Integer> garfosCaminho = new ArrayList<>();
+        for (int atual = origem; atual != destino; atual = pai[atual]) {
+            caminho.add(pai[atual]);
+            garfosCaminho.add(garfoPai[atual]);
+        }
+        Collections.reverse(caminho);
+        Collections.reverse(garfosCaminho);
+        int tamanho = caminho.size() + 1;
+        int[] filosofos = new int[tamanho];
+        int[] garfos = new int[tamanho];
+        filosofos[0] = origem;
+        garfos[0] = garfo;
+        for (int i = 1; i < tamanho; i++) {
+            filosofos[i] = caminho.get(i - 1);
+            garfos[i] = garfosCaminho.get(i - 1);
+        }
+        CicloEspera ciclo = new CicloEspera(filosofos, garfos, relogio.nanos());
+        ciclos.add(ciclo);
+        return ciclo;
+    }
+
+    private void avisar(CicloEspera ciclo) {
+        if (ciclo == null) {
+            return;
+        }
+        for (Ouvinte ouvinte : ouvintes) {
+            ouvinte.cicloDetectado(ciclo);
+        }
+    }
+
+    private static int[] adicionar(int[] lista, int tamanho, int valor) {
+        if (tamanho == lista.length) {
+            lista = Arrays.copyOf(lista, tamanho * 2);
+        }
+        lista[tamanho] = valor;
+        return lista;
+    }
+
+    private static boolean remover(int[] lista, int tamanho, int valor) {
+        for (int i = 0; i < tamanho; i++) {
+            if (lista[i] == valor) {
+                lista[i] = lista[tamanho - 1];
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Quem segura o garfo: ID do filósofo, DESCONHECIDO ou LIVRE.
+     */
+    public synchronized int getDono(int garfo) {
+        return dono[garfo];
+    }
+
+    /**
+     * Instante (ns) em que o dono atual pegou o garfo.
+     */
+    public synchronized long getDonoDesde(int garfo) {
+        return donoDesde[garfo];
+    }
+
+    public synchronized int[] getEsperando(int garfo) {
+        return Arrays.copyOf(esperando[garfo], numEsperando[garfo]);
+    }
+
+    /**
+     * Garfos que o filósofo está esperando (vazio se não espera nenhum).
+     */
+    public synchronized int[] getAguardados(int filosofo) {
+        return Arrays.copyOf(aguardados[filosofo], numAguardados[filosofo]);
+    }
+
+    /**
+     * Instante (ns) em que o filósofo começou a esperar.
+     */
+    public synchronized long getEsperandoDesde(int filosofo) {
+        return esperandoDesde[filosofo];
+    }
+
+    /**
+     * Ciclos encontrados até agora, em ordem.
+     */
+    public List<CicloEspera> getCiclos() {
+        return Collections.unmodifiableList(ciclos);
+    }
+
+    /**
+     * Garfos com dono, cada um com há quanto tempo e quem espera por ele.
+     */
+    public synchronized String getEstado() {
+        long agora = relogio.nanos();
+        StringBuilder sb = new StringBuilder();
+        for (int garfo = 0; garfo < dono.length; garfo++) {
+            if (dono[garfo] == LIVRE) {
+                continue;
+            }
+            sb.append("Garfo ").append(garfo).append(": ")
+              .append(dono[garfo] == DESCONHECIDO ? "dono desconhecido" : "F" + dono[garfo])
+              .append(String.format(" há %.1fms", Relogio.emMs(agora - donoDesde[garfo])));
+            if (numEsperando[garfo] > 0) {
+                sb.append(", esperam ").append(Arrays.toString(getEsperando(garfo)));
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+}
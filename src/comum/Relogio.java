@@ -0,0 +1,33 @@
+package comum;
+
+/**
+ * Fonte de tempo usada para medir esperas e tempo de uso dos garfos.
+ *
+ * As medições usavam System.currentTimeMillis(): resolução de 1 ms (esperas
+ * curtas viravam 0) e não monotônico (ajustes do relógio do sistema geravam
+ * esperas negativas). O padrão agora é System.nanoTime(), e quem precisar
+ * de tempo controlado (testes, simulação) passa outro Relogio no construtor.
+ *
+ * Os valores só fazem sentido como diferença entre duas leituras.
+ */
+@FunctionalInterface
+public interface Relogio {
+    /**
+     * Relógio real, monotônico, em nanossegundos.
+     */
+    Relogio SISTEMA = System::nanoTime;
+
+    long NANOS_POR_MS = 1_000_000;
+
+    /**
+     * Instante atual em nanossegundos.
+     */
+    long nanos();
+
+    /**
+     * Converte uma duração em nanossegundos para milissegundos (com fração).
+     */
+    static double emMs(long nanos) {
+        return (double) nanos / NANOS_POR_MS;
+    }
+}
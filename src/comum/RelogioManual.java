@@ -0,0 +1,27 @@
+package comum;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Relógio que só anda quando mandado. Permite medir esperas de forma
+ * determinística em testes e rodar Garfos/Mesas sobre um tempo simulado.
+ */
+public class RelogioManual implements Relogio {
+    private final AtomicLong agora = new AtomicLong();
+
+    @Override
+    public long nanos() {
+        return agora.get();
+    }
+
+    public void avancar(long nanos) {
+        if (nanos < 0) {
+            throw new IllegalArgumentException("O tempo não volta: " + nanos);
+        }
+        agora.addAndGet(nanos);
+    }
+
+    public void avancarMs(long ms) {
+        avancar(ms * NANOS_POR_MS);
+    }
+}
@@ -0,0 +1,51 @@
+package comum;
+
+/**
+ * Mensagens que os filósofos registram. O filósofo grava só o código e até
+ * três números; o texto é montado depois, pela thread escritora.
+ */
+public enum TipoEvento {
+    INTERROMPIDO("Foi interrompido"),
+    PENSANDO("começou a PENSAR"),
+    TENTANDO_ESQUERDO("tentando pegar o garfo ESQUERDO %d"),
+    PEGOU_ESQUERDO("pegou o garfo ESQUERDO %d"),
+    TENTANDO_DIREITO("tentando pegar o garfo DIREITO %d"),
+    PEGOU_DIREITO("pegou o garfo DIREITO %d"),
+    TENTANDO_GARFO("tentando pegar o garfo %d (%d de %d)"),
+    PEGOU_GARFO("pegou o garfo %d (%d de %d)"),
+    SOLTOU_GARFO("soltou o garfo %d"),
+    COMENDO("está COMENDO com garfos %d e %d"),
+    COMENDO_VARIOS("está COMENDO com %d garfos"),
+    TERMINOU_E_SOLTOU_GARFOS("terminou de COMER e soltou os garfos %d e %d"),
+    TERMINOU_REFEICAO_E_SOLTOU("terminou de COMER (refeição #%d) e soltou os garfos"),
+    TERMINOU_REFEICAO("terminou de COMER (refeição #%d)"),
+    SOLICITANDO_MESA("solicitando permissão para SENTAR À MESA (semáforo)"),
+    OBTEVE_MESA("obteve permissão para SENTAR À MESA"),
+    LIBEROU_MESA("liberou permissão da MESA (semáforo)"),
+    SOLICITANDO_MONITOR("solicitando garfos %d e %d ao MONITOR"),
+    OBTEVE_MONITOR("obteve garfos %d e %d após %dms de espera"),
+    SOLICITANDO_VARIOS_MONITOR("solicitando %d garfos ao MONITOR"),
+    OBTEVE_VARIOS_MONITOR("obteve %d garfos após %dms de espera"),
+    DEVOLVEU_MONITOR("devolveu os garfos ao MONITOR"),
+    PEDIU_GARFO("pediu o garfo %d ao filósofo %d"),
+    RECEBEU_GARFO("recebeu o garfo %d (limpo) do filósofo %d"),
+    CEDEU_GARFO("cedeu o garfo %d ao filósofo %d"),
+    PREEMPTADO("foi PREEMPTADO pelo vigia de deadlock e soltou seus garfos"),
+    EM_DEADLOCK("está em DEADLOCK: espera o garfo %d, que está com o filósofo %d (detectado em %dµs)");
+
+    private static final TipoEvento[] VALORES = values();
+
+    private final String modelo;
+
+    TipoEvento(String modelo) {
+        this.modelo = modelo;
+    }
+
+    static TipoEvento doCodigo(int codigo) {
+        return VALORES[codigo];
+    }
+
+    String formatar(long a, long b, long c) {
+        return String.format(modelo, a, b, c);
+    }
+}
@@ -0,0 +1,313 @@
+package comum;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Quem disputa qual garfo: N lugares e o grafo de adjacência dos recursos.
+ *
+ * Cada garfo é compartilhado por exatamente DOIS lugares (uma aresta do
+ * grafo) e um lugar precisa de TODOS os seus garfos para comer.
+ *
+ *   anel(n)            garfo i entre os lugares i-1 e i (o jantar clássico)
+ *   grade(l, c)        um garfo entre cada par de vizinhos da grade (sem volta)
+ *   completos(g, k)    g grupos de k lugares; cada par do grupo tem um garfo
+ *   construtor(n)      grafo qualquer, aresta por aresta
+ *
+ * CINTURA E ADMISSÃO:
+ * -------------------
+ * Um deadlock exige um ciclo de espera entre lugares vizinhos, isto é, um
+ * ciclo do grafo. Se no máximo (cintura - 1) filósofos tentam ao mesmo
+ * tempo, nenhum ciclo fica completo. No anel de 5 isso dá os 4 permits do
+ * semáforo da Tarefa 3; em grafos com ciclos curtos o limite cai bastante.
+ *
+ * Os arrays retornados são os internos: não devem ser alterados.
+ */
+public final class Topologia {
+    public static final String PROPRIEDADE_LUGARES = "filosofos.lugares";
+    public static final String PROPRIEDADE_TOPOLOGIA = "filosofos.topologia";
+    public static final int SEM_CICLO = Integer.MAX_VALUE;
+
+    private final String descricao;
+    private final int[][] garfosPorLugar;   // Ordem "natural" (no anel: esquerdo, direito)
+    private final int[][] garfosOrdenados;  // Mesma lista em ordem crescente de ID
+    private final int[][] lugaresPorGarfo;  // Os dois lugares de cada garfo
+    private final int[][] vizinhos;
+    private final int cintura;
+
+    private Topologia(String descricao, int[][] garfosPorLugar, int cintura) {
+        this.descricao = descricao;
+        this.garfosPorLugar = garfosPorLugar;
+
+        int numGarfos = 0;
+        for (int[] garfos : garfosPorLugar) {
+            for (int garfo : garfos) {
+                numGarfos = Math.max(numGarfos, garfo + 1);
+            }
+        }
+
+        int[] usos = new int[numGarfos];
+        this.lugaresPorGarfo = new int[numGarfos][2];
+        this.garfosOrdenados = new int[garfosPorLugar.length][];
+        for (int lugar = 0; lugar < garfosPorLugar.length; lugar++) {
+            garfosOrdenados[lugar] = garfosPorLugar[lugar].clone();
+            Arrays.sort(garfosOrdenados[lugar]);
+            for (int i = 0; i < garfosOrdenados[lugar].length; i++) {
+                int garfo = garfosOrdenados[lugar][i];
+                if (i > 0 && garfo == garfosOrdenados[lugar][i - 1]) {
+                    throw new IllegalArgumentException("Lugar " + lugar + " repete o garfo " + garfo);
+                }
+                if (usos[garfo] == 2) {
+                    throw new IllegalArgumentException("Garfo " + garfo + " em mais de dois lugares");
+                }
+                lugaresPorGarfo[garfo][usos[garfo]++] = lugar;
+            }
+        }
+        for (int garfo = 0; garfo < numGarfos; garfo++) {
+            if (usos[garfo] != 2) {
+                throw new IllegalArgumentException("Garfo " + garfo + " deve ter exatamente dois lugares");
+            }
+        }
+
+        this.vizinhos = new int[garfosPorLugar.length][];
+        for (int lugar = 0; lugar < garfosPorLugar.length; lugar++) {
+            final int esteLugar = lugar;
+            vizinhos[lugar] = Arrays.stream(garfosOrdenados[lugar])
+                    .map(garfo -> outroLugar(garfo, esteLugar))
+                    .distinct().sorted().toArray();
+        }
+        this.cintura = cintura > 0 ? cintura : calcularCintura();
+    }
+
+    /**
+     * O jantar clássico: lugar i usa os garfos i (esquerdo) e i+1 (direito).
+     */
+    public static Topologia anel(int numLugares) {
+        if (numLugares < 2) {
+            throw new IllegalArgumentException("O anel precisa de pelo menos 2 lugares");
+        }
+        int[][] garfos = new int[numLugares][];
+        for (int i = 0; i < numLugares; i++) {
+            garfos[i] = new int[] {i, (i + 1) % numLugares};
+        }
+        return new Topologia("anel de " + numLugares, garfos, numLugares);
+    }
+
+    /**
+     * Grade linhas × colunas: cada lugar compartilha um garfo com o vizinho
+     * de cima, de baixo, da esquerda e da direita (até 4 garfos).
+     */
+    public static Topologia grade(int linhas, int colunas) {
+        Construtor construtor = construtor(linhas * colunas);
+        for (int lugar = 0; lugar < linhas * colunas; lugar++) {
+            if (lugar % colunas < colunas - 1) {
+                construtor.compartilhar(lugar, lugar + 1);
+            }
+            if (lugar / colunas < linhas - 1) {
+                construtor.compartilhar(lugar, lugar + colunas);
+            }
+        }
+        int cintura = linhas >= 2 && colunas >= 2 ? 4 : SEM_CICLO;
+        return construtor.construir("grade " + linhas + "x" + colunas, cintura);
+    }
+
+    /**
+     * Grupos de lugares consecutivos em que todos disputam com todos
+     * (subgrafos completos); grupos diferentes não compartilham garfos.
+     */
+    public static Topologia completos(int numGrupos, int tamanhoGrupo) {
+        Construtor construtor = construtor(numGrupos * tamanhoGrupo);
+        for (int grupo = 0; grupo < numGrupos; grupo++) {
+            int base = grupo * tamanhoGrupo;
+            for (int a = 0; a < tamanhoGrupo; a++) {
+                for (int b = a + 1; b < tamanhoGrupo; b++) {
+                    construtor.compartilhar(base + a, base + b);
+                }
+            }
+        }
+        int cintura = tamanhoGrupo >= 3 ? 3 : SEM_CICLO;
+        return construtor.construir(numGrupos + " grupo(s) completo(s) de " + tamanhoGrupo, cintura);
+    }
+
+    public static Construtor construtor(int numLugares) {
+        return new Construtor(numLugares);
+    }
+
+    /**
+     * Lê a topologia das propriedades de sistema:
+     *   -Dfilosofos.lugares=N         (padrão 5)
+     *   -Dfilosofos.topologia=anel    (padrão)
+     *                         grade[:colunas]         (padrão: raiz de N)
+     *                         completos[:tamanho]     (padrão: 3)
+     */
+    public static Topologia dePropriedades() {
+        int lugares = Integer.parseInt(System.getProperty(PROPRIEDADE_LUGARES, "5"));
+        String especificacao = System.getProperty(PROPRIEDADE_TOPOLOGIA, "anel");
+        String[] partes = especificacao.split(":");
+        switch (partes[0]) {
+            case "anel":
+                return anel(lugares);
+            case "grade": {
+                int colunas = partes.length > 1 ? Integer.parseInt(partes[1])
+                                                : (int) Math.ceil(Math.sqrt(lugares));
+                exigirDivisivel(lugares, colunas, "colunas");
+                return grade(lugares / colunas, colunas);
+            }
+            case "completos": {
+                int tamanho = partes.length > 1 ? Integer.parseInt(partes[1]) : 3;
+                exigirDivisivel(lugares, tamanho, "tamanho do grupo");
+                return completos(lugares / tamanho, tamanho);
+            }
+            default:
+                throw new IllegalArgumentException("Topologia desconhecida: " + especificacao
+                        + " (use anel, grade[:colunas] ou completos[:tamanho])");
+        }
+    }
+
+    private static void exigirDivisivel(int lugares, int divisor, String nome) {
+        if (divisor < 1 || lugares % divisor != 0) {
+            throw new IllegalArgumentException(lugares + " lugares não é múltiplo de " + nome + " = " + divisor);
+        }
+    }
+
+    public int getNumLugares() {
+        return garfosPorLugar.length;
+    }
+
+    public int getNumGarfos() {
+        return lugaresPorGarfo.length;
+    }
+
+    /**
+     * Garfos do lugar na ordem natural (no anel: esquerdo, depois direito).
+     */
+    public int[] garfosDe(int lugar) {
+        return garfosPorLugar[lugar];
+    }
+
+    /**
+     * Garfos do lugar em ordem crescente de ID: a ordem global que impede
+     * espera circular (no anel, só o último lugar fica invertido).
+     */
+    public int[] garfosEmOrdemCrescente(int lugar) {
+        return garfosOrdenados[lugar];
+    }
+
+    public int[] lugaresDoGarfo(int garfo) {
+        return lugaresPorGarfo[garfo];
+    }
+
+    public int outroLugar(int garfo, int lugar) {
+        int[] lugares = lugaresPorGarfo[garfo];
+        return lugares[0] == lugar ? lugares[1] : lugares[0];
+    }
+
+    /**
+     * Lugares que compartilham pelo menos um garfo com este (sem repetição).
+     */
+    public int[] vizinhosDe(int lugar) {
+        return vizinhos[lugar];
+    }
+
+    /**
+     * Tamanho do menor ciclo do grafo (2 se dois lugares dividem dois
+     * garfos), ou SEM_CICLO.
+     */
+    public int getCintura() {
+        return cintura;
+    }
+
+    /**
+     * Máximo de filósofos tentando ao mesmo tempo sem risco de deadlock,
+     * quaisquer que sejam as ordens de aquisição.
+     */
+    public int getLimiteAdmissaoSeguro() {
+        return cintura == SEM_CICLO ? getNumLugares() : Math.min(getNumLugares(), cintura - 1);
+    }
+
+    public String getDescricao() {
+        return descricao;
+    }
+
+    @Override
+    public String toString() {
+        return descricao + " (" + getNumLugares() + " lugares, " + getNumGarfos() + " garfos)";
+    }
+
+    /**
+     * Menor ciclo por BFS a partir de cada lugar: O(lugares × garfos). As
+     * fábricas já informam a cintura; isto só roda para grafos do construtor.
+     */
+    private int calcularCintura() {
+        int n = getNumLugares();
+        int menor = SEM_CICLO;
+        int[] distancia = new int[n];
+        int[] garfoDePai = new int[n];
+        ArrayDeque<Integer> fila = new ArrayDeque<>();
+        for (int origem = 0; origem < n && menor > 2; origem++) {
+            Arrays.fill(distancia, -1);
+            distancia[origem] = 0;
+            garfoDePai[origem] = -1;
+            fila.add(origem);
+            while (!fila.isEmpty()) {
+                int lugar = fila.poll();
+                for (int garfo : garfosOrdenados[lugar]) {
+                    if (garfo == garfoDePai[lugar]) {
+                        continue;
+                    }
+                    int outro = outroLugar(garfo, lugar);
+                    if (distancia[outro] < 0) {
+                        distancia[outro] = distancia[lugar] + 1;
+                        garfoDePai[outro] = garfo;
+                        fila.add(outro);
+                    } else {
+                        menor = Math.min(menor, distancia[lugar] + distancia[outro] + 1);
+                    }
+                }
+            }
+        }
+        return menor;
+    }
+
+    /**
+     * Monta um grafo qualquer: cada compartilhar(a, b) cria um novo garfo
+     * entre os lugares a e b, com IDs na ordem das chamadas.
+     */
+    public static final class Construtor {
+        private final List<List<Integer>> garfos = new ArrayList<>();
+        private int proximoGarfo = 0;
+
+        private Construtor(int numLugares) {
+            if (numLugares < 1) {
+                throw new IllegalArgumentException("A mesa precisa de pelo menos 1 lugar");
+            }
+            for (int i = 0; i < numLugares; i++) {
+                garfos.add(new ArrayList<>());
+            }
+        }
+
+        public Construtor compartilhar(int lugarA, int lugarB) {
+            if (lugarA == lugarB) {
+                throw new IllegalArgumentException("Um garfo liga dois lugares diferentes");
+            }
+            garfos.get(lugarA).add(proximoGarfo);
+            garfos.get(lugarB).add(proximoGarfo);
+            proximoGarfo++;
+            return this;
+        }
+
+        public Topologia construir() {
+            return construir("grafo de " + garfos.size() + " lugares", 0);
+        }
+
+        private Topologia construir(String descricao, int cintura) {
+            int[][] listas = new int[garfos.size()][];
+            for (int i = 0; i < listas.length; i++) {
+                listas[i] = garfos.get(i).stream().mapToInt(Integer::intValue).toArray();
+            }
+            return new Topologia(descricao, listas, cintura);
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package distribuido;
+
+import comum.CanalEventos;
+import comum.Histograma;
+import comum.RegistroEventos;
+import comum.Relogio;
+import comum.TipoEvento;
+import comum.Topologia;
+
+import java.io.UncheckedIOException;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filósofo do algoritmo de Chandy/Misra (garfos limpos e sujos): sem
+ * árbitro e sem memória compartilhada, só mensagens entre vizinhos.
+ *
+ * ESTADO (por garfo, visto por este filósofo):
+ * --------------------------------------------
+ * - temGarfo: o garfo está comigo
+ * - sujo:     já comi com ele desde que o recebi
+ * - temFicha: a ficha de pedido do garfo está comigo
+ *
+ * Cada garfo tem uma única ficha, que fica com quem NÃO tem o garfo (ou
+ * com quem tem o garfo e recebeu um pedido ainda não atendido).
+ *
+ * REGRAS:
+ * -------
+ * 1. Com fome: para cada garfo que falta, envia a ficha (PEDIDO).
+ * 2. Ao receber um PEDIDO: se o garfo está comigo, SUJO e não estou
+ *    comendo, limpo e envio (GARFO); se ainda estou com fome, peço de
+ *    volta. Garfo limpo ou refeição em andamento: o pedido fica guardado.
+ * 3. Come quando está com fome e tem todos os garfos.
+ * 4. Ao terminar de comer, todos os garfos ficam sujos e os pedidos
+ *    guardados são atendidos.
+ *
+ * POR QUE FUNCIONA:
+ * -----------------
+ * No início cada garfo fica, sujo, com o lugar de MENOR ID: o grafo de
+ * precedência (quem tem prioridade sobre quem) é acíclico, o que impede o
+ * deadlock. Quem come suja seus garfos e perde a prioridade para todos os
+ * vizinhos, o que inverte as arestas sem criar ciclo e impede starvation.
+ *
+ * Cada filósofo é um ator: uma única thread trata a caixa de entrada, os
+ * prazos de pensar/comer e os garfos, então nada disso precisa de lock.
+ * Pensando ou comendo ele continua respondendo aos pedidos.
+ */
+public class Filosofo implements Runnable {
+    private static final long ESPERA_MAXIMA_NS = 50 * Relogio.NANOS_POR_MS; // Para notar parar() logo
+
+    private enum Estado { PENSANDO, COM_FOME, COMENDO }
+
+    private final int id;
+    private final int[] garfos;
+    private final int[] vizinhoDoGarfo;
+    private final boolean[] temGarfo;
+    private final boolean[] sujo;
+    private final boolean[] temFicha;
+    private final BlockingQueue<Mensagem> caixa = new LinkedBlockingQueue<>();
+    private final Transporte transporte;
+    private final int duracaoMinimaMs;
+    private final int duracaoMaximaMs;
+    private final Random random = new Random();
+    private CanalEventos canal; // Aberto no primeiro evento, fechado ao fim do run()
+    private final Relogio relogio = Relogio.SISTEMA;
+    private volatile boolean executando = true;
+    private volatile Estado estado = Estado.PENSANDO;
+    private volatile int contadorRefeicoes = 0;
+    private volatile long mensagensEnviadas = 0;
+    private long totalTempoEspera = 0; // ns
+    private final Histograma histogramaEspera = new Histograma(); // Fome até comer (ns)
+
+    public Filosofo(int id, Topologia topologia, Transporte transporte) {
+        this(id, topologia, transporte, 1000, 3000); // Pensa e come 1-3 segundos
+    }
+
+    public Filosofo(int id, Topologia topologia, Transporte transporte, int duracaoMinimaMs, int duracaoMaximaMs) {
+        this.id = id;
+        this.garfos = topologia.garfosDe(id);
+        this.vizinhoDoGarfo = new int[garfos.length];
+        this.temGarfo = new boolean[garfos.length];
+        this.sujo = new boolean[garfos.length];
+        this.temFicha = new boolean[garfos.length];
+        this.transporte = transporte;
+        this.duracaoMinimaMs = duracaoMinimaMs;
+        this.duracaoMaximaMs = duracaoMaximaMs;
+
+        // Garfo sujo com o menor ID, ficha com o maior: precedência acíclica
+        for (int k = 0; k < garfos.length; k++) {
+            vizinhoDoGarfo[k] = topologia.outroLugar(garfos[k], id);
+            boolean comigo = id < vizinhoDoGarfo[k];
+            temGarfo[k] = comigo;
+            sujo[k] = comigo;
+            temFicha[k] = !comigo;
+        }
+        transporte.registrar(id, caixa);
+    }
+
+    @Override
+    public void run() {
+        long prazo = relogio.nanos() + sortearDuracao();
+        long inicioFome = 0;
+        try {
+            log(TipoEvento.PENSANDO);
+            while (executando) {
+                long agora = relogio.nanos();
+                if (estado == Estado.PENSANDO && agora >= prazo) {
+                    estado = Estado.COM_FOME;
+                    inicioFome = agora;
+                    pedirGarfosQueFaltam();
+                }
+                if (estado == Estado.COM_FOME && temTodosOsGarfos()) {
+                    estado = Estado.COMENDO;
+                    totalTempoEspera += agora - inicioFome;
+                    histogramaEspera.registrar(agora - inicioFome);
+                    logComendo();
+                    prazo = agora + sortearDuracao();
+                }
+                if (estado == Estado.COMENDO && agora >= prazo) {
+                    terminarRefeicao();
+                    prazo = agora + sortearDuracao();
+                }
+
+                long espera = estado == Estado.COM_FOME ? ESPERA_MAXIMA_NS
+                                                        : Math.min(prazo - agora, ESPERA_MAXIMA_NS);
+                Mensagem mensagem = caixa.poll(Math.max(espera, 0), TimeUnit.NANOSECONDS);
+                while (mensagem != null) {
+                    tratar(mensagem);
+                    mensagem = caixa.poll();
+                }
+            }
+        } catch (InterruptedException e) {
+            log(TipoEvento.INTERROMPIDO);
+            Thread.currentThread().interrupt();
+        } catch (UncheckedIOException e) {
+            System.err.println("Filósofo " + id + ": " + e.getMessage() + ", encerrando");
+        } finally {
+            fecharCanal();
+        }
+    }
+
+    private void tratar(Mensagem mensagem) {
+        int k = indiceDoGarfo(mensagem.getGarfo());
+        if (mensagem.getTipo() == Mensagem.PEDIDO) {
+            temFicha[k] = true;
+            if (temGarfo[k] && sujo[k] && estado != Estado.COMENDO) {
+                cederGarfo(k);
+                if (estado == Estado.COM_FOME) {
+                    pedirGarfo(k);
+                }
+            }
+        } else {
+            temGarfo[k] = true;
+            sujo[k] = false;
+            log(TipoEvento.RECEBEU_GARFO, garfos[k], mensagem.getOrigem());
+        }
+    }
+
+    private void pedirGarfosQueFaltam() {
+        for (int k = 0; k < garfos.length; k++) {
+            if (!temGarfo[k] && temFicha[k]) {
+                pedirGarfo(k);
+            }
+        }
+    }
+
+    private void pedirGarfo(int k) {
+        temFicha[k] = false;
+        log(TipoEvento.PEDIU_GARFO, garfos[k], vizinhoDoGarfo[k]); // Antes de enviar: o log sai em ordem causal
+        enviar(Mensagem.pedido(garfos[k], id, vizinhoDoGarfo[k]));
+    }
+
+    /**
+     * Entrega o garfo limpo; a ficha continua comigo para pedir de volta.
+     */
+    private void cederGarfo(int k) {
+        temGarfo[k] = false;
+        sujo[k] = false;
+        log(TipoEvento.CEDEU_GARFO, garfos[k], vizinhoDoGarfo[k]);
+        enviar(Mensagem.garfo(garfos[k], id, vizinhoDoGarfo[k]));
+    }
+
+    private void terminarRefeicao() {
+        contadorRefeicoes++;
+        log(TipoEvento.TERMINOU_REFEICAO, contadorRefeicoes);
+        estado = Estado.PENSANDO;
+        for (int k = 0; k < garfos.length; k++) {
+            sujo[k] = true;
+            if (temFicha[k] && temGarfo[k]) {
+                cederGarfo(k); // Pedido guardado durante a refeição
+            }
+        }
+        log(TipoEvento.PENSANDO);
+    }
+
+    private boolean temTodosOsGarfos() {
+        for (boolean tem : temGarfo) {
+            if (!tem) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int indiceDoGarfo(int garfo) {
+        for (int k = 0; k < garfos.length; k++) {
+            if (garfos[k] == garfo) {
+                return k;
+            }
+        }
+        throw new IllegalArgumentException("Filósofo " + id + " não usa o garfo " + garfo);
+    }
+
+    private void enviar(Mensagem mensagem) {
+        transporte.enviar(mensagem);
+        mensagensEnviadas++; // Só a thread do filósofo escreve
+    }
+
+    private long sortearDuracao() {
+        int ms = duracaoMinimaMs + random.nextInt(duracaoMaximaMs - duracaoMinimaMs + 1);
+        return ms * Relogio.NANOS_POR_MS;
+    }
+
+    public void parar() {
+        executando = false;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public boolean isComendo() {
+        return estado == Estado.COMENDO;
+    }
+
+    public int getContadorRefeicoes() {
+        return contadorRefeicoes;
+    }
+
+    public long getMensagensEnviadas() {
+        return mensagensEnviadas;
+    }
+
+    /**
+     * Tempo médio de espera em ms (com fração), da fome até comer.
+     * Leia depois que a thread terminar.
+     */
+    public double getTempoMedioEspera() {
+        long esperas = histogramaEspera.getTotal();
+        return esperas > 0 ? Relogio.emMs(totalTempoEspera) / esperas : 0;
+    }
+
+    public Histograma getHistogramaEspera() {
+        return histogramaEspera;
+    }
+
+    private void logComendo() {
+        if (garfos.length == 2) {
+            log(TipoEvento.COMENDO, garfos[0], garfos[1]);
+        } else {
+            log(TipoEvento.COMENDO_VARIOS, garfos.length);
+        }
+    }
+
+    private void log(TipoEvento tipo) {
+        log(tipo, 0, 0, 0);
+    }
+
+    private void log(TipoEvento tipo, long a) {
+        log(tipo, a, 0, 0);
+    }
+
+    private void log(TipoEvento tipo, long a, long b) {
+        log(tipo, a, b, 0);
+    }
+
+    /**
+     * Grava o evento no canal do filósofo; a formatação e a impressão ficam
+     * para a thread escritora do RegistroEventos.
+     */
+    private void log(TipoEvento tipo, long a, long b, long c) {
+        if (canal == null) {
+            canal = RegistroEventos.abrirCanal();
+            if (canal == null) {
+                return; // Log desligado
+            }
+        }
+        canal.registrar(tipo, id, a, b, c);
+    }
+
+    /**
+     * Fecha o canal no fim do run(): a escritora drena o resto e o descarta.
+     */
+    private void fecharCanal() {
+        if (canal != null) {
+            canal.fechar();
+            canal = null;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package distribuido;
+
+import comum.FabricaThreads;
+import comum.Histograma;
+import comum.RegistroEventos;
+import comum.Topologia;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Classe principal da solução por troca de mensagens (Chandy/Misra).
+ *
+ * Não há Mesa nem garfos compartilhados: cada garfo pertence a um filósofo
+ * e só muda de dono por mensagem. Por isso a mesa pode ser dividida entre
+ * várias JVMs.
+ *
+ * Uso: java -cp src distribuido.Main [local | processos N | no I N]
+ *   - local      (padrão): todos os filósofos nesta JVM, mensagens por filas
+ *   - processos N: abre N JVMs filhas (nós 0..N-1) ligadas por sockets no loopback
+ *   - no I N     : roda só o nó I de N (para abrir cada JVM à mão)
+ *
+ * Porta base dos nós: -Dfilosofos.porta (padrão 45000; o nó I usa porta + I).
+ * Lugares e topologia: -Dfilosofos.lugares e -Dfilosofos.topologia.
+ */
+public class Main {
+    private static final int TEMPO_EXECUCAO_MS = 300000; // 5 minutos (Tarefa 5)
+    private static final int PRAZO_CONEXAO_MS = 30000;
+    private static final int PORTA_PADRAO = 45000;
+
+    public static void main(String[] args) throws Exception {
+        String modo = args.length > 0 ? args[0] : "local";
+        switch (modo) {
+            case "local":
+                executarNo(Topologia.dePropriedades(), null);
+                break;
+            case "processos":
+                abrirProcessos(Integer.parseInt(args[1]));
+                break;
+            case "no": {
+                Topologia topologia = Topologia.dePropriedades();
+                int porta = Integer.getInteger("filosofos.porta", PORTA_PADRAO);
+                executarNo(topologia, new TransporteSocket(Integer.parseInt(args[1]), Integer.parseInt(args[2]),
+                        topologia.getNumLugares(), porta));
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Modo desconhecido: " + modo + " (use local, processos N ou no I N)");
+        }
+    }
+
+    /**
+     * Abre uma JVM por nó com o mesmo classpath e as mesmas propriedades
+     * filosofos.*, e espera todas terminarem.
+     */
+    private static void abrirProcessos(int numNos) throws IOException, InterruptedException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        List<Process> processos = new ArrayList<>();
+        for (int no = 0; no < numNos; no++) {
+            List<String> comando = new ArrayList<>();
+            comando.add(java);
+            for (String nome : System.getProperties().stringPropertyNames()) {
+                if (nome.startsWith("filosofos.")) {
+                    comando.add("-D" + nome + "=" + System.getProperty(nome));
+                }
+            }
+            comando.add("-cp");
+            comando.add(System.getProperty("java.class.path"));
+            comando.add(Main.class.getName());
+            comando.add("no");
+            comando.add(String.valueOf(no));
+            comando.add(String.valueOf(numNos));
+            processos.add(new ProcessBuilder(comando).inheritIO().start());
+        }
+        for (Process processo : processos) {
+            processo.waitFor();
+        }
+    }
+
+    /**
+     * @param socket null para rodar todos os lugares nesta JVM
+     */
+    private static void executarNo(Topologia topologia, TransporteSocket socket)
+            throws IOException, InterruptedException {
+        int numLugares = topologia.getNumLugares();
+        String titulo = socket == null ? "local"
+                : "nó " + socket.getIndiceNo() + " de " + socket.getNumNos();
+
+        System.out.println("=".repeat(80));
+        System.out.println("JANTAR DOS FILÓSOFOS - CHANDY/MISRA (GARFOS LIMPOS E SUJOS) [" + titulo + "]");
+        System.out.println("=".repeat(80));
+        System.out.println("Topologia: " + topologia + " (" + FabricaThreads.getDescricaoModo() + ")");
+        System.out.println("Sem árbitro: os garfos mudam de dono só por mensagem");
+        System.out.println("Tempo de execução: " + (TEMPO_EXECUCAO_MS / 1000) + " segundos\n");
+        System.out.println("=".repeat(80));
+
+        Transporte transporte = socket != null ? socket : new TransporteLocal(numLugares);
+        List<Filosofo> filosofos = new ArrayList<>();
+        for (int i = 0; i < numLugares; i++) {
+            if (socket == null || socket.isLocal(i)) {
+                filosofos.add(new Filosofo(i, topologia, transporte)); // Registra a caixa antes de conectar
+            }
+        }
+        if (socket != null) {
+            socket.conectar(PRAZO_CONEXAO_MS);
+        }
+
+        List<Thread> threads = new ArrayList<>();
+        for (Filosofo filosofo : filosofos) {
+            threads.add(FabricaThreads.iniciar(filosofo));
+        }
+
+        Thread.sleep(TEMPO_EXECUCAO_MS);
+
+        System.out.println("\n" + "=".repeat(80));
+        System.out.println("Tempo de execução encerrado. Parando filósofos...");
+        for (Filosofo filosofo : filosofos) {
+            filosofo.parar();
+        }
+        for (Thread thread : threads) {
+            thread.join(2000);
+        }
+        transporte.close();
+
+        RegistroEventos.descarregar(); // Esvazia o log antes do relatório
+        System.out.println("Simulação encerrada.");
+        exibirEstatisticas(filosofos);
+    }
+
+    private static void exibirEstatisticas(List<Filosofo> filosofos) {
+        System.out.println("\n" + "=".repeat(80));
+        System.out.println("ESTATÍSTICAS DE EXECUÇÃO");
+        System.out.println("=".repeat(80));
+
+        int totalRefeicoes = 0;
+        long totalMensagens = 0;
+        List<Histograma> histogramas = new ArrayList<>();
+        System.out.println("\n📊 REFEIÇÕES POR FILÓSOFO:");
+        for (Filosofo filosofo : filosofos) {
+            totalRefeicoes += filosofo.getContadorRefeicoes();
+            totalMensagens += filosofo.getMensagensEnviadas();
+            histogramas.add(filosofo.getHistogramaEspera());
+            System.out.printf("  Filósofo %d: %d refeições | Tempo médio de espera: %.2f ms | %d mensagens%n",
+                    filosofo.getId(), filosofo.getContadorRefeicoes(), filosofo.getTempoMedioEspera(),
+                    filosofo.getMensagensEnviadas());
+        }
+
+        double media = (double) totalRefeicoes / filosofos.size();
+        double somaDiferencasQuadrado = 0;
+        for (Filosofo filosofo : filosofos) {
+            double diferenca = filosofo.getContadorRefeicoes() - media;
+            somaDiferencasQuadrado += diferenca * diferenca;
+        }
+        double desvioPadrao = Math.sqrt(somaDiferencasQuadrado / filosofos.size());
+
+        System.out.println("\n📈 MÉTRICAS GERAIS:");
+        System.out.println("-".repeat(80));
+        System.out.printf("  Total de refeições: %d%n", totalRefeicoes);
+        System.out.printf("  Média por filósofo: %.2f%n", media);
+        System.out.printf("  Coeficiente de variação: %.2f%%%n", media > 0 ? desvioPadrao / media * 100 : 0);
+        System.out.printf("  Mensagens por refeição: %.2f%n", totalRefeicoes > 0 ? (double) totalMensagens / totalRefeicoes : 0);
+
+        System.out.println("\n⏱️  PERCENTIS DE ESPERA PELOS GARFOS:");
+        System.out.println("-".repeat(80));
+        System.out.println("  Todos os filósofos: " + Histograma.juntar(histogramas).resumoNanosEmMs());
+        System.out.println("=".repeat(80));
+    }
+}
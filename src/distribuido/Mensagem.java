@@ -0,0 +1,75 @@
+package distribuido;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * As duas mensagens do algoritmo de Chandy/Misra, trocadas entre vizinhos:
+ *
+ *   PEDIDO  "me dê o garfo g" (é a ficha de pedido do garfo)
+ *   GARFO   "aqui está o garfo g" (sempre chega LIMPO)
+ *
+ * No fio cada mensagem ocupa 4 ints (16 bytes): tipo, garfo, origem e
+ * destino.
+ */
+public final class Mensagem {
+    public static final int PEDIDO = 0;
+    public static final int GARFO = 1;
+
+    private final int tipo;
+    private final int garfo;
+    private final int origem;
+    private final int destino;
+
+    private Mensagem(int tipo, int garfo, int origem, int destino) {
+        this.tipo = tipo;
+        this.garfo = garfo;
+        this.origem = origem;
+        this.destino = destino;
+    }
+
+    public static Mensagem pedido(int garfo, int origem, int destino) {
+        return new Mensagem(PEDIDO, garfo, origem, destino);
+    }
+
+    public static Mensagem garfo(int garfo, int origem, int destino) {
+        return new Mensagem(GARFO, garfo, origem, destino);
+    }
+
+    public void escrever(DataOutputStream saida) throws IOException {
+        saida.writeInt(tipo);
+        saida.writeInt(garfo);
+        saida.writeInt(origem);
+        saida.writeInt(destino);
+    }
+
+    public static Mensagem ler(DataInputStream entrada) throws IOException {
+        int tipo = entrada.readInt();
+        if (tipo != PEDIDO && tipo != GARFO) {
+            throw new IOException("Tipo de mensagem desconhecido: " + tipo);
+        }
+        return new Mensagem(tipo, entrada.readInt(), entrada.readInt(), entrada.readInt());
+    }
+
+    public int getTipo() {
+        return tipo;
+    }
+
+    public int getGarfo() {
+        return garfo;
+    }
+
+    public int getOrigem() {
+        return origem;
+    }
+
+    public int getDestino() {
+        return destino;
+    }
+
+    @Override
+    public String toString() {
+        return (tipo == PEDIDO ? "PEDIDO" : "GARFO") + " " + garfo + " (" + origem + " → " + destino + ")";
+    }
+}
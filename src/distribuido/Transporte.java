@@ -0,0 +1,26 @@
+package distribuido;
+
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Entrega as mensagens entre filósofos, estejam eles na mesma JVM ou não.
+ *
+ * Cada filósofo registra a sua caixa de entrada ANTES de o transporte
+ * começar a receber; enviar() põe a mensagem na caixa do destino (direto,
+ * se ele é local, ou pela rede).
+ */
+public interface Transporte extends AutoCloseable {
+
+    void registrar(int lugar, BlockingQueue<Mensagem> caixa);
+
+    /**
+     * Nunca bloqueia esperando o destinatário: as caixas não têm limite.
+     *
+     * @throws java.io.UncheckedIOException se a conexão com o nó do
+     *         destinatário caiu
+     */
+    void enviar(Mensagem mensagem);
+
+    @Override
+    void close();
+}
@@ -0,0 +1,35 @@
+package distribuido;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Todos os filósofos na mesma JVM: enviar() é só um add() na fila do
+ * destinatário. Não há memória compartilhada além das próprias filas.
+ */
+public class TransporteLocal implements Transporte {
+    private final AtomicReferenceArray<BlockingQueue<Mensagem>> caixas;
+
+    public TransporteLocal(int numLugares) {
+        this.caixas = new AtomicReferenceArray<>(numLugares);
+    }
+
+    @Override
+    public void registrar(int lugar, BlockingQueue<Mensagem> caixa) {
+        caixas.set(lugar, caixa);
+    }
+
+    @Override
+    public void enviar(Mensagem mensagem) {
+        BlockingQueue<Mensagem> caixa = caixas.get(mensagem.getDestino());
+        if (caixa == null) {
+            throw new IllegalStateException("Filósofo " + mensagem.getDestino() + " não registrado");
+        }
+        caixa.add(mensagem);
+    }
+
+    @Override
+    public void close() {
+        // Nada a liberar
+    }
+}
@@ -0,0 +1,193 @@
+package distribuido;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Mesa espalhada por várias JVMs (nós) no loopback.
+ *
+ * - Os lugares são divididos em blocos contíguos: o nó k roda os lugares
+ *   [k·N/nós, (k+1)·N/nós).
+ * - O nó k escuta em portaBase + k. Cada nó abre uma conexão de SAÍDA para
+ *   cada outro nó e uma thread lê cada conexão de ENTRADA, entregando as
+ *   mensagens nas caixas locais.
+ * - Mensagens entre filósofos do mesmo nó não passam pela rede.
+ *
+ * Como os filósofos são os únicos donos dos seus garfos, nenhum estado é
+ * compartilhado entre nós: só trafegam PEDIDOs e GARFOs.
+ */
+public class TransporteSocket implements Transporte {
+    private static final int PAUSA_RECONEXAO_MS = 100;
+
+    private final int indiceNo;
+    private final int numNos;
+    private final int numLugares;
+    private final int portaBase;
+    private final AtomicReferenceArray<BlockingQueue<Mensagem>> caixas;
+    private final DataOutputStream[] saidas; // Por nó de destino
+    private final List<Socket> conexoes = new CopyOnWriteArrayList<>();
+    private ServerSocket servidor;
+    private volatile boolean fechado = false;
+
+    public TransporteSocket(int indiceNo, int numNos, int numLugares, int portaBase) {
+        if (indiceNo < 0 || indiceNo >= numNos || numNos > numLugares) {
+            throw new IllegalArgumentException("Nó " + indiceNo + " de " + numNos + " para " + numLugares + " lugares");
+        }
+        this.indiceNo = indiceNo;
+        this.numNos = numNos;
+        this.numLugares = numLugares;
+        this.portaBase = portaBase;
+        this.caixas = new AtomicReferenceArray<>(numLugares);
+        this.saidas = new DataOutputStream[numNos];
+    }
+
+    public static int noDoLugar(int lugar, int numNos, int numLugares) {
+        return (int) ((long) lugar * numNos / numLugares);
+    }
+
+    public boolean isLocal(int lugar) {
+        return noDoLugar(lugar, numNos, numLugares) == indiceNo;
+    }
+
+    @Override
+    public void registrar(int lugar, BlockingQueue<Mensagem> caixa) {
+        if (!isLocal(lugar)) {
+            throw new IllegalArgumentException("Lugar " + lugar + " não pertence ao nó " + indiceNo);
+        }
+        caixas.set(lugar, caixa);
+    }
+
+    /**
+     * Começa a escutar e conecta a todos os outros nós, tentando de novo
+     * até o prazo (os outros nós podem ainda não ter subido).
+     */
+    public void conectar(long prazoMs) throws IOException, InterruptedException {
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        servidor = new ServerSocket(portaBase + indiceNo, numNos, loopback);
+        Thread aceitador = new Thread(this::aceitarConexoes, "no-" + indiceNo + "-aceitador");
+        aceitador.setDaemon(true);
+        aceitador.start();
+
+        long limite = System.currentTimeMillis() + prazoMs;
+        for (int no = 0; no < numNos; no++) {
+            if (no == indiceNo) {
+                continue;
+            }
+            Socket socket = new Socket();
+            while (true) {
+                try {
+                    socket.connect(new InetSocketAddress(loopback, portaBase + no));
+                    break;
+                } catch (IOException e) {
+                    socket.close();
+                    if (System.currentTimeMillis() > limite) {
+                        throw new IOException("Nó " + no + " não respondeu na porta " + (portaBase + no), e);
+                    }
+                    Thread.sleep(PAUSA_RECONEXAO_MS);
+                    socket = new Socket();
+                }
+            }
+            socket.setTcpNoDelay(true); // Mensagens pequenas: sem esperar o Nagle
+            conexoes.add(socket);
+            saidas[no] = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+    }
+
+    private void aceitarConexoes() {
+        try {
+            while (!fechado) {
+                Socket socket = servidor.accept();
+                conexoes.add(socket);
+                Thread leitor = new Thread(() -> lerMensagens(socket), "no-" + indiceNo + "-leitor");
+                leitor.setDaemon(true);
+                leitor.start();
+            }
+        } catch (IOException e) {
+            if (!fechado) {
+                System.err.println("[NÓ " + indiceNo + "] Falha ao aceitar conexões: " + e.getMessage());
+            }
+        }
+    }
+
+    private void lerMensagens(Socket socket) {
+        try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+            while (true) {
+                entregarLocal(Mensagem.ler(entrada));
+            }
+        } catch (EOFException | SocketException e) {
+            // O outro nó encerrou
+        } catch (IOException e) {
+            if (!fechado) {
+                System.err.println("[NÓ " + indiceNo + "] Conexão de entrada perdida: " + e.getMessage());
+            }
+        }
+    }
+
+    private void entregarLocal(Mensagem mensagem) {
+        BlockingQueue<Mensagem> caixa = caixas.get(mensagem.getDestino());
+        if (caixa == null) {
+            throw new IllegalStateException("Filósofo " + mensagem.getDestino() + " não registrado no nó " + indiceNo);
+        }
+        caixa.add(mensagem);
+    }
+
+    @Override
+    public void enviar(Mensagem mensagem) {
+        int no = noDoLugar(mensagem.getDestino(), numNos, numLugares);
+        if (no == indiceNo) {
+            entregarLocal(mensagem);
+            return;
+        }
+        DataOutputStream saida = saidas[no];
+        // Vários filósofos locais podem falar com o mesmo nó
+        synchronized (saida) {
+            try {
+                mensagem.escrever(saida);
+                saida.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Nó " + no + " inacessível", e);
+            }
+        }
+    }
+
+    public int getIndiceNo() {
+        return indiceNo;
+    }
+
+    public int getNumNos() {
+        return numNos;
+    }
+
+    @Override
+    public void close() {
+        fechado = true;
+        try {
+            if (servidor != null) {
+                servidor.close();
+            }
+        } catch (IOException e) {
+            // Já fechado
+        }
+        for (Socket socket : conexoes) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Já fechado
+            }
+        }
+    }
+}
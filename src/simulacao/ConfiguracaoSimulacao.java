@@ -0,0 +1,86 @@
+package simulacao;
+
+/**
+ * Parâmetros de uma execução da simulação.
+ *
+ * Os valores padrão reproduzem as Tarefas: 5 filósofos, pensar e comer
+ * entre 1 e 3 segundos, 5 minutos de jantar (agora em tempo VIRTUAL).
+ */
+public class ConfiguracaoSimulacao {
+    private int numFilosofos = 5;
+    private long pensarMinMs = 1000;
+    private long pensarMaxMs = 3000;
+    private long comerMinMs = 1000;
+    private long comerMaxMs = 3000;
+    private long intervaloEntreGarfosMs = 0;
+    private long duracaoMs = 300000;
+    private long semente = 42;
+
+    public int getNumFilosofos() {
+        return numFilosofos;
+    }
+
+    public ConfiguracaoSimulacao numFilosofos(int numFilosofos) {
+        this.numFilosofos = numFilosofos;
+        return this;
+    }
+
+    public long getPensarMinMs() {
+        return pensarMinMs;
+    }
+
+    public long getPensarMaxMs() {
+        return pensarMaxMs;
+    }
+
+    public ConfiguracaoSimulacao pensar(long minMs, long maxMs) {
+        this.pensarMinMs = minMs;
+        this.pensarMaxMs = maxMs;
+        return this;
+    }
+
+    public long getComerMinMs() {
+        return comerMinMs;
+    }
+
+    public long getComerMaxMs() {
+        return comerMaxMs;
+    }
+
+    public ConfiguracaoSimulacao comer(long minMs, long maxMs) {
+        this.comerMinMs = minMs;
+        this.comerMaxMs = maxMs;
+        return this;
+    }
+
+    public long getIntervaloEntreGarfosMs() {
+        return intervaloEntreGarfosMs;
+    }
+
+    /**
+     * Tempo entre pegar o primeiro e tentar o segundo garfo (Tarefas 1-3).
+     * Com 0, ambos são tentados no mesmo instante virtual.
+     */
+    public ConfiguracaoSimulacao intervaloEntreGarfos(long ms) {
+        this.intervaloEntreGarfosMs = ms;
+        return this;
+    }
+
+    public long getDuracaoMs() {
+        return duracaoMs;
+    }
+
+    public ConfiguracaoSimulacao duracao(long ms) {
+        this.duracaoMs = ms;
+        return this;
+    }
+
+    public long getSemente() {
+        return semente;
+    }
+
+    public ConfiguracaoSimulacao semente(long semente) {
+        this.semente = semente;
+        return this;
+    }
+}
@@ -0,0 +1,48 @@
+package simulacao;
+
+/**
+ * Regra de aquisição de garfos modelada sobre o relógio virtual.
+ *
+ * Cada subclasse reproduz a política de uma Tarefa. Os métodos são chamados
+ * pelo Simulador (single-thread), então não há sincronização aqui: a
+ * "espera" de um filósofo é apenas ele estar numa fila até que a estratégia
+ * chame {@link Simulador#comecarAComer(int)}.
+ */
+public abstract class Estrategia {
+    protected Simulador simulador;
+    protected int numFilosofos;
+
+    void iniciar(Simulador simulador, int numFilosofos) {
+        this.simulador = simulador;
+        this.numFilosofos = numFilosofos;
+        inicializar();
+    }
+
+    protected abstract void inicializar();
+
+    public abstract String getNome();
+
+    /**
+     * O filósofo terminou de pensar e começa a pedir os garfos.
+     */
+    protected abstract void comFome(int idFilosofo);
+
+    /**
+     * Chamado após o intervalo entre garfos para quem já tem o primeiro.
+     */
+    protected void pegarSegundo(int idFilosofo) {
+    }
+
+    /**
+     * O filósofo terminou de comer e devolve tudo o que segura.
+     */
+    protected abstract void soltar(int idFilosofo);
+
+    protected int garfoEsquerdo(int idFilosofo) {
+        return idFilosofo;
+    }
+
+    protected int garfoDireito(int idFilosofo) {
+        return (idFilosofo + 1) % numFilosofos;
+    }
+}
@@ -0,0 +1,91 @@
+package simulacao;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * Base das Tarefas 1-3: cada garfo é um recurso independente pego um de
+ * cada vez (posse e espera). Quem encontra o garfo ocupado entra na fila
+ * FIFO daquele garfo e o recebe diretamente quando ele é solto.
+ *
+ * As subclasses definem a ORDEM em que os garfos são pedidos e, se
+ * quiserem, uma etapa de admissão antes do primeiro garfo.
+ */
+public abstract class EstrategiaGarfosIndividuais extends Estrategia {
+    private static final int LIVRE = -1;
+
+    private int[] dono;
+    private ArrayDeque<Integer>[] filas;
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    protected void inicializar() {
+        dono = new int[numFilosofos];
+        Arrays.fill(dono, LIVRE);
+        filas = new ArrayDeque[numFilosofos];
+        for (int i = 0; i < numFilosofos; i++) {
+            filas[i] = new ArrayDeque<>();
+        }
+    }
+
+    protected abstract int primeiroGarfo(int idFilosofo);
+
+    protected abstract int segundoGarfo(int idFilosofo);
+
+    @Override
+    protected void comFome(int idFilosofo) {
+        sentar(idFilosofo);
+    }
+
+    /**
+     * Começa a pegar os garfos (após uma eventual admissão).
+     */
+    protected void sentar(int idFilosofo) {
+        pedir(idFilosofo, primeiroGarfo(idFilosofo));
+    }
+
+    @Override
+    protected void pegarSegundo(int idFilosofo) {
+        pedir(idFilosofo, segundoGarfo(idFilosofo));
+    }
+
+    private void pedir(int idFilosofo, int garfo) {
+        if (dono[garfo] == LIVRE) {
+            conceder(idFilosofo, garfo);
+        } else {
+            filas[garfo].add(idFilosofo);
+        }
+    }
+
+    private void conceder(int idFilosofo, int garfo) {
+        dono[garfo] = idFilosofo;
+        simulador.garfoPego(garfo);
+        if (garfo == primeiroGarfo(idFilosofo)) {
+            simulador.agendarSegundoGarfo(idFilosofo);
+        } else {
+            simulador.comecarAComer(idFilosofo);
+        }
+    }
+
+    @Override
+    protected void soltar(int idFilosofo) {
+        liberar(segundoGarfo(idFilosofo));
+        liberar(primeiroGarfo(idFilosofo));
+        levantar(idFilosofo);
+    }
+
+    private void liberar(int garfo) {
+        dono[garfo] = LIVRE;
+        simulador.garfoSolto(garfo);
+        Integer proximo = filas[garfo].poll();
+        if (proximo != null) {
+            conceder(proximo, garfo);
+        }
+    }
+
+    /**
+     * Chamado depois que os garfos foram soltos (ex.: liberar a vaga na mesa).
+     */
+    protected void levantar(int idFilosofo) {
+    }
+}
@@ -0,0 +1,23 @@
+package simulacao;
+
+/**
+ * Tarefa 1: todos pegam ESQUERDO → DIREITO. Pode entrar em deadlock,
+ * principalmente com intervalo entre garfos maior que zero.
+ */
+public class EstrategiaIngenua extends EstrategiaGarfosIndividuais {
+
+    @Override
+    public String getNome() {
+        return "Tarefa 1 (ingênua)";
+    }
+
+    @Override
+    protected int primeiroGarfo(int idFilosofo) {
+        return garfoEsquerdo(idFilosofo);
+    }
+
+    @Override
+    protected int segundoGarfo(int idFilosofo) {
+        return garfoDireito(idFilosofo);
+    }
+}
@@ -0,0 +1,85 @@
+package simulacao;
+
+import tarefa4.FilaIndexada;
+
+/**
+ * Tarefa 4: aquisição atômica dos dois garfos coordenada pela Mesa, com a
+ * mesma regra de fairness (primeiro da fila OU esperando há mais que o
+ * dobro do primeiro), avaliada no relógio virtual.
+ *
+ * A cada chegada ou liberação, a fila é percorrida na ordem e todo
+ * filósofo elegível come, como se o notifyAll() acordasse todos.
+ */
+public class EstrategiaMesa extends Estrategia {
+    private boolean[] garfosDisponiveis;
+    private long[] tempoUltimaRefeicao;
+    private FilaIndexada filaEspera;
+
+    @Override
+    protected void inicializar() {
+        garfosDisponiveis = new boolean[numFilosofos];
+        tempoUltimaRefeicao = new long[numFilosofos];
+        filaEspera = new FilaIndexada(numFilosofos);
+        for (int i = 0; i < numFilosofos; i++) {
+            garfosDisponiveis[i] = true;
+        }
+    }
+
+    @Override
+    public String getNome() {
+        return "Tarefa 4 (monitor Mesa)";
+    }
+
+    @Override
+    protected void comFome(int idFilosofo) {
+        filaEspera.adicionar(idFilosofo);
+        concederElegiveis();
+    }
+
+    @Override
+    protected void soltar(int idFilosofo) {
+        int esquerdo = garfoEsquerdo(idFilosofo);
+        int direito = garfoDireito(idFilosofo);
+        garfosDisponiveis[esquerdo] = true;
+        garfosDisponiveis[direito] = true;
+        simulador.garfoSolto(esquerdo);
+        simulador.garfoSolto(direito);
+        tempoUltimaRefeicao[idFilosofo] = simulador.getRelogio();
+        concederElegiveis();
+    }
+
+    private void concederElegiveis() {
+        boolean concedeu;
+        do {
+            concedeu = false;
+            for (int id = filaEspera.primeiro(); id != FilaIndexada.VAZIA; id = filaEspera.proximoDe(id)) {
+                if (podePegarGarfos(id)) {
+                    filaEspera.remover(id);
+                    int esquerdo = garfoEsquerdo(id);
+                    int direito = garfoDireito(id);
+                    garfosDisponiveis[esquerdo] = false;
+                    garfosDisponiveis[direito] = false;
+                    simulador.garfoPego(esquerdo);
+                    simulador.garfoPego(direito);
+                    simulador.comecarAComer(id);
+                    concedeu = true;
+                    break; // O primeiro da fila pode ter mudado: recomeça
+                }
+            }
+        } while (concedeu);
+    }
+
+    private boolean podePegarGarfos(int idFilosofo) {
+        if (!garfosDisponiveis[garfoEsquerdo(idFilosofo)] || !garfosDisponiveis[garfoDireito(idFilosofo)]) {
+            return false;
+        }
+        int primeiro = filaEspera.primeiro();
+        if (primeiro == idFilosofo) {
+            return true;
+        }
+        long agora = simulador.getRelogio();
+        long tempoEsperaAtual = agora - tempoUltimaRefeicao[idFilosofo];
+        long tempoEsperaPrimeiro = agora - tempoUltimaRefeicao[primeiro];
+        return tempoEsperaAtual > tempoEsperaPrimeiro * 2;
+    }
+}
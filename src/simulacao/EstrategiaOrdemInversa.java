@@ -0,0 +1,27 @@
+package simulacao;
+
+/**
+ * Tarefa 2: o último filósofo pega DIREITO → ESQUERDO, quebrando a espera
+ * circular; os demais pegam ESQUERDO → DIREITO.
+ */
+public class EstrategiaOrdemInversa extends EstrategiaGarfosIndividuais {
+
+    private boolean ordemInversa(int idFilosofo) {
+        return idFilosofo == numFilosofos - 1;
+    }
+
+    @Override
+    public String getNome() {
+        return "Tarefa 2 (ordem inversa)";
+    }
+
+    @Override
+    protected int primeiroGarfo(int idFilosofo) {
+        return ordemInversa(idFilosofo) ? garfoDireito(idFilosofo) : garfoEsquerdo(idFilosofo);
+    }
+
+    @Override
+    protected int segundoGarfo(int idFilosofo) {
+        return ordemInversa(idFilosofo) ? garfoEsquerdo(idFilosofo) : garfoDireito(idFilosofo);
+    }
+}
@@ -0,0 +1,56 @@
+package simulacao;
+
+import java.util.ArrayDeque;
+
+/**
+ * Tarefa 3: um semáforo com N-1 permissões limita quem pode tentar pegar
+ * garfos; depois ESQUERDO → DIREITO.
+ *
+ * A fila do semáforo é modelada como FIFO (Semaphore justo).
+ */
+public class EstrategiaSemaforo extends EstrategiaGarfosIndividuais {
+    private int permissoes;
+    private ArrayDeque<Integer> filaMesa;
+
+    @Override
+    protected void inicializar() {
+        super.inicializar();
+        permissoes = numFilosofos - 1;
+        filaMesa = new ArrayDeque<>();
+    }
+
+    @Override
+    public String getNome() {
+        return "Tarefa 3 (semáforo)";
+    }
+
+    @Override
+    protected int primeiroGarfo(int idFilosofo) {
+        return garfoEsquerdo(idFilosofo);
+    }
+
+    @Override
+    protected int segundoGarfo(int idFilosofo) {
+        return garfoDireito(idFilosofo);
+    }
+
+    @Override
+    protected void comFome(int idFilosofo) {
+        if (permissoes > 0) {
+            permissoes--;
+            sentar(idFilosofo);
+        } else {
+            filaMesa.add(idFilosofo);
+        }
+    }
+
+    @Override
+    protected void levantar(int idFilosofo) {
+        Integer proximo = filaMesa.poll();
+        if (proximo != null) {
+            sentar(proximo); // A permissão passa direto para o próximo
+        } else {
+            permissoes++;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package simulacao;
+
+/**
+ * Evento da simulação: algo que acontece com um filósofo num instante do
+ * relógio virtual.
+ *
+ * A ordem é pelo tempo e, em caso de empate, pela ordem de agendamento
+ * (sequência), o que torna a simulação determinística.
+ */
+public class Evento implements Comparable<Evento> {
+
+    public enum Tipo {
+        FIM_PENSAR,       // Filósofo fica com fome e começa a pedir garfos
+        PEGAR_SEGUNDO,    // Após o intervalo entre garfos, tenta o segundo garfo
+        FIM_COMER         // Filósofo devolve os garfos e volta a pensar
+    }
+
+    private final long tempo;
+    private final long sequencia;
+    private final Tipo tipo;
+    private final int filosofo;
+
+    public Evento(long tempo, long sequencia, Tipo tipo, int filosofo) {
+        this.tempo = tempo;
+        this.sequencia = sequencia;
+        this.tipo = tipo;
+        this.filosofo = filosofo;
+    }
+
+    public long getTempo() {
+        return tempo;
+    }
+
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    public int getFilosofo() {
+        return filosofo;
+    }
+
+    @Override
+    public int compareTo(Evento outro) {
+        if (tempo != outro.tempo) {
+            return Long.compare(tempo, outro.tempo);
+        }
+        return Long.compare(sequencia, outro.sequencia);
+    }
+}
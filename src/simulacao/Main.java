@@ -0,0 +1,55 @@
+package simulacao;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Executa as quatro estratégias no simulador de eventos discretos e compara
+ * as métricas, sem esperar os 5 minutos de relógio de parede de cada Tarefa.
+ *
+ * Uso: java -cp src simulacao.Main [filosofos] [duracaoSimuladaMs] [semente] [intervaloEntreGarfosMs]
+ *   Ex.: java -cp src simulacao.Main 5 3600000 42 0   (1 hora de jantar simulado)
+ */
+public class Main {
+
+    public static void main(String[] args) {
+        int numFilosofos = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        long duracaoMs = args.length > 1 ? Long.parseLong(args[1]) : 3600000; // 1 hora simulada
+        long semente = args.length > 2 ? Long.parseLong(args[2]) : 42;
+        long intervalo = args.length > 3 ? Long.parseLong(args[3]) : 0;
+
+        System.out.println("=".repeat(80));
+        System.out.println("SIMULAÇÃO POR EVENTOS DISCRETOS - JANTAR DOS FILÓSOFOS");
+        System.out.println("=".repeat(80));
+        System.out.printf("Filósofos: %d | Tempo simulado: %d s | Semente: %d | Intervalo entre garfos: %d ms%n",
+                numFilosofos, duracaoMs / 1000, semente, intervalo);
+        System.out.println("=".repeat(80));
+
+        List<Estrategia> estrategias = new ArrayList<>();
+        estrategias.add(new EstrategiaIngenua());
+        estrategias.add(new EstrategiaOrdemInversa());
+        estrategias.add(new EstrategiaSemaforo());
+        estrategias.add(new EstrategiaMesa());
+
+        System.out.printf("%-26s %10s %10s %12s %10s %10s %10s%n",
+                "Estratégia", "Ref/min", "CV (%)", "Espera (ms)", "Garfos (%)", "Deadlock", "Real (ms)");
+        System.out.println("-".repeat(96));
+
+        for (Estrategia estrategia : estrategias) {
+            ConfiguracaoSimulacao config = new ConfiguracaoSimulacao()
+                    .numFilosofos(numFilosofos)
+                    .duracao(duracaoMs)
+                    .semente(semente)
+                    .intervaloEntreGarfos(intervalo);
+            ResultadoSimulacao r = new Simulador(config, estrategia).executar();
+
+            String deadlock = r.isDeadlock()
+                    ? String.format("SIM @%ds", r.getTempoSimuladoMs() / 1000) : "Não";
+            System.out.printf("%-26s %10.2f %10.2f %12.2f %10.2f %10s %10.1f%n",
+                    r.getEstrategia(), r.getRefeicoesPorMinuto(), r.getCoeficienteVariacao(),
+                    r.getTempoMedioEsperaGeral(), r.getUtilizacaoMediaGarfos(), deadlock,
+                    r.getDuracaoRealMs());
+        }
+        System.out.println("=".repeat(80));
+    }
+}
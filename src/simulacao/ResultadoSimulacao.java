@@ -0,0 +1,102 @@
+package simulacao;
+
+/**
+ * Estatísticas de uma execução do Simulador, nas mesmas métricas que os
+ * Main das Tarefas imprimem (refeições, CV, espera média, utilização).
+ */
+public class ResultadoSimulacao {
+    private final String estrategia;
+    private final long tempoSimuladoMs;
+    private final int[] refeicoes;
+    private final double[] tempoMedioEspera;
+    private final double[] utilizacaoGarfos;
+    private final boolean deadlock;
+    private final long eventosProcessados;
+    private final long duracaoRealNs;
+
+    public ResultadoSimulacao(String estrategia, long tempoSimuladoMs, int[] refeicoes,
+                              double[] tempoMedioEspera, double[] utilizacaoGarfos,
+                              boolean deadlock, long eventosProcessados, long duracaoRealNs) {
+        this.estrategia = estrategia;
+        this.tempoSimuladoMs = tempoSimuladoMs;
+        this.refeicoes = refeicoes;
+        this.tempoMedioEspera = tempoMedioEspera;
+        this.utilizacaoGarfos = utilizacaoGarfos;
+        this.deadlock = deadlock;
+        this.eventosProcessados = eventosProcessados;
+        this.duracaoRealNs = duracaoRealNs;
+    }
+
+    public String getEstrategia() {
+        return estrategia;
+    }
+
+    public long getTempoSimuladoMs() {
+        return tempoSimuladoMs;
+    }
+
+    public int getRefeicoes(int idFilosofo) {
+        return refeicoes[idFilosofo];
+    }
+
+    public int getNumFilosofos() {
+        return refeicoes.length;
+    }
+
+    public int getTotalRefeicoes() {
+        int total = 0;
+        for (int r : refeicoes) {
+            total += r;
+        }
+        return total;
+    }
+
+    public double getTempoMedioEspera(int idFilosofo) {
+        return tempoMedioEspera[idFilosofo];
+    }
+
+    public double getTempoMedioEsperaGeral() {
+        double soma = 0;
+        for (double t : tempoMedioEspera) {
+            soma += t;
+        }
+        return soma / tempoMedioEspera.length;
+    }
+
+    public double getUtilizacaoMediaGarfos() {
+        double soma = 0;
+        for (double u : utilizacaoGarfos) {
+            soma += u;
+        }
+        return soma / utilizacaoGarfos.length;
+    }
+
+    public double getCoeficienteVariacao() {
+        double media = (double) getTotalRefeicoes() / refeicoes.length;
+        if (media == 0) {
+            return 0;
+        }
+        double somaDiferencasQuadrado = 0;
+        for (int r : refeicoes) {
+            double diferenca = r - media;
+            somaDiferencasQuadrado += diferenca * diferenca;
+        }
+        return Math.sqrt(somaDiferencasQuadrado / refeicoes.length) / media * 100;
+    }
+
+    public double getRefeicoesPorMinuto() {
+        return tempoSimuladoMs > 0 ? getTotalRefeicoes() / (tempoSimuladoMs / 60000.0) : 0;
+    }
+
+    public boolean isDeadlock() {
+        return deadlock;
+    }
+
+    public long getEventosProcessados() {
+        return eventosProcessados;
+    }
+
+    public double getDuracaoRealMs() {
+        return duracaoRealNs / 1e6;
+    }
+}
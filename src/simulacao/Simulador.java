@@ -0,0 +1,149 @@
+package simulacao;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Motor de simulação por eventos discretos do Jantar dos Filósofos.
+ *
+ * Em vez de threads dormindo com Thread.sleep(), cada "pensar" e "comer"
+ * vira um evento agendado num relógio VIRTUAL. O laço principal retira o
+ * próximo evento da fila de prioridade, avança o relógio até ele e aplica
+ * a regra da Estrategia. Horas de jantar simulado rodam em milissegundos,
+ * e a mesma semente produz sempre o mesmo resultado.
+ *
+ * Deadlock: se a fila de eventos esvazia antes do fim, todos os filósofos
+ * estão esperando uns pelos outros e nada mais pode acontecer.
+ */
+public class Simulador {
+    private final ConfiguracaoSimulacao config;
+    private final Estrategia estrategia;
+    private final int numFilosofos;
+    private final PriorityQueue<Evento> eventos;
+    private final Random random;
+    private long relogio = 0;
+    private long sequencia = 0;
+    private long eventosProcessados = 0;
+
+    private final int[] contadorRefeicoes;
+    private final long[] totalTempoEspera;
+    private final int[] tentativasTotal;
+    private final long[] inicioEspera;
+    private final long[] tempoTotalGarfoEmUso;
+    private final long[] ultimoPegado;
+
+    public Simulador(ConfiguracaoSimulacao config, Estrategia estrategia) {
+        this.config = config;
+        this.estrategia = estrategia;
+        this.numFilosofos = config.getNumFilosofos();
+        this.eventos = new PriorityQueue<>();
+        this.random = new Random(config.getSemente());
+        this.contadorRefeicoes = new int[numFilosofos];
+        this.totalTempoEspera = new long[numFilosofos];
+        this.tentativasTotal = new int[numFilosofos];
+        this.inicioEspera = new long[numFilosofos];
+        this.tempoTotalGarfoEmUso = new long[numFilosofos];
+        this.ultimoPegado = new long[numFilosofos];
+        Arrays.fill(ultimoPegado, -1); // -1 = garfo livre
+    }
+
+    public ResultadoSimulacao executar() {
+        long inicioReal = System.nanoTime();
+        estrategia.iniciar(this, numFilosofos);
+
+        for (int i = 0; i < numFilosofos; i++) {
+            agendar(sortear(config.getPensarMinMs(), config.getPensarMaxMs()), Evento.Tipo.FIM_PENSAR, i);
+        }
+
+        long duracao = config.getDuracaoMs();
+        while (!eventos.isEmpty() && eventos.peek().getTempo() <= duracao) {
+            Evento evento = eventos.poll();
+            relogio = evento.getTempo();
+            eventosProcessados++;
+            int id = evento.getFilosofo();
+
+            switch (evento.getTipo()) {
+                case FIM_PENSAR:
+                    tentativasTotal[id]++;
+                    inicioEspera[id] = relogio;
+                    estrategia.comFome(id);
+                    break;
+                case PEGAR_SEGUNDO:
+                    estrategia.pegarSegundo(id);
+                    break;
+                case FIM_COMER:
+                    contadorRefeicoes[id]++;
+                    estrategia.soltar(id);
+                    agendar(sortear(config.getPensarMinMs(), config.getPensarMaxMs()), Evento.Tipo.FIM_PENSAR, id);
+                    break;
+            }
+        }
+
+        boolean deadlock = eventos.isEmpty();
+        long fim = deadlock ? relogio : duracao;
+        // Garfos ainda em uso no fim contam até o instante final
+        for (int g = 0; g < numFilosofos; g++) {
+            if (ultimoPegado[g] >= 0) {
+                tempoTotalGarfoEmUso[g] += fim - ultimoPegado[g];
+            }
+        }
+
+        double[] tempoMedioEspera = new double[numFilosofos];
+        double[] utilizacao = new double[numFilosofos];
+        for (int i = 0; i < numFilosofos; i++) {
+            tempoMedioEspera[i] = tentativasTotal[i] > 0
+                    ? (double) totalTempoEspera[i] / tentativasTotal[i] : 0;
+            utilizacao[i] = fim > 0 ? (double) tempoTotalGarfoEmUso[i] / fim * 100 : 0;
+        }
+
+        long duracaoRealNs = System.nanoTime() - inicioReal;
+        return new ResultadoSimulacao(estrategia.getNome(), fim, contadorRefeicoes.clone(),
+                tempoMedioEspera, utilizacao, deadlock, eventosProcessados, duracaoRealNs);
+    }
+
+    // ---- Chamados pelas estratégias ----
+
+    public long getRelogio() {
+        return relogio;
+    }
+
+    /**
+     * O filósofo conseguiu todos os garfos: registra a espera e agenda o fim da refeição.
+     */
+    void comecarAComer(int idFilosofo) {
+        totalTempoEspera[idFilosofo] += relogio - inicioEspera[idFilosofo];
+        agendar(sortear(config.getComerMinMs(), config.getComerMaxMs()), Evento.Tipo.FIM_COMER, idFilosofo);
+    }
+
+    /**
+     * O filósofo pegou o primeiro garfo; tenta o segundo após o intervalo configurado.
+     */
+    void agendarSegundoGarfo(int idFilosofo) {
+        long intervalo = config.getIntervaloEntreGarfosMs();
+        if (intervalo == 0) {
+            estrategia.pegarSegundo(idFilosofo);
+        } else {
+            agendar(intervalo, Evento.Tipo.PEGAR_SEGUNDO, idFilosofo);
+        }
+    }
+
+    void garfoPego(int garfo) {
+        ultimoPegado[garfo] = relogio;
+    }
+
+    void garfoSolto(int garfo) {
+        if (ultimoPegado[garfo] >= 0) {
+            tempoTotalGarfoEmUso[garfo] += relogio - ultimoPegado[garfo];
+            ultimoPegado[garfo] = -1;
+        }
+    }
+
+    private void agendar(long atraso, Evento.Tipo tipo, int idFilosofo) {
+        eventos.add(new Evento(relogio + atraso, sequencia++, tipo, idFilosofo));
+    }
+
+    private long sortear(long min, long max) {
+        return max > min ? min + (long) (random.nextDouble() * (max - min)) : min;
+    }
+}
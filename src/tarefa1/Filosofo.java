@@ -1,8 +1,11 @@
 package tarefa1;
 
+import comum.CanalEventos;
+import comum.ContadorEscritorUnico;
+import comum.RegistroEventos;
+import comum.TipoEvento;
+
 import java.util.Random;
-import java.text.SimpleDateFormat;
-import java.util.Date;
 
 /**
  * Representa um filósofo no problema do Jantar dos Filósofos.
@@ -40,67 +43,268 @@ import java.util.Date;
  * 2. Posse e Espera: ✓ (filósofo segura 1 garfo enquanto espera o outro)
  * 3. Não Preempção: ✓ (garfos não podem ser forcadamente retirados)
  * 4. Espera Circular: ✓ (ciclo F0→F1→...→F4→F0)
+ *
+ * MODO COM RECUPERAÇÃO (preemptivel = true):
+ * A mesma estratégia ingênua, mas os garfos são pegos com espera
+ * interrompível (Garfo.pegar). Quando o VigiaDeadlock encontra o ciclo, ele
+ * preempta uma vítima: ela solta o garfo que segura e volta a pensar, e os
+ * demais seguem. Isso quebra a condição de Não Preempção.
+ *
+ * Nos dois modos o filósofo anota qual garfo espera (getGarfoEsperado) e
+ * cada Garfo anota quem o segura: é o grafo de espera que o vigia percorre.
  */
 public class Filosofo implements Runnable {
+    public static final int NENHUM = -1;
+
     private final int id;
     private final Garfo garfoEsquerdo;
     private final Garfo garfoDireito;
+    private final boolean preemptivel;
+    private final int minMs;
+    private final int maxMs;
     private final Random random;
-    private final SimpleDateFormat timeFormat;
+    private CanalEventos canal; // Aberto no primeiro evento, fechado ao fim do run()
+    private final ContadorEscritorUnico refeicoes = new ContadorEscritorUnico();
+    private final ContadorEscritorUnico preempcoes = new ContadorEscritorUnico();
     private volatile boolean executando = true;
+    private volatile boolean preemptado = false;
+    private volatile Thread thread;
+    private volatile int garfoEsperado = NENHUM;
+    private volatile long esperandoDesde;
 
     public Filosofo(int id, Garfo garfoEsquerdo, Garfo garfoDireito) {
+        this(id, garfoEsquerdo, garfoDireito, false);
+    }
+
+    public Filosofo(int id, Garfo garfoEsquerdo, Garfo garfoDireito, boolean preemptivel) {
+        this(id, garfoEsquerdo, garfoDireito, preemptivel, 1000, 3000); // 1-3 segundos
+    }
+
+    /**
+     * @param preemptivel se os garfos são pegos com espera interrompível
+     *        (modo com recuperação)
+     * @param minMs duração mínima de pensar/comer
+     * @param maxMs duração máxima (exclusiva) de pensar/comer
+     */
+    public Filosofo(int id, Garfo garfoEsquerdo, Garfo garfoDireito, boolean preemptivel, int minMs, int maxMs) {
         this.id = id;
         this.garfoEsquerdo = garfoEsquerdo;
         this.garfoDireito = garfoDireito;
+        this.preemptivel = preemptivel;
+        this.minMs = minMs;
+        this.maxMs = maxMs;
         this.random = new Random();
-        this.timeFormat = new SimpleDateFormat("HH:mm:ss.SSS");
     }
 
     @Override
     public void run() {
+        thread = Thread.currentThread();
         try {
             while (executando) {
-                pensar();
-                comer();
+                try {
+                    pensar();
+                    comer();
+                } catch (InterruptedException e) {
+                    if (!preemptado) {
+                        log(TipoEvento.INTERROMPIDO);
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    // Preemptado: os garfos já foram soltos; volta a pensar
+                    preemptado = false;
+                    preempcoes.incrementar();
+                    log(TipoEvento.PREEMPTADO);
+                }
             }
-        } catch (InterruptedException e) {
-            log("Foi interrompido");
-            Thread.currentThread().interrupt();
+        } finally {
+            fecharCanal();
         }
     }
 
     private void pensar() throws InterruptedException {
-        log("começou a PENSAR");
-        Thread.sleep(random.nextInt(2000) + 1000); // 1-3 segundos
+        log(TipoEvento.PENSANDO);
+        Thread.sleep(sortearDuracao());
     }
 
     private void comer() throws InterruptedException {
+        if (preemptivel) {
+            comerPreemptivel();
+            return;
+        }
         // Tenta pegar o garfo esquerdo primeiro
-        log("tentando pegar o garfo ESQUERDO " + garfoEsquerdo.getId());
+        log(TipoEvento.TENTANDO_ESQUERDO, garfoEsquerdo.getId());
+        aguardar(garfoEsquerdo);
         synchronized (garfoEsquerdo) {
-            log("pegou o garfo ESQUERDO " + garfoEsquerdo.getId());
-            
-            // Tenta pegar o garfo direito
-            log("tentando pegar o garfo DIREITO " + garfoDireito.getId());
-            synchronized (garfoDireito) {
-                log("pegou o garfo DIREITO " + garfoDireito.getId());
-                
-                // Comendo
-                log("está COMENDO com garfos " + garfoEsquerdo.getId() + " e " + garfoDireito.getId());
-                Thread.sleep(random.nextInt(2000) + 1000); // 1-3 segundos
-                
-                log("terminou de COMER e soltou os garfos " + garfoEsquerdo.getId() + " e " + garfoDireito.getId());
+            segurar(garfoEsquerdo);
+            log(TipoEvento.PEGOU_ESQUERDO, garfoEsquerdo.getId());
+            try {
+                // Tenta pegar o garfo direito
+                log(TipoEvento.TENTANDO_DIREITO, garfoDireito.getId());
+                aguardar(garfoDireito);
+                synchronized (garfoDireito) {
+                    segurar(garfoDireito);
+                    log(TipoEvento.PEGOU_DIREITO, garfoDireito.getId());
+                    try {
+                        refeicao();
+                    } finally {
+                        garfoDireito.setDono(Garfo.LIVRE);
+                    }
+                }
+            } finally {
+                garfoEsquerdo.setDono(Garfo.LIVRE);
             }
         }
     }
 
+    /**
+     * Mesma ordem (esquerdo, depois direito), mas cada espera pode ser
+     * interrompida pelo vigia; os finally soltam o que já estava na mão.
+     */
+    private void comerPreemptivel() throws InterruptedException {
+        log(TipoEvento.TENTANDO_ESQUERDO, garfoEsquerdo.getId());
+        pegar(garfoEsquerdo);
+        try {
+            log(TipoEvento.PEGOU_ESQUERDO, garfoEsquerdo.getId());
+            log(TipoEvento.TENTANDO_DIREITO, garfoDireito.getId());
+            pegar(garfoDireito);
+            try {
+                log(TipoEvento.PEGOU_DIREITO, garfoDireito.getId());
+                refeicao();
+            } finally {
+                garfoDireito.soltar();
+            }
+        } finally {
+            garfoEsquerdo.soltar();
+        }
+    }
+
+    private void pegar(Garfo garfo) throws InterruptedException {
+        aguardar(garfo);
+        try {
+            garfo.pegar(id);
+        } finally {
+            garfoEsperado = NENHUM;
+        }
+    }
+
+    private void aguardar(Garfo garfo) {
+        esperandoDesde = System.nanoTime();
+        garfoEsperado = garfo.getId();
+        garfo.anotarEspera(id);
+    }
+
+    private void segurar(Garfo garfo) {
+        garfoEsperado = NENHUM;
+        garfo.setDono(id);
+    }
+
+    private void refeicao() throws InterruptedException {
+        // Comendo
+        log(TipoEvento.COMENDO, garfoEsquerdo.getId(), garfoDireito.getId());
+        Thread.sleep(sortearDuracao());
+        refeicoes.incrementar();
+        log(TipoEvento.TERMINOU_E_SOLTOU_GARFOS, garfoEsquerdo.getId(), garfoDireito.getId());
+    }
+
+    private int sortearDuracao() {
+        return minMs < maxMs ? minMs + random.nextInt(maxMs - minMs) : minMs;
+    }
+
     public void parar() {
         executando = false;
     }
 
-    private void log(String mensagem) {
-        String timestamp = timeFormat.format(new Date());
-        System.out.println("[" + timestamp + "] Filósofo " + id + " " + mensagem);
+    /**
+     * Chamado pelo VigiaDeadlock: interrompe a espera pelo garfo. Só tem
+     * efeito no modo com recuperação (um synchronized não é interrompível).
+     */
+    void preemptar() {
+        Thread alvo = thread;
+        if (!preemptivel || alvo == null) {
+            return;
+        }
+        preemptado = true;
+        alvo.interrupt();
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public Garfo getGarfoEsquerdo() {
+        return garfoEsquerdo;
+    }
+
+    public Garfo getGarfoDireito() {
+        return garfoDireito;
+    }
+
+    public boolean isPreemptivel() {
+        return preemptivel;
+    }
+
+    /**
+     * Garfo que o filósofo está esperando, ou NENHUM.
+     */
+    public int getGarfoEsperado() {
+        return garfoEsperado;
+    }
+
+    /**
+     * Instante (System.nanoTime) em que começou a esperar o garfo atual.
+     */
+    public long getEsperandoDesde() {
+        return esperandoDesde;
+    }
+
+    /**
+     * Thread do filósofo (null antes de começar a rodar).
+     */
+    public Thread getThread() {
+        return thread;
+    }
+
+    public int getContadorRefeicoes() {
+        return (int) refeicoes.get();
+    }
+
+    public int getVezesPreemptado() {
+        return (int) preempcoes.get();
+    }
+
+    private void log(TipoEvento tipo) {
+        log(tipo, 0, 0, 0);
+    }
+
+    private void log(TipoEvento tipo, long a) {
+        log(tipo, a, 0, 0);
+    }
+
+    private void log(TipoEvento tipo, long a, long b) {
+        log(tipo, a, b, 0);
+    }
+
+    /**
+     * Grava o evento no canal do filósofo; a formatação e a impressão ficam
+     * para a thread escritora do RegistroEventos.
+     */
+    private void log(TipoEvento tipo, long a, long b, long c) {
+        if (canal == null) {
+            canal = RegistroEventos.abrirCanal();
+            if (canal == null) {
+                return; // Log desligado
+            }
+        }
+        canal.registrar(tipo, id, a, b, c);
+    }
+
+    /**
+     * Fecha o canal no fim do run(): a escritora drena o resto e o descarta.
+     */
+    private void fecharCanal() {
+        if (canal != null) {
+            canal.fechar();
+            canal = null;
+        }
     }
 }
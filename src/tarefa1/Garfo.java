@@ -1,17 +1,92 @@
 package tarefa1;
 
+import comum.RegistroPosse;
+
+import java.util.concurrent.locks.ReentrantLock;
+
 /**
  * Representa um garfo na mesa do Jantar dos Filósofos.
  * Cada garfo é um recurso compartilhado que deve ser adquirido exclusivamente.
+ *
+ * No modo clássico o próprio objeto é o monitor (synchronized). No modo com
+ * recuperação o garfo é pego por pegar()/soltar(), uma espera interrompível:
+ * é ela que permite ao VigiaDeadlock tirar um filósofo do ciclo.
+ *
+ * Nos dois modos o garfo guarda quem o segura, para o grafo de espera, e
+ * repassa esperas e posses ao RegistroPosse, se houver um.
  */
 public class Garfo {
+    public static final int LIVRE = -1;
+
     private final int id;
+    private final ReentrantLock trava = new ReentrantLock();
+    private volatile int dono = LIVRE;
+    private final RegistroPosse registro; // null: posse não acompanhada
 
     public Garfo(int id) {
+        this(id, null);
+    }
+
+    /**
+     * @param registro onde informar a posse do garfo (null: nenhum)
+     */
+    public Garfo(int id, RegistroPosse registro) {
         this.id = id;
+        this.registro = registro;
     }
 
     public int getId() {
         return id;
     }
+
+    /**
+     * Modo com recuperação: espera o garfo, mas sai com
+     * InterruptedException se for preemptado.
+     */
+    public void pegar(int idFilosofo) throws InterruptedException {
+        try {
+            trava.lockInterruptibly();
+        } catch (InterruptedException e) {
+            if (registro != null) {
+                registro.desistiu(idFilosofo, id);
+            }
+            throw e;
+        }
+        setDono(idFilosofo);
+    }
+
+    public void soltar() {
+        setDono(LIVRE);
+        trava.unlock();
+    }
+
+    /**
+     * Filósofo que segura o garfo, ou LIVRE.
+     */
+    public int getDono() {
+        return dono;
+    }
+
+    /**
+     * Modo clássico: o filósofo anota a posse dentro do synchronized.
+     */
+    void setDono(int idFilosofo) {
+        if (registro != null) {
+            if (idFilosofo == LIVRE) {
+                registro.liberou(dono, id);
+            } else {
+                registro.adquiriu(idFilosofo, id);
+            }
+        }
+        dono = idFilosofo;
+    }
+
+    /**
+     * O filósofo vai esperar este garfo (antes do synchronized ou do pegar).
+     */
+    void anotarEspera(int idFilosofo) {
+        if (registro != null) {
+            registro.aguardando(idFilosofo, id);
+        }
+    }
 }
@@ -1,5 +1,10 @@
 package tarefa1;
 
+import comum.FabricaThreads;
+import comum.RegistroEventos;
+import comum.RegistroPosse;
+import comum.Topologia;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -11,25 +16,47 @@ import java.util.List;
  * o que pode levar a uma situação onde todos pegam o garfo esquerdo e ficam
  * esperando indefinidamente pelo garfo direito.
  * 
+ * O número de lugares vem de -Dfilosofos.lugares (padrão 5); a Tarefa 1
+ * é sempre um anel, que é a topologia em que o deadlock aparece.
+ * 
  * Execute por pelo menos 30 segundos para observar o deadlock.
+ *
+ * Uso: java -cp src tarefa1.Main [deadlock|recuperacao]
+ *   - deadlock (padrão): synchronized aninhado; o VigiaDeadlock mostra o
+ *                        ciclo assim que ele se forma, mas não o desfaz
+ *   - recuperacao: mesma estratégia com espera interrompível; o vigia
+ *                  preempta uma vítima e a mesa segue
+ *
+ * Com -Dfilosofos.posse=ligado o RegistroPosse também acompanha os garfos e
+ * imprime cada ciclo no momento em que a aresta que o fecha nasce.
  */
 public class Main {
-    private static final int NUM_FILOSOFOS = 5;
+    private static final int NUM_FILOSOFOS =
+            Integer.getInteger(Topologia.PROPRIEDADE_LUGARES, 5);
     private static final int TEMPO_EXECUCAO_MS = 30000; // 30 segundos
 
     public static void main(String[] args) {
+        String modo = args.length > 0 ? args[0] : "deadlock";
+        if (!modo.equals("deadlock") && !modo.equals("recuperacao")) {
+            throw new IllegalArgumentException("Modo desconhecido: " + modo);
+        }
+        boolean recuperar = modo.equals("recuperacao");
         System.out.println("=".repeat(80));
         System.out.println("TAREFA 1: JANTAR DOS FILÓSOFOS - IMPLEMENTAÇÃO COM DEADLOCK");
         System.out.println("=".repeat(80));
-        System.out.println("Iniciando simulação com " + NUM_FILOSOFOS + " filósofos...");
+        System.out.println("Iniciando simulação com " + NUM_FILOSOFOS + " filósofos (" + FabricaThreads.getDescricaoModo() + ")...");
         System.out.println("Tempo de execução: " + (TEMPO_EXECUCAO_MS / 1000) + " segundos");
-        System.out.println("ATENÇÃO: Esta implementação PODE causar deadlock!\n");
+        System.out.println("ATENÇÃO: Esta implementação PODE causar deadlock!");
+        System.out.println(recuperar
+                ? "Modo recuperação: o vigia preempta uma vítima a cada deadlock.\n"
+                : "O vigia de deadlock só vai apontar o ciclo (use 'recuperacao' para desfazê-lo).\n");
         System.out.println("=".repeat(80));
 
         // Criar os garfos
+        RegistroPosse registro = RegistroPosse.dePropriedades(NUM_FILOSOFOS, NUM_FILOSOFOS);
         List<Garfo> garfos = new ArrayList<>();
         for (int i = 0; i < NUM_FILOSOFOS; i++) {
-            garfos.add(new Garfo(i));
+            garfos.add(new Garfo(i, registro));
         }
 
         // Criar os filósofos
@@ -40,14 +67,16 @@ public class Main {
             Garfo garfoEsquerdo = garfos.get(i);
             Garfo garfoDireito = garfos.get((i + 1) % NUM_FILOSOFOS);
             
-            Filosofo filosofo = new Filosofo(i, garfoEsquerdo, garfoDireito);
+            Filosofo filosofo = new Filosofo(i, garfoEsquerdo, garfoDireito, recuperar);
             filosofos.add(filosofo);
             
-            Thread thread = new Thread(filosofo);
+            Thread thread = FabricaThreads.iniciar(filosofo);
             threads.add(thread);
-            thread.start();
         }
 
+        VigiaDeadlock vigia = new VigiaDeadlock(filosofos, recuperar);
+        Thread vigiaThread = vigia.iniciar();
+
         // Executar por um tempo determinado
         try {
             Thread.sleep(TEMPO_EXECUCAO_MS);
@@ -58,9 +87,14 @@ public class Main {
         // Parar todos os filósofos
         System.out.println("\n" + "=".repeat(80));
         System.out.println("Tempo de execução encerrado. Parando filósofos...");
+        vigiaThread.interrupt();
         for (Filosofo filosofo : filosofos) {
             filosofo.parar();
         }
+        if (recuperar) {
+            // Espera interrompível: não precisa esperar quem está pensando/comendo
+            threads.forEach(Thread::interrupt);
+        }
 
         // Aguardar finalização das threads (com timeout)
         for (Thread thread : threads) {
@@ -71,8 +105,14 @@ public class Main {
             }
         }
 
+        RegistroEventos.descarregar(); // Esvazia o log antes do relatório
         System.out.println("Simulação encerrada.");
         System.out.println("=".repeat(80));
+
+        exibirDeteccoes(vigia, filosofos);
+        if (registro != null) {
+            System.out.println("Registro de posse: " + registro.getCiclos().size() + " ciclo(s) de espera detectado(s).");
+        }
         
         // Verificar se há threads ainda ativas (indicativo de deadlock)
         long threadsAtivas = threads.stream().filter(Thread::isAlive).count();
@@ -80,10 +120,27 @@ public class Main {
             System.out.println("\n⚠️  DEADLOCK DETECTADO!");
             System.out.println("Ainda há " + threadsAtivas + " thread(s) ativa(s) após tentativa de finalização.");
             System.out.println("Isso indica que os filósofos estão presos esperando por recursos.");
+        } else if (!vigia.getDeteccoes().isEmpty()) {
+            System.out.println("\n✓ Todos os deadlocks foram desfeitos pelo vigia; nenhuma thread ficou presa.");
         } else {
             System.out.println("\n✓ Nenhum deadlock foi detectado durante esta execução.");
             System.out.println("Execute novamente para potencialmente observar um deadlock.");
         }
         System.out.println("=".repeat(80));
     }
+
+    private static void exibirDeteccoes(VigiaDeadlock vigia, List<Filosofo> filosofos) {
+        List<VigiaDeadlock.Deteccao> deteccoes = vigia.getDeteccoes();
+        System.out.println("\n🔍 VIGIA DE DEADLOCK: " + deteccoes.size() + " deadlock(s) detectado(s)");
+        for (VigiaDeadlock.Deteccao deteccao : deteccoes) {
+            System.out.println("   " + deteccao);
+        }
+        if (vigia.isRecuperar()) {
+            System.out.println("\n📊 REFEIÇÕES / PREEMPÇÕES POR FILÓSOFO:");
+            for (Filosofo filosofo : filosofos) {
+                System.out.printf("   Filósofo %d: %d refeições, preemptado %d vez(es)%n",
+                        filosofo.getId(), filosofo.getContadorRefeicoes(), filosofo.getVezesPreemptado());
+            }
+        }
+    }
 }
@@ -0,0 +1,328 @@
+package tarefa1;
+
+import comum.CanalEventos;
+import comum.RegistroEventos;
+import comum.Relogio;
+import comum.TipoEvento;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Vigia de deadlock da Tarefa 1: detecta o ciclo de espera em milissegundos
+ * e, no modo com recuperação, o quebra preemptando uma vítima.
+ *
+ * A cada rodada (padrão: 10 ms) monta o grafo de espera com o que os
+ * filósofos e garfos anotam: F -> dono do garfo que F espera. Cada filósofo
+ * espera no máximo um garfo, então o grafo tem no máximo uma aresta por nó
+ * e achar um ciclo é O(N), sem alocação por nó.
+ *
+ * Como as anotações são lidas sem lock, um ciclo visto numa rodada pode ser
+ * só um retrato tirado no meio de uma troca de garfos. Ele só vale como
+ * deadlock se:
+ * - a JVM confirmar (ThreadMXBean.findDeadlockedThreads, que enxerga tanto
+ *   synchronized quanto ReentrantLock), ou
+ * - o mesmo ciclo aparecer em duas rodadas seguidas (threads virtuais não
+ *   aparecem no ThreadMXBean).
+ *
+ * A vítima é quem mais comeu no ciclo (empate: maior ID). Antes de
+ * interrompê-la o vigia confere de novo, na hora, que ela ainda espera o
+ * mesmo garfo e que ele ainda está com o próximo do ciclo: o retrato é
+ * antigo, e uma interrupção fora da espera abortaria uma refeição (ou o
+ * pensar) de quem não estava travado. No modo clássico (synchronized) não
+ * dá para preemptar: o vigia só registra o ciclo.
+ *
+ * Cada deadlock vai para o log de eventos (RegistroEventos), um evento
+ * EM_DEADLOCK por filósofo do ciclo, como os demais eventos da Tarefa 1.
+ */
+public class VigiaDeadlock implements Runnable {
+    public static final long PERIODO_PADRAO_MS = 10;
+
+    private static final int SEM_ARESTA = -1;
+
+    private final Filosofo[] filosofos;
+    private final boolean recuperar;
+    private final long periodoMs;
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final List<Deteccao> deteccoes = new CopyOnWriteArrayList<>();
+    // Retrato da rodada: garfo esperado e próximo filósofo no grafo
+    private final int[] esperado;
+    private final int[] proximo;
+    private final int[] marca;
+    private int[] cicloAnterior;
+    private int[] cicloTratado;
+    private long formacaoTratada;
+    private CanalEventos canal; // Só a thread do vigia grava
+
+    public VigiaDeadlock(List<Filosofo> filosofos, boolean recuperar) {
+        this(filosofos, recuperar, PERIODO_PADRAO_MS);
+    }
+
+    /**
+     * @param filosofos em ordem de ID (filosofos.get(i).getId() == i)
+     * @param recuperar se preempta uma vítima ao achar o ciclo
+     */
+    public VigiaDeadlock(List<Filosofo> filosofos, boolean recuperar, long periodoMs) {
+        this.filosofos = filosofos.toArray(new Filosofo[0]);
+        this.recuperar = recuperar;
+        this.periodoMs = periodoMs;
+        int n = this.filosofos.length;
+        this.esperado = new int[n];
+        this.proximo = new int[n];
+        this.marca = new int[n];
+    }
+
+    /**
+     * Inicia o vigia numa thread daemon.
+     */
+    public Thread iniciar() {
+        Thread thread = new Thread(this, "vigia-deadlock");
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Deteccao deteccao = verificar();
+                if (deteccao != null) {
+                    registrar(deteccao);
+                }
+                Thread.sleep(periodoMs);
+            }
+        } catch (InterruptedException e) {
+            // Vigia encerrado
+        } finally {
+            if (canal != null) {
+                canal.fechar();
+                canal = null;
+            }
+        }
+    }
+
+    /**
+     * Um evento por filósofo do ciclo: o garfo que ele espera e com quem
+     * está. A preempção da vítima ela mesma registra (PREEMPTADO).
+     */
+    private void registrar(Deteccao deteccao) {
+        if (canal == null) {
+            canal = RegistroEventos.abrirCanal();
+            if (canal == null) {
+                return; // Log desligado
+            }
+        }
+        long latenciaUs = deteccao.getLatenciaNs() / 1_000;
+        for (int i = 0; i < deteccao.filosofos.length; i++) {
+            int proximo = deteccao.filosofos[(i + 1) % deteccao.filosofos.length];
+            canal.registrar(TipoEvento.EM_DEADLOCK, deteccao.filosofos[i], deteccao.garfos[i], proximo, latenciaUs);
+        }
+    }
+
+    /**
+     * Uma rodada do vigia. Retorna o deadlock encontrado nesta rodada (já
+     * tratado), ou null. Um deadlock é o ciclo mais o instante em que o
+     * último filósofo dele começou a esperar: o mesmo ciclo formado de novo
+     * (a vítima voltou rápido) é outro deadlock, mas o já tratado não é
+     * informado a cada rodada.
+     */
+    public synchronized Deteccao verificar() {
+        int[] ciclo = procurarCiclo();
+        int[] anterior = cicloAnterior;
+        cicloAnterior = ciclo;
+        if (ciclo == null) {
+            return null;
+        }
+        long formadoEm = Long.MIN_VALUE;
+        for (int idFilosofo : ciclo) {
+            formadoEm = Math.max(formadoEm, filosofos[idFilosofo].getEsperandoDesde());
+        }
+        if (formadoEm == formacaoTratada && Arrays.equals(ciclo, cicloTratado)) {
+            return null;
+        }
+        if (!Arrays.equals(ciclo, anterior) && !confirmadoPelaJvm(ciclo)) {
+            return null; // Confirma na próxima rodada
+        }
+
+        long agora = System.nanoTime();
+        int[] garfos = new int[ciclo.length];
+        for (int i = 0; i < ciclo.length; i++) {
+            garfos[i] = esperado[ciclo[i]];
+        }
+        int vitima = Deteccao.SEM_VITIMA;
+        if (recuperar) {
+            vitima = escolherVitima(ciclo);
+            if (!aindaBloqueado(ciclo, vitima)) {
+                cicloAnterior = null;
+                return null; // O ciclo se desfez depois do retrato
+            }
+            filosofos[vitima].preemptar();
+        }
+        cicloTratado = ciclo;
+        formacaoTratada = formadoEm;
+        Deteccao deteccao = new Deteccao(ciclo, garfos, vitima, agora - formadoEm);
+        deteccoes.add(deteccao);
+        return deteccao;
+    }
+
+    /**
+     * Retorna os filósofos do ciclo, a partir do de menor ID, ou null.
+     */
+    private int[] procurarCiclo() {
+        int n = filosofos.length;
+        for (int i = 0; i < n; i++) {
+            int garfo = filosofos[i].getGarfoEsperado();
+            esperado[i] = garfo;
+            int dono = garfo == Filosofo.NENHUM ? Garfo.LIVRE : donoDoGarfo(i, garfo);
+            proximo[i] = dono == Garfo.LIVRE || dono == i ? SEM_ARESTA : dono;
+        }
+        Arrays.fill(marca, -1);
+        for (int inicio = 0; inicio < n; inicio++) {
+            int atual = inicio;
+            while (atual != SEM_ARESTA && marca[atual] == -1) {
+                marca[atual] = inicio;
+                atual = proximo[atual];
+            }
+            if (atual != SEM_ARESTA && marca[atual] == inicio) {
+                return extrairCiclo(atual);
+            }
+        }
+        return null;
+    }
+
+    private int donoDoGarfo(int idFilosofo, int garfo) {
+        Filosofo filosofo = filosofos[idFilosofo];
+        // O garfo esperado é sempre um dos dois do lugar
+        Garfo esquerdo = filosofo.getGarfoEsquerdo();
+        return (esquerdo.getId() == garfo ? esquerdo : filosofo.getGarfoDireito()).getDono();
+    }
+
+    private int[] extrairCiclo(int noCiclo) {
+        List<Integer> membros = new ArrayList<>();
+        int atual = noCiclo;
+        do {
+            membros.add(atual);
+            atual = proximo[atual];
+        } while (atual != noCiclo);
+        // Rotaciona para começar no menor ID: o mesmo ciclo fica igual entre rodadas
+        Collections.rotate(membros, -membros.indexOf(Collections.min(membros)));
+        return membros.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Relê, sem o retrato, se a vítima ainda espera o garfo do ciclo e se
+     * ele ainda está com o próximo filósofo do ciclo.
+     */
+    private boolean aindaBloqueado(int[] ciclo, int vitima) {
+        int posicao = 0;
+        while (ciclo[posicao] != vitima) {
+            posicao++;
+        }
+        int garfo = esperado[vitima];
+        int proximo = ciclo[(posicao + 1) % ciclo.length];
+        return filosofos[vitima].getGarfoEsperado() == garfo && donoDoGarfo(vitima, garfo) == proximo;
+    }
+
+    private boolean confirmadoPelaJvm(int[] ciclo) {
+        long[] travadas = threads.findDeadlockedThreads();
+        if (travadas == null) {
+            return false;
+        }
+        Arrays.sort(travadas);
+        for (int idFilosofo : ciclo) {
+            Thread thread = filosofos[idFilosofo].getThread();
+            if (thread == null || Arrays.binarySearch(travadas, thread.getId()) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int escolherVitima(int[] ciclo) {
+        int vitima = ciclo[0];
+        for (int idFilosofo : ciclo) {
+            int refeicoes = filosofos[idFilosofo].getContadorRefeicoes();
+            int refeicoesVitima = filosofos[vitima].getContadorRefeicoes();
+            if (refeicoes > refeicoesVitima || (refeicoes == refeicoesVitima && idFilosofo > vitima)) {
+                vitima = idFilosofo;
+            }
+        }
+        return vitima;
+    }
+
+    /**
+     * Deadlocks encontrados até agora, em ordem.
+     */
+    public List<Deteccao> getDeteccoes() {
+        return Collections.unmodifiableList(deteccoes);
+    }
+
+    public boolean isRecuperar() {
+        return recuperar;
+    }
+
+    /**
+     * Um ciclo de espera encontrado pelo vigia.
+     */
+    public static final class Deteccao {
+        public static final int SEM_VITIMA = -1;
+
+        private final int[] filosofos;
+        private final int[] garfos;
+        private final int vitima;
+        private final long latenciaNs;
+
+        Deteccao(int[] filosofos, int[] garfos, int vitima, long latenciaNs) {
+            this.filosofos = filosofos;
+            this.garfos = garfos;
+            this.vitima = vitima;
+            this.latenciaNs = latenciaNs;
+        }
+
+        /**
+         * Filósofos do ciclo; filosofos[i] espera o garfo garfos[i], que
+         * está com filosofos[i + 1].
+         */
+        public int[] getFilosofos() {
+            return filosofos.clone();
+        }
+
+        public int[] getGarfos() {
+            return garfos.clone();
+        }
+
+        /**
+         * Filósofo preemptado, ou SEM_VITIMA (modo clássico).
+         */
+        public int getVitima() {
+            return vitima;
+        }
+
+        /**
+         * Tempo entre o último filósofo do ciclo começar a esperar e a
+         * detecção.
+         */
+        public long getLatenciaNs() {
+            return latenciaNs;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("Deadlock: ");
+            for (int i = 0; i < filosofos.length; i++) {
+                sb.append('F').append(filosofos[i])
+                  .append(" -(garfo ").append(garfos[i]).append(")-> ");
+            }
+            sb.append('F').append(filosofos[0]);
+            sb.append(String.format(" | detectado em %.1fms", Relogio.emMs(latenciaNs)));
+            sb.append(vitima == SEM_VITIMA ? " | sem preempção (synchronized)" : " | vítima: F" + vitima);
+            return sb.toString();
+        }
+    }
+}
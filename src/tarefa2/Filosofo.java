@@ -1,8 +1,14 @@
 package tarefa2;
 
-import java.util.Random;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import comum.CanalEventos;
+import comum.ContadorEscritorUnico;
+import comum.Duracoes;
+import comum.FilosofoMBean;
+import comum.Histograma;
+import comum.RegistroEventos;
+import comum.Relogio;
+import comum.TipoEvento;
+
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -34,32 +40,55 @@ import java.util.concurrent.atomic.AtomicInteger;
  * 3. Não Preempção: ✓ (ainda presente)
  * 4. Espera Circular: ✗ (QUEBRADA! Filósofo 4 não participa do ciclo)
  * 
+ * OUTRAS TOPOLOGIAS:
+ * ------------------
+ * A regra geral é pegar os garfos em ordem CRESCENTE de ID (ordem global).
+ * No anel isso é exatamente o caso acima: só o último lugar, cujos garfos
+ * são 4 e 0, fica "invertido". Em grades e grupos completos o filósofo pode
+ * ter mais de dois garfos; a mesma ordem global continua impedindo o ciclo.
+ * 
  * LIMITAÇÕES:
  * -----------
  * - Fairness NÃO é garantida (depende do escalonador de threads)
  * - Starvation ainda é POSSÍVEL (filósofo pode nunca conseguir ambos os garfos)
  * - Distribuição de refeições pode ser desigual
  */
-public class Filosofo implements Runnable {
+public class Filosofo implements Runnable, FilosofoMBean {
     private final int id;
-    private final Garfo garfoEsquerdo;
-    private final Garfo garfoDireito;
-    private final Random random;
-    private final SimpleDateFormat timeFormat;
+    private final Garfo[] garfos; // Na ordem em que são pegos
+    private final Duracoes duracoes;
+    private CanalEventos canal; // Aberto no primeiro evento, fechado ao fim do run()
     private volatile boolean executando = true;
     private final AtomicInteger contadorRefeicoes;
-    private final boolean pegarOrdemInversa;
-    private long totalTempoEspera = 0; // Tempo total esperando para comer (ms)
-    private int tentativasTotal = 0; // Número de tentativas de comer
+    private final Relogio relogio; // O mesmo dos garfos
+    // Só a thread do filósofo escreve; o relatório lê de outra thread
+    private final ContadorEscritorUnico totalTempoEspera = new ContadorEscritorUnico(); // Tempo total esperando para comer (ns)
+    private final ContadorEscritorUnico tentativasTotal = new ContadorEscritorUnico(); // Número de tentativas de comer
+    private long inicioTentativa = 0;
+    private final Histograma histogramaEspera = new Histograma(); // Espera até ter todos os garfos (ns)
 
     public Filosofo(int id, Garfo garfoEsquerdo, Garfo garfoDireito, boolean pegarOrdemInversa) {
+        this(id, pegarOrdemInversa ? new Garfo[] {garfoDireito, garfoEsquerdo}
+                                   : new Garfo[] {garfoEsquerdo, garfoDireito});
+    }
+
+    /**
+     * @param garfosEmOrdem garfos do lugar na ordem de aquisição (a ordem
+     *                      global crescente, para não haver deadlock)
+     */
+    public Filosofo(int id, Garfo[] garfosEmOrdem) {
+        this(id, garfosEmOrdem, new Duracoes());
+    }
+
+    /**
+     * @param duracoes faixas de pensar/comer, compartilhadas pela mesa
+     */
+    public Filosofo(int id, Garfo[] garfosEmOrdem, Duracoes duracoes) {
         this.id = id;
-        this.garfoEsquerdo = garfoEsquerdo;
-        this.garfoDireito = garfoDireito;
-        this.random = new Random();
-        this.timeFormat = new SimpleDateFormat("HH:mm:ss.SSS");
+        this.garfos = garfosEmOrdem.clone();
+        this.relogio = garfos[0].getRelogio();
+        this.duracoes = duracoes;
         this.contadorRefeicoes = new AtomicInteger(0);
-        this.pegarOrdemInversa = pegarOrdemInversa;
     }
 
     @Override
@@ -70,89 +99,131 @@ public class Filosofo implements Runnable {
                 comer();
             }
         } catch (InterruptedException e) {
-            log("Foi interrompido");
+            log(TipoEvento.INTERROMPIDO);
             Thread.currentThread().interrupt();
+        } finally {
+            fecharCanal();
         }
     }
 
     private void pensar() throws InterruptedException {
-        log("começou a PENSAR");
-        Thread.sleep(random.nextInt(2000) + 1000); // 1-3 segundos
+        log(TipoEvento.PENSANDO);
+        Thread.sleep(duracoes.sortearPensar());
     }
 
     private void comer() throws InterruptedException {
-        long inicio = System.currentTimeMillis();
-        tentativasTotal++;
+        long inicio = relogio.nanos();
+        inicioTentativa = inicio;
+        tentativasTotal.incrementar();
         
-        if (pegarOrdemInversa) {
-            // Filósofo especial: pega garfo DIREITO primeiro, depois ESQUERDO
-            comerOrdemInversa();
-        } else {
-            // Filósofos normais: pegam garfo ESQUERDO primeiro, depois DIREITO
-            comerOrdemNormal();
-        }
+        comerEmOrdem();
         
-        long fim = System.currentTimeMillis();
-        totalTempoEspera += (fim - inicio);
+        long fim = relogio.nanos();
+        totalTempoEspera.somar(fim - inicio);
         
         // Incrementa contador de refeições
         contadorRefeicoes.incrementAndGet();
     }
 
-    private void comerOrdemNormal() throws InterruptedException {
-        log("tentando pegar o garfo ESQUERDO " + garfoEsquerdo.getId());
-        synchronized (garfoEsquerdo) {
-            garfoEsquerdo.registrarPego();
-            log("pegou o garfo ESQUERDO " + garfoEsquerdo.getId());
-            
-            log("tentando pegar o garfo DIREITO " + garfoDireito.getId());
-            synchronized (garfoDireito) {
-                garfoDireito.registrarPego();
-                log("pegou o garfo DIREITO " + garfoDireito.getId());
-                realizarRefeicao();
-                garfoDireito.registrarSolto();
+    /**
+     * Pega os garfos um a um na ordem do array e solta na ordem inversa,
+     * inclusive se for interrompido no meio (só os que já pegou).
+     */
+    private void comerEmOrdem() throws InterruptedException {
+        int pegos = 0;
+        try {
+            for (Garfo garfo : garfos) {
+                log(TipoEvento.TENTANDO_GARFO, garfo.getId(), pegos + 1, garfos.length);
+                garfo.pegar(id);
+                pegos++;
+                log(TipoEvento.PEGOU_GARFO, garfo.getId(), pegos, garfos.length);
+            }
+            registrarGarfosObtidos();
+            realizarRefeicao();
+        } finally {
+            for (int i = pegos - 1; i >= 0; i--) {
+                garfos[i].soltar();
             }
-            garfoEsquerdo.registrarSolto();
         }
     }
 
-    private void comerOrdemInversa() throws InterruptedException {
-        log("tentando pegar o garfo DIREITO " + garfoDireito.getId() + " [ORDEM INVERSA]");
-        synchronized (garfoDireito) {
-            garfoDireito.registrarPego();
-            log("pegou o garfo DIREITO " + garfoDireito.getId() + " [ORDEM INVERSA]");
-            
-            log("tentando pegar o garfo ESQUERDO " + garfoEsquerdo.getId() + " [ORDEM INVERSA]");
-            synchronized (garfoEsquerdo) {
-                garfoEsquerdo.registrarPego();
-                log("pegou o garfo ESQUERDO " + garfoEsquerdo.getId() + " [ORDEM INVERSA]");
-                realizarRefeicao();
-                garfoEsquerdo.registrarSolto();
-            }
-            garfoDireito.registrarSolto();
-        }
+    /**
+     * Registra no histograma só a espera pelos garfos (sem o tempo comendo).
+     */
+    private void registrarGarfosObtidos() {
+        histogramaEspera.registrar(relogio.nanos() - inicioTentativa);
     }
 
     private void realizarRefeicao() throws InterruptedException {
-        log("está COMENDO com garfos " + garfoEsquerdo.getId() + " e " + garfoDireito.getId());
-        Thread.sleep(random.nextInt(2000) + 1000); // 1-3 segundos
-        log("terminou de COMER (refeição #" + contadorRefeicoes.get() + ") e soltou os garfos");
+        if (garfos.length == 2) {
+            log(TipoEvento.COMENDO, garfos[0].getId(), garfos[1].getId());
+        } else {
+            log(TipoEvento.COMENDO_VARIOS, garfos.length);
+        }
+        Thread.sleep(duracoes.sortearComer());
+        log(TipoEvento.TERMINOU_REFEICAO_E_SOLTOU, contadorRefeicoes.get());
     }
 
     public void parar() {
         executando = false;
     }
 
+    @Override
+    public int getId() {
+        return id;
+    }
+
+    @Override
     public int getContadorRefeicoes() {
         return contadorRefeicoes.get();
     }
 
+    /**
+     * Tempo médio de espera em ms (com fração).
+     */
+    @Override
     public double getTempoMedioEspera() {
-        return tentativasTotal > 0 ? (double) totalTempoEspera / tentativasTotal : 0;
+        long tentativas = tentativasTotal.get();
+        return tentativas > 0 ? Relogio.emMs(totalTempoEspera.get()) / tentativas : 0;
+    }
+
+    public Histograma getHistogramaEspera() {
+        return histogramaEspera;
+    }
+
+    private void log(TipoEvento tipo) {
+        log(tipo, 0, 0, 0);
+    }
+
+    private void log(TipoEvento tipo, long a) {
+        log(tipo, a, 0, 0);
+    }
+
+    private void log(TipoEvento tipo, long a, long b) {
+        log(tipo, a, b, 0);
+    }
+
+    /**
+     * Grava o evento no canal do filósofo; a formatação e a impressão ficam
+     * para a thread escritora do RegistroEventos.
+     */
+    private void log(TipoEvento tipo, long a, long b, long c) {
+        if (canal == null) {
+            canal = RegistroEventos.abrirCanal();
+            if (canal == null) {
+                return; // Log desligado
+            }
+        }
+        canal.registrar(tipo, id, a, b, c);
     }
 
-    private void log(String mensagem) {
-        String timestamp = timeFormat.format(new Date());
-        System.out.println("[" + timestamp + "] Filósofo " + id + " " + mensagem);
+    /**
+     * Fecha o canal no fim do run(): a escritora drena o resto e o descarta.
+     */
+    private void fecharCanal() {
+        if (canal != null) {
+            canal.fechar();
+            canal = null;
+        }
     }
 }
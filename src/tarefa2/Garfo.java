@@ -1,42 +1,169 @@
 package tarefa2;
 
+import comum.ContadorEscritorUnico;
+import comum.EventoGarfosPegos;
+import comum.EventoGarfosSoltos;
+import comum.GarfoMBean;
+import comum.Histograma;
+import comum.Relogio;
+import comum.RegistroPosse;
+
+import java.util.concurrent.locks.ReentrantLock;
+
 /**
  * Representa um garfo na mesa do Jantar dos Filósofos.
  * Cada garfo é um recurso compartilhado que deve ser adquirido exclusivamente.
  * 
- * Rastreia métricas de utilização para análise de performance.
+ * A exclusão mútua usa ReentrantLock em vez de synchronized: o filósofo
+ * dorme (come) segurando o garfo, e bloquear dentro de synchronized prende
+ * a thread carregadora quando os filósofos rodam em threads virtuais.
+ * 
+ * Rastreia métricas de utilização para análise de performance. Os tempos
+ * são medidos em nanossegundos pelo Relogio recebido (System.nanoTime()
+ * por padrão).
+ * 
+ * As métricas só são alteradas por quem segura o lock, então não precisam
+ * de um segundo monitor: os contadores são de escritor único
+ * (ContadorEscritorUnico) e os leitores não bloqueiam ninguém.
+ * 
+ * Com um RegistroPosse, pegar(idFilosofo) informa quem espera e quem
+ * segura o garfo (diagnóstico de deadlock).
+ * 
+ * pegar/soltar emitem os eventos JFR EventoGarfosPegos (duração = espera)
+ * e EventoGarfosSoltos (tempo segurando).
  */
-public class Garfo {
+public class Garfo implements GarfoMBean {
     private final int id;
-    private long tempoTotalEmUso = 0; // Tempo total que o garfo foi usado (ms)
-    private long ultimoPegado = 0; // Timestamp da última vez que foi pego
-    private int vezesUsado = 0; // Número de vezes que foi usado
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Relogio relogio;
+    private final ContadorEscritorUnico tempoTotalEmUso = new ContadorEscritorUnico(); // Tempo total que o garfo foi usado (ns)
+    private final ContadorEscritorUnico vezesUsado = new ContadorEscritorUnico(); // Número de vezes que foi usado
+    private long ultimoPegado = 0; // Instante da última vez que foi pego (ns); só o dono acessa
+    private boolean emUso = false; // nanoTime pode valer 0, então não serve de marcador
+    private final Histograma histogramaEspera = new Histograma(); // Espera para pegar este garfo (ns)
+    private final RegistroPosse registro; // null: posse não acompanhada
+    private int dono = RegistroPosse.DESCONHECIDO; // Só o dono acessa
 
     public Garfo(int id) {
+        this(id, Relogio.SISTEMA);
+    }
+
+    public Garfo(int id, Relogio relogio) {
+        this(id, relogio, null);
+    }
+
+    /**
+     * @param registro onde informar a posse do garfo (null: nenhum)
+     */
+    public Garfo(int id, Relogio relogio, RegistroPosse registro) {
         this.id = id;
+        this.relogio = relogio;
+        this.registro = registro;
     }
 
+    @Override
     public int getId() {
         return id;
     }
 
-    public synchronized void registrarPego() {
-        ultimoPegado = System.currentTimeMillis();
-        vezesUsado++;
+    public Relogio getRelogio() {
+        return relogio;
+    }
+
+    /**
+     * Bloqueia até obter o garfo com exclusividade.
+     */
+    public void pegar() {
+        pegar(RegistroPosse.DESCONHECIDO);
     }
 
-    public synchronized void registrarSolto() {
-        if (ultimoPegado > 0) {
-            tempoTotalEmUso += (System.currentTimeMillis() - ultimoPegado);
-            ultimoPegado = 0;
+    /**
+     * Como pegar(), dizendo ao RegistroPosse qual filósofo pega.
+     */
+    public void pegar(int idFilosofo) {
+        EventoGarfosPegos evento = new EventoGarfosPegos();
+        evento.begin();
+        long inicio = relogio.nanos();
+        if (registro != null) {
+            registro.aguardando(idFilosofo, id);
         }
+        lock.lock();
+        histogramaEspera.registrar(relogio.nanos() - inicio);
+        registrarPego();
+        dono = idFilosofo;
+        if (registro != null) {
+            registro.adquiriu(idFilosofo, id);
+        }
+        if (evento.shouldCommit()) {
+            evento.filosofo = idFilosofo;
+            evento.garfos = String.valueOf(id);
+            evento.commit();
+        }
+    }
+
+    public void soltar() {
+        long segurado = registrarSolto();
+        EventoGarfosSoltos evento = new EventoGarfosSoltos();
+        if (evento.shouldCommit()) {
+            evento.filosofo = dono;
+            evento.garfos = String.valueOf(id);
+            evento.segurado = segurado;
+            evento.commit();
+        }
+        if (registro != null) {
+            registro.liberou(dono, id); // Antes do unlock: o registro nunca vê dois donos
+        }
+        lock.unlock();
+    }
+
+    // Só com o lock na mão: o unlock() publica as escritas para o próximo dono
+    private void registrarPego() {
+        ultimoPegado = relogio.nanos();
+        emUso = true;
+        vezesUsado.incrementar();
+    }
+
+    // Retorna por quanto tempo (ns) o garfo ficou na mão
+    private long registrarSolto() {
+        if (!emUso) {
+            return 0;
+        }
+        long segurado = relogio.nanos() - ultimoPegado;
+        tempoTotalEmUso.somar(segurado);
+        emUso = false;
+        return segurado;
+    }
+
+    /**
+     * @param tempoTotal duração da simulação em ms
+     */
+    public double getTaxaUtilizacao(long tempoTotal) {
+        return tempoTotal > 0 ? Relogio.emMs(tempoTotalEmUso.get()) / tempoTotal * 100 : 0;
+    }
+
+    /**
+     * Tempo total (ns) em que o garfo esteve em uso.
+     */
+    @Override
+    public long getTempoTotalEmUso() {
+        return tempoTotalEmUso.get();
+    }
+
+    /**
+     * Estimativa de quantos filósofos estão bloqueados no lock deste garfo
+     * (não trava o garfo; quem só está girando não conta).
+     */
+    @Override
+    public int getFilaEspera() {
+        return lock.getQueueLength();
     }
 
-    public synchronized double getTaxaUtilizacao(long tempoTotal) {
-        return tempoTotal > 0 ? (double) tempoTotalEmUso / tempoTotal * 100 : 0;
+    @Override
+    public int getVezesUsado() {
+        return (int) vezesUsado.get();
     }
 
-    public synchronized int getVezesUsado() {
-        return vezesUsado;
+    public Histograma getHistogramaEspera() {
+        return histogramaEspera;
     }
 }
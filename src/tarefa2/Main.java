@@ -1,6 +1,20 @@
 package tarefa2;
 
+import comum.Duracoes;
+import comum.DuracoesMBean;
+import comum.ExportadorMetricas;
+import comum.FabricaThreads;
+import comum.FilosofoMBean;
+import comum.GarfoMBean;
+import comum.Histograma;
+import comum.RegistroEventos;
+import comum.RegistroJmx;
+import comum.RegistroPosse;
+import comum.Relogio;
+import comum.Topologia;
+
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -10,48 +24,67 @@ import java.util.List;
  * (direito primeiro, depois esquerdo), quebrando o ciclo de espera circular
  * e prevenindo deadlock.
  * 
+ * Com -Dfilosofos.lugares e -Dfilosofos.topologia (veja Topologia), todos
+ * pegam os garfos em ordem crescente de ID; no anel padrão de 5 lugares
+ * isso é a mesma regra do filósofo 4.
+ * 
+ * Diagnóstico de posse dos garfos e ciclos de espera (RegistroPosse):
+ * -Dfilosofos.posse=ligado
+ * 
+ * Métricas ao vivo em http://localhost:PORTA/metrics (Prometheus):
+ * -Dfilosofos.metricas=PORTA
+ * 
+ * MBeans (contadores e faixas de pensar/comer ajustáveis): -Dfilosofos.jmx=ligado
+ * 
  * Execute por pelo menos 2 minutos para verificar que não ocorre deadlock.
  */
 public class Main {
-    private static final int NUM_FILOSOFOS = 5;
     private static final int TEMPO_EXECUCAO_MS = 300000; // 5 minutos (Tarefa 5)
     private static long tempoInicio; // Para calcular taxa de utilização dos garfos
 
     public static void main(String[] args) {
+        Topologia topologia = Topologia.dePropriedades();
+        int numFilosofos = topologia.getNumLugares();
+
         System.out.println("=".repeat(80));
         System.out.println("TAREFA 2: JANTAR DOS FILÓSOFOS - PREVENÇÃO DE DEADLOCK (ORDEM DIFERENTE)");
         System.out.println("=".repeat(80));
-        System.out.println("Iniciando simulação com " + NUM_FILOSOFOS + " filósofos...");
+        System.out.println("Iniciando simulação com " + numFilosofos + " filósofos (" + FabricaThreads.getDescricaoModo() + ")...");
+        System.out.println("Topologia: " + topologia);
         System.out.println("Tempo de execução: " + (TEMPO_EXECUCAO_MS / 1000) + " segundos");
-        System.out.println("Filósofo ID 4 pegará os garfos em ordem INVERSA para prevenir deadlock.\n");
+        System.out.println("Todos pegam os garfos em ordem CRESCENTE de ID (no anel, o último lugar fica invertido).\n");
         System.out.println("=".repeat(80));
 
         tempoInicio = System.currentTimeMillis();
 
         // Criar os garfos
+        RegistroPosse registro = RegistroPosse.dePropriedades(numFilosofos, topologia.getNumGarfos());
         List<Garfo> garfos = new ArrayList<>();
-        for (int i = 0; i < NUM_FILOSOFOS; i++) {
-            garfos.add(new Garfo(i));
+        for (int i = 0; i < topologia.getNumGarfos(); i++) {
+            garfos.add(new Garfo(i, Relogio.SISTEMA, registro));
         }
 
         // Criar os filósofos
+        Duracoes duracoes = new Duracoes();
         List<Filosofo> filosofos = new ArrayList<>();
         List<Thread> threads = new ArrayList<>();
         
-        for (int i = 0; i < NUM_FILOSOFOS; i++) {
-            Garfo garfoEsquerdo = garfos.get(i);
-            Garfo garfoDireito = garfos.get((i + 1) % NUM_FILOSOFOS);
-            
-            // Filósofo ID 4 pega garfos em ordem inversa
-            boolean ordemInversa = (i == 4);
+        for (int i = 0; i < numFilosofos; i++) {
+            // Ordem global crescente: no anel, só o último lugar fica invertido
+            int[] ordem = topologia.garfosEmOrdemCrescente(i);
+            Garfo[] garfosEmOrdem = new Garfo[ordem.length];
+            for (int j = 0; j < ordem.length; j++) {
+                garfosEmOrdem[j] = garfos.get(ordem[j]);
+            }
             
-            Filosofo filosofo = new Filosofo(i, garfoEsquerdo, garfoDireito, ordemInversa);
+            Filosofo filosofo = new Filosofo(i, garfosEmOrdem, duracoes);
             filosofos.add(filosofo);
             
-            Thread thread = new Thread(filosofo);
+            Thread thread = FabricaThreads.iniciar(filosofo);
             threads.add(thread);
-            thread.start();
         }
+        ExportadorMetricas exportador = ExportadorMetricas.dePropriedades(new MetricasMesa(filosofos, garfos));
+        registrarMBeans(duracoes, filosofos, garfos);
 
         // Executar por um tempo determinado
         try {
@@ -76,13 +109,20 @@ public class Main {
             }
         }
 
+        RegistroEventos.descarregar(); // Esvazia o log antes do relatório
         System.out.println("Simulação encerrada.");
         System.out.println("=".repeat(80));
         
         long tempoTotal = System.currentTimeMillis() - tempoInicio;
         
         // Exibir estatísticas
-        exibirEstatisticas(filosofos, garfos, tempoTotal);
+        exibirEstatisticas(topologia, filosofos, garfos, tempoTotal);
+        if (exportador != null) {
+            exportador.parar();
+        }
+        if (registro != null) {
+            System.out.println("\nRegistro de posse: " + registro.getCiclos().size() + " ciclo(s) de espera detectado(s).");
+        }
         
         // Verificar se há threads ainda ativas
         long threadsAtivas = threads.stream().filter(Thread::isAlive).count();
@@ -95,7 +135,25 @@ public class Main {
         System.out.println("=".repeat(80));
     }
 
-    private static void exibirEstatisticas(List<Filosofo> filosofos, List<Garfo> garfos, long tempoTotal) {
+    /**
+     * Com -Dfilosofos.jmx=ligado: durações, filósofos e garfos no jconsole.
+     */
+    private static void registrarMBeans(Duracoes duracoes, List<Filosofo> filosofos, List<Garfo> garfos) {
+        if (!RegistroJmx.isLigado()) {
+            return;
+        }
+        RegistroJmx.registrar("Duracoes", null, duracoes, DuracoesMBean.class);
+        for (Filosofo filosofo : filosofos) {
+            RegistroJmx.registrar("Filosofo", filosofo.getId(), filosofo, FilosofoMBean.class);
+        }
+        for (Garfo garfo : garfos) {
+            RegistroJmx.registrar("Garfo", garfo.getId(), garfo, GarfoMBean.class);
+        }
+        System.out.println("MBeans registrados no domínio \"" + RegistroJmx.DOMINIO + "\" (jconsole)");
+    }
+
+    private static void exibirEstatisticas(Topologia topologia, List<Filosofo> filosofos, List<Garfo> garfos,
+                                           long tempoTotal) {
         System.out.println("\n" + "=".repeat(80));
         System.out.println("ESTATÍSTICAS DE EXECUÇÃO");
         System.out.println("=".repeat(80));
@@ -114,7 +172,8 @@ public class Main {
             minRefeicoes = Math.min(minRefeicoes, refeicoes);
             maxRefeicoes = Math.max(maxRefeicoes, refeicoes);
             
-            String marcador = (i == 4) ? " [ORDEM INVERSA]" : "";
+            boolean ordemInversa = !Arrays.equals(topologia.garfosDe(i), topologia.garfosEmOrdemCrescente(i));
+            String marcador = ordemInversa ? " [ORDEM INVERSA]" : "";
             System.out.printf("  Filósofo %d: %d refeições | Tempo médio de espera: %.2f ms%s%n", 
                              i, refeicoes, tempoMedioEspera, marcador);
         }
@@ -134,6 +193,17 @@ public class Main {
         System.out.printf("  Coeficiente de variação: %.2f%%%n", coeficienteVariacao);
         System.out.printf("  Tempo médio de espera geral: %.2f ms%n", tempoMedioEsperaGeral);
         
+        System.out.println("\n⏱️  PERCENTIS DE ESPERA PELOS GARFOS:");
+        System.out.println("-".repeat(80));
+        List<Histograma> histogramas = new ArrayList<>();
+        for (Filosofo filosofo : filosofos) {
+            histogramas.add(filosofo.getHistogramaEspera());
+        }
+        System.out.println("  Todos os filósofos: " + Histograma.juntar(histogramas).resumoNanosEmMs());
+        for (Garfo garfo : garfos) {
+            System.out.printf("  Garfo %d: %s%n", garfo.getId(), garfo.getHistogramaEspera().resumoNanosEmMs());
+        }
+        
         System.out.println("\n🍴 TAXA DE UTILIZAÇÃO DOS GARFOS:");
         System.out.println("-".repeat(80));
         double somaUtilizacao = 0;
@@ -0,0 +1,59 @@
+package tarefa2;
+
+import comum.FonteMetricas;
+import comum.Histograma;
+
+import java.util.List;
+
+/**
+ * Métricas da Tarefa 2 para o ExportadorMetricas. Tudo aqui já é lido sem
+ * lock: contadores e histogramas dos filósofos e garfos, e o tamanho da
+ * fila de cada ReentrantLock.
+ */
+public class MetricasMesa implements FonteMetricas {
+    private final List<Filosofo> filosofos;
+    private final List<Garfo> garfos;
+
+    /**
+     * @param filosofos em ordem de ID
+     * @param garfos em ordem de ID
+     */
+    public MetricasMesa(List<Filosofo> filosofos, List<Garfo> garfos) {
+        this.filosofos = filosofos;
+        this.garfos = garfos;
+    }
+
+    @Override
+    public int getNumFilosofos() {
+        return filosofos.size();
+    }
+
+    @Override
+    public int getNumGarfos() {
+        return garfos.size();
+    }
+
+    @Override
+    public long getRefeicoes(int idFilosofo) {
+        return filosofos.get(idFilosofo).getContadorRefeicoes();
+    }
+
+    @Override
+    public Histograma getHistogramaEspera(int idFilosofo) {
+        return filosofos.get(idFilosofo).getHistogramaEspera();
+    }
+
+    @Override
+    public long getTempoGarfoEmUso(int idGarfo) {
+        return garfos.get(idGarfo).getTempoTotalEmUso();
+    }
+
+    @Override
+    public int getFilaEspera() {
+        int fila = 0;
+        for (Garfo garfo : garfos) {
+            fila += garfo.getFilaEspera();
+        }
+        return fila;
+    }
+}
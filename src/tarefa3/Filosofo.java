@@ -1,8 +1,14 @@
 package tarefa3;
 
-import java.util.Random;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import comum.CanalEventos;
+import comum.ContadorEscritorUnico;
+import comum.Duracoes;
+import comum.FilosofoMBean;
+import comum.Histograma;
+import comum.RegistroEventos;
+import comum.Relogio;
+import comum.TipoEvento;
+
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.Semaphore;
 
@@ -51,30 +57,49 @@ import java.util.concurrent.Semaphore;
  * 3. Não Preempção: ✓ (garfos não são retirados à força)
  * 4. Espera Circular: ✗ (IMPOSSÍVEL com apenas 4 competindo!)
  * 
+ * OUTRAS TOPOLOGIAS:
+ * ------------------
+ * Uma espera circular percorre um ciclo do grafo de lugares, então precisa
+ * de pelo menos "cintura" filósofos admitidos (veja Topologia). O Main usa
+ * Topologia.getLimiteAdmissaoSeguro() = cintura - 1: 4 no anel de 5, mas 3
+ * numa grade e 2 em grupos completos. Os garfos são pegos na ordem natural.
+ * 
  * LIMITAÇÕES:
  * -----------
  * - Fairness NÃO é garantida (mas geralmente melhor que Tarefa 2)
  * - Starvation é RARA mas ainda possível
  * - Overhead de semáforos (acquire/release)
  */
-public class Filosofo implements Runnable {
+public class Filosofo implements Runnable, FilosofoMBean {
     private final int id;
-    private final Garfo garfoEsquerdo;
-    private final Garfo garfoDireito;
-    private final Random random;
-    private final SimpleDateFormat timeFormat;
+    private final Garfo[] garfos; // No anel: esquerdo, direito
+    private final Duracoes duracoes;
+    private CanalEventos canal; // Aberto no primeiro evento, fechado ao fim do run()
     private volatile boolean executando = true;
     private final AtomicInteger contadorRefeicoes;
     private final Semaphore semaforoMesa; // Limita filósofos na mesa
-    private long totalTempoEspera = 0; // Tempo total esperando para comer (ms)
-    private int tentativasTotal = 0; // Número de tentativas de comer
+    private final Relogio relogio; // O mesmo dos garfos
+    // Só a thread do filósofo escreve; o relatório lê de outra thread
+    private final ContadorEscritorUnico totalTempoEspera = new ContadorEscritorUnico(); // Tempo total esperando para comer (ns)
+    private final ContadorEscritorUnico tentativasTotal = new ContadorEscritorUnico(); // Número de tentativas de comer
+    private final Histograma histogramaEspera = new Histograma(); // Espera até ter todos os garfos (ns)
 
     public Filosofo(int id, Garfo garfoEsquerdo, Garfo garfoDireito, Semaphore semaforoMesa) {
+        this(id, new Garfo[] {garfoEsquerdo, garfoDireito}, semaforoMesa);
+    }
+
+    public Filosofo(int id, Garfo[] garfos, Semaphore semaforoMesa) {
+        this(id, garfos, semaforoMesa, new Duracoes());
+    }
+
+    /**
+     * @param duracoes faixas de pensar/comer, compartilhadas pela mesa
+     */
+    public Filosofo(int id, Garfo[] garfos, Semaphore semaforoMesa, Duracoes duracoes) {
         this.id = id;
-        this.garfoEsquerdo = garfoEsquerdo;
-        this.garfoDireito = garfoDireito;
-        this.random = new Random();
-        this.timeFormat = new SimpleDateFormat("HH:mm:ss.SSS");
+        this.garfos = garfos.clone();
+        this.relogio = this.garfos[0].getRelogio();
+        this.duracoes = duracoes;
         this.contadorRefeicoes = new AtomicInteger(0);
         this.semaforoMesa = semaforoMesa;
     }
@@ -87,56 +112,62 @@ public class Filosofo implements Runnable {
                 comer();
             }
         } catch (InterruptedException e) {
-            log("Foi interrompido");
+            log(TipoEvento.INTERROMPIDO);
             Thread.currentThread().interrupt();
+        } finally {
+            fecharCanal();
         }
     }
 
     private void pensar() throws InterruptedException {
-        log("começou a PENSAR");
-        Thread.sleep(random.nextInt(2000) + 1000); // 1-3 segundos
+        log(TipoEvento.PENSANDO);
+        Thread.sleep(duracoes.sortearPensar());
     }
 
     private void comer() throws InterruptedException {
-        long inicio = System.currentTimeMillis();
-        tentativasTotal++;
+        long inicio = relogio.nanos();
+        tentativasTotal.incrementar();
         
-        // Adquire permissão do semáforo da mesa (máximo 4 filósofos tentando pegar garfos)
-        log("solicitando permissão para SENTAR À MESA (semáforo)");
+        // Adquire permissão do semáforo da mesa (no anel de 5: máximo 4 tentando pegar garfos)
+        log(TipoEvento.SOLICITANDO_MESA);
         semaforoMesa.acquire();
-        log("obteve permissão para SENTAR À MESA");
+        log(TipoEvento.OBTEVE_MESA);
 
+        int pegos = 0;
         try {
             // Tenta pegar os garfos
-            log("tentando pegar o garfo ESQUERDO " + garfoEsquerdo.getId());
-            garfoEsquerdo.pegar();
-            log("pegou o garfo ESQUERDO " + garfoEsquerdo.getId());
-
-            log("tentando pegar o garfo DIREITO " + garfoDireito.getId());
-            garfoDireito.pegar();
-            log("pegou o garfo DIREITO " + garfoDireito.getId());
+            for (Garfo garfo : garfos) {
+                log(TipoEvento.TENTANDO_GARFO, garfo.getId(), pegos + 1, garfos.length);
+                garfo.pegar(id);
+                pegos++;
+                log(TipoEvento.PEGOU_GARFO, garfo.getId(), pegos, garfos.length);
+            }
+            histogramaEspera.registrar(relogio.nanos() - inicio);
 
             // Come
-            log("está COMENDO com garfos " + garfoEsquerdo.getId() + " e " + garfoDireito.getId());
-            Thread.sleep(random.nextInt(2000) + 1000); // 1-3 segundos
+            if (garfos.length == 2) {
+                log(TipoEvento.COMENDO, garfos[0].getId(), garfos[1].getId());
+            } else {
+                log(TipoEvento.COMENDO_VARIOS, garfos.length);
+            }
+            Thread.sleep(duracoes.sortearComer());
 
             contadorRefeicoes.incrementAndGet();
-            log("terminou de COMER (refeição #" + contadorRefeicoes.get() + ")");
+            log(TipoEvento.TERMINOU_REFEICAO, contadorRefeicoes.get());
 
         } finally {
-            // Solta os garfos
-            garfoDireito.soltar();
-            log("soltou o garfo DIREITO " + garfoDireito.getId());
-            
-            garfoEsquerdo.soltar();
-            log("soltou o garfo ESQUERDO " + garfoEsquerdo.getId());
+            // Solta os garfos que pegou, na ordem inversa
+            for (int i = pegos - 1; i >= 0; i--) {
+                garfos[i].soltar();
+                log(TipoEvento.SOLTOU_GARFO, garfos[i].getId());
+            }
 
             // Libera a permissão do semáforo da mesa
             semaforoMesa.release();
-            log("liberou permissão da MESA (semáforo)");
+            log(TipoEvento.LIBEROU_MESA);
             
-            long fim = System.currentTimeMillis();
-            totalTempoEspera += (fim - inicio);
+            long fim = relogio.nanos();
+            totalTempoEspera.somar(fim - inicio);
         }
     }
 
@@ -144,16 +175,62 @@ public class Filosofo implements Runnable {
         executando = false;
     }
 
+    @Override
+    public int getId() {
+        return id;
+    }
+
+    @Override
     public int getContadorRefeicoes() {
         return contadorRefeicoes.get();
     }
 
+    /**
+     * Tempo médio de espera em ms (com fração).
+     */
+    @Override
     public double getTempoMedioEspera() {
-        return tentativasTotal > 0 ? (double) totalTempoEspera / tentativasTotal : 0;
+        long tentativas = tentativasTotal.get();
+        return tentativas > 0 ? Relogio.emMs(totalTempoEspera.get()) / tentativas : 0;
+    }
+
+    public Histograma getHistogramaEspera() {
+        return histogramaEspera;
+    }
+
+    private void log(TipoEvento tipo) {
+        log(tipo, 0, 0, 0);
+    }
+
+    private void log(TipoEvento tipo, long a) {
+        log(tipo, a, 0, 0);
     }
 
-    private void log(String mensagem) {
-        String timestamp = timeFormat.format(new Date());
-        System.out.println("[" + timestamp + "] Filósofo " + id + " " + mensagem);
+    private void log(TipoEvento tipo, long a, long b) {
+        log(tipo, a, b, 0);
+    }
+
+    /**
+     * Grava o evento no canal do filósofo; a formatação e a impressão ficam
+     * para a thread escritora do RegistroEventos.
+     */
+    private void log(TipoEvento tipo, long a, long b, long c) {
+        if (canal == null) {
+            canal = RegistroEventos.abrirCanal();
+            if (canal == null) {
+                return; // Log desligado
+            }
+        }
+        canal.registrar(tipo, id, a, b, c);
+    }
+
+    /**
+     * Fecha o canal no fim do run(): a escritora drena o resto e o descarta.
+     */
+    private void fecharCanal() {
+        if (canal != null) {
+            canal.fechar();
+            canal = null;
+        }
     }
 }
@@ -1,52 +1,186 @@
 package tarefa3;
 
+import comum.ContadorEscritorUnico;
+import comum.EventoGarfosPegos;
+import comum.EventoGarfosSoltos;
+import comum.EstrategiaEspera;
+import comum.GarfoMBean;
+import comum.Histograma;
+import comum.Relogio;
+import comum.RegistroPosse;
+
 import java.util.concurrent.Semaphore;
 
 /**
  * Representa um garfo na mesa do Jantar dos Filósofos usando Semáforo.
  * O semáforo garante exclusão mútua (apenas 1 permit disponível).
  * 
- * Rastreia métricas de utilização para análise de performance.
+ * Rastreia métricas de utilização para análise de performance. Os tempos
+ * são medidos em nanossegundos pelo Relogio recebido (System.nanoTime()
+ * por padrão).
+ * 
+ * As métricas só são alteradas por quem segura o garfo (o semáforo já
+ * garante um dono por vez), então não há synchronized no caminho de
+ * pegar/soltar: os contadores são de escritor único (ContadorEscritorUnico).
+ * 
+ * Com o garfo ocupado, pegar() segue a EstrategiaEspera recebida (padrão:
+ * BLOQUEAR, direto para o acquire()).
+ * 
+ * Com um RegistroPosse, pegar(idFilosofo) informa quem espera e quem
+ * segura o garfo (diagnóstico de deadlock).
+ * 
+ * pegar/soltar emitem os eventos JFR EventoGarfosPegos (duração = espera)
+ * e EventoGarfosSoltos (tempo segurando).
  */
-public class Garfo {
+public class Garfo implements GarfoMBean {
     private final int id;
     private final Semaphore semaforo;
-    private long tempoTotalEmUso = 0;
-    private long ultimoPegado = 0;
-    private int vezesUsado = 0;
+    private final Relogio relogio;
+    private final EstrategiaEspera estrategia;
+    private final ContadorEscritorUnico tempoTotalEmUso = new ContadorEscritorUnico(); // ns
+    private final ContadorEscritorUnico vezesUsado = new ContadorEscritorUnico();
+    private long ultimoPegado = 0; // ns; só o dono lê e escreve
+    private boolean emUso = false; // Idem
+    private final Histograma histogramaEspera = new Histograma(); // Espera para pegar este garfo (ns)
+    private final RegistroPosse registro; // null: posse não acompanhada
+    private int dono = RegistroPosse.DESCONHECIDO; // Só o dono acessa
 
     public Garfo(int id) {
+        this(id, Relogio.SISTEMA);
+    }
+
+    public Garfo(int id, Relogio relogio) {
+        this(id, relogio, EstrategiaEspera.BLOQUEAR);
+    }
+
+    public Garfo(int id, Relogio relogio, EstrategiaEspera estrategia) {
+        this(id, relogio, estrategia, null);
+    }
+
+    /**
+     * @param registro onde informar a posse do garfo (null: nenhum)
+     */
+    public Garfo(int id, Relogio relogio, EstrategiaEspera estrategia, RegistroPosse registro) {
         this.id = id;
+        this.registro = registro;
         this.semaforo = new Semaphore(1); // Apenas 1 filósofo pode usar o garfo por vez
+        this.relogio = relogio;
+        this.estrategia = estrategia;
     }
 
+    @Override
     public int getId() {
         return id;
     }
 
+    public Relogio getRelogio() {
+        return relogio;
+    }
+
     public void pegar() throws InterruptedException {
-        semaforo.acquire();
-        synchronized(this) {
-            ultimoPegado = System.currentTimeMillis();
-            vezesUsado++;
+        pegar(RegistroPosse.DESCONHECIDO);
+    }
+
+    /**
+     * Como pegar(), dizendo ao RegistroPosse qual filósofo pega.
+     */
+    public void pegar(int idFilosofo) throws InterruptedException {
+        EventoGarfosPegos evento = new EventoGarfosPegos(); // Interrompido: não grava
+        evento.begin();
+        long inicio = relogio.nanos();
+        if (registro != null) {
+            registro.aguardando(idFilosofo, id);
+            try {
+                adquirir();
+            } catch (InterruptedException e) {
+                registro.desistiu(idFilosofo, id);
+                throw e;
+            }
+        } else {
+            adquirir();
+        }
+        long agora = relogio.nanos();
+        histogramaEspera.registrar(agora - inicio);
+        ultimoPegado = agora;
+        emUso = true;
+        vezesUsado.incrementar();
+        dono = idFilosofo;
+        if (registro != null) {
+            registro.adquiriu(idFilosofo, id);
+        }
+        if (evento.shouldCommit()) {
+            evento.filosofo = idFilosofo;
+            evento.garfos = String.valueOf(id);
+            evento.commit();
         }
     }
 
-    public void soltar() {
-        synchronized(this) {
-            if (ultimoPegado > 0) {
-                tempoTotalEmUso += (System.currentTimeMillis() - ultimoPegado);
-                ultimoPegado = 0;
+    /**
+     * Tenta o tryAcquire() a cada rodada ativa da estratégia; esgotadas as
+     * rodadas, bloqueia no acquire().
+     */
+    private void adquirir() throws InterruptedException {
+        for (int tentativa = 0; ; tentativa++) {
+            if (semaforo.tryAcquire()) {
+                return;
             }
+            if (!estrategia.girar(tentativa)) {
+                break;
+            }
+        }
+        semaforo.acquire();
+    }
+
+    public void soltar() {
+        long segurado = 0;
+        if (emUso) {
+            segurado = relogio.nanos() - ultimoPegado;
+            tempoTotalEmUso.somar(segurado);
+            emUso = false;
         }
-        semaforo.release();
+        EventoGarfosSoltos evento = new EventoGarfosSoltos();
+        if (evento.shouldCommit()) {
+            evento.filosofo = dono;
+            evento.garfos = String.valueOf(id);
+            evento.segurado = segurado;
+            evento.commit();
+        }
+        if (registro != null) {
+            registro.liberou(dono, id); // Antes do release: o registro nunca vê dois donos
+        }
+        semaforo.release(); // Publica as escritas acima para o próximo dono
+    }
+
+    /**
+     * @param tempoTotal duração da simulação em ms
+     */
+    public double getTaxaUtilizacao(long tempoTotal) {
+        return tempoTotal > 0 ? Relogio.emMs(tempoTotalEmUso.get()) / tempoTotal * 100 : 0;
+    }
+
+    /**
+     * Tempo total (ns) em que o garfo esteve em uso.
+     */
+    @Override
+    public long getTempoTotalEmUso() {
+        return tempoTotalEmUso.get();
+    }
+
+    /**
+     * Estimativa de quantos filósofos estão bloqueados no semáforo deste garfo
+     * (não trava o garfo; quem só está girando não conta).
+     */
+    @Override
+    public int getFilaEspera() {
+        return semaforo.getQueueLength();
     }
 
-    public synchronized double getTaxaUtilizacao(long tempoTotal) {
-        return tempoTotal > 0 ? (double) tempoTotalEmUso / tempoTotal * 100 : 0;
+    @Override
+    public int getVezesUsado() {
+        return (int) vezesUsado.get();
     }
 
-    public synchronized int getVezesUsado() {
-        return vezesUsado;
+    public Histograma getHistogramaEspera() {
+        return histogramaEspera;
     }
 }
@@ -1,5 +1,19 @@
 package tarefa3;
 
+import comum.EstrategiaEspera;
+import comum.Duracoes;
+import comum.DuracoesMBean;
+import comum.ExportadorMetricas;
+import comum.FabricaThreads;
+import comum.FilosofoMBean;
+import comum.GarfoMBean;
+import comum.Histograma;
+import comum.RegistroEventos;
+import comum.RegistroJmx;
+import comum.RegistroPosse;
+import comum.Relogio;
+import comum.Topologia;
+
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Semaphore;
@@ -10,48 +24,99 @@ import java.util.concurrent.Semaphore;
  * Esta implementação usa um semáforo para limitar a 4 o número de filósofos
  * que podem tentar pegar garfos simultaneamente, prevenindo deadlock.
  * 
+ * O limite vem da Topologia (-Dfilosofos.lugares, -Dfilosofos.topologia):
+ * cintura do grafo menos 1, que no anel padrão de 5 lugares é 4.
+ * 
+ * Por padrão o limite é ADAPTATIVO (SemaforoAdaptativo): começa no máximo
+ * seguro e se ajusta pela espera nos garfos, sem nunca passar dele.
+ *   -Dfilosofos.admissao=adaptativa|fixa   (padrão: adaptativa)
+ *   -Dfilosofos.admissao.alvoMs=500        (espera média alvo nos garfos)
+ * 
+ * Espera por garfo ocupado: -Dfilosofos.espera=bloquear|girar|hibrida
+ * (padrão: bloquear; ver EstrategiaEspera).
+ * 
+ * Diagnóstico de posse dos garfos e ciclos de espera (RegistroPosse):
+ * -Dfilosofos.posse=ligado
+ * 
+ * Métricas ao vivo em http://localhost:PORTA/metrics (Prometheus):
+ * -Dfilosofos.metricas=PORTA
+ * 
+ * MBeans (contadores, limite de admissão e faixas de pensar/comer
+ * ajustáveis): -Dfilosofos.jmx=ligado. Com limite fixo e JMX ligado, o
+ * semáforo é um SemaforoAdaptativo sem o controle automático.
+ * 
  * Execute por pelo menos 2 minutos para coletar estatísticas.
  */
 public class Main {
-    private static final int NUM_FILOSOFOS = 5;
-    private static final int MAX_FILOSOFOS_TENTANDO = 4; // Máximo permitido simultaneamente
     private static final int TEMPO_EXECUCAO_MS = 300000; // 5 minutos (Tarefa 5)
+    private static final int PERIODO_AJUSTE_MS = 1000;
     private static long tempoInicio;
 
     public static void main(String[] args) {
+        Topologia topologia = Topologia.dePropriedades();
+        int numFilosofos = topologia.getNumLugares();
+        int maxFilosofosTentando = topologia.getLimiteAdmissaoSeguro(); // Máximo permitido simultaneamente
+        boolean adaptativa = !"fixa".equals(System.getProperty("filosofos.admissao", "adaptativa"));
+        long alvoMs = Long.getLong("filosofos.admissao.alvoMs", 500);
+        EstrategiaEspera estrategia = EstrategiaEspera.dePropriedades(EstrategiaEspera.BLOQUEAR);
+
         System.out.println("=".repeat(80));
         System.out.println("TAREFA 3: JANTAR DOS FILÓSOFOS - SOLUÇÃO COM SEMÁFOROS");
         System.out.println("=".repeat(80));
-        System.out.println("Iniciando simulação com " + NUM_FILOSOFOS + " filósofos...");
-        System.out.println("Semáforo limitando a " + MAX_FILOSOFOS_TENTANDO + " filósofos tentando pegar garfos simultaneamente");
+        System.out.println("Iniciando simulação com " + numFilosofos + " filósofos (" + FabricaThreads.getDescricaoModo() + ")...");
+        System.out.println("Topologia: " + topologia);
+        System.out.println("Semáforo limitando a " + maxFilosofosTentando + " filósofos tentando pegar garfos simultaneamente"
+                + (adaptativa ? " (limite adaptativo, alvo de " + alvoMs + " ms nos garfos)" : ""));
+        System.out.println("Espera por garfo ocupado: " + estrategia);
         System.out.println("Tempo de execução: " + (TEMPO_EXECUCAO_MS / 1000) + " segundos\n");
         System.out.println("=".repeat(80));
 
         tempoInicio = System.currentTimeMillis();
 
-        // Criar semáforo da mesa (máximo 4 filósofos tentando pegar garfos)
-        Semaphore semaforoMesa = new Semaphore(MAX_FILOSOFOS_TENTANDO);
-
         // Criar os garfos
+        RegistroPosse registro = RegistroPosse.dePropriedades(numFilosofos, topologia.getNumGarfos());
         List<Garfo> garfos = new ArrayList<>();
-        for (int i = 0; i < NUM_FILOSOFOS; i++) {
-            garfos.add(new Garfo(i));
+        for (int i = 0; i < topologia.getNumGarfos(); i++) {
+            garfos.add(new Garfo(i, Relogio.SISTEMA, estrategia, registro));
+        }
+
+        // Criar semáforo da mesa (cintura - 1: no anel de 5, máximo 4 tentando pegar garfos)
+        Semaphore semaforoMesa;
+        if (adaptativa) {
+            SemaforoAdaptativo adaptativo = new SemaforoAdaptativo(
+                    maxFilosofosTentando, alvoMs * Relogio.NANOS_POR_MS, garfos);
+            adaptativo.iniciar(PERIODO_AJUSTE_MS);
+            semaforoMesa = adaptativo;
+        } else if (RegistroJmx.isLigado()) {
+            semaforoMesa = new SemaforoAdaptativo( // Sem iniciar(): fixo, mas ajustável por JMX
+                    maxFilosofosTentando, alvoMs * Relogio.NANOS_POR_MS, garfos);
+        } else {
+            semaforoMesa = new Semaphore(maxFilosofosTentando);
         }
 
         // Criar os filósofos
+        Duracoes duracoes = new Duracoes();
         List<Filosofo> filosofos = new ArrayList<>();
         List<Thread> threads = new ArrayList<>();
         
-        for (int i = 0; i < NUM_FILOSOFOS; i++) {
-            Garfo garfoEsquerdo = garfos.get(i);
-            Garfo garfoDireito = garfos.get((i + 1) % NUM_FILOSOFOS);
+        for (int i = 0; i < numFilosofos; i++) {
+            int[] ids = topologia.garfosDe(i);
+            Garfo[] garfosDoLugar = new Garfo[ids.length];
+            for (int j = 0; j < ids.length; j++) {
+                garfosDoLugar[j] = garfos.get(ids[j]);
+            }
             
-            Filosofo filosofo = new Filosofo(i, garfoEsquerdo, garfoDireito, semaforoMesa);
+            Filosofo filosofo = new Filosofo(i, garfosDoLugar, semaforoMesa, duracoes);
             filosofos.add(filosofo);
             
-            Thread thread = new Thread(filosofo);
+            Thread thread = FabricaThreads.iniciar(filosofo);
             threads.add(thread);
-            thread.start();
+        }
+        ExportadorMetricas exportador = ExportadorMetricas.dePropriedades(
+                new MetricasMesa(filosofos, garfos, semaforoMesa));
+        registrarMBeans(duracoes, filosofos, garfos);
+        if (semaforoMesa instanceof SemaforoAdaptativo && RegistroJmx.isLigado()) {
+            RegistroJmx.registrar("Admissao", null, (SemaforoAdaptativo) semaforoMesa, SemaforoAdaptativoMBean.class);
         }
 
         // Executar por um tempo determinado
@@ -77,6 +142,7 @@ public class Main {
             }
         }
 
+        RegistroEventos.descarregar(); // Esvazia o log antes do relatório
         System.out.println("Simulação encerrada.");
         System.out.println("=".repeat(80));
         
@@ -84,6 +150,15 @@ public class Main {
         
         // Exibir estatísticas
         exibirEstatisticas(filosofos, garfos, tempoTotal);
+        if (exportador != null) {
+            exportador.parar();
+        }
+        if (registro != null) {
+            System.out.println("\nRegistro de posse: " + registro.getCiclos().size() + " ciclo(s) de espera detectado(s).");
+        }
+        if (semaforoMesa instanceof SemaforoAdaptativo) {
+            exibirAdmissao((SemaforoAdaptativo) semaforoMesa);
+        }
         
         // Verificar se há threads ainda ativas
         long threadsAtivas = threads.stream().filter(Thread::isAlive).count();
@@ -97,6 +172,32 @@ public class Main {
         System.out.println("=".repeat(80));
     }
 
+    private static void exibirAdmissao(SemaforoAdaptativo semaforo) {
+        System.out.println("\n🚦 ADMISSÃO ADAPTATIVA:");
+        System.out.println("-".repeat(80));
+        System.out.printf("  Limite final: %d (máximo seguro: %d)%n", semaforo.getLimite(), semaforo.getMaximo());
+        System.out.printf("  Faixa percorrida: %d a %d | Ajustes: %d%n",
+                         semaforo.getMenorLimite(), semaforo.getMaiorLimite(), semaforo.getAjustes());
+        System.out.printf("  Espera média nos garfos na última janela: %.2f ms%n", semaforo.getUltimaEsperaMedia());
+    }
+
+    /**
+     * Com -Dfilosofos.jmx=ligado: durações, filósofos e garfos no jconsole.
+     */
+    private static void registrarMBeans(Duracoes duracoes, List<Filosofo> filosofos, List<Garfo> garfos) {
+        if (!RegistroJmx.isLigado()) {
+            return;
+        }
+        RegistroJmx.registrar("Duracoes", null, duracoes, DuracoesMBean.class);
+        for (Filosofo filosofo : filosofos) {
+            RegistroJmx.registrar("Filosofo", filosofo.getId(), filosofo, FilosofoMBean.class);
+        }
+        for (Garfo garfo : garfos) {
+            RegistroJmx.registrar("Garfo", garfo.getId(), garfo, GarfoMBean.class);
+        }
+        System.out.println("MBeans registrados no domínio \"" + RegistroJmx.DOMINIO + "\" (jconsole)");
+    }
+
     private static void exibirEstatisticas(List<Filosofo> filosofos, List<Garfo> garfos, long tempoTotal) {
         System.out.println("\n" + "=".repeat(80));
         System.out.println("ESTATÍSTICAS DE EXECUÇÃO");
@@ -135,6 +236,17 @@ public class Main {
         System.out.printf("  Coeficiente de variação: %.2f%%%n", coeficienteVariacao);
         System.out.printf("  Tempo médio de espera geral: %.2f ms%n", tempoMedioEsperaGeral);
         
+        System.out.println("\n⏱️  PERCENTIS DE ESPERA PELOS GARFOS:");
+        System.out.println("-".repeat(80));
+        List<Histograma> histogramas = new ArrayList<>();
+        for (Filosofo filosofo : filosofos) {
+            histogramas.add(filosofo.getHistogramaEspera());
+        }
+        System.out.println("  Todos os filósofos: " + Histograma.juntar(histogramas).resumoNanosEmMs());
+        for (Garfo garfo : garfos) {
+            System.out.printf("  Garfo %d: %s%n", garfo.getId(), garfo.getHistogramaEspera().resumoNanosEmMs());
+        }
+        
         System.out.println("\n🍴 TAXA DE UTILIZAÇÃO DOS GARFOS:");
         System.out.println("-".repeat(80));
         double somaUtilizacao = 0;
@@ -0,0 +1,63 @@
+package tarefa3;
+
+import comum.FonteMetricas;
+import comum.Histograma;
+
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Métricas da Tarefa 3 para o ExportadorMetricas. Tudo aqui já é lido sem
+ * lock: contadores e histogramas dos filósofos e garfos, e o tamanho da
+ * fila dos semáforos. A fila soma quem espera vaga na mesa e quem, já
+ * admitido, espera um garfo.
+ */
+public class MetricasMesa implements FonteMetricas {
+    private final List<Filosofo> filosofos;
+    private final List<Garfo> garfos;
+    private final Semaphore semaforoMesa;
+
+    /**
+     * @param filosofos em ordem de ID
+     * @param garfos em ordem de ID
+     */
+    public MetricasMesa(List<Filosofo> filosofos, List<Garfo> garfos, Semaphore semaforoMesa) {
+        this.filosofos = filosofos;
+        this.garfos = garfos;
+        this.semaforoMesa = semaforoMesa;
+    }
+
+    @Override
+    public int getNumFilosofos() {
+        return filosofos.size();
+    }
+
+    @Override
+    public int getNumGarfos() {
+        return garfos.size();
+    }
+
+    @Override
+    public long getRefeicoes(int idFilosofo) {
+        return filosofos.get(idFilosofo).getContadorRefeicoes();
+    }
+
+    @Override
+    public Histograma getHistogramaEspera(int idFilosofo) {
+        return filosofos.get(idFilosofo).getHistogramaEspera();
+    }
+
+    @Override
+    public long getTempoGarfoEmUso(int idGarfo) {
+        return garfos.get(idGarfo).getTempoTotalEmUso();
+    }
+
+    @Override
+    public int getFilaEspera() {
+        int fila = semaforoMesa.getQueueLength();
+        for (Garfo garfo : garfos) {
+            fila += garfo.getFilaEspera();
+        }
+        return fila;
+    }
+}
@@ -0,0 +1,172 @@
+package tarefa3;
+
+import comum.Histograma;
+import comum.Relogio;
+
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Semáforo da mesa com limite de admissão ADAPTATIVO (AIMD), no lugar do
+ * número fixo de permits.
+ *
+ * PROBLEMA:
+ * ---------
+ * Com o limite fixo, se ele é pequeno demais há filósofos parados no
+ * semáforo com garfos livres na mesa (vazão perdida); se é grande demais,
+ * a fila só muda de lugar: os admitidos ficam esperando nos garfos.
+ *
+ * ESTRATÉGIA (a cada período):
+ * ----------------------------
+ * - Lê a espera média pelos garfos NA JANELA, a partir dos histogramas dos
+ *   próprios Garfos (diferença de soma e total desde o último ajuste).
+ * - Espera acima do alvo: diminuição multiplicativa (limite × 0,75).
+ * - Espera dentro do alvo e alguém parado no semáforo: aumento aditivo (+1).
+ * - O limite fica sempre entre 1 e o máximo seguro da Topologia
+ *   (cintura - 1): o controle muda a vazão, nunca a garantia contra deadlock.
+ *
+ * Para diminuir usa reducePermits(): quem já foi admitido termina
+ * normalmente, e os próximos acquire() esperam até o número de admitidos
+ * cair abaixo do novo limite.
+ *
+ * O limite também pode ser trocado à mão (setLimite, exposto por JMX). Sem
+ * iniciar() não há controle automático e o semáforo é de limite fixo, mas
+ * ajustável.
+ */
+public class SemaforoAdaptativo extends Semaphore implements SemaforoAdaptativoMBean {
+    private static final long serialVersionUID = 1L;
+    private static final double FATOR_REDUCAO = 0.75;
+
+    private final transient List<Garfo> garfos; // Garfo não é Serializable
+    private final int maximo;
+    private final long alvoNs;
+    private volatile int limite;
+    private volatile long ultimaEsperaMediaNs = 0;
+    private int menorLimite;
+    private int maiorLimite;
+    private int ajustes = 0;
+    private long totalAnterior = 0;
+    private long somaAnterior = 0;
+
+    /**
+     * @param maximo limite seguro (Topologia.getLimiteAdmissaoSeguro());
+     *               é também o limite inicial
+     * @param alvoNs espera média pelos garfos que o controle tenta manter
+     */
+    public SemaforoAdaptativo(int maximo, long alvoNs, List<Garfo> garfos) {
+        super(maximo);
+        if (maximo < 1) {
+            throw new IllegalArgumentException("O limite máximo deve ser pelo menos 1");
+        }
+        this.garfos = garfos;
+        this.maximo = maximo;
+        this.alvoNs = alvoNs;
+        this.limite = maximo;
+        this.menorLimite = maximo;
+        this.maiorLimite = maximo;
+    }
+
+    /**
+     * Um passo do controle. Chamado pela thread de iniciar() ou pelos testes.
+     */
+    public synchronized void ajustar() {
+        long total = 0;
+        long soma = 0;
+        for (Garfo garfo : garfos) {
+            Histograma histograma = garfo.getHistogramaEspera();
+            total += histograma.getTotal();
+            soma += histograma.getSoma();
+        }
+        long amostras = total - totalAnterior;
+        long esperaMedia = amostras > 0 ? (soma - somaAnterior) / amostras : 0;
+        totalAnterior = total;
+        somaAnterior = soma;
+        ultimaEsperaMediaNs = esperaMedia;
+
+        int novoLimite = limite;
+        if (amostras > 0 && esperaMedia > alvoNs) {
+            novoLimite = Math.max(1, Math.min(limite - 1, (int) (limite * FATOR_REDUCAO)));
+        } else if (hasQueuedThreads()) {
+            novoLimite = Math.min(maximo, limite + 1);
+        }
+        mudarLimite(novoLimite);
+    }
+
+    private void mudarLimite(int novoLimite) {
+        if (novoLimite > limite) {
+            release(novoLimite - limite);
+        } else if (novoLimite < limite) {
+            reducePermits(limite - novoLimite);
+        } else {
+            return;
+        }
+        limite = novoLimite;
+        ajustes++;
+        menorLimite = Math.min(menorLimite, novoLimite);
+        maiorLimite = Math.max(maiorLimite, novoLimite);
+    }
+
+    /**
+     * Inicia a thread (daemon) que chama ajustar() a cada período.
+     */
+    public Thread iniciar(long periodoMs) {
+        Thread controle = new Thread(() -> {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    Thread.sleep(periodoMs);
+                    ajustar();
+                }
+            } catch (InterruptedException e) {
+                // Controle encerrado
+            }
+        }, "admissao-adaptativa");
+        controle.setDaemon(true);
+        controle.start();
+        return controle;
+    }
+
+    /**
+     * Troca o limite agora. Com o controle ativo, ele segue ajustando a
+     * partir do novo valor.
+     */
+    @Override
+    public synchronized void setLimite(int novoLimite) {
+        if (novoLimite < 1 || novoLimite > maximo) {
+            throw new IllegalArgumentException("O limite deve ficar entre 1 e " + maximo + " (máximo seguro): " + novoLimite);
+        }
+        mudarLimite(novoLimite);
+    }
+
+    @Override
+    public int getLimite() {
+        return limite;
+    }
+
+    @Override
+    public int getMaximo() {
+        return maximo;
+    }
+
+    @Override
+    public synchronized int getMenorLimite() {
+        return menorLimite;
+    }
+
+    @Override
+    public synchronized int getMaiorLimite() {
+        return maiorLimite;
+    }
+
+    @Override
+    public synchronized int getAjustes() {
+        return ajustes;
+    }
+
+    /**
+     * Espera média pelos garfos na última janela, em ms.
+     */
+    @Override
+    public double getUltimaEsperaMedia() {
+        return Relogio.emMs(ultimaEsperaMediaNs);
+    }
+}
@@ -0,0 +1,30 @@
+package tarefa3;
+
+/**
+ * Interface JMX do SemaforoAdaptativo: o limite de admissão pode ser
+ * trocado durante a execução, sempre entre 1 e o máximo seguro.
+ */
+public interface SemaforoAdaptativoMBean {
+
+    int getLimite();
+
+    void setLimite(int limite);
+
+    int getMaximo();
+
+    int getMenorLimite();
+
+    int getMaiorLimite();
+
+    int getAjustes();
+
+    /**
+     * Espera média pelos garfos na última janela, em ms.
+     */
+    double getUltimaEsperaMedia();
+
+    /**
+     * Filósofos parados esperando vaga na mesa (estimativa).
+     */
+    int getQueueLength();
+}
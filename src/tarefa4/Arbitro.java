@@ -0,0 +1,56 @@
+package tarefa4;
+
+import comum.Histograma;
+import comum.Relogio;
+import comum.Topologia;
+
+/**
+ * Contrato comum dos monitores que coordenam o acesso aos garfos na Tarefa 4.
+ * 
+ * O Filosofo só conhece esta interface, o que permite trocar a implementação
+ * do arbitrador (monitor clássico, Conditions por filósofo, etc.) sem alterar
+ * a lógica de pensar/comer.
+ */
+public interface Arbitro {
+
+    /**
+     * Bloqueia até que o filósofo possa pegar TODOS os seus garfos (os dois
+     * adjacentes, no anel).
+     */
+    void pegarGarfos(int idFilosofo) throws InterruptedException;
+
+    /**
+     * Devolve os garfos do filósofo e acorda quem puder prosseguir.
+     */
+    void soltarGarfos(int idFilosofo);
+
+    int getContadorRefeicoes(int idFilosofo);
+
+    /**
+     * Tempo médio de espera do filósofo em ms (com fração).
+     */
+    double getTempoMedioEspera(int idFilosofo);
+
+    /**
+     * Distribuição dos tempos de espera do filósofo (ns), para percentis.
+     * O histograma é thread-safe e pode ser lido sem travar a mesa.
+     */
+    Histograma getHistogramaEspera(int idFilosofo);
+
+    double getTaxaUtilizacaoGarfo(int idGarfo);
+
+    /**
+     * Retorna informações de estado da mesa (para debugging).
+     */
+    String getEstadoMesa();
+
+    /**
+     * Relógio usado nas medições (System.nanoTime() por padrão).
+     */
+    Relogio getRelogio();
+
+    /**
+     * Lugares e garfos da mesa (quem disputa qual garfo).
+     */
+    Topologia getTopologia();
+}
@@ -0,0 +1,133 @@
+package tarefa4;
+
+import comum.ContadorEscritorUnico;
+import comum.FonteMetricas;
+import comum.Histograma;
+import comum.Relogio;
+import comum.Topologia;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decorador que mantém, ao lado de qualquer Arbitro, as métricas que o
+ * ExportadorMetricas lê sem travar a mesa.
+ * 
+ * Os getters das mesas (getContadorRefeicoes, getTaxaUtilizacaoGarfo...)
+ * passam pelo monitor ou lock delas; um scrape a cada poucos segundos
+ * disputaria o lock com os filósofos. Aqui cada número tem um escritor por
+ * vez (ContadorEscritorUnico):
+ * - refeições do filósofo: só a thread dele escreve;
+ * - tempo em uso do garfo: só quem o segura, e a posse troca de mão pela
+ *   própria mesa (lock ou CAS), que publica a escrita para o próximo dono.
+ * A fila é um AtomicInteger (vários escritores) e as esperas são os
+ * Histogramas da mesa, que já são lidos sem lock.
+ */
+public class ArbitroMedido implements Arbitro, FonteMetricas {
+    private final Arbitro mesa;
+    private final Relogio relogio;
+    private final ContadorEscritorUnico[] refeicoes;
+    private final ContadorEscritorUnico[] tempoGarfoEmUso; // ns
+    private final long[] inicioRefeicao; // Só a thread do filósofo acessa
+    private final AtomicInteger esperando = new AtomicInteger();
+
+    public ArbitroMedido(Arbitro mesa) {
+        this.mesa = mesa;
+        this.relogio = mesa.getRelogio();
+        Topologia topologia = mesa.getTopologia();
+        this.refeicoes = new ContadorEscritorUnico[topologia.getNumLugares()];
+        this.tempoGarfoEmUso = new ContadorEscritorUnico[topologia.getNumGarfos()];
+        this.inicioRefeicao = new long[topologia.getNumLugares()];
+        for (int i = 0; i < refeicoes.length; i++) {
+            refeicoes[i] = new ContadorEscritorUnico();
+        }
+        for (int i = 0; i < tempoGarfoEmUso.length; i++) {
+            tempoGarfoEmUso[i] = new ContadorEscritorUnico();
+        }
+    }
+
+    @Override
+    public void pegarGarfos(int idFilosofo) throws InterruptedException {
+        esperando.incrementAndGet();
+        try {
+            mesa.pegarGarfos(idFilosofo);
+        } finally {
+            esperando.decrementAndGet();
+        }
+        inicioRefeicao[idFilosofo] = relogio.nanos();
+    }
+
+    @Override
+    public void soltarGarfos(int idFilosofo) {
+        // Antes de devolver: a mesa publica as somas junto com os garfos
+        long emUso = relogio.nanos() - inicioRefeicao[idFilosofo];
+        for (int garfo : mesa.getTopologia().garfosDe(idFilosofo)) {
+            tempoGarfoEmUso[garfo].somar(emUso);
+        }
+        refeicoes[idFilosofo].incrementar();
+        mesa.soltarGarfos(idFilosofo);
+    }
+
+    @Override
+    public int getNumFilosofos() {
+        return refeicoes.length;
+    }
+
+    @Override
+    public int getNumGarfos() {
+        return tempoGarfoEmUso.length;
+    }
+
+    @Override
+    public long getRefeicoes(int idFilosofo) {
+        return refeicoes[idFilosofo].get();
+    }
+
+    @Override
+    public long getTempoGarfoEmUso(int idGarfo) {
+        return tempoGarfoEmUso[idGarfo].get();
+    }
+
+    @Override
+    public int getFilaEspera() {
+        return esperando.get();
+    }
+
+    @Override
+    public int getContadorRefeicoes(int idFilosofo) {
+        return mesa.getContadorRefeicoes(idFilosofo);
+    }
+
+    @Override
+    public double getTempoMedioEspera(int idFilosofo) {
+        return mesa.getTempoMedioEspera(idFilosofo);
+    }
+
+    @Override
+    public Histograma getHistogramaEspera(int idFilosofo) {
+        return mesa.getHistogramaEspera(idFilosofo);
+    }
+
+    @Override
+    public double getTaxaUtilizacaoGarfo(int idGarfo) {
+        return mesa.getTaxaUtilizacaoGarfo(idGarfo);
+    }
+
+    @Override
+    public String getEstadoMesa() {
+        return mesa.getEstadoMesa();
+    }
+
+    @Override
+    public Relogio getRelogio() {
+        return relogio;
+    }
+
+    @Override
+    public Topologia getTopologia() {
+        return mesa.getTopologia();
+    }
+
+    public Arbitro getMesa() {
+        return mesa;
+    }
+}
@@ -0,0 +1,95 @@
+package tarefa4;
+
+import comum.Histograma;
+import comum.RegistroPosse;
+import comum.Relogio;
+import comum.Topologia;
+
+/**
+ * Decorador que informa ao RegistroPosse a posse dos garfos de qualquer
+ * Arbitro, sem mexer na implementação dele.
+ * 
+ * As mesas da Tarefa 4 pegam todos os garfos de uma vez, então o registro
+ * nunca deve achar ciclo aqui; o que ele mostra é quem segura cada garfo, há
+ * quanto tempo e quem espera. Os garfos só são dados como adquiridos depois
+ * de pegarGarfos retornar, e como liberados antes de soltarGarfos.
+ */
+public class ArbitroRegistrado implements Arbitro {
+    private final Arbitro mesa;
+    private final RegistroPosse registro;
+
+    public ArbitroRegistrado(Arbitro mesa, RegistroPosse registro) {
+        this.mesa = mesa;
+        this.registro = registro;
+    }
+
+    @Override
+    public void pegarGarfos(int idFilosofo) throws InterruptedException {
+        int[] garfos = mesa.getTopologia().garfosDe(idFilosofo);
+        for (int garfo : garfos) {
+            registro.aguardando(idFilosofo, garfo);
+        }
+        try {
+            mesa.pegarGarfos(idFilosofo);
+        } catch (InterruptedException e) {
+            for (int garfo : garfos) {
+                registro.desistiu(idFilosofo, garfo);
+            }
+            throw e;
+        }
+        for (int garfo : garfos) {
+            registro.adquiriu(idFilosofo, garfo);
+        }
+    }
+
+    @Override
+    public void soltarGarfos(int idFilosofo) {
+        for (int garfo : mesa.getTopologia().garfosDe(idFilosofo)) {
+            registro.liberou(idFilosofo, garfo);
+        }
+        mesa.soltarGarfos(idFilosofo);
+    }
+
+    @Override
+    public int getContadorRefeicoes(int idFilosofo) {
+        return mesa.getContadorRefeicoes(idFilosofo);
+    }
+
+    @Override
+    public double getTempoMedioEspera(int idFilosofo) {
+        return mesa.getTempoMedioEspera(idFilosofo);
+    }
+
+    @Override
+    public Histograma getHistogramaEspera(int idFilosofo) {
+        return mesa.getHistogramaEspera(idFilosofo);
+    }
+
+    @Override
+    public double getTaxaUtilizacaoGarfo(int idGarfo) {
+        return mesa.getTaxaUtilizacaoGarfo(idGarfo);
+    }
+
+    @Override
+    public String getEstadoMesa() {
+        return mesa.getEstadoMesa();
+    }
+
+    @Override
+    public Relogio getRelogio() {
+        return mesa.getRelogio();
+    }
+
+    @Override
+    public Topologia getTopologia() {
+        return mesa.getTopologia();
+    }
+
+    public Arbitro getMesa() {
+        return mesa;
+    }
+
+    public RegistroPosse getRegistro() {
+        return registro;
+    }
+}
@@ -0,0 +1,95 @@
+package tarefa4;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Benchmark da MesaParticionada: refeições/segundo conforme crescem o
+ * número de lugares e o número de faixas.
+ *
+ * Cada lugar é uma thread que pega e solta os garfos em laço, SEM tempo de
+ * pensar ou comer, de modo que o custo medido é só o da coordenação.
+ *
+ * Uso: java -cp src tarefa4.BenchmarkFaixas [duracaoMs] [lugares...]
+ *   Ex.: java -cp src tarefa4.BenchmarkFaixas 2000 64 512 5000
+ */
+public class BenchmarkFaixas {
+    private static final int DURACAO_PADRAO_MS = 2000;
+    private static final int[] LUGARES_PADRAO = {64, 512, 2048};
+    private static final int[] FAIXAS = {1, 4, 16, 64, 256};
+
+    public static void main(String[] args) throws InterruptedException {
+        int duracaoMs = args.length > 0 ? Integer.parseInt(args[0]) : DURACAO_PADRAO_MS;
+        int[] lugares = LUGARES_PADRAO;
+        if (args.length > 1) {
+            lugares = new int[args.length - 1];
+            for (int i = 1; i < args.length; i++) {
+                lugares[i - 1] = Integer.parseInt(args[i]);
+            }
+        }
+
+        System.out.println("=".repeat(80));
+        System.out.println("BENCHMARK: MESA PARTICIONADA EM FAIXAS (refeições/segundo)");
+        System.out.println("=".repeat(80));
+        System.out.printf("Duração por medição: %d ms | Pensar/comer: 0 ms%n%n", duracaoMs);
+
+        System.out.printf("%10s", "lugares");
+        for (int faixas : FAIXAS) {
+            System.out.printf("%14s", faixas + " faixa(s)");
+        }
+        System.out.println();
+        System.out.println("-".repeat(10 + 14 * FAIXAS.length));
+
+        for (int numLugares : lugares) {
+            System.out.printf("%10d", numLugares);
+            for (int numFaixas : FAIXAS) {
+                if (numFaixas > numLugares) {
+                    System.out.printf("%14s", "-");
+                    continue;
+                }
+                double refeicoesPorSegundo = medir(numLugares, numFaixas, duracaoMs);
+                System.out.printf("%14.0f", refeicoesPorSegundo);
+            }
+            System.out.println();
+        }
+        System.out.println("=".repeat(80));
+    }
+
+    private static double medir(int numLugares, int numFaixas, int duracaoMs) throws InterruptedException {
+        MesaParticionada mesa = new MesaParticionada(numLugares, numFaixas);
+        Thread[] threads = new Thread[numLugares];
+        CountDownLatch largada = new CountDownLatch(1);
+
+        for (int i = 0; i < numLugares; i++) {
+            final int id = i;
+            threads[i] = new Thread(() -> {
+                try {
+                    largada.await();
+                    while (!Thread.currentThread().isInterrupted()) {
+                        mesa.pegarGarfos(id);
+                        mesa.soltarGarfos(id);
+                    }
+                } catch (InterruptedException e) {
+                    // Fim da medição
+                }
+            });
+            threads[i].start();
+        }
+
+        long inicio = System.nanoTime();
+        largada.countDown();
+        Thread.sleep(duracaoMs);
+        long total = 0;
+        for (int i = 0; i < numLugares; i++) {
+            total += mesa.getContadorRefeicoes(i);
+        }
+        long decorrido = System.nanoTime() - inicio;
+
+        for (Thread thread : threads) {
+            thread.interrupt();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return total / (decorrido / 1e9);
+    }
+}
@@ -0,0 +1,117 @@
+package tarefa4;
+
+import java.util.Arrays;
+
+/**
+ * Fila FIFO de IDs de filósofos sem alocação e sem boxing.
+ *
+ * Substitui o LinkedList&lt;Integer&gt; usado como fila de espera nas Mesas:
+ * lá cada add() cria um Integer e um nó, e remove(id) percorre a lista.
+ *
+ * Como cada filósofo está no máximo UMA vez na fila, os próprios IDs servem
+ * de índice: proximo[id] e anterior[id] formam uma lista duplamente
+ * encadeada dentro de dois int[] de tamanho fixo. Assim adicionar, remover
+ * o primeiro, consultar o primeiro e remover por ID são todos O(1).
+ *
+ * Não é thread-safe: deve ser usada sob o lock da Mesa que a contém.
+ */
+public class FilaIndexada {
+    public static final int VAZIA = -1;
+    private static final int FORA = -2;
+
+    private final int[] proximo;
+    private final int[] anterior;
+    private int primeiro = VAZIA;
+    private int ultimo = VAZIA;
+    private int tamanho = 0;
+
+    public FilaIndexada(int capacidade) {
+        this.proximo = new int[capacidade];
+        this.anterior = new int[capacidade];
+        Arrays.fill(proximo, FORA);
+        Arrays.fill(anterior, FORA);
+    }
+
+    /**
+     * Coloca o filósofo no fim da fila. Ignora se ele já estiver na fila.
+     */
+    public void adicionar(int id) {
+        if (contem(id)) {
+            return;
+        }
+        proximo[id] = VAZIA;
+        anterior[id] = ultimo;
+        if (ultimo == VAZIA) {
+            primeiro = id;
+        } else {
+            proximo[ultimo] = id;
+        }
+        ultimo = id;
+        tamanho++;
+    }
+
+    /**
+     * Retorna o primeiro da fila sem removê-lo, ou VAZIA.
+     */
+    public int primeiro() {
+        return primeiro;
+    }
+
+    /**
+     * Remove e retorna o primeiro da fila, ou VAZIA.
+     */
+    public int removerPrimeiro() {
+        int id = primeiro;
+        if (id != VAZIA) {
+            remover(id);
+        }
+        return id;
+    }
+
+    /**
+     * Remove o filósofo de qualquer posição da fila.
+     *
+     * @return true se ele estava na fila
+     */
+    public boolean remover(int id) {
+        if (!contem(id)) {
+            return false;
+        }
+        int ant = anterior[id];
+        int prox = proximo[id];
+        if (ant == VAZIA) {
+            primeiro = prox;
+        } else {
+            proximo[ant] = prox;
+        }
+        if (prox == VAZIA) {
+            ultimo = ant;
+        } else {
+            anterior[prox] = ant;
+        }
+        proximo[id] = FORA;
+        anterior[id] = FORA;
+        tamanho--;
+        return true;
+    }
+
+    /**
+     * Retorna quem está logo atrás do filósofo na fila, ou VAZIA.
+     * Permite percorrer a fila em ordem sem alocar um Iterator.
+     */
+    public int proximoDe(int id) {
+        return contem(id) ? proximo[id] : VAZIA;
+    }
+
+    public boolean contem(int id) {
+        return proximo[id] != FORA;
+    }
+
+    public boolean isVazia() {
+        return tamanho == 0;
+    }
+
+    public int tamanho() {
+        return tamanho;
+    }
+}
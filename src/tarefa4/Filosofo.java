@@ -1,8 +1,11 @@
 package tarefa4;
 
-import java.util.Random;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import comum.CanalEventos;
+import comum.Duracoes;
+import comum.FilosofoMBean;
+import comum.RegistroEventos;
+import comum.Relogio;
+import comum.TipoEvento;
 
 /**
  * Representa um filósofo no problema do Jantar dos Filósofos.
@@ -76,18 +79,24 @@ import java.util.Date;
  * - Aplicações onde starvation é INACEITÁVEL
  * - Ambientes que exigem comportamento DETERMINÍSTICO
  */
-public class Filosofo implements Runnable {
+public class Filosofo implements Runnable, FilosofoMBean {
     private final int id;
-    private final Mesa mesa;
-    private final Random random;
-    private final SimpleDateFormat timeFormat;
+    private final Arbitro mesa;
+    private final Duracoes duracoes;
+    private CanalEventos canal; // Aberto no primeiro evento, fechado ao fim do run()
     private volatile boolean executando = true;
 
-    public Filosofo(int id, Mesa mesa) {
+    public Filosofo(int id, Arbitro mesa) {
+        this(id, mesa, new Duracoes());
+    }
+
+    /**
+     * @param duracoes faixas de pensar/comer, compartilhadas pela mesa
+     */
+    public Filosofo(int id, Arbitro mesa, Duracoes duracoes) {
         this.id = id;
         this.mesa = mesa;
-        this.random = new Random();
-        this.timeFormat = new SimpleDateFormat("HH:mm:ss.SSS");
+        this.duracoes = duracoes;
     }
 
     @Override
@@ -98,51 +107,104 @@ public class Filosofo implements Runnable {
                 comer();
             }
         } catch (InterruptedException e) {
-            log("Foi interrompido");
+            log(TipoEvento.INTERROMPIDO);
             Thread.currentThread().interrupt();
+        } finally {
+            fecharCanal();
         }
     }
 
     private void pensar() throws InterruptedException {
-        log("começou a PENSAR");
-        Thread.sleep(random.nextInt(2000) + 1000); // 1-3 segundos
+        log(TipoEvento.PENSANDO);
+        Thread.sleep(duracoes.sortearPensar());
     }
 
     private void comer() throws InterruptedException {
-        int garfoEsquerdo = id;
-        int garfoDireito = (id + 1) % 5;
+        int[] garfos = mesa.getTopologia().garfosDe(id);
+        boolean par = garfos.length == 2; // No anel: esquerdo e direito
 
         // Solicita os garfos através do monitor (Mesa)
-        log("solicitando garfos " + garfoEsquerdo + " e " + garfoDireito + " ao MONITOR");
-        long tempoInicio = System.currentTimeMillis();
+        if (par) {
+            log(TipoEvento.SOLICITANDO_MONITOR, garfos[0], garfos[1]);
+        } else {
+            log(TipoEvento.SOLICITANDO_VARIOS_MONITOR, garfos.length);
+        }
+        long tempoInicio = mesa.getRelogio().nanos();
         
         mesa.pegarGarfos(id);
         
-        long tempoEspera = System.currentTimeMillis() - tempoInicio;
-        log("obteve garfos " + garfoEsquerdo + " e " + garfoDireito + " após " + tempoEspera + "ms de espera");
+        long tempoEspera = (mesa.getRelogio().nanos() - tempoInicio) / Relogio.NANOS_POR_MS;
+        if (par) {
+            log(TipoEvento.OBTEVE_MONITOR, garfos[0], garfos[1], tempoEspera);
+            log(TipoEvento.COMENDO, garfos[0], garfos[1]);
+        } else {
+            log(TipoEvento.OBTEVE_VARIOS_MONITOR, garfos.length, tempoEspera);
+            log(TipoEvento.COMENDO_VARIOS, garfos.length);
+        }
 
         // Come
-        log("está COMENDO com garfos " + garfoEsquerdo + " e " + garfoDireito);
-        Thread.sleep(random.nextInt(2000) + 1000); // 1-3 segundos
+        Thread.sleep(duracoes.sortearComer());
 
         int numRefeicoes = mesa.getContadorRefeicoes(id) + 1;
-        log("terminou de COMER (refeição #" + numRefeicoes + ")");
+        log(TipoEvento.TERMINOU_REFEICAO, numRefeicoes);
 
         // Devolve os garfos através do monitor
         mesa.soltarGarfos(id);
-        log("devolveu os garfos ao MONITOR");
+        log(TipoEvento.DEVOLVEU_MONITOR);
     }
 
     public void parar() {
         executando = false;
     }
 
+    @Override
+    public int getId() {
+        return id;
+    }
+
+    @Override
     public int getContadorRefeicoes() {
         return mesa.getContadorRefeicoes(id);
     }
 
-    private void log(String mensagem) {
-        String timestamp = timeFormat.format(new Date());
-        System.out.println("[" + timestamp + "] Filósofo " + id + " " + mensagem);
+    @Override
+    public double getTempoMedioEspera() {
+        return mesa.getTempoMedioEspera(id);
+    }
+
+    private void log(TipoEvento tipo) {
+        log(tipo, 0, 0, 0);
+    }
+
+    private void log(TipoEvento tipo, long a) {
+        log(tipo, a, 0, 0);
+    }
+
+    private void log(TipoEvento tipo, long a, long b) {
+        log(tipo, a, b, 0);
+    }
+
+    /**
+     * Grava o evento no canal do filósofo; a formatação e a impressão ficam
+     * para a thread escritora do RegistroEventos.
+     */
+    private void log(TipoEvento tipo, long a, long b, long c) {
+        if (canal == null) {
+            canal = RegistroEventos.abrirCanal();
+            if (canal == null) {
+                return; // Log desligado
+            }
+        }
+        canal.registrar(tipo, id, a, b, c);
+    }
+
+    /**
+     * Fecha o canal no fim do run(): a escritora drena o resto e o descarta.
+     */
+    private void fecharCanal() {
+        if (canal != null) {
+            canal.fechar();
+            canal = null;
+        }
     }
 }
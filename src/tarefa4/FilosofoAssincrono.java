@@ -0,0 +1,216 @@
+package tarefa4;
+
+import comum.CanalEventos;
+import comum.RegistroEventos;
+import comum.Relogio;
+import comum.TipoEvento;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filósofo SEM thread própria, para a MesaAssincrona.
+ *
+ * Cada passo (pensar, pedir, comer, soltar) é uma tarefa curta no executor
+ * compartilhado: pensar e comer são agendamentos, e o pedido dos garfos é
+ * um CompletableFuture que a mesa completa quando o vizinho solta. Enquanto
+ * espera, o filósofo não ocupa thread nenhuma, então dezenas de milhares
+ * deles rodam num executor com poucas threads.
+ *
+ * Os passos de um filósofo nunca rodam ao mesmo tempo (cada um agenda o
+ * próximo), então o canal de eventos continua tendo um escritor por vez.
+ *
+ * Se um passo falhar (pedido cancelado ou completado com erro, executor já
+ * desligado recusando o próximo passo), a cadeia não para em silêncio: o
+ * filósofo devolve os garfos que tiver, registra o erro e completa
+ * getTermino() com ele.
+ */
+public class FilosofoAssincrono {
+    private final int id;
+    private final MesaAssincrona mesa;
+    private final ScheduledExecutorService executor;
+    private final int minMs;
+    private final int maxMs;
+    private CanalEventos canal; // Aberto no primeiro evento, fechado ao terminar
+    private final CompletableFuture<Void> termino = new CompletableFuture<>();
+    private volatile boolean executando = true;
+    private int refeicoes = 0; // Só para o log: evita o lock da mesa a cada refeição
+
+    public FilosofoAssincrono(int id, MesaAssincrona mesa, ScheduledExecutorService executor) {
+        this(id, mesa, executor, 1000, 3000); // 1-3 segundos, como o Filosofo
+    }
+
+    /**
+     * @param minMs duração mínima de pensar/comer
+     * @param maxMs duração máxima (exclusiva) de pensar/comer
+     */
+    public FilosofoAssincrono(int id, MesaAssincrona mesa, ScheduledExecutorService executor, int minMs, int maxMs) {
+        this.id = id;
+        this.mesa = mesa;
+        this.executor = executor;
+        this.minMs = minMs;
+        this.maxMs = maxMs;
+    }
+
+    public void iniciar() {
+        executor.execute(this::pensar);
+    }
+
+    private void pensar() {
+        if (!executando) {
+            fecharCanal();
+            termino.complete(null);
+            return;
+        }
+        log(TipoEvento.PENSANDO);
+        agendar(this::pedirGarfos, sortearDuracao(), null);
+    }
+
+    private void pedirGarfos() {
+        int[] garfos = mesa.getTopologia().garfosDe(id);
+        if (garfos.length == 2) {
+            log(TipoEvento.SOLICITANDO_MONITOR, garfos[0], garfos[1]);
+        } else {
+            log(TipoEvento.SOLICITANDO_VARIOS_MONITOR, garfos.length);
+        }
+        long inicio = mesa.getRelogio().nanos();
+        mesa.pedirGarfos(id).whenComplete((permissao, erro) -> {
+            if (erro != null) {
+                falhar(erro);
+                return;
+            }
+            // Pelo executor: a thread de quem soltou os garfos não executa a refeição
+            try {
+                executor.execute(() -> executarPasso(() -> comer(permissao, inicio), permissao, false));
+            } catch (RejectedExecutionException e) {
+                permissao.descartar(); // Não comeu: não conta refeição
+                falhar(e);
+            }
+        });
+    }
+
+    private void comer(Permissao permissao, long inicio) {
+        int[] garfos = mesa.getTopologia().garfosDe(id);
+        long tempoEspera = (mesa.getRelogio().nanos() - inicio) / Relogio.NANOS_POR_MS;
+        if (garfos.length == 2) {
+            log(TipoEvento.OBTEVE_MONITOR, garfos[0], garfos[1], tempoEspera);
+            log(TipoEvento.COMENDO, garfos[0], garfos[1]);
+        } else {
+            log(TipoEvento.OBTEVE_VARIOS_MONITOR, garfos.length, tempoEspera);
+            log(TipoEvento.COMENDO_VARIOS, garfos.length);
+        }
+        agendar(() -> terminarRefeicao(permissao), sortearDuracao(), permissao);
+    }
+
+    private void terminarRefeicao(Permissao permissao) {
+        log(TipoEvento.TERMINOU_REFEICAO, ++refeicoes);
+        permissao.soltar();
+        log(TipoEvento.DEVOLVEU_MONITOR);
+        pensar();
+    }
+
+    /**
+     * Agenda o próximo passo. emMaos só é dado para o fim da refeição: se o
+     * executor recusar, a refeição não aconteceu e os garfos voltam sem
+     * contar (descartar); depois que o passo roda, a refeição já conta.
+     */
+    private void agendar(Runnable passo, long atrasoMs, Permissao emMaos) {
+        try {
+            executor.schedule(() -> executarPasso(passo, emMaos, true), atrasoMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            if (emMaos != null) {
+                emMaos.descartar();
+            }
+            falhar(e);
+        }
+    }
+
+    /**
+     * Roda o passo; se ele lançar, devolve os garfos em mãos (se houver) e
+     * encerra o filósofo. Sem isso a exceção ficaria presa no Future do
+     * executor e a cadeia pararia sem aviso.
+     *
+     * @param comeu se a refeição já aconteceu (soltar conta a refeição;
+     *        descartar, não)
+     */
+    private void executarPasso(Runnable passo, Permissao emMaos, boolean comeu) {
+        try {
+            passo.run();
+        } catch (RuntimeException e) {
+            if (emMaos != null) {
+                if (comeu) {
+                    emMaos.soltar(); // Idempotente
+                } else {
+                    emMaos.descartar();
+                }
+            }
+            falhar(e);
+        }
+    }
+
+    private void falhar(Throwable erro) {
+        executando = false;
+        System.err.println("Filósofo " + id + ": " + erro.getClass().getSimpleName() + ", encerrando");
+        fecharCanal();
+        termino.completeExceptionally(erro);
+    }
+
+    private long sortearDuracao() {
+        return minMs < maxMs ? ThreadLocalRandom.current().nextInt(minMs, maxMs) : minMs;
+    }
+
+    /**
+     * Termina depois da refeição em andamento (se houver); ver getTermino().
+     */
+    public void parar() {
+        executando = false;
+    }
+
+    /**
+     * Completado quando o filósofo, depois de parar(), volta a pensar, ou
+     * completado com o erro que encerrou a cadeia de passos.
+     */
+    public CompletableFuture<Void> getTermino() {
+        return termino;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getContadorRefeicoes() {
+        return mesa.getContadorRefeicoes(id);
+    }
+
+    private void log(TipoEvento tipo) {
+        log(tipo, 0, 0, 0);
+    }
+
+    private void log(TipoEvento tipo, long a) {
+        log(tipo, a, 0, 0);
+    }
+
+    private void log(TipoEvento tipo, long a, long b) {
+        log(tipo, a, b, 0);
+    }
+
+    private void log(TipoEvento tipo, long a, long b, long c) {
+        if (canal == null) {
+            canal = RegistroEventos.abrirCanal();
+            if (canal == null) {
+                return; // Log desligado
+            }
+        }
+        canal.registrar(tipo, id, a, b, c);
+    }
+
+    private void fecharCanal() {
+        if (canal != null) {
+            canal.fechar();
+            canal = null;
+        }
+    }
+}
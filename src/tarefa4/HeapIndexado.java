@@ -0,0 +1,158 @@
+package tarefa4;
+
+import java.util.Arrays;
+
+/**
+ * Min-heap de IDs de filósofos por uma chave long, sem alocação e sem boxing.
+ *
+ * Companheiro da FilaIndexada: a fila guarda a ordem de chegada e o heap
+ * guarda quem está há mais tempo sem comer (chave = tempo da última
+ * refeição). Como na fila, os próprios IDs servem de índice: posicao[id]
+ * diz onde o filósofo está no heap, então remover por ID é O(log N).
+ *
+ * A chave de um filósofo não muda enquanto ele está no heap (quem espera
+ * não come); para mudá-la, remova e adicione de novo.
+ *
+ * Não é thread-safe: deve ser usado sob o lock da Mesa que o contém.
+ */
+public class HeapIndexado {
+    public static final int VAZIO = -1;
+    private static final int FORA = -1;
+
+    private final int[] heap;
+    private final int[] posicao;
+    private final long[] chave;
+    private int tamanho = 0;
+
+    public HeapIndexado(int capacidade) {
+        this.heap = new int[capacidade];
+        this.posicao = new int[capacidade];
+        this.chave = new long[capacidade];
+        Arrays.fill(posicao, FORA);
+    }
+
+    /**
+     * Coloca o filósofo no heap. Ignora se ele já estiver no heap.
+     */
+    public void adicionar(int id, long chaveId) {
+        if (contem(id)) {
+            return;
+        }
+        chave[id] = chaveId;
+        heap[tamanho] = id;
+        posicao[id] = tamanho;
+        subir(tamanho++);
+    }
+
+    /**
+     * Retorna o de menor chave sem removê-lo, ou VAZIO.
+     */
+    public int primeiro() {
+        return tamanho == 0 ? VAZIO : heap[0];
+    }
+
+    /**
+     * Remove o filósofo de qualquer posição do heap.
+     *
+     * @return true se ele estava no heap
+     */
+    public boolean remover(int id) {
+        if (!contem(id)) {
+            return false;
+        }
+        int i = posicao[id];
+        posicao[id] = FORA;
+        tamanho--;
+        if (i != tamanho) {
+            int ultimo = heap[tamanho];
+            heap[i] = ultimo;
+            posicao[ultimo] = i;
+            if (!subir(i)) {
+                descer(i);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copia para destino os IDs com chave menor que o limite, pais antes
+     * dos filhos, e retorna quantos foram copiados. Só visita esses IDs e
+     * os filhos imediatos deles, não o heap inteiro.
+     *
+     * @param pilha área de trabalho com pelo menos a capacidade do heap
+     */
+    public int coletarMenoresQue(long limite, int[] destino, int[] pilha) {
+        int encontrados = 0;
+        int topo = 0;
+        if (tamanho > 0) {
+            pilha[topo++] = 0;
+        }
+        while (topo > 0) {
+            int i = pilha[--topo];
+            int id = heap[i];
+            if (chave[id] >= limite) {
+                continue; // Nenhum descendente tem chave menor
+            }
+            destino[encontrados++] = id;
+            int filho = 2 * i + 1;
+            if (filho + 1 < tamanho) {
+                pilha[topo++] = filho + 1;
+            }
+            if (filho < tamanho) {
+                pilha[topo++] = filho;
+            }
+        }
+        return encontrados;
+    }
+
+    public boolean contem(int id) {
+        return posicao[id] != FORA;
+    }
+
+    public boolean isVazio() {
+        return tamanho == 0;
+    }
+
+    public int tamanho() {
+        return tamanho;
+    }
+
+    private boolean subir(int i) {
+        int inicio = i;
+        int id = heap[i];
+        while (i > 0) {
+            int pai = (i - 1) / 2;
+            if (chave[heap[pai]] <= chave[id]) {
+                break;
+            }
+            colocar(heap[pai], i);
+            i = pai;
+        }
+        colocar(id, i);
+        return i != inicio;
+    }
+
+    private void descer(int i) {
+        int id = heap[i];
+        while (true) {
+            int filho = 2 * i + 1;
+            if (filho >= tamanho) {
+                break;
+            }
+            if (filho + 1 < tamanho && chave[heap[filho + 1]] < chave[heap[filho]]) {
+                filho++;
+            }
+            if (chave[heap[filho]] >= chave[id]) {
+                break;
+            }
+            colocar(heap[filho], i);
+            i = filho;
+        }
+        colocar(id, i);
+    }
+
+    private void colocar(int id, int i) {
+        heap[i] = id;
+        posicao[id] = i;
+    }
+}
@@ -1,7 +1,26 @@
 package tarefa4;
 
+import comum.Duracoes;
+import comum.DuracoesMBean;
+import comum.EstrategiaEspera;
+import comum.ExportadorMetricas;
+import comum.FabricaThreads;
+import comum.FilosofoMBean;
+import comum.Histograma;
+import comum.RegistroEventos;
+import comum.RegistroJmx;
+import comum.RegistroPosse;
+import comum.Relogio;
+import comum.Topologia;
+
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Classe principal para executar a Tarefa 4 - Solução com Monitores e Fairness.
@@ -11,34 +30,76 @@ import java.util.List;
  * tanto deadlock quanto starvation.
  * 
  * Execute por pelo menos 2 minutos para coletar estatísticas.
+ * 
+ * Uso: java -cp src tarefa4.Main [monitor|entrega|condicoes|lockfree|particionada|assincrona]
+ *   - monitor   (padrão): Mesa com synchronized + notifyAll()
+ *   - entrega  : Mesa com entrega direta; quem solta passa os garfos ao
+ *                próximo da vez e acorda só ele
+ *   - condicoes: MesaCondicoes com uma Condition por filósofo
+ *   - lockfree : MesaLockFree com bitmask de garfos alterado via CAS
+ *   - particionada: MesaParticionada com um lock e uma fila por faixa de lugares
+ *   - assincrona: MesaAssincrona com CompletableFuture; os filósofos
+ *                 (FilosofoAssincrono) são tarefas num executor com uma
+ *                 thread por CPU, não threads próprias
+ * 
+ * Lugares e topologia: -Dfilosofos.lugares=N -Dfilosofos.topologia=anel|grade|completos
+ * Espera por garfos ocupados (monitor, entrega e lockfree): -Dfilosofos.espera=bloquear|girar|hibrida
+ * Posse dos garfos (ArbitroRegistrado, exceto assincrona): -Dfilosofos.posse=ligado
+ * Métricas Prometheus em http://localhost:PORTA/metrics (ArbitroMedido, exceto
+ * assincrona): -Dfilosofos.metricas=PORTA
+ * MBeans (faixas de pensar/comer e, na Mesa, o fator de envelhecimento,
+ * ajustáveis): -Dfilosofos.jmx=ligado
  */
 public class Main {
-    private static final int NUM_FILOSOFOS = 5;
     private static final int TEMPO_EXECUCAO_MS = 300000; // 5 minutos (Tarefa 5)
+    private static final int PRAZO_TERMINO_MS = 5000; // Maior que uma refeição
 
     public static void main(String[] args) {
+        Topologia topologia = Topologia.dePropriedades();
+        int numFilosofos = topologia.getNumLugares();
+
         System.out.println("=".repeat(80));
         System.out.println("TAREFA 4: JANTAR DOS FILÓSOFOS - MONITORES COM FAIRNESS");
         System.out.println("=".repeat(80));
-        System.out.println("Iniciando simulação com " + NUM_FILOSOFOS + " filósofos...");
-        System.out.println("Monitor (Mesa) coordena acesso aos garfos com garantia de fairness");
+        System.out.println("Iniciando simulação com " + numFilosofos + " filósofos (" + FabricaThreads.getDescricaoModo() + ")...");
+        System.out.println("Topologia: " + topologia);
+        String modo = args.length > 0 ? args[0] : "monitor";
+        System.out.println("Monitor (Mesa) coordena acesso aos garfos com garantia de fairness [modo: " + modo + "]");
         System.out.println("Tempo de execução: " + (TEMPO_EXECUCAO_MS / 1000) + " segundos\n");
         System.out.println("=".repeat(80));
 
         // Criar a mesa (monitor)
-        Mesa mesa = new Mesa(NUM_FILOSOFOS);
+        RegistroPosse registro = RegistroPosse.dePropriedades(numFilosofos, topologia.getNumGarfos());
+        Arbitro base = criarArbitro(modo, topologia);
+        Arbitro mesa = medir(registrar(base, registro));
+        ExportadorMetricas exportador = mesa instanceof ArbitroMedido
+                ? ExportadorMetricas.dePropriedades((ArbitroMedido) mesa) : null;
 
         // Criar os filósofos
+        Duracoes duracoes = new Duracoes();
         List<Filosofo> filosofos = new ArrayList<>();
         List<Thread> threads = new ArrayList<>();
+        List<FilosofoAssincrono> assincronos = new ArrayList<>();
+        ScheduledExecutorService executor = null;
         
-        for (int i = 0; i < NUM_FILOSOFOS; i++) {
-            Filosofo filosofo = new Filosofo(i, mesa);
-            filosofos.add(filosofo);
-            
-            Thread thread = new Thread(filosofo);
-            threads.add(thread);
-            thread.start();
+        if (mesa instanceof MesaAssincrona) {
+            int numThreads = Runtime.getRuntime().availableProcessors();
+            System.out.println("Filósofos sem thread própria: executor com " + numThreads + " thread(s)\n");
+            executor = Executors.newScheduledThreadPool(numThreads);
+            for (int i = 0; i < numFilosofos; i++) {
+                FilosofoAssincrono filosofo = new FilosofoAssincrono(i, (MesaAssincrona) mesa, executor);
+                assincronos.add(filosofo);
+                filosofo.iniciar();
+            }
+        } else {
+            for (int i = 0; i < numFilosofos; i++) {
+                Filosofo filosofo = new Filosofo(i, mesa, duracoes);
+                filosofos.add(filosofo);
+                
+                Thread thread = FabricaThreads.iniciar(filosofo);
+                threads.add(thread);
+            }
+            registrarMBeans(base, duracoes, filosofos);
         }
 
         // Thread para monitorar estado da mesa periodicamente
@@ -70,6 +131,9 @@ public class Main {
         for (Filosofo filosofo : filosofos) {
             filosofo.parar();
         }
+        for (FilosofoAssincrono filosofo : assincronos) {
+            filosofo.parar();
+        }
 
         // Aguardar finalização das threads
         for (Thread thread : threads) {
@@ -79,15 +143,26 @@ public class Main {
                 e.printStackTrace();
             }
         }
+        long assincronosAtivos = aguardarAssincronos(assincronos);
+        if (executor != null) {
+            executor.shutdownNow();
+        }
 
+        RegistroEventos.descarregar(); // Esvazia o log antes do relatório
         System.out.println("Simulação encerrada.");
         System.out.println("=".repeat(80));
         
         // Exibir estatísticas
-        exibirEstatisticas(filosofos, mesa);
+        exibirEstatisticas(numFilosofos, mesa);
+        if (exportador != null) {
+            exportador.parar();
+        }
+        if (registro != null && !(mesa instanceof MesaAssincrona)) {
+            System.out.println("\nRegistro de posse: " + registro.getCiclos().size() + " ciclo(s) de espera detectado(s).");
+        }
         
-        // Verificar se há threads ainda ativas
-        long threadsAtivas = threads.stream().filter(Thread::isAlive).count();
+        // Verificar se há threads (ou filósofos assíncronos) ainda ativas
+        long threadsAtivas = threads.stream().filter(Thread::isAlive).count() + assincronosAtivos;
         if (threadsAtivas > 0) {
             System.out.println("\n⚠️  PROBLEMA DETECTADO!");
             System.out.println("Ainda há " + threadsAtivas + " thread(s) ativa(s).");
@@ -98,7 +173,89 @@ public class Main {
         System.out.println("=".repeat(80));
     }
 
-    private static void exibirEstatisticas(List<Filosofo> filosofos, Mesa mesa) {
+    /**
+     * Envolve a mesa num ArbitroRegistrado se o registro de posse estiver
+     * ligado. A MesaAssincrona fica de fora: o FilosofoAssincrono precisa
+     * dela diretamente.
+     */
+    private static Arbitro registrar(Arbitro mesa, RegistroPosse registro) {
+        if (registro == null || mesa instanceof MesaAssincrona) {
+            return mesa;
+        }
+        return new ArbitroRegistrado(mesa, registro);
+    }
+
+    /**
+     * Com -Dfilosofos.jmx=ligado: durações, filósofos e, se a mesa for a
+     * Mesa, ela própria (fator de envelhecimento) no jconsole.
+     */
+    private static void registrarMBeans(Arbitro base, Duracoes duracoes, List<Filosofo> filosofos) {
+        if (!RegistroJmx.isLigado()) {
+            return;
+        }
+        if (base instanceof Mesa) {
+            RegistroJmx.registrar("Mesa", null, (Mesa) base, MesaMBean.class);
+        }
+        RegistroJmx.registrar("Duracoes", null, duracoes, DuracoesMBean.class);
+        for (Filosofo filosofo : filosofos) {
+            RegistroJmx.registrar("Filosofo", filosofo.getId(), filosofo, FilosofoMBean.class);
+        }
+        System.out.println("MBeans registrados no domínio \"" + RegistroJmx.DOMINIO + "\" (jconsole)");
+    }
+
+    /**
+     * Envolve a mesa num ArbitroMedido se -Dfilosofos.metricas foi dada
+     * (mesma exceção da MesaAssincrona).
+     */
+    private static Arbitro medir(Arbitro mesa) {
+        if (Integer.getInteger(ExportadorMetricas.PROPRIEDADE) == null || mesa instanceof MesaAssincrona) {
+            return mesa;
+        }
+        return new ArbitroMedido(mesa);
+    }
+
+    private static Arbitro criarArbitro(String modo, Topologia topologia) {
+        switch (modo) {
+            case "monitor":
+                return new Mesa(topologia, Relogio.SISTEMA,
+                        EstrategiaEspera.dePropriedades(EstrategiaEspera.BLOQUEAR));
+            case "entrega":
+                return new Mesa(topologia, Relogio.SISTEMA,
+                        EstrategiaEspera.dePropriedades(EstrategiaEspera.BLOQUEAR), true);
+            case "condicoes":
+                return new MesaCondicoes(topologia);
+            case "lockfree":
+                return new MesaLockFree(topologia, Relogio.SISTEMA,
+                        EstrategiaEspera.dePropriedades(EstrategiaEspera.HIBRIDA));
+            case "particionada":
+                return new MesaParticionada(topologia, Math.max(1, topologia.getNumLugares() / 2));
+            case "assincrona":
+                return new MesaAssincrona(topologia);
+            default:
+                throw new IllegalArgumentException("Modo desconhecido: " + modo);
+        }
+    }
+
+    /**
+     * Espera todos os filósofos assíncronos voltarem a pensar depois de
+     * parar() e retorna quantos não terminaram no prazo.
+     */
+    private static long aguardarAssincronos(List<FilosofoAssincrono> assincronos) {
+        CompletableFuture<?>[] terminos = new CompletableFuture<?>[assincronos.size()];
+        for (int i = 0; i < terminos.length; i++) {
+            terminos[i] = assincronos.get(i).getTermino();
+        }
+        try {
+            CompletableFuture.allOf(terminos).get(PRAZO_TERMINO_MS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            // Contados abaixo
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+        return assincronos.stream().filter(f -> !f.getTermino().isDone()).count();
+    }
+
+    private static void exibirEstatisticas(int numFilosofos, Arbitro mesa) {
         System.out.println("\n" + "=".repeat(80));
         System.out.println("ESTATÍSTICAS DE EXECUÇÃO");
         System.out.println("=".repeat(80));
@@ -109,8 +266,8 @@ public class Main {
         double somaTempoEspera = 0;
         
         System.out.println("\n📊 REFEIÇÕES POR FILÓSOFO:");
-        for (int i = 0; i < filosofos.size(); i++) {
-            int refeicoes = filosofos.get(i).getContadorRefeicoes();
+        for (int i = 0; i < numFilosofos; i++) {
+            int refeicoes = mesa.getContadorRefeicoes(i);
             double tempoMedioEspera = mesa.getTempoMedioEspera(i);
             totalRefeicoes += refeicoes;
             somaTempoEspera += tempoMedioEspera;
@@ -121,10 +278,10 @@ public class Main {
                              i, refeicoes, tempoMedioEspera);
         }
         
-        double media = (double) totalRefeicoes / filosofos.size();
-        double desvioPadrao = calcularDesvioPadrao(filosofos, media);
+        double media = (double) totalRefeicoes / numFilosofos;
+        double desvioPadrao = calcularDesvioPadrao(numFilosofos, mesa, media);
         double coeficienteVariacao = (desvioPadrao / media) * 100;
-        double tempoMedioEsperaGeral = somaTempoEspera / filosofos.size();
+        double tempoMedioEsperaGeral = somaTempoEspera / numFilosofos;
         
         System.out.println("\n📈 MÉTRICAS GERAIS:");
         System.out.println("-".repeat(80));
@@ -136,15 +293,26 @@ public class Main {
         System.out.printf("  Coeficiente de variação: %.2f%%%n", coeficienteVariacao);
         System.out.printf("  Tempo médio de espera geral: %.2f ms%n", tempoMedioEsperaGeral);
         
+        System.out.println("\n⏱️  PERCENTIS DE ESPERA PELOS GARFOS:");
+        System.out.println("-".repeat(80));
+        List<Histograma> histogramas = new ArrayList<>();
+        for (int i = 0; i < numFilosofos; i++) {
+            Histograma histograma = mesa.getHistogramaEspera(i);
+            histogramas.add(histograma);
+            System.out.printf("  Filósofo %d: %s%n", i, histograma.resumoNanosEmMs());
+        }
+        System.out.println("  Todos os filósofos: " + Histograma.juntar(histogramas).resumoNanosEmMs());
+        
         System.out.println("\n🍴 TAXA DE UTILIZAÇÃO DOS GARFOS:");
         System.out.println("-".repeat(80));
         double somaUtilizacao = 0;
-        for (int i = 0; i < NUM_FILOSOFOS; i++) {
+        int numGarfos = mesa.getTopologia().getNumGarfos();
+        for (int i = 0; i < numGarfos; i++) {
             double taxa = mesa.getTaxaUtilizacaoGarfo(i);
             somaUtilizacao += taxa;
             System.out.printf("  Garfo %d: %.2f%%%n", i, taxa);
         }
-        double mediaUtilizacao = somaUtilizacao / NUM_FILOSOFOS;
+        double mediaUtilizacao = somaUtilizacao / numGarfos;
         System.out.printf("  Média de utilização: %.2f%%%n", mediaUtilizacao);
         
         // Análise de fairness
@@ -180,12 +348,12 @@ public class Main {
         System.out.println("\n  Estado final da mesa: " + mesa.getEstadoMesa());
     }
 
-    private static double calcularDesvioPadrao(List<Filosofo> filosofos, double media) {
+    private static double calcularDesvioPadrao(int numFilosofos, Arbitro mesa, double media) {
         double somaDiferencasQuadrado = 0;
-        for (Filosofo filosofo : filosofos) {
-            double diferenca = filosofo.getContadorRefeicoes() - media;
+        for (int i = 0; i < numFilosofos; i++) {
+            double diferenca = mesa.getContadorRefeicoes(i) - media;
             somaDiferencasQuadrado += diferenca * diferenca;
         }
-        return Math.sqrt(somaDiferencasQuadrado / filosofos.size());
+        return Math.sqrt(somaDiferencasQuadrado / numFilosofos);
     }
 }
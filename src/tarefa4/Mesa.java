@@ -1,7 +1,14 @@
 package tarefa4;
 
-import java.util.LinkedList;
-import java.util.Queue;
+import comum.EstrategiaEspera;
+import comum.EventoGarfosPegos;
+import comum.EventoGarfosSoltos;
+import comum.Histograma;
+import comum.Relogio;
+import comum.Topologia;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Classe Mesa que atua como Monitor para coordenar o acesso aos garfos.
@@ -10,33 +17,120 @@ import java.util.Queue;
  * - Prevenção de deadlock
  * - Prevenção de starvation através de fila FIFO
  * - Fairness: todos os filósofos têm oportunidade justa de comer
+ *
+ * Os garfos de cada lugar vêm da Topologia (anel de N por padrão); um
+ * filósofo só come quando TODOS os seus garfos estão livres.
+ *
+ * Antes de dormir em wait() o filósofo segue a EstrategiaEspera da mesa
+ * (padrão: BLOQUEAR, direto para o wait()).
+ *
+ * Além de pegarGarfos (espera sem limite), tryPegarGarfos tenta sem
+ * esperar ou com prazo, e devolve o motivo da recusa (ResultadoTentativa).
+ *
+ * No modo entrega direta quem solta os garfos já escolhe, pela mesma regra
+ * de fairness, quem come em seguida e pega os garfos POR ele antes de
+ * acordá-lo: quem espera nunca disputa o monitor com quem acabou de chegar,
+ * e só os filósofos servidos são acordados (cada um no seu sinal).
+ *
+ * pegarGarfos e soltarGarfos emitem os eventos JFR EventoGarfosPegos
+ * (duração = espera) e EventoGarfosSoltos (tempo segurando).
  */
-public class Mesa {
+public class Mesa implements Arbitro, MesaMBean {
+    public static final double FATOR_ENVELHECIMENTO_PADRAO = 2;
+
+    private final Topologia topologia;
     private final int numFilosofos;
     private final boolean[] garfosDisponiveis;
-    private final Queue<Integer> filaEspera;
+    private final int[] garfosOcupados; // Quantos garfos de cada lugar estão em uso
+    private final FilaIndexada filaEspera;
+    private final HeapIndexado esperaPorIdade; // Quem está na fila, pela última refeição; só na entrega direta
+    private long ultimaRefeicaoPrimeiro; // Do primeiro da fila
+    private double fatorEnvelhecimento = FATOR_ENVELHECIMENTO_PADRAO;
     private final int[] contadorRefeicoes;
     private final long[] tempoUltimaRefeicao;
-    private final long[] totalTempoEspera; // Tempo total de espera por filósofo
+    private final long[] totalTempoEspera; // Tempo total de espera por filósofo (ns)
+    private final Histograma[] histogramasEspera; // Distribuição das esperas (ns)
     private final int[] tentativasTotal; // Número de tentativas por filósofo
     private long tempoInicioSimulacao;
-    private final long[] tempoTotalGarfoEmUso; // Tempo que cada garfo foi usado
+    private final long[] tempoTotalGarfoEmUso; // Tempo que cada garfo foi usado (ns)
+    private final Relogio relogio;
+    private final EstrategiaEspera estrategia;
+    private final boolean entregaDireta;
+    private final long[] inicioEspera; // Quando entrou na fila (ns)
+    private final long[] pegouEm; // Quando pegou os garfos (ns), para o evento JFR
+    private final boolean[] entregue; // Garfos já pegos por quem soltou (entrega direta)
+    private final Object[] sinais; // Onde cada filósofo dorme na entrega direta
+    private final int[] bufferEntregas;
+    private final int[] bufferCandidatos;
+    private final int[] pilhaHeap;
+    // Muda (sob o monitor) a cada notifyAll e a cada entrega direta. Quem
+    // gira lê só este volatile e entra no monitor apenas quando ele mudou:
+    // antes disso a tentativa falharia de novo, e o monitor fica livre
+    // para quem está soltando garfos.
+    private volatile int mudancas = 0;
+    private static final int[] NENHUM = new int[0];
 
     public Mesa(int numFilosofos) {
-        this.numFilosofos = numFilosofos;
-        this.garfosDisponiveis = new boolean[numFilosofos];
-        this.filaEspera = new LinkedList<>();
+        this(numFilosofos, Relogio.SISTEMA);
+    }
+
+    public Mesa(int numFilosofos, Relogio relogio) {
+        this(Topologia.anel(numFilosofos), relogio);
+    }
+
+    public Mesa(Topologia topologia) {
+        this(topologia, Relogio.SISTEMA);
+    }
+
+    public Mesa(Topologia topologia, Relogio relogio) {
+        this(topologia, relogio, EstrategiaEspera.BLOQUEAR);
+    }
+
+    /**
+     * @param estrategia como esperar pelos garfos antes de dormir em wait()
+     */
+    public Mesa(Topologia topologia, Relogio relogio, EstrategiaEspera estrategia) {
+        this(topologia, relogio, estrategia, false);
+    }
+
+    /**
+     * @param estrategia como esperar pelos garfos antes de dormir
+     * @param entregaDireta se quem solta os garfos os entrega ao próximo da
+     *        vez (em vez de acordar todos para disputarem)
+     */
+    public Mesa(Topologia topologia, Relogio relogio, EstrategiaEspera estrategia, boolean entregaDireta) {
+        this.topologia = topologia;
+        this.estrategia = estrategia;
+        this.entregaDireta = entregaDireta;
+        this.numFilosofos = topologia.getNumLugares();
+        int numGarfos = topologia.getNumGarfos();
+        this.relogio = relogio;
+        this.garfosDisponiveis = new boolean[numGarfos];
+        this.garfosOcupados = new int[numFilosofos];
+        this.filaEspera = new FilaIndexada(numFilosofos);
+        // Só a entrega direta consulta o heap: no modo padrão ele seria O(log N) à toa sob o monitor
+        this.esperaPorIdade = entregaDireta ? new HeapIndexado(numFilosofos) : null;
         this.contadorRefeicoes = new int[numFilosofos];
         this.tempoUltimaRefeicao = new long[numFilosofos];
         this.totalTempoEspera = new long[numFilosofos];
+        this.histogramasEspera = new Histograma[numFilosofos];
         this.tentativasTotal = new int[numFilosofos];
-        this.tempoTotalGarfoEmUso = new long[numFilosofos];
-        this.tempoInicioSimulacao = System.currentTimeMillis();
+        this.tempoTotalGarfoEmUso = new long[numGarfos];
+        this.inicioEspera = new long[numFilosofos];
+        this.pegouEm = new long[numFilosofos];
+        this.entregue = new boolean[numFilosofos];
+        this.sinais = new Object[numFilosofos];
+        this.bufferEntregas = new int[numFilosofos];
+        this.bufferCandidatos = entregaDireta ? new int[numFilosofos] : null;
+        this.pilhaHeap = entregaDireta ? new int[numFilosofos] : null;
+        this.tempoInicioSimulacao = relogio.nanos();
         
         // Inicialmente todos os garfos estão disponíveis
+        Arrays.fill(garfosDisponiveis, true);
         for (int i = 0; i < numFilosofos; i++) {
-            garfosDisponiveis[i] = true;
-            tempoUltimaRefeicao[i] = System.currentTimeMillis();
+            histogramasEspera[i] = new Histograma();
+            tempoUltimaRefeicao[i] = relogio.nanos();
+            sinais[i] = new Object();
         }
     }
 
@@ -44,51 +138,366 @@ public class Mesa {
      * Tenta pegar os garfos para um filósofo.
      * Usa fila de espera para garantir fairness.
      * Prioriza filósofos que comeram há mais tempo.
+     * 
+     * Se não pode pegar de imediato, gira conforme a EstrategiaEspera FORA
+     * do monitor, tentando de novo a cada rodada, e só então dorme em
+     * wait(). Quem gira já está na fila, então não passa à frente de
+     * ninguém. Se for interrompido, sai da fila.
+     *
+     * Na entrega direta não tenta de novo: gira e dorme só esperando que
+     * alguém lhe entregue os garfos.
      */
-    public synchronized void pegarGarfos(int idFilosofo) throws InterruptedException {
-        long inicio = System.currentTimeMillis();
-        tentativasTotal[idFilosofo]++;
-        
-        int garfoEsquerdo = idFilosofo;
-        int garfoDireito = (idFilosofo + 1) % numFilosofos;
+    @Override
+    public void pegarGarfos(int idFilosofo) throws InterruptedException {
+        EventoGarfosPegos evento = new EventoGarfosPegos();
+        evento.begin();
+        adquirir(idFilosofo, false, 0);
+        if (evento.shouldCommit()) {
+            evento.filosofo = idFilosofo;
+            evento.garfos = EventoGarfosPegos.descrever(topologia.garfosDe(idFilosofo));
+            evento.commit();
+        }
+    }
+
+    /**
+     * Pega os garfos só se puder agora, sem entrar na fila.
+     * A regra de fairness é a mesma: com garfos livres ainda pode ser
+     * recusado (FORA_DA_VEZ) se outro filósofo tem a vez.
+     */
+    public synchronized ResultadoTentativa tryPegarGarfos(int idFilosofo) {
+        long inicio = relogio.nanos();
+        int[] garfos = topologia.garfosDe(idFilosofo);
+        entrarFila(idFilosofo); // podepegarGarfos olha a posição na fila
+        if (podepegarGarfos(idFilosofo)) {
+            inicioEspera[idFilosofo] = inicio;
+            pegar(idFilosofo, garfos);
+            return ResultadoTentativa.OBTIDOS;
+        }
+        // Entrou no fim da fila e sai sem ter mudado quem é o primeiro
+        sairFila(idFilosofo);
+        return motivoDaRecusa(garfos);
+    }
+
+    /**
+     * Como pegarGarfos, mas desiste quando o prazo acaba: sai da fila,
+     * acorda quem estava atrás e devolve TEMPO_ESGOTADO.
+     * O prazo é medido em tempo real (System.nanoTime()), mesmo com um
+     * Relogio manual nas estatísticas.
+     *
+     * @throws InterruptedException se interrompido; também sai da fila
+     */
+    public ResultadoTentativa tryPegarGarfos(int idFilosofo, long tempo, TimeUnit unidade)
+            throws InterruptedException {
+        return adquirir(idFilosofo, true, System.nanoTime() + unidade.toNanos(tempo));
+    }
+
+    private ResultadoTentativa adquirir(int idFilosofo, boolean comPrazo, long prazo) throws InterruptedException {
+        long inicio = relogio.nanos();
+        int[] garfos = topologia.garfosDe(idFilosofo);
+        int vista = mudancas; // Lida antes da tentativa: nenhuma mudança depois dela se perde
+        if (entrarNaFila(idFilosofo, garfos, inicio)) {
+            return ResultadoTentativa.OBTIDOS;
+        }
+        if (entregaDireta) {
+            return aguardarEntrega(idFilosofo, comPrazo, prazo, vista);
+        }
+        try {
+            for (int tentativa = 0; estrategia.girar(tentativa); tentativa++) {
+                int atual = mudancas;
+                if (atual != vista) {
+                    vista = atual;
+                    if (tentarPegar(idFilosofo, garfos)) {
+                        return ResultadoTentativa.OBTIDOS;
+                    }
+                }
+                if (comPrazo && System.nanoTime() - prazo >= 0) {
+                    break; // aguardarGarfos desiste sem esperar
+                }
+            }
+            return aguardarGarfos(idFilosofo, garfos, comPrazo, prazo);
+        } catch (InterruptedException e) {
+            sairDaFila(idFilosofo);
+            throw e;
+        }
+    }
+
+    /**
+     * Espera da entrega direta. O sinal é do próprio filósofo e a flag é
+     * lida com o monitor da mesa por baixo (ordem sinal -> mesa; quem
+     * entrega só toca o sinal depois de largar a mesa), então nenhum aviso
+     * se perde. Girando, só entra no monitor quando houve alguma entrega.
+     */
+    private ResultadoTentativa aguardarEntrega(int idFilosofo, boolean comPrazo, long prazo, int vista)
+            throws InterruptedException {
+        try {
+            for (int tentativa = 0; estrategia.girar(tentativa); tentativa++) {
+                int atual = mudancas;
+                if (atual != vista) {
+                    vista = atual;
+                    if (receberEntrega(idFilosofo)) {
+                        return ResultadoTentativa.OBTIDOS;
+                    }
+                }
+                if (comPrazo && System.nanoTime() - prazo >= 0) {
+                    break;
+                }
+            }
+            Object sinal = sinais[idFilosofo];
+            synchronized (sinal) {
+                while (!receberEntrega(idFilosofo)) {
+                    if (!comPrazo) {
+                        sinal.wait();
+                        continue;
+                    }
+                    long restante = prazo - System.nanoTime();
+                    if (restante <= 0) {
+                        break;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(sinal, restante);
+                }
+            }
+            // Prazo esgotado, mas a entrega pode ter chegado no limite
+            return desistir(idFilosofo, false)
+                    ? ResultadoTentativa.OBTIDOS : ResultadoTentativa.TEMPO_ESGOTADO;
+        } catch (InterruptedException e) {
+            desistir(idFilosofo, true);
+            throw e;
+        }
+    }
 
-        // Adiciona à fila de espera
-        filaEspera.add(idFilosofo);
+    private synchronized boolean receberEntrega(int idFilosofo) {
+        if (!entregue[idFilosofo]) {
+            return false;
+        }
+        entregue[idFilosofo] = false;
+        return true;
+    }
+
+    /**
+     * Sai da espera da entrega direta. Se os garfos já tinham sido
+     * entregues, fica com eles (prazo) ou os devolve sem contar refeição
+     * (interrupção). Retorna se ficou com os garfos.
+     */
+    private boolean desistir(int idFilosofo, boolean devolver) {
+        int[] servidos;
+        synchronized (this) {
+            if (entregue[idFilosofo]) {
+                entregue[idFilosofo] = false;
+                if (!devolver) {
+                    return true;
+                }
+                desocupar(topologia.garfosDe(idFilosofo));
+            } else if (!sairFila(idFilosofo)) {
+                return false;
+            }
+            // Garfos de volta ou outro primeiro da fila
+            servidos = entregarGarfos();
+        }
+        acordar(servidos);
+        return false;
+    }
 
+    /**
+     * Chamado com o monitor já adquirido. Pega os garfos para cada filósofo
+     * que pode comer, como se cada um tivesse acordado e conseguido na sua
+     * vez: primeiro o primeiro da fila (enquanto o novo primeiro também
+     * puder), depois quem espera há mais que o dobro dele. Estes saem do
+     * heap sem percorrer a fila. Retorna quem foi servido.
+     */
+    private int[] entregarGarfos() {
+        int servidos = 0;
+        int primeiro;
+        while ((primeiro = filaEspera.primeiro()) != FilaIndexada.VAZIA && garfosOcupados[primeiro] == 0) {
+            servidos = servir(primeiro, servidos);
+        }
+        if (primeiro != FilaIndexada.VAZIA) {
+            // u < agora - f * (agora - h)  <=>  agora - u > f * (agora - h)
+            long agora = relogio.nanos();
+            long limite = agora - (long) (fatorEnvelhecimento * (agora - ultimaRefeicaoPrimeiro));
+            int candidatos = esperaPorIdade.coletarMenoresQue(limite, bufferCandidatos, pilhaHeap);
+            for (int i = 0; i < candidatos; i++) {
+                int idFilosofo = bufferCandidatos[i];
+                if (garfosOcupados[idFilosofo] == 0) { // Um servido antes pode ter pegado um garfo dele
+                    servidos = servir(idFilosofo, servidos);
+                }
+            }
+        }
+        return servidos == 0 ? NENHUM : Arrays.copyOf(bufferEntregas, servidos);
+    }
+
+    private int servir(int idFilosofo, int servidos) {
+        pegar(idFilosofo, topologia.garfosDe(idFilosofo)); // Sai da fila: a posse já é dele
+        entregue[idFilosofo] = true;
+        mudancas++;
+        bufferEntregas[servidos] = idFilosofo;
+        return servidos + 1;
+    }
+
+    /**
+     * Acorda só os filósofos servidos. Chamado FORA do monitor da mesa.
+     */
+    private void acordar(int[] servidos) {
+        for (int idFilosofo : servidos) {
+            Object sinal = sinais[idFilosofo];
+            synchronized (sinal) {
+                sinal.notify();
+            }
+        }
+    }
+
+    /**
+     * Chamado com o monitor já adquirido: acorda quem dorme em wait() e
+     * avisa quem gira (mudancas).
+     */
+    private void avisarTodos() {
+        mudancas++;
+        notifyAll();
+    }
+
+    private ResultadoTentativa motivoDaRecusa(int[] garfos) {
+        for (int garfo : garfos) {
+            if (!garfosDisponiveis[garfo]) {
+                return ResultadoTentativa.GARFOS_OCUPADOS;
+            }
+        }
+        return ResultadoTentativa.FORA_DA_VEZ;
+    }
+
+    private synchronized boolean entrarNaFila(int idFilosofo, int[] garfos, long inicio) {
+        entrarFila(idFilosofo);
+        inicioEspera[idFilosofo] = inicio;
+        return tentarPegar(idFilosofo, garfos);
+    }
+
+    private synchronized boolean tentarPegar(int idFilosofo, int[] garfos) {
+        if (!podepegarGarfos(idFilosofo)) {
+            return false;
+        }
+        pegar(idFilosofo, garfos);
+        return true;
+    }
+
+    private synchronized ResultadoTentativa aguardarGarfos(int idFilosofo, int[] garfos,
+            boolean comPrazo, long prazo) throws InterruptedException {
         // Aguarda até que:
         // 1. Este filósofo seja o primeiro da fila (fairness)
-        // 2. Ambos os garfos estejam disponíveis
-        while (!podepegarGarfos(idFilosofo, garfoEsquerdo, garfoDireito)) {
-            wait();
+        // 2. Todos os garfos estejam disponíveis
+        while (!podepegarGarfos(idFilosofo)) {
+            if (!comPrazo) {
+                wait();
+                continue;
+            }
+            long restante = prazo - System.nanoTime();
+            if (restante <= 0) {
+                sairDaFila(idFilosofo);
+                return ResultadoTentativa.TEMPO_ESGOTADO;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, restante);
+        }
+        pegar(idFilosofo, garfos);
+        return ResultadoTentativa.OBTIDOS;
+    }
+
+    private synchronized void sairDaFila(int idFilosofo) {
+        if (sairFila(idFilosofo)) {
+            avisarTodos(); // Quem estava atrás dele pode ter virado o primeiro
+        }
+    }
+
+    /**
+     * Fila e heap (na entrega direta) andam juntos; a última refeição do
+     * primeiro da fila fica guardada para a regra do dobro não precisar
+     * consultá-lo.
+     */
+    private void entrarFila(int idFilosofo) {
+        filaEspera.adicionar(idFilosofo);
+        if (entregaDireta) {
+            esperaPorIdade.adicionar(idFilosofo, tempoUltimaRefeicao[idFilosofo]);
         }
+        atualizarPrimeiro();
+    }
+
+    private boolean sairFila(int idFilosofo) {
+        if (!filaEspera.remover(idFilosofo)) {
+            return false;
+        }
+        if (entregaDireta) {
+            esperaPorIdade.remover(idFilosofo);
+        }
+        atualizarPrimeiro();
+        return true;
+    }
+
+    private void atualizarPrimeiro() {
+        int primeiro = filaEspera.primeiro();
+        if (primeiro != FilaIndexada.VAZIA) {
+            ultimaRefeicaoPrimeiro = tempoUltimaRefeicao[primeiro];
+        }
+    }
+
+    /**
+     * Marca os garfos e conta, em cada lugar que os usa, quantos dos seus
+     * estão ocupados: "todos livres" vira garfosOcupados[lugar] == 0.
+     */
+    private void ocupar(int[] garfos) {
+        for (int garfo : garfos) {
+            garfosDisponiveis[garfo] = false;
+            for (int lugar : topologia.lugaresDoGarfo(garfo)) {
+                garfosOcupados[lugar]++;
+            }
+        }
+    }
+
+    private void desocupar(int[] garfos) {
+        for (int garfo : garfos) {
+            garfosDisponiveis[garfo] = true;
+            for (int lugar : topologia.lugaresDoGarfo(garfo)) {
+                garfosOcupados[lugar]--;
+            }
+        }
+    }
+
+    /**
+     * Chamado com o monitor já adquirido. Só as tentativas que obtêm os
+     * garfos entram no tempo médio de espera.
+     */
+    private void pegar(int idFilosofo, int[] garfos) {
+        tentativasTotal[idFilosofo]++;
 
         // Remove da fila e pega os garfos
-        filaEspera.remove(idFilosofo);
-        garfosDisponiveis[garfoEsquerdo] = false;
-        garfosDisponiveis[garfoDireito] = false;
+        sairFila(idFilosofo);
+        ocupar(garfos);
         
         // Registra tempo de espera
-        long fim = System.currentTimeMillis();
-        totalTempoEspera[idFilosofo] += (fim - inicio);
+        long agora = relogio.nanos();
+        pegouEm[idFilosofo] = agora;
+        long espera = agora - inicioEspera[idFilosofo];
+        totalTempoEspera[idFilosofo] += espera;
+        histogramasEspera[idFilosofo].registrar(espera);
     }
 
     /**
      * Verifica se um filósofo pode pegar os garfos.
      * Considera:
      * - Se é o primeiro da fila (fairness)
-     * - Se ambos os garfos estão disponíveis
+     * - Se todos os garfos estão disponíveis
      * - Prioridade para quem está há mais tempo sem comer
+     *
+     * O(1): os garfos ocupados são contados por lugar e a última refeição
+     * do primeiro fica guardada, atualizados só ao pegar/soltar e ao
+     * entrar/sair da fila. O relógio só é lido se o filósofo comeu antes
+     * do primeiro (senão não pode estar esperando o dobro dele).
      */
-    private boolean podepegarGarfos(int idFilosofo, int garfoEsquerdo, int garfoDireito) {
+    private boolean podepegarGarfos(int idFilosofo) {
         // Verifica se os garfos estão disponíveis
-        if (!garfosDisponiveis[garfoEsquerdo] || !garfosDisponiveis[garfoDireito]) {
+        if (garfosOcupados[idFilosofo] > 0) {
             return false;
         }
 
         // Política de fairness: respeita ordem da fila
         // MAS dá prioridade a filósofos que estão há muito tempo sem comer
-        Integer primeiro = filaEspera.peek();
-        if (primeiro == null) {
+        int primeiro = filaEspera.primeiro();
+        if (primeiro == FilaIndexada.VAZIA) {
             return false;
         }
 
@@ -97,73 +506,158 @@ public class Mesa {
             return true;
         }
 
-        // Verifica se há algum filósofo com prioridade maior (starvation prevention)
-        long tempoEsperaAtual = System.currentTimeMillis() - tempoUltimaRefeicao[idFilosofo];
-        long tempoEsperaPrimeiro = System.currentTimeMillis() - tempoUltimaRefeicao[primeiro];
-        
-        // Se este filósofo está esperando 2x mais que o primeiro, dá prioridade
-        // Isso previne starvation extrema
-        if (tempoEsperaAtual > tempoEsperaPrimeiro * 2) {
-            return true;
+        // Se este filósofo está esperando 2x (fatorEnvelhecimento) mais que
+        // o primeiro, dá prioridade. Isso previne starvation extrema
+        long ultimaRefeicao = tempoUltimaRefeicao[idFilosofo];
+        if (ultimaRefeicao >= ultimaRefeicaoPrimeiro) {
+            return false; // Com fator >= 1 não pode estar esperando mais
         }
-
-        return false;
+        long agora = relogio.nanos();
+        return agora - ultimaRefeicao > (agora - ultimaRefeicaoPrimeiro) * fatorEnvelhecimento;
     }
 
     /**
      * Solta os garfos após comer e notifica outros filósofos.
+     * Na entrega direta, os garfos já saem daqui com o próximo da vez.
      */
-    public synchronized void soltarGarfos(int idFilosofo) {
-        int garfoEsquerdo = idFilosofo;
-        int garfoDireito = (idFilosofo + 1) % numFilosofos;
+    @Override
+    public void soltarGarfos(int idFilosofo) {
+        EventoGarfosSoltos evento = new EventoGarfosSoltos();
+        if (evento.shouldCommit()) {
+            // Sem o monitor: quem chama já passou por ele ao receber os garfos
+            evento.filosofo = idFilosofo;
+            evento.garfos = EventoGarfosPegos.descrever(topologia.garfosDe(idFilosofo));
+            evento.segurado = relogio.nanos() - pegouEm[idFilosofo];
+            evento.commit();
+        }
+        int[] servidos;
+        synchronized (this) {
+            liberar(idFilosofo);
+            if (!entregaDireta) {
+                // Notifica TODOS os filósofos esperando
+                avisarTodos();
+                return;
+            }
+            servidos = entregarGarfos();
+        }
+        acordar(servidos);
+    }
+
+    private void liberar(int idFilosofo) {
+        int[] garfos = topologia.garfosDe(idFilosofo);
 
         // Calcula tempo que os garfos foram usados (aproximação baseada na refeição)
-        long tempoDesdeUltimaRefeicao = System.currentTimeMillis() - tempoUltimaRefeicao[idFilosofo];
+        long tempoDesdeUltimaRefeicao = relogio.nanos() - tempoUltimaRefeicao[idFilosofo];
         if (contadorRefeicoes[idFilosofo] > 0) { // Não conta a primeira vez
-            tempoTotalGarfoEmUso[garfoEsquerdo] += tempoDesdeUltimaRefeicao;
-            tempoTotalGarfoEmUso[garfoDireito] += tempoDesdeUltimaRefeicao;
+            for (int garfo : garfos) {
+                tempoTotalGarfoEmUso[garfo] += tempoDesdeUltimaRefeicao;
+            }
         }
-
         // Libera os garfos
-        garfosDisponiveis[garfoEsquerdo] = true;
-        garfosDisponiveis[garfoDireito] = true;
+        desocupar(garfos);
 
         // Atualiza estatísticas
         contadorRefeicoes[idFilosofo]++;
-        tempoUltimaRefeicao[idFilosofo] = System.currentTimeMillis();
-
-        // Notifica TODOS os filósofos esperando
-        notifyAll();
+        tempoUltimaRefeicao[idFilosofo] = relogio.nanos();
     }
 
     /**
      * Retorna o número de refeições de um filósofo.
      */
+    @Override
     public synchronized int getContadorRefeicoes(int idFilosofo) {
         return contadorRefeicoes[idFilosofo];
     }
 
+    @Override
     public synchronized double getTempoMedioEspera(int idFilosofo) {
         return tentativasTotal[idFilosofo] > 0 ? 
-               (double) totalTempoEspera[idFilosofo] / tentativasTotal[idFilosofo] : 0;
+               Relogio.emMs(totalTempoEspera[idFilosofo]) / tentativasTotal[idFilosofo] : 0;
+    }
+
+    @Override
+    public Histograma getHistogramaEspera(int idFilosofo) {
+        return histogramasEspera[idFilosofo];
     }
 
+    @Override
     public synchronized double getTaxaUtilizacaoGarfo(int idGarfo) {
-        long tempoTotal = System.currentTimeMillis() - tempoInicioSimulacao;
+        long tempoTotal = relogio.nanos() - tempoInicioSimulacao;
         return tempoTotal > 0 ? (double) tempoTotalGarfoEmUso[idGarfo] / tempoTotal * 100 : 0;
     }
 
     /**
      * Retorna informações de estado da mesa (para debugging).
      */
+    @Override
     public synchronized String getEstadoMesa() {
         StringBuilder sb = new StringBuilder();
         sb.append("Garfos disponíveis: ");
-        for (int i = 0; i < numFilosofos; i++) {
+        for (int i = 0; i < garfosDisponiveis.length; i++) {
             sb.append(garfosDisponiveis[i] ? "✓" : "✗");
-            if (i < numFilosofos - 1) sb.append(" ");
+            if (i < garfosDisponiveis.length - 1) sb.append(" ");
         }
-        sb.append(" | Fila: ").append(filaEspera.size()).append(" filósofo(s)");
+        sb.append(" | Fila: ").append(filaEspera.tamanho()).append(" filósofo(s)");
         return sb.toString();
     }
+
+    @Override
+    public synchronized double getFatorEnvelhecimento() {
+        return fatorEnvelhecimento;
+    }
+
+    /**
+     * Vale a partir da próxima decisão da mesa. Fatores altos aproximam a
+     * fila de FIFO puro; 1 dá prioridade a qualquer um que comeu antes do
+     * primeiro da fila.
+     */
+    @Override
+    public void setFatorEnvelhecimento(double fator) {
+        if (!(fator >= 1)) {
+            throw new IllegalArgumentException("O fator de envelhecimento deve ser pelo menos 1: " + fator);
+        }
+        int[] servidos;
+        synchronized (this) {
+            fatorEnvelhecimento = fator;
+            if (!entregaDireta) {
+                avisarTodos(); // Quem ficou elegível tenta de novo
+                return;
+            }
+            servidos = entregarGarfos();
+        }
+        acordar(servidos);
+    }
+
+    @Override
+    public synchronized int getTamanhoFila() {
+        return filaEspera.tamanho();
+    }
+
+    @Override
+    public synchronized long getRefeicoesTotal() {
+        long total = 0;
+        for (int refeicoes : contadorRefeicoes) {
+            total += refeicoes;
+        }
+        return total;
+    }
+
+    public EstrategiaEspera getEstrategia() {
+        return estrategia;
+    }
+
+    @Override
+    public boolean isEntregaDireta() {
+        return entregaDireta;
+    }
+
+    @Override
+    public Relogio getRelogio() {
+        return relogio;
+    }
+
+    @Override
+    public Topologia getTopologia() {
+        return topologia;
+    }
 }
@@ -0,0 +1,366 @@
+package tarefa4;
+
+import comum.Histograma;
+import comum.Relogio;
+import comum.Topologia;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Variante da Mesa em que pedir os garfos NÃO bloqueia: pedirGarfos devolve
+ * um CompletableFuture&lt;Permissao&gt; que é completado quando todos os
+ * garfos do lugar forem concedidos.
+ *
+ * ESTRATÉGIA:
+ * -----------
+ * - Nenhuma thread fica esperando: o pedido pendente é só uma senha (ordem
+ *   de chegada) e o future guardado no lugar.
+ * - Quem SOLTA os garfos faz a entrega: para cada garfo devolvido olha o
+ *   outro lugar que o usa e, se ele pode comer, marca os garfos dele como
+ *   ocupados e completa o seu future (fora do lock). Não há corrida para
+ *   pegar o garfo depois de acordar, porque ninguém dorme.
+ * - Regra de vez: um pedido só é atendido se todos os seus garfos estão
+ *   livres e, em cada um deles, nenhum pedido MAIS ANTIGO espera. Como a
+ *   espera sempre aponta para senhas menores, não há ciclo (deadlock), e o
+ *   pedido mais antigo da mesa é atendido assim que seus garfos voltam
+ *   (sem starvation).
+ *
+ * Os estágios dependentes do future rodam na thread que completou o
+ * pedido (quem soltou os garfos); para não prender essa thread use as
+ * variantes *Async com o seu executor, como faz o FilosofoAssincrono.
+ *
+ * pegarGarfos (interface Arbitro) é pedirGarfos seguido de get(), para o
+ * Filosofo com thread própria.
+ */
+public class MesaAssincrona implements Arbitro {
+    private static final long SEM_PEDIDO = -1;
+
+    private final Topologia topologia;
+    private final int numFilosofos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final boolean[] garfosDisponiveis;
+    private final boolean[] comendo;
+    private final long[] senha; // Ordem de chegada do pedido pendente, ou SEM_PEDIDO
+    private final List<CompletableFuture<Permissao>> pedidos; // Pendente de cada lugar
+    private long proximaSenha = 0;
+    private int numPendentes = 0;
+    private final long[] inicioEspera;
+    private final long[] inicioRefeicao;
+    private final int[] contadorRefeicoes;
+    private final long[] totalTempoEspera; // Tempo total de espera por filósofo (ns)
+    private final Histograma[] histogramasEspera; // Distribuição das esperas (ns)
+    private final int[] tentativasTotal; // Pedidos atendidos por filósofo
+    private final long[] tempoTotalGarfoEmUso; // Tempo que cada garfo foi usado (ns)
+    private final long tempoInicioSimulacao;
+    private final Relogio relogio;
+
+    public MesaAssincrona(int numFilosofos) {
+        this(Topologia.anel(numFilosofos), Relogio.SISTEMA);
+    }
+
+    public MesaAssincrona(Topologia topologia) {
+        this(topologia, Relogio.SISTEMA);
+    }
+
+    public MesaAssincrona(Topologia topologia, Relogio relogio) {
+        this.topologia = topologia;
+        this.numFilosofos = topologia.getNumLugares();
+        int numGarfos = topologia.getNumGarfos();
+        this.relogio = relogio;
+        this.garfosDisponiveis = new boolean[numGarfos];
+        this.comendo = new boolean[numFilosofos];
+        this.senha = new long[numFilosofos];
+        this.pedidos = new ArrayList<>(numFilosofos);
+        this.inicioEspera = new long[numFilosofos];
+        this.inicioRefeicao = new long[numFilosofos];
+        this.contadorRefeicoes = new int[numFilosofos];
+        this.totalTempoEspera = new long[numFilosofos];
+        this.histogramasEspera = new Histograma[numFilosofos];
+        this.tentativasTotal = new int[numFilosofos];
+        this.tempoTotalGarfoEmUso = new long[numGarfos];
+        this.tempoInicioSimulacao = relogio.nanos();
+
+        Arrays.fill(garfosDisponiveis, true);
+        Arrays.fill(senha, SEM_PEDIDO);
+        for (int i = 0; i < numFilosofos; i++) {
+            pedidos.add(null);
+            histogramasEspera[i] = new Histograma();
+        }
+    }
+
+    /**
+     * Pede os garfos do filósofo sem bloquear.
+     *
+     * Cancelar o future retira o pedido (e pode liberar a vez de um
+     * vizinho). Se o cancelamento perder a corrida para a concessão, os
+     * garfos são devolvidos automaticamente.
+     *
+     * @throws IllegalStateException se o filósofo já tem um pedido pendente
+     *         ou ainda não soltou os garfos da refeição anterior
+     */
+    public CompletableFuture<Permissao> pedirGarfos(int idFilosofo) {
+        CompletableFuture<Permissao> pedido = new CompletableFuture<>();
+        Concessao concessao = null;
+        lock.lock();
+        try {
+            if (senha[idFilosofo] != SEM_PEDIDO || comendo[idFilosofo]) {
+                throw new IllegalStateException("Filósofo " + idFilosofo + " já pediu ou está comendo");
+            }
+            inicioEspera[idFilosofo] = relogio.nanos();
+            senha[idFilosofo] = proximaSenha++;
+            pedidos.set(idFilosofo, pedido);
+            numPendentes++;
+            if (podeComer(idFilosofo)) {
+                concessao = conceder(idFilosofo);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (concessao != null) {
+            concessao.completar();
+        } else {
+            pedido.whenComplete((p, erro) -> {
+                if (pedido.isCancelled()) {
+                    cancelar(idFilosofo, pedido);
+                }
+            });
+        }
+        return pedido;
+    }
+
+    /**
+     * Bloqueia até os garfos serem concedidos. Se interrompido, cancela o
+     * pedido (ou devolve os garfos, se a concessão chegou antes).
+     */
+    @Override
+    public void pegarGarfos(int idFilosofo) throws InterruptedException {
+        CompletableFuture<Permissao> pedido = pedirGarfos(idFilosofo);
+        try {
+            pedido.get();
+        } catch (InterruptedException e) {
+            if (!pedido.cancel(false)) {
+                pedido.join().descartar(); // Concedido, mas não vai comer
+            }
+            throw e;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Pedido do filósofo " + idFilosofo + " falhou", e.getCause());
+        }
+    }
+
+    /**
+     * Devolve os garfos e já os entrega aos vizinhos que passaram a poder
+     * comer. Prefira Permissao.soltar() no uso assíncrono.
+     *
+     * @throws IllegalStateException se o filósofo não está comendo
+     */
+    @Override
+    public void soltarGarfos(int idFilosofo) {
+        liberar(idFilosofo, true);
+    }
+
+    /**
+     * Devolve garfos concedidos a quem desistiu antes de comer (não conta
+     * como refeição).
+     */
+    void devolverGarfos(int idFilosofo) {
+        liberar(idFilosofo, false);
+    }
+
+    private void liberar(int idFilosofo, boolean comeu) {
+        List<Concessao> concedidas = new ArrayList<>(2);
+        lock.lock();
+        try {
+            if (!comendo[idFilosofo]) {
+                throw new IllegalStateException("Filósofo " + idFilosofo + " não está com os garfos");
+            }
+            long tempoUso = relogio.nanos() - inicioRefeicao[idFilosofo];
+            for (int garfo : topologia.garfosDe(idFilosofo)) {
+                tempoTotalGarfoEmUso[garfo] += tempoUso;
+                garfosDisponiveis[garfo] = true;
+            }
+            comendo[idFilosofo] = false;
+            if (comeu) {
+                contadorRefeicoes[idFilosofo]++;
+            }
+            entregarAosVizinhos(idFilosofo, concedidas);
+        } finally {
+            lock.unlock();
+        }
+        completarTodas(concedidas);
+    }
+
+    private void cancelar(int idFilosofo, CompletableFuture<Permissao> pedido) {
+        List<Concessao> concedidas = new ArrayList<>(2);
+        lock.lock();
+        try {
+            if (pedidos.get(idFilosofo) != pedido) {
+                return; // Já concedido: completar() devolve os garfos
+            }
+            retirarPedido(idFilosofo);
+            entregarAosVizinhos(idFilosofo, concedidas); // A senha dele pode ter travado alguém
+        } finally {
+            lock.unlock();
+        }
+        completarTodas(concedidas);
+    }
+
+    /**
+     * Com o lock: cada garfo do lugar tem exatamente um outro lugar, o único
+     * que pode ter passado a poder comer.
+     */
+    private void entregarAosVizinhos(int idFilosofo, List<Concessao> concedidas) {
+        for (int garfo : topologia.garfosDe(idFilosofo)) {
+            int vizinho = topologia.outroLugar(garfo, idFilosofo);
+            if (senha[vizinho] != SEM_PEDIDO && podeComer(vizinho)) {
+                concedidas.add(conceder(vizinho));
+            }
+        }
+    }
+
+    /**
+     * Com o lock: todos os garfos livres e, em cada garfo, nenhum pedido
+     * mais antigo esperando.
+     */
+    private boolean podeComer(int idFilosofo) {
+        long minhaSenha = senha[idFilosofo];
+        for (int garfo : topologia.garfosDe(idFilosofo)) {
+            if (!garfosDisponiveis[garfo]) {
+                return false;
+            }
+            long outra = senha[topologia.outroLugar(garfo, idFilosofo)];
+            if (outra != SEM_PEDIDO && outra < minhaSenha) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Com o lock: transfere os garfos ao filósofo. O future é completado
+     * depois, fora do lock.
+     */
+    private Concessao conceder(int idFilosofo) {
+        for (int garfo : topologia.garfosDe(idFilosofo)) {
+            garfosDisponiveis[garfo] = false;
+        }
+        long agora = relogio.nanos();
+        long espera = agora - inicioEspera[idFilosofo];
+        totalTempoEspera[idFilosofo] += espera;
+        histogramasEspera[idFilosofo].registrar(espera);
+        tentativasTotal[idFilosofo]++;
+        inicioRefeicao[idFilosofo] = agora;
+        comendo[idFilosofo] = true;
+        Concessao concessao = new Concessao(pedidos.get(idFilosofo), new Permissao(this, idFilosofo));
+        retirarPedido(idFilosofo);
+        return concessao;
+    }
+
+    private void retirarPedido(int idFilosofo) {
+        senha[idFilosofo] = SEM_PEDIDO;
+        pedidos.set(idFilosofo, null);
+        numPendentes--;
+    }
+
+    private static void completarTodas(List<Concessao> concedidas) {
+        for (Concessao concessao : concedidas) {
+            concessao.completar();
+        }
+    }
+
+    @Override
+    public int getContadorRefeicoes(int idFilosofo) {
+        lock.lock();
+        try {
+            return contadorRefeicoes[idFilosofo];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public double getTempoMedioEspera(int idFilosofo) {
+        lock.lock();
+        try {
+            return tentativasTotal[idFilosofo] > 0
+                    ? Relogio.emMs(totalTempoEspera[idFilosofo]) / tentativasTotal[idFilosofo] : 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Histograma getHistogramaEspera(int idFilosofo) {
+        return histogramasEspera[idFilosofo];
+    }
+
+    @Override
+    public double getTaxaUtilizacaoGarfo(int idGarfo) {
+        lock.lock();
+        try {
+            long tempoTotal = relogio.nanos() - tempoInicioSimulacao;
+            return tempoTotal > 0 ? (double) tempoTotalGarfoEmUso[idGarfo] / tempoTotal * 100 : 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getPedidosPendentes() {
+        lock.lock();
+        try {
+            return numPendentes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String getEstadoMesa() {
+        lock.lock();
+        try {
+            StringBuilder sb = new StringBuilder();
+            sb.append("Garfos disponíveis: ");
+            for (int i = 0; i < garfosDisponiveis.length; i++) {
+                sb.append(garfosDisponiveis[i] ? "✓" : "✗");
+                if (i < garfosDisponiveis.length - 1) sb.append(" ");
+            }
+            sb.append(" | Pedidos pendentes: ").append(numPendentes);
+            return sb.toString();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Relogio getRelogio() {
+        return relogio;
+    }
+
+    @Override
+    public Topologia getTopologia() {
+        return topologia;
+    }
+
+    /**
+     * Garfos já transferidos cujo future ainda vai ser completado (fora do lock).
+     */
+    private static final class Concessao {
+        private final CompletableFuture<Permissao> pedido;
+        private final Permissao permissao;
+
+        Concessao(CompletableFuture<Permissao> pedido, Permissao permissao) {
+            this.pedido = pedido;
+            this.permissao = permissao;
+        }
+
+        void completar() {
+            if (!pedido.complete(permissao)) {
+                permissao.descartar(); // Cancelado enquanto era concedido
+            }
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package tarefa4;
+
+import comum.Histograma;
+import comum.Relogio;
+import comum.Topologia;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Variante da Mesa baseada em ReentrantLock com uma Condition por filósofo.
+ *
+ * Mantém exatamente a mesma política de fairness da Mesa (fila FIFO +
+ * prioridade para quem espera 2× mais que o primeiro da fila), mas troca o
+ * notifyAll() por sinais DIRECIONADOS:
+ *
+ * - Ao soltar os garfos, só podem ter sido liberados os vizinhos na
+ *   Topologia (no anel, id - 1 compartilha o garfo esquerdo e id + 1 o
+ *   direito), então apenas eles e o primeiro da fila são acordados.
+ * - Ao sair da fila, o novo primeiro da fila é acordado, pois a regra de
+ *   fairness pode ter passado a favorecê-lo.
+ *
+ * Assim cada liberação acorda no máximo grau + 1 threads (3 no anel) em vez de todas
+ * as N que estão esperando (O(N)), eliminando o "thundering herd".
+ *
+ * Observação: a regra de envelhecimento (2× o primeiro da fila) só é
+ * reavaliada quando o filósofo é acordado por um desses sinais.
+ */
+public class MesaCondicoes implements Arbitro {
+    private final Topologia topologia;
+    private final int numFilosofos;
+    private final ReentrantLock lock;
+    private final Condition[] podeComer;
+    private final boolean[] esperando;
+    private final boolean[] garfosDisponiveis;
+    private final FilaIndexada filaEspera;
+    private final int[] contadorRefeicoes;
+    private final long[] tempoUltimaRefeicao;
+    private final long[] totalTempoEspera; // Tempo total de espera por filósofo (ns)
+    private final Histograma[] histogramasEspera; // Distribuição das esperas (ns)
+    private final int[] tentativasTotal; // Número de tentativas por filósofo
+    private long tempoInicioSimulacao;
+    private final long[] tempoTotalGarfoEmUso; // Tempo que cada garfo foi usado (ns)
+    private final Relogio relogio;
+
+    public MesaCondicoes(int numFilosofos) {
+        this(numFilosofos, Relogio.SISTEMA);
+    }
+
+    public MesaCondicoes(int numFilosofos, Relogio relogio) {
+        this(Topologia.anel(numFilosofos), relogio);
+    }
+
+    public MesaCondicoes(Topologia topologia) {
+        this(topologia, Relogio.SISTEMA);
+    }
+
+    public MesaCondicoes(Topologia topologia, Relogio relogio) {
+        this.topologia = topologia;
+        this.numFilosofos = topologia.getNumLugares();
+        int numGarfos = topologia.getNumGarfos();
+        this.relogio = relogio;
+        this.lock = new ReentrantLock();
+        this.podeComer = new Condition[numFilosofos];
+        this.esperando = new boolean[numFilosofos];
+        this.garfosDisponiveis = new boolean[numGarfos];
+        this.filaEspera = new FilaIndexada(numFilosofos);
+        this.contadorRefeicoes = new int[numFilosofos];
+        this.tempoUltimaRefeicao = new long[numFilosofos];
+        this.totalTempoEspera = new long[numFilosofos];
+        this.histogramasEspera = new Histograma[numFilosofos];
+        this.tentativasTotal = new int[numFilosofos];
+        this.tempoTotalGarfoEmUso = new long[numGarfos];
+        this.tempoInicioSimulacao = relogio.nanos();
+
+        Arrays.fill(garfosDisponiveis, true);
+        for (int i = 0; i < numFilosofos; i++) {
+            podeComer[i] = lock.newCondition();
+            histogramasEspera[i] = new Histograma();
+            tempoUltimaRefeicao[i] = relogio.nanos();
+        }
+    }
+
+    @Override
+    public void pegarGarfos(int idFilosofo) throws InterruptedException {
+        lock.lock();
+        try {
+            long inicio = relogio.nanos();
+            tentativasTotal[idFilosofo]++;
+            int[] garfos = topologia.garfosDe(idFilosofo);
+
+            filaEspera.adicionar(idFilosofo);
+            esperando[idFilosofo] = true;
+            try {
+                while (!podepegarGarfos(idFilosofo, garfos)) {
+                    podeComer[idFilosofo].await();
+                }
+            } catch (InterruptedException e) {
+                // Sai da fila para não bloquear os demais e repassa a vez
+                sairDaFila(idFilosofo);
+                throw e;
+            }
+
+            sairDaFila(idFilosofo);
+            for (int garfo : garfos) {
+                garfosDisponiveis[garfo] = false;
+            }
+
+            long fim = relogio.nanos();
+            totalTempoEspera[idFilosofo] += (fim - inicio);
+            histogramasEspera[idFilosofo].registrar(fim - inicio);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Mesma regra da Mesa: garfos livres E (primeiro da fila OU esperando
+     * há mais que o dobro do primeiro).
+     */
+    private boolean podepegarGarfos(int idFilosofo, int[] garfos) {
+        for (int garfo : garfos) {
+            if (!garfosDisponiveis[garfo]) {
+                return false;
+            }
+        }
+
+        int primeiro = filaEspera.primeiro();
+        if (primeiro == FilaIndexada.VAZIA) {
+            return false;
+        }
+
+        if (primeiro == idFilosofo) {
+            return true;
+        }
+
+        long agora = relogio.nanos();
+        long tempoEsperaAtual = agora - tempoUltimaRefeicao[idFilosofo];
+        long tempoEsperaPrimeiro = agora - tempoUltimaRefeicao[primeiro];
+        return tempoEsperaAtual > tempoEsperaPrimeiro * 2;
+    }
+
+    /**
+     * Remove o filósofo da fila e, se o primeiro da fila mudou, acorda o novo
+     * primeiro. Deve ser chamado com o lock adquirido.
+     */
+    private void sairDaFila(int idFilosofo) {
+        int primeiroAntes = filaEspera.primeiro();
+        filaEspera.remover(idFilosofo);
+        esperando[idFilosofo] = false;
+
+        int primeiroDepois = filaEspera.primeiro();
+        if (primeiroDepois != FilaIndexada.VAZIA && primeiroDepois != primeiroAntes) {
+            sinalizar(primeiroDepois);
+        }
+    }
+
+    private void sinalizar(int idFilosofo) {
+        if (esperando[idFilosofo]) {
+            podeComer[idFilosofo].signal();
+        }
+    }
+
+    @Override
+    public void soltarGarfos(int idFilosofo) {
+        lock.lock();
+        try {
+            long tempoDesdeUltimaRefeicao = relogio.nanos() - tempoUltimaRefeicao[idFilosofo];
+            for (int garfo : topologia.garfosDe(idFilosofo)) {
+                if (contadorRefeicoes[idFilosofo] > 0) { // Não conta a primeira vez
+                    tempoTotalGarfoEmUso[garfo] += tempoDesdeUltimaRefeicao;
+                }
+                garfosDisponiveis[garfo] = true;
+            }
+
+            contadorRefeicoes[idFilosofo]++;
+            tempoUltimaRefeicao[idFilosofo] = relogio.nanos();
+
+            // Acorda apenas quem pode ter sido liberado: vizinhos + primeiro da fila
+            for (int vizinho : topologia.vizinhosDe(idFilosofo)) {
+                sinalizar(vizinho);
+            }
+            int primeiro = filaEspera.primeiro();
+            if (primeiro != FilaIndexada.VAZIA) {
+                sinalizar(primeiro);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int getContadorRefeicoes(int idFilosofo) {
+        lock.lock();
+        try {
+            return contadorRefeicoes[idFilosofo];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public double getTempoMedioEspera(int idFilosofo) {
+        lock.lock();
+        try {
+            return tentativasTotal[idFilosofo] > 0 ?
+                   Relogio.emMs(totalTempoEspera[idFilosofo]) / tentativasTotal[idFilosofo] : 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Histograma getHistogramaEspera(int idFilosofo) {
+        return histogramasEspera[idFilosofo];
+    }
+
+    @Override
+    public double getTaxaUtilizacaoGarfo(int idGarfo) {
+        lock.lock();
+        try {
+            long tempoTotal = relogio.nanos() - tempoInicioSimulacao;
+            return tempoTotal > 0 ? (double) tempoTotalGarfoEmUso[idGarfo] / tempoTotal * 100 : 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String getEstadoMesa() {
+        lock.lock();
+        try {
+            StringBuilder sb = new StringBuilder();
+            sb.append("Garfos disponíveis: ");
+            for (int i = 0; i < garfosDisponiveis.length; i++) {
+                sb.append(garfosDisponiveis[i] ? "✓" : "✗");
+                if (i < garfosDisponiveis.length - 1) sb.append(" ");
+            }
+            sb.append(" | Fila: ").append(filaEspera.tamanho()).append(" filósofo(s)");
+            return sb.toString();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Relogio getRelogio() {
+        return relogio;
+    }
+
+    @Override
+    public Topologia getTopologia() {
+        return topologia;
+    }
+}
@@ -0,0 +1,246 @@
+package tarefa4;
+
+import comum.EstrategiaEspera;
+import comum.Histograma;
+import comum.Relogio;
+import comum.Topologia;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Variante da Mesa SEM lock global: a ocupação dos garfos é um bitmask
+ * empacotado em palavras long (64 garfos por palavra) e alterado via CAS.
+ *
+ * ESTRATÉGIA:
+ * -----------
+ * - Bit ligado = garfo em uso, bit desligado = garfo livre.
+ * - Os garfos do filósofo (da Topologia) são agrupados por palavra. Os de
+ *   uma MESMA palavra são pegos com um único compareAndSet (aquisição
+ *   atômica, como na Mesa); no anel isso cobre quase todos os lugares.
+ * - Se estão em palavras diferentes (fronteira entre palavras ou o garfo 0
+ *   de uma mesa com mais de 64 lugares), pega as palavras em ordem
+ *   CRESCENTE de índice. A ordem global impede espera circular.
+ *
+ * Filósofos que não compartilham garfos nunca tocam a mesma variável
+ * sincronizada a não ser que caiam na mesma palavra, e mesmo assim não há
+ * bloqueio: o CAS que falha é apenas repetido.
+ *
+ * TROCA:
+ * ------
+ * Não há fila de espera nem regra de envelhecimento; a fairness fica por
+ * conta da disputa dos CAS (como na Tarefa 2). A espera segue a
+ * EstrategiaEspera da mesa (padrão: HIBRIDA, spin curto e yield) e depois
+ * faz park com tempo crescente.
+ */
+public class MesaLockFree implements Arbitro {
+    private static final int BITS_POR_PALAVRA = 64;
+    private static final long PARK_MAXIMO_NS = 1_000_000; // 1 ms
+
+    private final Topologia topologia;
+    private final int numFilosofos;
+    private final AtomicLongArray garfosEmUso;
+    // Por lugar: palavras que contêm seus garfos (crescente) e a máscara em cada uma
+    private final int[][] palavrasDoLugar;
+    private final long[][] mascarasDoLugar;
+    // Estatísticas: cada posição por filósofo só é escrita pelo próprio filósofo
+    private final AtomicLongArray contadorRefeicoes;
+    private final AtomicLongArray totalTempoEspera;
+    private final Histograma[] histogramasEspera; // Distribuição das esperas (ns)
+    private final AtomicLongArray tentativasTotal;
+    private final long[] inicioRefeicao;
+    private final AtomicLongArray tempoTotalGarfoEmUso;
+    private final long tempoInicioSimulacao;
+    private final Relogio relogio;
+    private final EstrategiaEspera estrategia;
+
+    public MesaLockFree(int numFilosofos) {
+        this(numFilosofos, Relogio.SISTEMA);
+    }
+
+    public MesaLockFree(int numFilosofos, Relogio relogio) {
+        this(Topologia.anel(numFilosofos), relogio);
+    }
+
+    public MesaLockFree(Topologia topologia) {
+        this(topologia, Relogio.SISTEMA);
+    }
+
+    public MesaLockFree(Topologia topologia, Relogio relogio) {
+        this(topologia, relogio, EstrategiaEspera.HIBRIDA);
+    }
+
+    /**
+     * @param estrategia como esperar entre um CAS que falhou e o próximo;
+     *                   BLOQUEAR vai direto ao park com tempo crescente
+     */
+    public MesaLockFree(Topologia topologia, Relogio relogio, EstrategiaEspera estrategia) {
+        this.topologia = topologia;
+        this.estrategia = estrategia;
+        this.numFilosofos = topologia.getNumLugares();
+        int numGarfos = topologia.getNumGarfos();
+        this.relogio = relogio;
+        this.garfosEmUso = new AtomicLongArray((numGarfos + BITS_POR_PALAVRA - 1) / BITS_POR_PALAVRA);
+        this.palavrasDoLugar = new int[numFilosofos][];
+        this.mascarasDoLugar = new long[numFilosofos][];
+        this.contadorRefeicoes = new AtomicLongArray(numFilosofos);
+        this.totalTempoEspera = new AtomicLongArray(numFilosofos);
+        this.histogramasEspera = new Histograma[numFilosofos];
+        this.tentativasTotal = new AtomicLongArray(numFilosofos);
+        this.inicioRefeicao = new long[numFilosofos];
+        this.tempoTotalGarfoEmUso = new AtomicLongArray(numGarfos);
+        this.tempoInicioSimulacao = relogio.nanos();
+        for (int i = 0; i < numFilosofos; i++) {
+            histogramasEspera[i] = new Histograma();
+            agruparPorPalavra(i);
+        }
+    }
+
+    /**
+     * Como os garfos vêm em ordem crescente, os da mesma palavra são vizinhos.
+     */
+    private void agruparPorPalavra(int lugar) {
+        int[] garfos = topologia.garfosEmOrdemCrescente(lugar);
+        int[] palavras = new int[garfos.length];
+        long[] mascaras = new long[garfos.length];
+        int quantidade = 0;
+        for (int garfo : garfos) {
+            if (quantidade == 0 || palavras[quantidade - 1] != palavra(garfo)) {
+                palavras[quantidade++] = palavra(garfo);
+            }
+            mascaras[quantidade - 1] |= bit(garfo);
+        }
+        palavrasDoLugar[lugar] = Arrays.copyOf(palavras, quantidade);
+        mascarasDoLugar[lugar] = Arrays.copyOf(mascaras, quantidade);
+    }
+
+    @Override
+    public void pegarGarfos(int idFilosofo) throws InterruptedException {
+        long inicio = relogio.nanos();
+        tentativasTotal.lazySet(idFilosofo, tentativasTotal.get(idFilosofo) + 1);
+
+        int[] palavras = palavrasDoLugar[idFilosofo];
+        long[] mascaras = mascarasDoLugar[idFilosofo];
+        for (int i = 0; i < palavras.length; i++) {
+            try {
+                pegarNaPalavra(palavras[i], mascaras[i]);
+            } catch (InterruptedException e) {
+                for (int j = i - 1; j >= 0; j--) {
+                    soltarNaPalavra(palavras[j], mascaras[j]);
+                }
+                throw e;
+            }
+        }
+
+        long fim = relogio.nanos();
+        inicioRefeicao[idFilosofo] = fim;
+        totalTempoEspera.lazySet(idFilosofo, totalTempoEspera.get(idFilosofo) + (fim - inicio));
+        histogramasEspera[idFilosofo].registrar(fim - inicio);
+    }
+
+    /**
+     * Pega com um único CAS todos os garfos da máscara (mesma palavra).
+     */
+    private void pegarNaPalavra(int indice, long mascara) throws InterruptedException {
+        for (int tentativa = 0; ; tentativa++) {
+            long atual = garfosEmUso.get(indice);
+            if ((atual & mascara) == 0
+                    && garfosEmUso.compareAndSet(indice, atual, atual | mascara)) {
+                return;
+            }
+            aguardar(estrategia, tentativa);
+        }
+    }
+
+    private void soltarNaPalavra(int indice, long mascara) {
+        long atual;
+        do {
+            atual = garfosEmUso.get(indice);
+        } while (!garfosEmUso.compareAndSet(indice, atual, atual & ~mascara));
+    }
+
+    /**
+     * Espera progressiva: as fases ativas da estratégia, depois park com
+     * tempo crescente (até 1 ms). Também usada pela MesaRecursos.
+     */
+    static void aguardar(EstrategiaEspera estrategia, int tentativa) throws InterruptedException {
+        if (!estrategia.girar(tentativa)) {
+            long espera = 1_000L << Math.min(tentativa - estrategia.getRodadasAtivas(), 10);
+            LockSupport.parkNanos(Math.min(espera, PARK_MAXIMO_NS));
+        }
+    }
+
+    @Override
+    public void soltarGarfos(int idFilosofo) {
+        long tempoUso = relogio.nanos() - inicioRefeicao[idFilosofo];
+        for (int garfo : topologia.garfosDe(idFilosofo)) {
+            tempoTotalGarfoEmUso.addAndGet(garfo, tempoUso);
+        }
+        contadorRefeicoes.lazySet(idFilosofo, contadorRefeicoes.get(idFilosofo) + 1);
+
+        int[] palavras = palavrasDoLugar[idFilosofo];
+        long[] mascaras = mascarasDoLugar[idFilosofo];
+        for (int i = 0; i < palavras.length; i++) {
+            soltarNaPalavra(palavras[i], mascaras[i]);
+        }
+    }
+
+    private static int palavra(int garfo) {
+        return garfo / BITS_POR_PALAVRA;
+    }
+
+    private static long bit(int garfo) {
+        return 1L << (garfo % BITS_POR_PALAVRA);
+    }
+
+    @Override
+    public int getContadorRefeicoes(int idFilosofo) {
+        return (int) contadorRefeicoes.get(idFilosofo);
+    }
+
+    @Override
+    public double getTempoMedioEspera(int idFilosofo) {
+        long tentativas = tentativasTotal.get(idFilosofo);
+        return tentativas > 0 ? Relogio.emMs(totalTempoEspera.get(idFilosofo)) / tentativas : 0;
+    }
+
+    @Override
+    public Histograma getHistogramaEspera(int idFilosofo) {
+        return histogramasEspera[idFilosofo];
+    }
+
+    @Override
+    public double getTaxaUtilizacaoGarfo(int idGarfo) {
+        long tempoTotal = relogio.nanos() - tempoInicioSimulacao;
+        return tempoTotal > 0 ? (double) tempoTotalGarfoEmUso.get(idGarfo) / tempoTotal * 100 : 0;
+    }
+
+    @Override
+    public String getEstadoMesa() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Garfos disponíveis: ");
+        int numGarfos = topologia.getNumGarfos();
+        for (int i = 0; i < numGarfos; i++) {
+            boolean emUso = (garfosEmUso.get(palavra(i)) & bit(i)) != 0;
+            sb.append(emUso ? "✗" : "✓");
+            if (i < numGarfos - 1) sb.append(" ");
+        }
+        sb.append(" | Fila: sem fila (lock-free)");
+        return sb.toString();
+    }
+
+    public EstrategiaEspera getEstrategia() {
+        return estrategia;
+    }
+
+    @Override
+    public Relogio getRelogio() {
+        return relogio;
+    }
+
+    @Override
+    public Topologia getTopologia() {
+        return topologia;
+    }
+}
@@ -0,0 +1,24 @@
+package tarefa4;
+
+/**
+ * Interface JMX da Mesa: contadores e o fator de envelhecimento da regra
+ * de fairness, ajustável durante a execução.
+ */
+public interface MesaMBean {
+
+    /**
+     * Quem espera há mais que este fator vezes a espera do primeiro da fila
+     * passa à frente dele (padrão 2).
+     */
+    double getFatorEnvelhecimento();
+
+    void setFatorEnvelhecimento(double fator);
+
+    int getTamanhoFila();
+
+    long getRefeicoesTotal();
+
+    boolean isEntregaDireta();
+
+    String getEstadoMesa();
+}
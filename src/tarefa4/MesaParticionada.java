@@ -0,0 +1,374 @@
+package tarefa4;
+
+import comum.Histograma;
+import comum.Relogio;
+import comum.Topologia;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+
+/**
+ * Variante da Mesa particionada em FAIXAS de lugares consecutivos.
+ *
+ * Cada faixa tem seu próprio lock, sua Condition e sua fila de fairness
+ * local (mesma regra da Mesa: primeiro da fila OU esperando 2× mais que o
+ * primeiro). Cada garfo pertence à faixa do MENOR dos seus dois lugares.
+ *
+ * Filósofos cujos garfos são todos da própria faixa só usam o lock dela.
+ * Os demais precisam coordenar várias faixas. No anel são o PRIMEIRO lugar
+ * de cada faixa a partir da segunda (o garfo que ele divide com o lugar
+ * anterior é da faixa anterior) e o lugar N-1 (o garfo que ele divide com
+ * o lugar 0 é da faixa 0). Esses lugares adquirem os locks em ordem
+ * crescente de índice de faixa (o que impede espera circular) e, se não
+ * puderem comer, esperam na Condition da faixa que os bloqueou, soltando
+ * os outros locks.
+ *
+ * Com F faixas, até F filósofos podem estar dentro da Mesa ao mesmo tempo,
+ * em vez de um só. Com F = 1 o comportamento é o da Mesa original.
+ */
+public class MesaParticionada implements Arbitro {
+    private final Topologia topologia;
+    private final int numFilosofos;
+    private final int tamanhoFaixa;
+    private final Faixa[] faixas;
+    private final int[] faixaDoGarfo;
+    private final int[][] faixasDoLugar; // Faixas que o lugar trava, em ordem crescente
+    // Cada garfo é protegido pelo lock da sua faixa; cada lugar, pelo da faixa do lugar
+    private final boolean[] garfosDisponiveis;
+    private final int[] contadorRefeicoes;
+    private final long[] tempoUltimaRefeicao;
+    private final long[] totalTempoEspera;
+    private final Histograma[] histogramasEspera; // Distribuição das esperas (ns)
+    private final int[] tentativasTotal;
+    private final long[] tempoTotalGarfoEmUso;
+    private final long tempoInicioSimulacao;
+    private final Relogio relogio;
+
+    private static final class Faixa {
+        final ReentrantLock lock = new ReentrantLock();
+        final Condition mudou = lock.newCondition();
+        final int inicio; // Primeiro lugar da faixa (a fila guarda posições locais)
+        final FilaIndexada filaEspera;
+
+        Faixa(int inicio, int tamanho) {
+            this.inicio = inicio;
+            this.filaEspera = new FilaIndexada(tamanho);
+        }
+    }
+
+    public MesaParticionada(int numFilosofos, int numFaixas) {
+        this(numFilosofos, numFaixas, Relogio.SISTEMA);
+    }
+
+    public MesaParticionada(int numFilosofos, int numFaixas, Relogio relogio) {
+        this(Topologia.anel(numFilosofos), numFaixas, relogio);
+    }
+
+    public MesaParticionada(Topologia topologia, int numFaixas) {
+        this(topologia, numFaixas, Relogio.SISTEMA);
+    }
+
+    public MesaParticionada(Topologia topologia, int numFaixas, Relogio relogio) {
+        int numFilosofos = topologia.getNumLugares();
+        if (numFaixas < 1 || numFaixas > numFilosofos) {
+            throw new IllegalArgumentException("Número de faixas deve estar entre 1 e " + numFilosofos);
+        }
+        this.topologia = topologia;
+        this.numFilosofos = numFilosofos;
+        this.relogio = relogio;
+        this.tamanhoFaixa = (numFilosofos + numFaixas - 1) / numFaixas;
+        int faixasEfetivas = (numFilosofos + tamanhoFaixa - 1) / tamanhoFaixa;
+        this.faixas = new Faixa[faixasEfetivas];
+        for (int i = 0; i < faixasEfetivas; i++) {
+            faixas[i] = new Faixa(i * tamanhoFaixa, tamanhoFaixa);
+        }
+
+        int numGarfos = topologia.getNumGarfos();
+        this.faixaDoGarfo = new int[numGarfos];
+        for (int garfo = 0; garfo < numGarfos; garfo++) {
+            int[] lugares = topologia.lugaresDoGarfo(garfo);
+            faixaDoGarfo[garfo] = faixaDe(Math.min(lugares[0], lugares[1]));
+        }
+        this.faixasDoLugar = new int[numFilosofos][];
+        for (int lugar = 0; lugar < numFilosofos; lugar++) {
+            faixasDoLugar[lugar] = IntStream.concat(IntStream.of(faixaDe(lugar)),
+                            Arrays.stream(topologia.garfosDe(lugar)).map(garfo -> faixaDoGarfo[garfo]))
+                    .distinct().sorted().toArray();
+        }
+
+        this.garfosDisponiveis = new boolean[numGarfos];
+        this.contadorRefeicoes = new int[numFilosofos];
+        this.tempoUltimaRefeicao = new long[numFilosofos];
+        this.totalTempoEspera = new long[numFilosofos];
+        this.histogramasEspera = new Histograma[numFilosofos];
+        this.tentativasTotal = new int[numFilosofos];
+        this.tempoTotalGarfoEmUso = new long[numGarfos];
+        this.tempoInicioSimulacao = relogio.nanos();
+
+        Arrays.fill(garfosDisponiveis, true);
+        for (int i = 0; i < numFilosofos; i++) {
+            histogramasEspera[i] = new Histograma();
+            tempoUltimaRefeicao[i] = relogio.nanos();
+        }
+    }
+
+    public int getNumFaixas() {
+        return faixas.length;
+    }
+
+    private int faixaDe(int lugar) {
+        return lugar / tamanhoFaixa;
+    }
+
+    @Override
+    public void pegarGarfos(int idFilosofo) throws InterruptedException {
+        int[] garfos = topologia.garfosDe(idFilosofo);
+        Faixa propria = faixas[faixaDe(idFilosofo)];
+
+        if (faixasDoLugar[idFilosofo].length == 1) {
+            pegarNaFaixa(idFilosofo, garfos, propria);
+        } else {
+            pegarEmVariasFaixas(idFilosofo, garfos, propria);
+        }
+    }
+
+    /**
+     * Caso comum: todos os garfos pertencem à faixa do próprio lugar.
+     */
+    private void pegarNaFaixa(int idFilosofo, int[] garfos, Faixa faixa) throws InterruptedException {
+        faixa.lock.lock();
+        try {
+            long inicio = relogio.nanos();
+            tentativasTotal[idFilosofo]++;
+            faixa.filaEspera.adicionar(idFilosofo - faixa.inicio);
+            try {
+                while (!podepegarGarfos(idFilosofo, garfos, faixa)) {
+                    faixa.mudou.await();
+                }
+            } finally {
+                faixa.filaEspera.remover(idFilosofo - faixa.inicio);
+            }
+            ocupar(idFilosofo, garfos, inicio);
+        } finally {
+            faixa.lock.unlock();
+        }
+    }
+
+    /**
+     * Lugar na emenda: algum garfo pertence a outra faixa. Trava todas as
+     * faixas envolvidas em ordem crescente; se não puder comer, mantém só o
+     * lock da faixa que o bloqueou e espera na Condition dela.
+     */
+    private void pegarEmVariasFaixas(int idFilosofo, int[] garfos, Faixa propria)
+            throws InterruptedException {
+        int[] envolvidas = faixasDoLugar[idFilosofo];
+
+        propria.lock.lock();
+        long inicio = relogio.nanos();
+        tentativasTotal[idFilosofo]++;
+        propria.filaEspera.adicionar(idFilosofo - propria.inicio);
+        propria.lock.unlock();
+
+        boolean sucesso = false;
+        try {
+            while (true) {
+                travar(envolvidas);
+                if (podepegarGarfos(idFilosofo, garfos, propria)) {
+                    propria.filaEspera.remover(idFilosofo - propria.inicio);
+                    ocupar(idFilosofo, garfos, inicio);
+                    sucesso = true;
+                    destravar(envolvidas);
+                    return;
+                }
+
+                // Espera apenas na faixa que impediu o progresso
+                Faixa bloqueadora = faixaQueBloqueia(garfos, propria);
+                for (int indice : envolvidas) {
+                    if (faixas[indice] != bloqueadora) {
+                        faixas[indice].lock.unlock();
+                    }
+                }
+                try {
+                    bloqueadora.mudou.await();
+                } finally {
+                    bloqueadora.lock.unlock();
+                }
+            }
+        } finally {
+            if (!sucesso) {
+                propria.lock.lock();
+                propria.filaEspera.remover(idFilosofo - propria.inicio);
+                propria.mudou.signalAll();
+                propria.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Faixa do primeiro garfo ocupado; se todos estão livres, quem barrou
+     * foi a fila de fairness da própria faixa.
+     */
+    private Faixa faixaQueBloqueia(int[] garfos, Faixa propria) {
+        for (int garfo : garfos) {
+            if (!garfosDisponiveis[garfo]) {
+                return faixas[faixaDoGarfo[garfo]];
+            }
+        }
+        return propria;
+    }
+
+    private void travar(int[] indices) {
+        for (int indice : indices) {
+            faixas[indice].lock.lock();
+        }
+    }
+
+    private void destravar(int[] indices) {
+        for (int i = indices.length - 1; i >= 0; i--) {
+            faixas[indices[i]].lock.unlock();
+        }
+    }
+
+    /**
+     * Mesma regra da Mesa, avaliada sobre a fila local da faixa do filósofo.
+     */
+    private boolean podepegarGarfos(int idFilosofo, int[] garfos, Faixa faixa) {
+        for (int garfo : garfos) {
+            if (!garfosDisponiveis[garfo]) {
+                return false;
+            }
+        }
+
+        int primeiroLocal = faixa.filaEspera.primeiro();
+        if (primeiroLocal == FilaIndexada.VAZIA) {
+            return false;
+        }
+        int primeiro = faixa.inicio + primeiroLocal;
+
+        if (primeiro == idFilosofo) {
+            return true;
+        }
+
+        long agora = relogio.nanos();
+        long tempoEsperaAtual = agora - tempoUltimaRefeicao[idFilosofo];
+        long tempoEsperaPrimeiro = agora - tempoUltimaRefeicao[primeiro];
+        return tempoEsperaAtual > tempoEsperaPrimeiro * 2;
+    }
+
+    private void ocupar(int idFilosofo, int[] garfos, long inicio) {
+        for (int garfo : garfos) {
+            garfosDisponiveis[garfo] = false;
+        }
+        long espera = relogio.nanos() - inicio;
+        totalTempoEspera[idFilosofo] += espera;
+        histogramasEspera[idFilosofo].registrar(espera);
+    }
+
+    @Override
+    public void soltarGarfos(int idFilosofo) {
+        int[] envolvidas = faixasDoLugar[idFilosofo];
+        travar(envolvidas);
+        try {
+            long tempoDesdeUltimaRefeicao = relogio.nanos() - tempoUltimaRefeicao[idFilosofo];
+            for (int garfo : topologia.garfosDe(idFilosofo)) {
+                if (contadorRefeicoes[idFilosofo] > 0) { // Não conta a primeira vez
+                    tempoTotalGarfoEmUso[garfo] += tempoDesdeUltimaRefeicao;
+                }
+                garfosDisponiveis[garfo] = true;
+            }
+
+            contadorRefeicoes[idFilosofo]++;
+            tempoUltimaRefeicao[idFilosofo] = relogio.nanos();
+
+            // Só as faixas cujos garfos (ou fila) mudaram são notificadas
+            for (int indice : envolvidas) {
+                faixas[indice].mudou.signalAll();
+            }
+        } finally {
+            destravar(envolvidas);
+        }
+    }
+
+    @Override
+    public int getContadorRefeicoes(int idFilosofo) {
+        Faixa faixa = faixas[faixaDe(idFilosofo)];
+        faixa.lock.lock();
+        try {
+            return contadorRefeicoes[idFilosofo];
+        } finally {
+            faixa.lock.unlock();
+        }
+    }
+
+    @Override
+    public double getTempoMedioEspera(int idFilosofo) {
+        Faixa faixa = faixas[faixaDe(idFilosofo)];
+        faixa.lock.lock();
+        try {
+            return tentativasTotal[idFilosofo] > 0 ?
+                   Relogio.emMs(totalTempoEspera[idFilosofo]) / tentativasTotal[idFilosofo] : 0;
+        } finally {
+            faixa.lock.unlock();
+        }
+    }
+
+    @Override
+    public Histograma getHistogramaEspera(int idFilosofo) {
+        return histogramasEspera[idFilosofo];
+    }
+
+    @Override
+    public double getTaxaUtilizacaoGarfo(int idGarfo) {
+        Faixa faixa = faixas[faixaDoGarfo[idGarfo]];
+        faixa.lock.lock();
+        try {
+            long tempoTotal = relogio.nanos() - tempoInicioSimulacao;
+            return tempoTotal > 0 ? (double) tempoTotalGarfoEmUso[idGarfo] / tempoTotal * 100 : 0;
+        } finally {
+            faixa.lock.unlock();
+        }
+    }
+
+    /**
+     * Percorre as faixas uma a uma; o retrato não é atômico entre faixas.
+     */
+    @Override
+    public String getEstadoMesa() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Garfos disponíveis: ");
+        int naFila = 0;
+        for (Faixa faixa : faixas) {
+            faixa.lock.lock();
+            try {
+                naFila += faixa.filaEspera.tamanho();
+            } finally {
+                faixa.lock.unlock();
+            }
+        }
+        for (int i = 0; i < garfosDisponiveis.length; i++) {
+            Faixa faixa = faixas[faixaDoGarfo[i]];
+            faixa.lock.lock();
+            try {
+                sb.append(garfosDisponiveis[i] ? "✓" : "✗");
+            } finally {
+                faixa.lock.unlock();
+            }
+            if (i < garfosDisponiveis.length - 1) sb.append(" ");
+        }
+        sb.append(" | Fila: ").append(naFila).append(" filósofo(s)");
+        sb.append(" | Faixas: ").append(faixas.length);
+        return sb.toString();
+    }
+
+    @Override
+    public Relogio getRelogio() {
+        return relogio;
+    }
+
+    @Override
+    public Topologia getTopologia() {
+        return topologia;
+    }
+}
@@ -0,0 +1,271 @@
+package tarefa4;
+
+import comum.EstrategiaEspera;
+import comum.Histograma;
+import comum.Relogio;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Generalização da Mesa para o jantar dos BEBEDORES: cada pedido traz um
+ * conjunto qualquer de recursos, e pegarRecursos() só retorna quando tem
+ * TODOS eles, sem deadlock.
+ *
+ * ESTRATÉGIA:
+ * -----------
+ * - Como na MesaLockFree, a ocupação é um bitmask em palavras long (64
+ *   recursos por palavra) alterado via CAS.
+ * - O conjunto é preparado uma vez (preparar): IDs ordenados, sem
+ *   repetição, agrupados por palavra com a máscara de cada uma.
+ * - Conjunto PEQUENO (até o limite, 8 por padrão): os bits de cada palavra
+ *   são pegos com um único CAS, palavra a palavra em ordem CRESCENTE. Se o
+ *   conjunto cabe numa palavra (o caso dos dois garfos), a aquisição é
+ *   atômica de verdade.
+ * - Conjunto GRANDE: entra numa fila justa (ReentrantLock com fairness) e,
+ *   quando chega a sua vez, vai RESERVANDO os bits livres, também em ordem
+ *   crescente de palavra, até ter todos.
+ *
+ * POR QUE A FILA:
+ * ---------------
+ * Um conjunto grande quase nunca encontra todos os seus bits livres ao
+ * mesmo tempo se disputar no CAS com os pequenos (starvation). Reservando
+ * aos poucos ele progride, mas segura recursos enquanto espera; a fila
+ * garante que só UM conjunto grande faz isso por vez, em ordem de chegada.
+ *
+ * SEM DEADLOCK:
+ * -------------
+ * Quem segura uma palavra e espera outra sempre espera uma palavra MAIOR
+ * (ordem global). Dentro de uma palavra os pequenos pegam tudo de uma vez,
+ * e o único que reserva bits fora de ordem é o grande da vez, que nunca
+ * espera por alguém que espera por ele.
+ */
+public class MesaRecursos {
+    public static final int LIMITE_PEQUENO_PADRAO = 8;
+    private static final int BITS_POR_PALAVRA = 64;
+
+    private final int numRecursos;
+    private final int limitePequeno;
+    private final AtomicLongArray emUso;
+    private final ReentrantLock filaGrandes = new ReentrantLock(true); // FIFO entre conjuntos grandes
+    private final AtomicLong aquisicoesPequenas = new AtomicLong();
+    private final AtomicLong aquisicoesGrandes = new AtomicLong();
+    private final Histograma histogramaEspera = new Histograma(); // Espera até ter o conjunto (ns)
+    private final Relogio relogio;
+
+    public MesaRecursos(int numRecursos) {
+        this(numRecursos, LIMITE_PEQUENO_PADRAO);
+    }
+
+    public MesaRecursos(int numRecursos, int limitePequeno) {
+        this(numRecursos, limitePequeno, Relogio.SISTEMA);
+    }
+
+    public MesaRecursos(int numRecursos, int limitePequeno, Relogio relogio) {
+        if (numRecursos < 1) {
+            throw new IllegalArgumentException("A mesa precisa de pelo menos 1 recurso");
+        }
+        this.numRecursos = numRecursos;
+        this.limitePequeno = limitePequeno;
+        this.relogio = relogio;
+        this.emUso = new AtomicLongArray((numRecursos + BITS_POR_PALAVRA - 1) / BITS_POR_PALAVRA);
+    }
+
+    /**
+     * Prepara um conjunto para ser pego e solto várias vezes sem alocar.
+     * IDs repetidos contam uma vez só.
+     */
+    public Conjunto preparar(int... ids) {
+        int[] ordenados = Arrays.stream(ids).sorted().distinct().toArray();
+        if (ordenados.length == 0) {
+            throw new IllegalArgumentException("O conjunto precisa de pelo menos 1 recurso");
+        }
+        if (ordenados[0] < 0 || ordenados[ordenados.length - 1] >= numRecursos) {
+            throw new IllegalArgumentException("Recursos devem estar entre 0 e " + (numRecursos - 1)
+                    + ": " + Arrays.toString(ids));
+        }
+
+        int[] palavras = new int[ordenados.length];
+        long[] mascaras = new long[ordenados.length];
+        int quantidade = 0;
+        for (int id : ordenados) {
+            if (quantidade == 0 || palavras[quantidade - 1] != id / BITS_POR_PALAVRA) {
+                palavras[quantidade++] = id / BITS_POR_PALAVRA;
+            }
+            mascaras[quantidade - 1] |= 1L << (id % BITS_POR_PALAVRA);
+        }
+        return new Conjunto(ordenados, Arrays.copyOf(palavras, quantidade),
+                Arrays.copyOf(mascaras, quantidade), ordenados.length > limitePequeno);
+    }
+
+    /**
+     * Atalho para pegarRecursos(preparar(ids)).
+     */
+    public Conjunto pegarRecursos(int... ids) throws InterruptedException {
+        Conjunto conjunto = preparar(ids);
+        pegarRecursos(conjunto);
+        return conjunto;
+    }
+
+    /**
+     * Bloqueia até ter todos os recursos do conjunto. Se for interrompido,
+     * devolve o que já tinha pego antes de lançar a exceção.
+     */
+    public void pegarRecursos(Conjunto conjunto) throws InterruptedException {
+        long inicio = relogio.nanos();
+        if (conjunto.grande) {
+            filaGrandes.lockInterruptibly();
+            try {
+                reservarEmOrdem(conjunto);
+            } finally {
+                filaGrandes.unlock();
+            }
+            aquisicoesGrandes.incrementAndGet();
+        } else {
+            pegarEmOrdem(conjunto);
+            aquisicoesPequenas.incrementAndGet();
+        }
+        histogramaEspera.registrar(relogio.nanos() - inicio);
+    }
+
+    public void soltarRecursos(Conjunto conjunto) {
+        for (int i = 0; i < conjunto.palavras.length; i++) {
+            soltarNaPalavra(conjunto.palavras[i], conjunto.mascaras[i]);
+        }
+    }
+
+    /**
+     * Caminho dos pequenos: um CAS por palavra, tudo ou nada dentro dela.
+     */
+    private void pegarEmOrdem(Conjunto conjunto) throws InterruptedException {
+        int[] palavras = conjunto.palavras;
+        long[] mascaras = conjunto.mascaras;
+        for (int i = 0; i < palavras.length; i++) {
+            try {
+                for (int tentativa = 0; ; tentativa++) {
+                    long atual = emUso.get(palavras[i]);
+                    if ((atual & mascaras[i]) == 0
+                            && emUso.compareAndSet(palavras[i], atual, atual | mascaras[i])) {
+                        break;
+                    }
+                    MesaLockFree.aguardar(EstrategiaEspera.HIBRIDA, tentativa);
+                }
+            } catch (InterruptedException e) {
+                for (int j = i - 1; j >= 0; j--) {
+                    soltarNaPalavra(palavras[j], mascaras[j]);
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Caminho dos grandes (com a fila): pega os bits que estiverem livres e
+     * espera só pelos que faltam, sem soltar o que já reservou.
+     */
+    private void reservarEmOrdem(Conjunto conjunto) throws InterruptedException {
+        int[] palavras = conjunto.palavras;
+        long[] mascaras = conjunto.mascaras;
+        for (int i = 0; i < palavras.length; i++) {
+            long reservados = 0;
+            try {
+                for (int tentativa = 0; reservados != mascaras[i]; tentativa++) {
+                    long atual = emUso.get(palavras[i]);
+                    long livres = mascaras[i] & ~reservados & ~atual;
+                    if (livres != 0 && emUso.compareAndSet(palavras[i], atual, atual | livres)) {
+                        reservados |= livres;
+                        tentativa = -1; // Progrediu: volta ao spin curto
+                    } else {
+                        MesaLockFree.aguardar(EstrategiaEspera.HIBRIDA, tentativa);
+                    }
+                }
+            } catch (InterruptedException e) {
+                if (reservados != 0) {
+                    soltarNaPalavra(palavras[i], reservados);
+                }
+                for (int j = i - 1; j >= 0; j--) {
+                    soltarNaPalavra(palavras[j], mascaras[j]);
+                }
+                throw e;
+            }
+        }
+    }
+
+    private void soltarNaPalavra(int indice, long mascara) {
+        long atual;
+        do {
+            atual = emUso.get(indice);
+            if ((atual & mascara) != mascara) {
+                throw new IllegalStateException("Soltando recursos que não estavam em uso");
+            }
+        } while (!emUso.compareAndSet(indice, atual, atual & ~mascara));
+    }
+
+    public boolean isEmUso(int id) {
+        return (emUso.get(id / BITS_POR_PALAVRA) & (1L << (id % BITS_POR_PALAVRA))) != 0;
+    }
+
+    public int getNumRecursos() {
+        return numRecursos;
+    }
+
+    public int getLimitePequeno() {
+        return limitePequeno;
+    }
+
+    public long getAquisicoesPequenas() {
+        return aquisicoesPequenas.get();
+    }
+
+    public long getAquisicoesGrandes() {
+        return aquisicoesGrandes.get();
+    }
+
+    public Histograma getHistogramaEspera() {
+        return histogramaEspera;
+    }
+
+    public Relogio getRelogio() {
+        return relogio;
+    }
+
+    /**
+     * Conjunto de recursos já ordenado e agrupado por palavra. Imutável:
+     * pode ser pego e solto quantas vezes for preciso.
+     */
+    public static final class Conjunto {
+        private final int[] ids;
+        private final int[] palavras;
+        private final long[] mascaras;
+        private final boolean grande;
+
+        private Conjunto(int[] ids, int[] palavras, long[] mascaras, boolean grande) {
+            this.ids = ids;
+            this.palavras = palavras;
+            this.mascaras = mascaras;
+            this.grande = grande;
+        }
+
+        public int tamanho() {
+            return ids.length;
+        }
+
+        public boolean isGrande() {
+            return grande;
+        }
+
+        /**
+         * IDs em ordem crescente (cópia).
+         */
+        public int[] getIds() {
+            return ids.clone();
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.toString(ids) + (grande ? " (grande)" : "");
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package tarefa4;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Posse dos garfos de um filósofo, entregue por MesaAssincrona.pedirGarfos
+ * quando TODOS os garfos do lugar foram concedidos.
+ *
+ * soltar() devolve os garfos à mesa (que já os passa ao próximo da vez);
+ * chamar de novo não faz nada. Como é AutoCloseable, serve também em
+ * try-with-resources.
+ */
+public final class Permissao implements AutoCloseable {
+    private final MesaAssincrona mesa;
+    private final int idFilosofo;
+    private final AtomicBoolean solta = new AtomicBoolean(false);
+
+    Permissao(MesaAssincrona mesa, int idFilosofo) {
+        this.mesa = mesa;
+        this.idFilosofo = idFilosofo;
+    }
+
+    public int getIdFilosofo() {
+        return idFilosofo;
+    }
+
+    public int[] getGarfos() {
+        return mesa.getTopologia().garfosDe(idFilosofo).clone();
+    }
+
+    public boolean isSolta() {
+        return solta.get();
+    }
+
+    public void soltar() {
+        if (solta.compareAndSet(false, true)) {
+            mesa.soltarGarfos(idFilosofo);
+        }
+    }
+
+    /**
+     * Devolve os garfos sem contar refeição (pedido cancelado ou
+     * interrompido depois da concessão).
+     */
+    void descartar() {
+        if (solta.compareAndSet(false, true)) {
+            mesa.devolverGarfos(idFilosofo);
+        }
+    }
+
+    @Override
+    public void close() {
+        soltar();
+    }
+}
@@ -0,0 +1,29 @@
+package tarefa4;
+
+/**
+ * Resposta de Mesa.tryPegarGarfos: se conseguiu os garfos e, se não, por quê.
+ *
+ * Quem recebe uma recusa já está FORA da fila de espera; pode tentar de
+ * novo mais tarde ou desistir (descarte de carga com a mesa saturada).
+ * Interrupção não é um resultado: continua sendo InterruptedException.
+ */
+public enum ResultadoTentativa {
+    OBTIDOS("garfos obtidos"),
+    GARFOS_OCUPADOS("algum dos garfos está em uso"),
+    FORA_DA_VEZ("garfos livres, mas outro filósofo tem a vez na fila"),
+    TEMPO_ESGOTADO("prazo esgotado antes de obter os garfos");
+
+    private final String descricao;
+
+    ResultadoTentativa(String descricao) {
+        this.descricao = descricao;
+    }
+
+    public boolean isSucesso() {
+        return this == OBTIDOS;
+    }
+
+    public String getDescricao() {
+        return descricao;
+    }
+}
@@ -0,0 +1,119 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Timeout;
+import static org.junit.jupiter.api.Assertions.*;
+
+import comum.Topologia;
+import distribuido.Filosofo;
+import distribuido.Transporte;
+import distribuido.TransporteLocal;
+import distribuido.TransporteSocket;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Testes para a solução por troca de mensagens (Chandy/Misra)
+ * Valida exclusão entre vizinhos e progresso com filas locais e com sockets
+ */
+public class DistribuidoTest {
+    
+    /**
+     * Roda os filósofos por alguns segundos (pensar/comer de 1-5 ms) e
+     * amostra o tempo todo se dois vizinhos estão comendo juntos.
+     */
+    private int executarEContarViolacoes(Topologia topologia, Filosofo[] filosofos) throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (Filosofo filosofo : filosofos) {
+            Thread thread = new Thread(filosofo);
+            thread.start();
+            threads.add(thread);
+        }
+        
+        int violacoes = 0;
+        long fim = System.currentTimeMillis() + 3000;
+        while (System.currentTimeMillis() < fim) {
+            for (int garfo = 0; garfo < topologia.getNumGarfos(); garfo++) {
+                int[] lugares = topologia.lugaresDoGarfo(garfo);
+                if (filosofos[lugares[0]].isComendo() && filosofos[lugares[1]].isComendo()) {
+                    violacoes++;
+                }
+            }
+            Thread.sleep(0, 200_000);
+        }
+        
+        for (Filosofo filosofo : filosofos) {
+            filosofo.parar();
+        }
+        for (Thread thread : threads) {
+            thread.join(2000);
+            assertFalse(thread.isAlive(), "Thread deveria ter parado");
+        }
+        return violacoes;
+    }
+    
+    @Test
+    @DisplayName("Chandy/Misra com filas locais: vizinhos nunca comem juntos e todos comem")
+    @Timeout(value = 15, unit = TimeUnit.SECONDS)
+    public void testFilasLocais() throws InterruptedException {
+        Topologia grade = Topologia.grade(3, 3);
+        Transporte transporte = new TransporteLocal(grade.getNumLugares());
+        Filosofo[] filosofos = new Filosofo[grade.getNumLugares()];
+        for (int i = 0; i < filosofos.length; i++) {
+            filosofos[i] = new Filosofo(i, grade, transporte, 1, 5);
+        }
+        
+        assertEquals(0, executarEContarViolacoes(grade, filosofos), "Vizinhos comeram ao mesmo tempo");
+        for (Filosofo filosofo : filosofos) {
+            assertTrue(filosofo.getContadorRefeicoes() > 10,
+                "Filósofo " + filosofo.getId() + " comeu só " + filosofo.getContadorRefeicoes() + " vezes");
+        }
+    }
+    
+    @Test
+    @DisplayName("Chandy/Misra com sockets: mesa dividida em dois nós no loopback")
+    @Timeout(value = 20, unit = TimeUnit.SECONDS)
+    public void testDoisNosSocket() throws Exception {
+        Topologia anel = Topologia.anel(6);
+        int portaBase = 40000 + new Random().nextInt(20000);
+        TransporteSocket[] nos = {
+            new TransporteSocket(0, 2, 6, portaBase), new TransporteSocket(1, 2, 6, portaBase)
+        };
+        Filosofo[] filosofos = new Filosofo[6];
+        for (TransporteSocket no : nos) {
+            for (int i = 0; i < filosofos.length; i++) {
+                if (no.isLocal(i)) {
+                    filosofos[i] = new Filosofo(i, anel, no, 1, 5);
+                }
+            }
+        }
+        assertTrue(nos[0].isLocal(0) && nos[1].isLocal(5), "Garfo 0 liga os dois nós");
+        
+        // Cada nó espera o outro subir, então conectam em paralelo
+        Thread conexao = new Thread(() -> {
+            try {
+                nos[1].conectar(5000);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        conexao.start();
+        nos[0].conectar(5000);
+        conexao.join();
+        
+        try {
+            assertEquals(0, executarEContarViolacoes(anel, filosofos), "Vizinhos comeram ao mesmo tempo");
+        } finally {
+            for (TransporteSocket no : nos) {
+                no.close();
+            }
+        }
+        for (Filosofo filosofo : filosofos) {
+            assertTrue(filosofo.getContadorRefeicoes() > 10,
+                "Filósofo " + filosofo.getId() + " comeu só " + filosofo.getContadorRefeicoes() + " vezes");
+            assertTrue(filosofo.getMensagensEnviadas() > 0);
+        }
+    }
+}
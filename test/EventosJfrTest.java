@@ -0,0 +1,88 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Timeout;
+import static org.junit.jupiter.api.Assertions.*;
+
+import comum.EventoGarfosPegos;
+import comum.EventoGarfosSoltos;
+import comum.RelogioManual;
+import tarefa4.Mesa;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Testes para os eventos do Java Flight Recorder
+ * Valida que garfos e Mesa gravam quem pegou/soltou o quê e por quanto tempo
+ */
+public class EventosJfrTest {
+    
+    @Test
+    @DisplayName("Garfos e Mesa devem emitir eventos de pegar e soltar com os campos preenchidos")
+    @Timeout(value = 30, unit = TimeUnit.SECONDS)
+    public void testEventosGarfos() throws Exception {
+        RelogioManual relogio = new RelogioManual();
+        Path arquivo = Files.createTempFile("filosofos", ".jfr");
+        try (Recording gravacao = new Recording()) {
+            gravacao.enable(EventoGarfosPegos.class).withThreshold(Duration.ZERO);
+            gravacao.enable(EventoGarfosSoltos.class).withThreshold(Duration.ZERO);
+            gravacao.start();
+            
+            tarefa2.Garfo garfoLock = new tarefa2.Garfo(4, relogio);
+            garfoLock.pegar(2);
+            relogio.avancarMs(3);
+            garfoLock.soltar();
+            
+            tarefa3.Garfo garfoSemaforo = new tarefa3.Garfo(7, relogio);
+            garfoSemaforo.pegar(3);
+            relogio.avancarMs(5);
+            garfoSemaforo.soltar();
+            
+            Mesa mesa = new Mesa(5, relogio);
+            mesa.pegarGarfos(1);
+            relogio.avancarMs(2);
+            mesa.soltarGarfos(1);
+            
+            gravacao.stop();
+            gravacao.dump(arquivo);
+        }
+        List<RecordedEvent> eventos;
+        try {
+            eventos = RecordingFile.readAllEvents(arquivo);
+        } finally {
+            Files.delete(arquivo);
+        }
+        
+        List<RecordedEvent> pegos = doTipo(eventos, "filosofos.GarfosPegos");
+        List<RecordedEvent> soltos = doTipo(eventos, "filosofos.GarfosSoltos");
+        assertEquals(3, pegos.size());
+        assertEquals(3, soltos.size());
+        
+        assertEquals(2, pegos.get(0).getInt("filosofo"));
+        assertEquals("4", pegos.get(0).getString("garfos"));
+        assertEquals(3, pegos.get(1).getInt("filosofo"));
+        assertEquals("7", pegos.get(1).getString("garfos"));
+        assertEquals(1, pegos.get(2).getInt("filosofo"));
+        assertEquals("1,2", pegos.get(2).getString("garfos"));
+        
+        assertEquals(Duration.ofMillis(3), soltos.get(0).getDuration("segurado"));
+        assertEquals(Duration.ofMillis(5), soltos.get(1).getDuration("segurado"));
+        assertEquals(Duration.ofMillis(2), soltos.get(2).getDuration("segurado"));
+        assertEquals("1,2", soltos.get(2).getString("garfos"));
+    }
+    
+    private static List<RecordedEvent> doTipo(List<RecordedEvent> eventos, String nome) {
+        return eventos.stream()
+                .filter(e -> e.getEventType().getName().equals(nome))
+                .sorted((a, b) -> a.getStartTime().compareTo(b.getStartTime()))
+                .collect(Collectors.toList());
+    }
+}
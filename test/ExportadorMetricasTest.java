@@ -0,0 +1,83 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Timeout;
+import static org.junit.jupiter.api.Assertions.*;
+
+import comum.ExportadorMetricas;
+import comum.RelogioManual;
+import tarefa4.ArbitroMedido;
+import tarefa4.Mesa;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Testes para o ExportadorMetricas
+ * Valida o formato Prometheus e que a coleta não depende do lock da mesa
+ */
+public class ExportadorMetricasTest {
+    
+    @Test
+    @DisplayName("Métricas devem contar refeições, tempo em uso e fila")
+    public void testFormatoPrometheus() throws InterruptedException {
+        RelogioManual relogio = new RelogioManual();
+        ArbitroMedido mesa = new ArbitroMedido(new Mesa(3, relogio));
+        
+        mesa.pegarGarfos(0);
+        relogio.avancarMs(1500);
+        mesa.soltarGarfos(0);
+        mesa.pegarGarfos(1);
+        relogio.avancarMs(500);
+        mesa.soltarGarfos(1);
+        
+        String texto = ExportadorMetricas.formatar(mesa);
+        assertTrue(texto.contains("# TYPE filosofos_refeicoes_total counter\n"), texto);
+        assertTrue(texto.contains("filosofos_refeicoes_total{filosofo=\"0\"} 1\n"), texto);
+        assertTrue(texto.contains("filosofos_refeicoes_total{filosofo=\"2\"} 0\n"), texto);
+        assertTrue(texto.contains("filosofos_espera_segundos{filosofo=\"0\",quantile=\"0.99\"} 0.0\n"), texto);
+        assertTrue(texto.contains("filosofos_espera_segundos_count{filosofo=\"1\"} 1\n"), texto);
+        // O garfo compartilhado por F0 e F1 esteve em uso nas duas refeições
+        int[] garfos0 = mesa.getTopologia().garfosDe(0);
+        int[] garfos1 = mesa.getTopologia().garfosDe(1);
+        int compartilhado = garfos0[1] == garfos1[0] ? garfos0[1] : garfos0[0];
+        assertTrue(texto.contains("filosofos_garfo_em_uso_segundos_total{garfo=\"" + compartilhado + "\"} 2.0\n"), texto);
+        assertTrue(texto.contains("filosofos_fila_espera 0\n"), texto);
+    }
+    
+    @Test
+    @DisplayName("Scrape via HTTP deve responder mesmo com o monitor da Mesa ocupado")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testScrapeSemTravarMesa() throws Exception {
+        Mesa monitor = new Mesa(5);
+        ArbitroMedido mesa = new ArbitroMedido(monitor);
+        mesa.pegarGarfos(0);
+        mesa.soltarGarfos(0);
+        
+        ExportadorMetricas exportador = new ExportadorMetricas(mesa, 0);
+        exportador.iniciar();
+        try {
+            String texto;
+            synchronized (monitor) { // Um getter synchronized travaria aqui
+                texto = buscar("http://localhost:" + exportador.getPorta() + ExportadorMetricas.CAMINHO);
+            }
+            assertTrue(texto.contains("filosofos_refeicoes_total{filosofo=\"0\"} 1\n"), texto);
+            assertTrue(texto.contains("filosofos_fila_espera 0\n"), texto);
+        } finally {
+            exportador.parar();
+        }
+    }
+    
+    private static String buscar(String endereco) throws IOException {
+        HttpURLConnection conexao = (HttpURLConnection) new URL(endereco).openConnection();
+        conexao.setReadTimeout(5000);
+        assertEquals(200, conexao.getResponseCode());
+        assertTrue(conexao.getContentType().startsWith("text/plain; version=0.0.4"));
+        try (InputStream entrada = conexao.getInputStream()) {
+            return new String(entrada.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import comum.Histograma;
+
+import java.util.Arrays;
+
+/**
+ * Testes para o Histograma de latências
+ * Valida percentis, junção de histogramas e zeragem por intervalo
+ */
+public class HistogramaTest {
+    
+    @Test
+    @DisplayName("Histograma vazio deve retornar zero")
+    public void testHistogramaVazio() {
+        Histograma h = new Histograma();
+        
+        assertEquals(0, h.getTotal());
+        assertEquals(0, h.getPercentil(99));
+        assertEquals(0, h.getMaximo());
+    }
+    
+    @Test
+    @DisplayName("Percentis devem ter erro relativo de no máximo ~6%")
+    public void testPrecisaoPercentis() {
+        Histograma h = new Histograma();
+        for (int i = 1; i <= 100000; i++) {
+            h.registrar(i);
+        }
+        
+        assertEquals(100000, h.getTotal());
+        assertEquals(100000, h.getMaximo());
+        assertEquals(50000, h.getPercentil(50), 50000 * 0.04);
+        assertEquals(99000, h.getPercentil(99), 99000 * 0.04);
+        assertEquals(50000.5, h.getMedia(), 0.001);
+    }
+    
+    @Test
+    @DisplayName("Valores pequenos devem ser exatos")
+    public void testValoresPequenosExatos() {
+        Histograma h = new Histograma();
+        h.registrar(3);
+        h.registrar(7);
+        h.registrar(7);
+        
+        assertEquals(7, h.getPercentil(50));
+        assertEquals(3, h.getPercentil(10));
+    }
+    
+    @Test
+    @DisplayName("Histograma só aloca as bandas em que caíram amostras")
+    public void testBandasSobDemanda() {
+        Histograma h = new Histograma();
+        assertEquals(0, h.getBandasAlocadas());
+        h.registrar(1000);
+        h.registrar(1001);
+        h.registrar(2_000_000_000L);
+        
+        assertEquals(2, h.getBandasAlocadas());
+        assertEquals(2_000_000_000L, h.getPercentil(99), 2_000_000_000L * 0.07);
+    }
+    
+    @Test
+    @DisplayName("Cauda deve aparecer no p99 mesmo com média baixa")
+    public void testCaudaVisivel() {
+        Histograma h = new Histograma();
+        for (int i = 0; i < 980; i++) {
+            h.registrar(10);
+        }
+        for (int i = 0; i < 20; i++) {
+            h.registrar(30000);
+        }
+        
+        assertEquals(10, h.getPercentil(50));
+        assertTrue(h.getPercentil(99) >= 29000, "p99 deveria mostrar a cauda");
+    }
+    
+    @Test
+    @DisplayName("Juntar e zerar histogramas")
+    public void testJuntarEZerar() {
+        Histograma a = new Histograma();
+        Histograma b = new Histograma();
+        a.registrar(5);
+        b.registrar(500);
+        
+        Histograma juntos = Histograma.juntar(Arrays.asList(a, b));
+        assertEquals(2, juntos.getTotal());
+        assertEquals(500, juntos.getMaximo());
+        assertEquals(1, a.getTotal(), "Originais não devem ser alterados");
+        
+        Histograma intervalo = b.copiarEZerar();
+        assertEquals(1, intervalo.getTotal());
+        assertEquals(0, b.getTotal(), "Histograma deve ser zerado após a cópia");
+    }
+}
@@ -0,0 +1,102 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import comum.CicloEspera;
+import comum.RegistroPosse;
+import comum.RelogioManual;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Testes para o RegistroPosse
+ * Valida o detector incremental de ciclos com chamadas sintéticas, sem threads
+ */
+public class RegistroPosseTest {
+    
+    @Test
+    @DisplayName("Ciclo deve ser detectado quando a última aresta nasce numa espera")
+    public void testCicloPorEspera() {
+        RelogioManual relogio = new RelogioManual();
+        RegistroPosse registro = new RegistroPosse(3, 3, relogio);
+        List<CicloEspera> avisados = new ArrayList<>();
+        registro.adicionarOuvinte(avisados::add);
+        
+        // Anel de 3: cada um pega o esquerdo (garfo i) e espera o direito
+        for (int i = 0; i < 3; i++) {
+            registro.aguardando(i, i);
+            registro.adquiriu(i, i);
+        }
+        registro.aguardando(0, 1);
+        registro.aguardando(1, 2);
+        assertTrue(avisados.isEmpty(), "Caminho sem volta não é ciclo");
+        
+        relogio.avancarMs(5);
+        registro.aguardando(2, 0);
+        assertEquals(1, avisados.size());
+        CicloEspera ciclo = avisados.get(0);
+        assertArrayEquals(new int[] {2, 0, 1}, ciclo.getFilosofos());
+        assertArrayEquals(new int[] {0, 1, 2}, ciclo.getGarfos());
+        assertEquals(relogio.nanos(), ciclo.getInstante());
+        assertEquals(avisados, registro.getCiclos());
+        assertEquals("Ciclo de espera: F2 -(garfo 0)-> F0 -(garfo 1)-> F1 -(garfo 2)-> F2", ciclo.toString());
+    }
+    
+    @Test
+    @DisplayName("Ciclo deve ser detectado quando a última aresta nasce numa aquisição")
+    public void testCicloPorAquisicao() {
+        RegistroPosse registro = new RegistroPosse(2, 2, new RelogioManual());
+        
+        registro.adquiriu(0, 0);
+        registro.aguardando(1, 0); // F1 -> F0
+        registro.aguardando(0, 1); // Garfo 1 livre: ainda sem aresta
+        assertTrue(registro.getCiclos().isEmpty());
+        
+        // F1 pega o garfo 1 sem deixar de esperar o 0 (mesa que pega vários garfos)
+        registro.adquiriu(1, 1);
+        assertEquals(1, registro.getCiclos().size());
+        CicloEspera ciclo = registro.getCiclos().get(0);
+        assertArrayEquals(new int[] {0, 1}, ciclo.getFilosofos());
+        assertArrayEquals(new int[] {1, 0}, ciclo.getGarfos());
+        assertArrayEquals(new int[] {0}, registro.getAguardados(1));
+    }
+    
+    @Test
+    @DisplayName("Soltar e desistir devem remover arestas sem gerar ciclos falsos")
+    public void testSemCicloFalso() {
+        RegistroPosse registro = new RegistroPosse(2, 2, new RelogioManual());
+        
+        registro.adquiriu(0, 0);
+        registro.adquiriu(1, 1);
+        registro.aguardando(0, 1);
+        registro.desistiu(0, 1); // Prazo esgotado: F0 não espera mais
+        registro.aguardando(1, 0);
+        assertTrue(registro.getCiclos().isEmpty());
+        assertArrayEquals(new int[0], registro.getAguardados(0));
+        
+        registro.liberou(0, 0);
+        assertEquals(RegistroPosse.LIVRE, registro.getDono(0));
+        registro.adquiriu(1, 0);
+        assertEquals(1, registro.getDono(0));
+        registro.aguardando(0, 1); // F1 segura os dois e não espera nada
+        assertTrue(registro.getCiclos().isEmpty());
+        assertArrayEquals(new int[] {0}, registro.getEsperando(1));
+    }
+    
+    @Test
+    @DisplayName("Dono desconhecido não deve gerar arestas")
+    public void testDonoDesconhecido() {
+        RegistroPosse registro = new RegistroPosse(2, 2, new RelogioManual());
+        
+        registro.adquiriu(RegistroPosse.DESCONHECIDO, 0);
+        registro.aguardando(0, 0);
+        registro.adquiriu(0, 1);
+        registro.aguardando(RegistroPosse.DESCONHECIDO, 1);
+        
+        assertTrue(registro.getCiclos().isEmpty());
+        assertEquals(RegistroPosse.DESCONHECIDO, registro.getDono(0));
+        assertTrue(registro.getEstado().contains("Garfo 0: dono desconhecido"), registro.getEstado());
+        assertTrue(registro.getEstado().contains("esperam [0]"), registro.getEstado());
+    }
+}
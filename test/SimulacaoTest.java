@@ -0,0 +1,80 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Timeout;
+import static org.junit.jupiter.api.Assertions.*;
+
+import simulacao.ConfiguracaoSimulacao;
+import simulacao.EstrategiaIngenua;
+import simulacao.EstrategiaMesa;
+import simulacao.EstrategiaOrdemInversa;
+import simulacao.EstrategiaSemaforo;
+import simulacao.ResultadoSimulacao;
+import simulacao.Simulador;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Testes para o simulador por eventos discretos
+ * Valida determinismo, detecção de deadlock e as estratégias das Tarefas
+ */
+public class SimulacaoTest {
+    
+    @Test
+    @DisplayName("Mesma semente deve produzir o mesmo resultado")
+    public void testDeterminismo() {
+        ResultadoSimulacao a = new Simulador(new ConfiguracaoSimulacao().semente(7), new EstrategiaMesa()).executar();
+        ResultadoSimulacao b = new Simulador(new ConfiguracaoSimulacao().semente(7), new EstrategiaMesa()).executar();
+        
+        for (int i = 0; i < 5; i++) {
+            assertEquals(a.getRefeicoes(i), b.getRefeicoes(i), "Refeições do filósofo " + i + " devem ser iguais");
+        }
+    }
+    
+    @Test
+    @DisplayName("Uma hora simulada deve rodar em poucos segundos")
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    public void testHoraSimuladaRapida() {
+        ConfiguracaoSimulacao config = new ConfiguracaoSimulacao().duracao(3600000);
+        ResultadoSimulacao r = new Simulador(config, new EstrategiaOrdemInversa()).executar();
+        
+        assertEquals(3600000, r.getTempoSimuladoMs());
+        assertTrue(r.getTotalRefeicoes() > 1000, "Deveria ter muitas refeições em 1 hora simulada");
+    }
+    
+    @Test
+    @DisplayName("Tarefa 1 deve entrar em deadlock com intervalo entre garfos")
+    public void testDeadlockTarefa1() {
+        ConfiguracaoSimulacao config = new ConfiguracaoSimulacao()
+                .pensar(0, 10)
+                .comer(1, 10)
+                .intervaloEntreGarfos(1)
+                .duracao(3600000);
+        ResultadoSimulacao r = new Simulador(config, new EstrategiaIngenua()).executar();
+        
+        assertTrue(r.isDeadlock(), "Deadlock deveria ser detectado");
+        assertTrue(r.getTempoSimuladoMs() < 3600000, "Simulação deveria parar no deadlock");
+    }
+    
+    @Test
+    @DisplayName("Tarefas 2, 3 e 4 não devem entrar em deadlock")
+    public void testSemDeadlockSolucoes() {
+        ConfiguracaoSimulacao config = new ConfiguracaoSimulacao()
+                .pensar(0, 10)
+                .comer(1, 10)
+                .intervaloEntreGarfos(1)
+                .duracao(600000);
+        
+        ResultadoSimulacao[] resultados = {
+            new Simulador(config, new EstrategiaOrdemInversa()).executar(),
+            new Simulador(config, new EstrategiaSemaforo()).executar(),
+            new Simulador(config, new EstrategiaMesa()).executar()
+        };
+        
+        for (ResultadoSimulacao r : resultados) {
+            assertFalse(r.isDeadlock(), r.getEstrategia() + " não deveria ter deadlock");
+            for (int i = 0; i < 5; i++) {
+                assertTrue(r.getRefeicoes(i) > 0, r.getEstrategia() + ": filósofo " + i + " deveria ter comido");
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Timeout;
+import static org.junit.jupiter.api.Assertions.*;
+
+import comum.CicloEspera;
+import comum.RegistroPosse;
+import tarefa1.Filosofo;
+import tarefa1.Garfo;
+import tarefa1.VigiaDeadlock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Testes para Tarefa 1 - Deadlock
+ * Valida que o vigia encontra o ciclo e, no modo com recuperação, o desfaz
+ */
+public class Tarefa1Test {
+    
+    @Test
+    @DisplayName("Vigia deve preemptar uma vítima e a mesa deve continuar comendo")
+    @Timeout(value = 20, unit = TimeUnit.SECONDS)
+    public void testVigiaRecuperaDeadlock() throws InterruptedException {
+        int n = 3;
+        List<Filosofo> filosofos = criarMesa(n, true, 2);
+        List<Thread> threads = iniciar(filosofos);
+        VigiaDeadlock vigia = new VigiaDeadlock(filosofos, true, 1);
+        vigia.iniciar();
+        
+        // Pensar e comer por até 2 ms: todos pegam o esquerdo ao mesmo tempo logo
+        while (vigia.getDeteccoes().size() < 3 || minimoRefeicoes(filosofos) < 20) {
+            Thread.sleep(5);
+        }
+        for (Filosofo f : filosofos) {
+            f.parar();
+        }
+        for (Thread t : threads) {
+            t.join(2000);
+            assertFalse(t.isAlive(), "Nenhum filósofo pode ficar preso no modo com recuperação");
+        }
+        
+        int preempcoes = 0;
+        for (Filosofo f : filosofos) {
+            preempcoes += f.getVezesPreemptado();
+        }
+        assertTrue(preempcoes >= 1, "Deveria ter preemptado alguém");
+        for (VigiaDeadlock.Deteccao deteccao : vigia.getDeteccoes()) {
+            int[] ciclo = deteccao.getFilosofos();
+            assertEquals(n, ciclo.length, "No anel o ciclo passa por todos: " + deteccao);
+            for (int i = 0; i < n; i++) {
+                assertEquals((ciclo[i] + 1) % n, deteccao.getGarfos()[i], "Cada um espera o garfo direito");
+            }
+            assertNotEquals(VigiaDeadlock.Deteccao.SEM_VITIMA, deteccao.getVitima());
+        }
+    }
+    
+    @Test
+    @DisplayName("Vigia deve apontar o deadlock com synchronized sem tentar desfazê-lo")
+    @Timeout(value = 20, unit = TimeUnit.SECONDS)
+    public void testVigiaDetectaDeadlockClassico() throws InterruptedException {
+        int n = 2;
+        List<Filosofo> filosofos = criarMesa(n, false, 0); // Sem pensar nem comer: trava logo
+        List<Thread> threads = iniciar(filosofos);
+        VigiaDeadlock vigia = new VigiaDeadlock(filosofos, false, 1);
+        vigia.iniciar();
+        
+        while (vigia.getDeteccoes().isEmpty()) {
+            Thread.sleep(5);
+        }
+        VigiaDeadlock.Deteccao deteccao = vigia.getDeteccoes().get(0);
+        assertArrayEquals(new int[] {0, 1}, deteccao.getFilosofos());
+        assertArrayEquals(new int[] {1, 0}, deteccao.getGarfos());
+        assertEquals(VigiaDeadlock.Deteccao.SEM_VITIMA, deteccao.getVitima());
+        assertTrue(deteccao.getLatenciaNs() < TimeUnit.SECONDS.toNanos(1), deteccao.toString());
+        
+        Thread.sleep(50);
+        assertEquals(1, vigia.getDeteccoes().size(), "O mesmo ciclo não deve ser informado a cada rodada");
+        for (Thread t : threads) {
+            assertEquals(Thread.State.BLOCKED, t.getState(), "synchronized não é interrompível");
+        }
+        // As threads travadas são daemon e ficam para trás
+    }
+    
+    @Test
+    @DisplayName("RegistroPosse deve apontar o ciclo assim que o deadlock se forma")
+    @Timeout(value = 20, unit = TimeUnit.SECONDS)
+    public void testRegistroPosseDetectaDeadlock() throws InterruptedException {
+        int n = 2;
+        RegistroPosse registro = new RegistroPosse(n, n);
+        List<Filosofo> filosofos = criarMesa(n, false, 0, registro);
+        iniciar(filosofos);
+        
+        while (registro.getCiclos().isEmpty()) {
+            Thread.sleep(5);
+        }
+        CicloEspera ciclo = registro.getCiclos().get(0);
+        assertEquals(n, ciclo.tamanho(), ciclo.toString());
+        for (int i = 0; i < n; i++) {
+            int filosofo = ciclo.getFilosofos()[i];
+            assertEquals((filosofo + 1) % n, ciclo.getGarfos()[i], "Cada um espera o garfo direito");
+            assertEquals(filosofo, registro.getDono(filosofo), "E segura o esquerdo");
+        }
+        // As threads travadas são daemon e ficam para trás
+    }
+    
+    private static List<Filosofo> criarMesa(int n, boolean preemptivel, int maxMs) {
+        return criarMesa(n, preemptivel, maxMs, null);
+    }
+    
+    private static List<Filosofo> criarMesa(int n, boolean preemptivel, int maxMs, RegistroPosse registro) {
+        Garfo[] garfos = new Garfo[n];
+        for (int i = 0; i < n; i++) {
+            garfos[i] = new Garfo(i, registro);
+        }
+        List<Filosofo> filosofos = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            filosofos.add(new Filosofo(i, garfos[i], garfos[(i + 1) % n], preemptivel, 0, maxMs));
+        }
+        return filosofos;
+    }
+    
+    private static List<Thread> iniciar(List<Filosofo> filosofos) {
+        List<Thread> threads = new ArrayList<>();
+        for (Filosofo f : filosofos) {
+            Thread t = new Thread(f);
+            t.setDaemon(true);
+            t.start();
+            threads.add(t);
+        }
+        return threads;
+    }
+    
+    private static int minimoRefeicoes(List<Filosofo> filosofos) {
+        int minimo = Integer.MAX_VALUE;
+        for (Filosofo f : filosofos) {
+            minimo = Math.min(minimo, f.getContadorRefeicoes());
+        }
+        return minimo;
+    }
+}
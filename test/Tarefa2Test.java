@@ -200,4 +200,55 @@ public class Tarefa2Test {
             }
         });
     }
+    
+    @Test
+    @DisplayName("Garfo deve ser exclusivo entre pegar() e soltar()")
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    public void testGarfoExclusivo() throws InterruptedException {
+        Garfo garfo = new Garfo(0);
+        AtomicInteger pegouSegundo = new AtomicInteger(0);
+        
+        garfo.pegar();
+        Thread outro = new Thread(() -> {
+            garfo.pegar();
+            pegouSegundo.set(1);
+            garfo.soltar();
+        });
+        outro.start();
+        
+        Thread.sleep(300);
+        assertEquals(0, pegouSegundo.get(), "Outro filósofo não pode pegar garfo em uso");
+        
+        garfo.soltar();
+        outro.join(2000);
+        assertEquals(1, pegouSegundo.get(), "Garfo deveria ter sido pego após ser solto");
+        assertEquals(2, garfo.getVezesUsado());
+    }
+    
+    @Test
+    @DisplayName("Contadores do garfo não devem perder usos com vários filósofos disputando")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testGarfoContadoresSemPerda() throws InterruptedException {
+        Garfo garfo = new Garfo(0);
+        int numThreads = 4;
+        int usosPorThread = 20000;
+        
+        Thread[] threads = new Thread[numThreads];
+        for (int t = 0; t < numThreads; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < usosPorThread; i++) {
+                    garfo.pegar();
+                    garfo.soltar();
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        
+        assertEquals(numThreads * usosPorThread, garfo.getVezesUsado(),
+                "Só o dono do garfo escreve, então nenhum incremento pode se perder");
+        assertEquals(numThreads * usosPorThread, garfo.getHistogramaEspera().getTotal());
+    }
 }
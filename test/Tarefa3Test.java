@@ -3,9 +3,12 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Timeout;
 import static org.junit.jupiter.api.Assertions.*;
 
+import comum.RelogioManual;
 import tarefa3.Filosofo;
 import tarefa3.Garfo;
+import tarefa3.SemaforoAdaptativo;
 
+import java.util.List;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -237,4 +240,97 @@ public class Tarefa3Test {
             }
         });
     }
+    
+    @Test
+    @DisplayName("Garfo deve medir uso abaixo de 1 ms com o relógio injetado")
+    public void testGarfoRelogioManual() throws InterruptedException {
+        RelogioManual relogio = new RelogioManual();
+        Garfo garfo = new Garfo(0, relogio);
+        
+        garfo.pegar();
+        relogio.avancar(400_000); // 0,4 ms
+        garfo.soltar();
+        
+        assertEquals(40.0, garfo.getTaxaUtilizacao(1), 1e-9, "0,4 ms de uso em 1 ms = 40%");
+        assertEquals(0, garfo.getHistogramaEspera().getMaximo(), "Garfo livre: espera zero");
+    }
+    
+    @Test
+    @DisplayName("Semáforo adaptativo deve reduzir com espera alta e crescer com fila, até o máximo")
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    public void testSemaforoAdaptativo() throws InterruptedException {
+        Garfo garfo0 = new Garfo(0);
+        Garfo garfo1 = new Garfo(1);
+        SemaforoAdaptativo semaforo = new SemaforoAdaptativo(4, 1_000_000, List.of(garfo0, garfo1)); // Alvo: 1 ms
+        assertEquals(4, semaforo.availablePermits(), "Começa no máximo seguro");
+        
+        // Esperas de 10 ms nos garfos: diminuição multiplicativa 4 → 3 → 2 → 1 → 1
+        int[] esperado = {3, 2, 1, 1};
+        for (int limite : esperado) {
+            garfo0.getHistogramaEspera().registrar(10_000_000);
+            garfo1.getHistogramaEspera().registrar(10_000_000);
+            semaforo.ajustar();
+            assertEquals(limite, semaforo.getLimite());
+        }
+        assertEquals(1, semaforo.availablePermits());
+        
+        // Espera baixa e um filósofo parado no semáforo: aumento aditivo
+        semaforo.acquire();
+        Thread segundo = new Thread(() -> semaforo.acquireUninterruptibly());
+        segundo.start();
+        while (!semaforo.hasQueuedThreads()) {
+            Thread.sleep(1);
+        }
+        garfo0.getHistogramaEspera().registrar(100_000); // 0,1 ms
+        semaforo.ajustar();
+        segundo.join();
+        assertEquals(2, semaforo.getLimite(), "Com fila e espera baixa o limite cresce");
+        
+        // Sem fila não há motivo para crescer
+        semaforo.ajustar();
+        assertEquals(2, semaforo.getLimite());
+        
+        // Com fila cresce de 1 em 1 (cada novo filósofo é admitido), mas para no máximo
+        Thread[] extras = new Thread[3];
+        for (int i = 0; i < extras.length; i++) {
+            extras[i] = new Thread(() -> semaforo.acquireUninterruptibly());
+            extras[i].start();
+            while (!semaforo.hasQueuedThreads()) {
+                Thread.sleep(1);
+            }
+            semaforo.ajustar();
+            if (i < 2) {
+                extras[i].join();
+            }
+        }
+        assertEquals(4, semaforo.getLimite(), "Limite nunca passa do máximo seguro");
+        assertTrue(extras[2].isAlive(), "Quinto filósofo continua barrado");
+        
+        semaforo.release(); // Um dos quatro admitidos sai
+        extras[2].join();
+        semaforo.release(4);
+        assertEquals(4, semaforo.availablePermits());
+        assertEquals(1, semaforo.getMenorLimite());
+        assertEquals(4, semaforo.getMaiorLimite());
+    }
+    
+    @Test
+    @DisplayName("Limite ajustado à mão deve valer na hora e respeitar o máximo seguro")
+    public void testSemaforoLimiteManual() {
+        SemaforoAdaptativo semaforo = new SemaforoAdaptativo(4, 1_000_000, List.of(new Garfo(0)));
+        
+        semaforo.setLimite(2);
+        assertEquals(2, semaforo.getLimite());
+        assertEquals(2, semaforo.availablePermits());
+        assertThrows(IllegalArgumentException.class, () -> semaforo.setLimite(5));
+        assertThrows(IllegalArgumentException.class, () -> semaforo.setLimite(0));
+        
+        semaforo.acquireUninterruptibly(2);
+        semaforo.setLimite(1); // Os dois admitidos terminam normalmente
+        semaforo.release(2);
+        assertEquals(1, semaforo.availablePermits());
+        semaforo.setLimite(4);
+        assertEquals(4, semaforo.availablePermits());
+        assertEquals(1, semaforo.getMenorLimite());
+    }
 }
@@ -3,10 +3,46 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Timeout;
 import static org.junit.jupiter.api.Assertions.*;
 
+import comum.EstrategiaEspera;
+import comum.RegistroJmx;
+import comum.RegistroPosse;
+import comum.Relogio;
+import comum.RelogioManual;
+import comum.Topologia;
+import tarefa4.Arbitro;
+import tarefa4.ArbitroRegistrado;
+import tarefa4.FilaIndexada;
 import tarefa4.Filosofo;
+import tarefa4.FilosofoAssincrono;
+import tarefa4.HeapIndexado;
 import tarefa4.Mesa;
+import tarefa4.MesaCondicoes;
+import tarefa4.MesaAssincrona;
+import tarefa4.MesaLockFree;
+import tarefa4.MesaMBean;
+import tarefa4.MesaParticionada;
+import tarefa4.MesaRecursos;
+import tarefa4.Permissao;
+import tarefa4.ResultadoTentativa;
 
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import javax.management.Attribute;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.RuntimeMBeanException;
 
 /**
  * Testes TDD para Tarefa 4 - Monitores
@@ -296,4 +332,789 @@ public class Tarefa4Test {
             }
         });
     }
+    
+    @Test
+    @DisplayName("MesaCondicoes deve permitir que todos comam sem deadlock")
+    @Timeout(value = 15, unit = TimeUnit.SECONDS)
+    public void testMesaCondicoesTodosComem() {
+        MesaCondicoes mesa = new MesaCondicoes(5);
+        Thread[] threads = new Thread[5];
+        Filosofo[] filosofos = new Filosofo[5];
+        
+        for (int i = 0; i < 5; i++) {
+            filosofos[i] = new Filosofo(i, mesa);
+            threads[i] = new Thread(filosofos[i]);
+        }
+        
+        assertDoesNotThrow(() -> {
+            for (Thread t : threads) {
+                t.start();
+            }
+            
+            Thread.sleep(7000);
+            
+            for (Filosofo f : filosofos) {
+                f.parar();
+            }
+            
+            for (Thread t : threads) {
+                t.join(3000);
+            }
+            
+            for (int i = 0; i < 5; i++) {
+                assertFalse(threads[i].isAlive(), "Thread deveria ter parado");
+                assertTrue(mesa.getContadorRefeicoes(i) > 0, 
+                    "Filósofo " + i + " deveria ter comido");
+            }
+        });
+    }
+    
+    @Test
+    @DisplayName("MesaLockFree deve garantir exclusão mútua dos garfos")
+    @Timeout(value = 15, unit = TimeUnit.SECONDS)
+    public void testMesaLockFreeExclusaoMutua() throws InterruptedException {
+        // 130 lugares: garfos espalhados em 3 palavras, exercita a fronteira
+        int n = 130;
+        MesaLockFree mesa = new MesaLockFree(n);
+        AtomicIntegerArray emUso = new AtomicIntegerArray(n);
+        AtomicInteger violacoes = new AtomicInteger(0);
+        Thread[] threads = new Thread[n];
+        
+        for (int i = 0; i < n; i++) {
+            final int id = i;
+            threads[i] = new Thread(() -> {
+                try {
+                    for (int k = 0; k < 200; k++) {
+                        mesa.pegarGarfos(id);
+                        if (emUso.incrementAndGet(id) != 1 || emUso.incrementAndGet((id + 1) % n) != 1) {
+                            violacoes.incrementAndGet();
+                        }
+                        emUso.decrementAndGet(id);
+                        emUso.decrementAndGet((id + 1) % n);
+                        mesa.soltarGarfos(id);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            threads[i].start();
+        }
+        
+        for (Thread t : threads) {
+            t.join(10000);
+            assertFalse(t.isAlive(), "Thread deveria ter terminado");
+        }
+        
+        assertEquals(0, violacoes.get(), "Dois filósofos usaram o mesmo garfo");
+        for (int i = 0; i < n; i++) {
+            assertEquals(200, mesa.getContadorRefeicoes(i));
+        }
+    }
+    
+    @Test
+    @DisplayName("MesaParticionada deve funcionar com faixas e fronteiras")
+    @Timeout(value = 15, unit = TimeUnit.SECONDS)
+    public void testMesaParticionadaFronteiras() throws InterruptedException {
+        int n = 20;
+        MesaParticionada mesa = new MesaParticionada(n, 4);
+        AtomicIntegerArray emUso = new AtomicIntegerArray(n);
+        AtomicInteger violacoes = new AtomicInteger(0);
+        Thread[] threads = new Thread[n];
+        
+        assertEquals(4, mesa.getNumFaixas(), "Deve ter 4 faixas");
+        
+        for (int i = 0; i < n; i++) {
+            final int id = i;
+            threads[i] = new Thread(() -> {
+                try {
+                    for (int k = 0; k < 200; k++) {
+                        mesa.pegarGarfos(id);
+                        if (emUso.incrementAndGet(id) != 1 || emUso.incrementAndGet((id + 1) % n) != 1) {
+                            violacoes.incrementAndGet();
+                        }
+                        emUso.decrementAndGet(id);
+                        emUso.decrementAndGet((id + 1) % n);
+                        mesa.soltarGarfos(id);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            threads[i].start();
+        }
+        
+        for (Thread t : threads) {
+            t.join(10000);
+            assertFalse(t.isAlive(), "Thread deveria ter terminado (sem deadlock entre faixas)");
+        }
+        
+        assertEquals(0, violacoes.get(), "Dois filósofos usaram o mesmo garfo");
+        for (int i = 0; i < n; i++) {
+            assertEquals(200, mesa.getContadorRefeicoes(i));
+        }
+    }
+    
+    @Test
+    @DisplayName("FilaIndexada deve manter ordem FIFO e remover por ID")
+    public void testFilaIndexada() {
+        FilaIndexada fila = new FilaIndexada(5);
+        
+        assertTrue(fila.isVazia(), "Fila deve iniciar vazia");
+        assertEquals(FilaIndexada.VAZIA, fila.primeiro());
+        
+        fila.adicionar(3);
+        fila.adicionar(1);
+        fila.adicionar(4);
+        fila.adicionar(1); // Repetido: ignorado
+        assertEquals(3, fila.tamanho());
+        assertEquals(3, fila.primeiro());
+        
+        assertTrue(fila.remover(1), "Deve remover do meio da fila");
+        assertFalse(fila.remover(1), "Não deve remover quem não está na fila");
+        assertEquals(3, fila.removerPrimeiro());
+        assertEquals(4, fila.primeiro());
+        
+        fila.adicionar(0);
+        assertEquals(4, fila.removerPrimeiro());
+        assertEquals(0, fila.removerPrimeiro());
+        assertTrue(fila.isVazia(), "Fila deve terminar vazia");
+        assertEquals(FilaIndexada.VAZIA, fila.removerPrimeiro());
+    }
+    
+    @Test
+    @DisplayName("HeapIndexado deve ordenar pela chave e coletar só os menores que o limite")
+    public void testHeapIndexado() {
+        HeapIndexado heap = new HeapIndexado(8);
+        int[] destino = new int[8];
+        int[] pilha = new int[8];
+        
+        assertTrue(heap.isVazio(), "Heap deve iniciar vazio");
+        assertEquals(HeapIndexado.VAZIO, heap.primeiro());
+        long[] chaves = {50, 10, 70, 30, 20, 60, 40, 0};
+        for (int id = 0; id < 7; id++) {
+            heap.adicionar(id, chaves[id]);
+        }
+        heap.adicionar(1, 999); // Repetido: ignorado
+        assertEquals(7, heap.tamanho());
+        assertEquals(1, heap.primeiro());
+        
+        int n = heap.coletarMenoresQue(35, destino, pilha);
+        assertEquals(1, destino[0], "O menor vem primeiro");
+        int[] menores = Arrays.copyOf(destino, n);
+        Arrays.sort(menores);
+        assertArrayEquals(new int[] {1, 3, 4}, menores);
+        
+        assertTrue(heap.remover(1), "Deve remover a raiz");
+        assertTrue(heap.remover(5), "Deve remover do meio");
+        assertFalse(heap.remover(5), "Não deve remover quem não está no heap");
+        assertEquals(4, heap.primeiro());
+        heap.adicionar(7, chaves[7]);
+        assertEquals(7, heap.primeiro());
+        assertEquals(0, heap.coletarMenoresQue(0, destino, pilha));
+        
+        long anterior = Long.MIN_VALUE;
+        while (!heap.isVazio()) {
+            int id = heap.primeiro();
+            assertTrue(chaves[id] >= anterior, "Deve sair em ordem de chave");
+            anterior = chaves[id];
+            heap.remover(id);
+        }
+    }
+    
+    @Test
+    @DisplayName("Mesa deve medir a espera com o relógio injetado")
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    public void testMesaRelogioManual() throws InterruptedException {
+        RelogioManual relogio = new RelogioManual();
+        MesaCondicoes mesa = new MesaCondicoes(5, relogio);
+        
+        mesa.pegarGarfos(0); // Sem disputa
+        Thread vizinho = new Thread(() -> {
+            try {
+                mesa.pegarGarfos(1); // Garfo 1 está com o filósofo 0
+                mesa.soltarGarfos(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        vizinho.start();
+        while (vizinho.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+        
+        relogio.avancar(250_000); // 0,25 ms
+        mesa.soltarGarfos(0);
+        vizinho.join();
+        
+        assertEquals(0.0, mesa.getTempoMedioEspera(0), 1e-9);
+        assertEquals(0.25, mesa.getTempoMedioEspera(1), 1e-9, "Espera abaixo de 1 ms não pode virar 0");
+        assertEquals(250_000, mesa.getHistogramaEspera(1).getMaximo());
+    }
+    
+    @Test
+    @DisplayName("Todas as Mesas devem garantir exclusão mútua numa grade")
+    @Timeout(value = 20, unit = TimeUnit.SECONDS)
+    public void testMesasEmGrade() throws InterruptedException {
+        Topologia grade = Topologia.grade(4, 4); // Lugares internos com 4 garfos
+        Arbitro[] mesas = {
+            new Mesa(grade), new MesaCondicoes(grade), new MesaLockFree(grade), new MesaParticionada(grade, 3)
+        };
+        
+        for (Arbitro mesa : mesas) {
+            int n = grade.getNumLugares();
+            AtomicIntegerArray emUso = new AtomicIntegerArray(grade.getNumGarfos());
+            AtomicInteger violacoes = new AtomicInteger(0);
+            Thread[] threads = new Thread[n];
+            
+            for (int i = 0; i < n; i++) {
+                final int id = i;
+                threads[i] = new Thread(() -> {
+                    try {
+                        for (int k = 0; k < 200; k++) {
+                            mesa.pegarGarfos(id);
+                            for (int garfo : grade.garfosDe(id)) {
+                                if (emUso.incrementAndGet(garfo) != 1) {
+                                    violacoes.incrementAndGet();
+                                }
+                            }
+                            for (int garfo : grade.garfosDe(id)) {
+                                emUso.decrementAndGet(garfo);
+                            }
+                            mesa.soltarGarfos(id);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                threads[i].start();
+            }
+            
+            String nome = mesa.getClass().getSimpleName();
+            for (Thread t : threads) {
+                t.join(10000);
+                assertFalse(t.isAlive(), nome + ": thread deveria ter terminado");
+            }
+            assertEquals(0, violacoes.get(), nome + ": dois filósofos usaram o mesmo garfo");
+            for (int i = 0; i < n; i++) {
+                assertEquals(200, mesa.getContadorRefeicoes(i), nome);
+            }
+        }
+    }
+    
+    @Test
+    @DisplayName("MesaRecursos deve pegar conjuntos pequenos e grandes sem conflito")
+    @Timeout(value = 20, unit = TimeUnit.SECONDS)
+    public void testMesaRecursosConjuntos() throws InterruptedException {
+        int recursos = 150; // 3 palavras do bitmask
+        MesaRecursos mesa = new MesaRecursos(recursos);
+        AtomicIntegerArray emUso = new AtomicIntegerArray(recursos);
+        AtomicInteger violacoes = new AtomicInteger(0);
+        Thread[] threads = new Thread[8];
+        
+        for (int t = 0; t < threads.length; t++) {
+            // Threads pares: 3 recursos; ímpares: 40 recursos espalhados (fila dos grandes)
+            int tamanho = t % 2 == 0 ? 3 : 40;
+            int[] ids = new int[tamanho];
+            for (int i = 0; i < tamanho; i++) {
+                ids[i] = (t * 17 + i * 37) % recursos;
+            }
+            MesaRecursos.Conjunto conjunto = mesa.preparar(ids);
+            threads[t] = new Thread(() -> {
+                try {
+                    for (int k = 0; k < 300; k++) {
+                        mesa.pegarRecursos(conjunto);
+                        for (int id : conjunto.getIds()) {
+                            if (emUso.incrementAndGet(id) != 1) {
+                                violacoes.incrementAndGet();
+                            }
+                        }
+                        for (int id : conjunto.getIds()) {
+                            emUso.decrementAndGet(id);
+                        }
+                        mesa.soltarRecursos(conjunto);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            threads[t].start();
+        }
+        
+        for (Thread t : threads) {
+            t.join(15000);
+            assertFalse(t.isAlive(), "Thread deveria ter terminado (sem deadlock)");
+        }
+        assertEquals(0, violacoes.get(), "Dois pedidos usaram o mesmo recurso");
+        assertEquals(4 * 300, mesa.getAquisicoesPequenas());
+        assertEquals(4 * 300, mesa.getAquisicoesGrandes());
+    }
+    
+    @Test
+    @DisplayName("MesaRecursos deve devolver a reserva parcial ao ser interrompida")
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    public void testMesaRecursosInterrupcao() throws InterruptedException {
+        MesaRecursos mesa = new MesaRecursos(100, 4);
+        MesaRecursos.Conjunto bloqueio = mesa.pegarRecursos(90);
+        
+        int[] ids = new int[20];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = i * 5; // 0, 5, ..., 95: reserva a maioria e fica esperando o 90
+        }
+        Thread grande = new Thread(() -> {
+            try {
+                mesa.pegarRecursos(ids);
+                fail("Não deveria ter conseguido o recurso 90");
+            } catch (InterruptedException e) {
+                // Esperado
+            }
+        });
+        grande.start();
+        while (!mesa.isEmUso(0)) {
+            Thread.sleep(1);
+        }
+        grande.interrupt();
+        grande.join();
+        
+        for (int id : ids) {
+            assertEquals(id == 90, mesa.isEmUso(id), "Recurso " + id);
+        }
+        mesa.soltarRecursos(bloqueio);
+        assertFalse(mesa.isEmUso(90));
+        assertThrows(IllegalStateException.class, () -> mesa.soltarRecursos(bloqueio));
+    }
+    
+    @Test
+    @DisplayName("Mesa e MesaLockFree devem funcionar com cada estratégia de espera")
+    @Timeout(value = 30, unit = TimeUnit.SECONDS)
+    public void testEstrategiasEspera() throws InterruptedException {
+        assertEquals("hibrida:10:5", EstrategiaEspera.de("hibrida:10:5").toString());
+        assertSame(EstrategiaEspera.GIRAR, EstrategiaEspera.de("girar"));
+        assertThrows(IllegalArgumentException.class, () -> EstrategiaEspera.de("cochilar"));
+        
+        int n = 5;
+        EstrategiaEspera[] estrategias = {
+            EstrategiaEspera.BLOQUEAR, EstrategiaEspera.de("hibrida:10:5"), EstrategiaEspera.GIRAR
+        };
+        for (EstrategiaEspera estrategia : estrategias) {
+            Arbitro[] mesas = {
+                new Mesa(Topologia.anel(n), Relogio.SISTEMA, estrategia),
+                new Mesa(Topologia.anel(n), Relogio.SISTEMA, estrategia, true),
+                new MesaLockFree(Topologia.anel(n), Relogio.SISTEMA, estrategia)
+            };
+            for (Arbitro mesa : mesas) {
+                AtomicIntegerArray emUso = new AtomicIntegerArray(n);
+                AtomicInteger violacoes = new AtomicInteger(0);
+                Thread[] threads = new Thread[n];
+                for (int i = 0; i < n; i++) {
+                    final int id = i;
+                    threads[i] = new Thread(() -> {
+                        try {
+                            for (int k = 0; k < 100; k++) {
+                                mesa.pegarGarfos(id);
+                                if (emUso.incrementAndGet(id) != 1 || emUso.incrementAndGet((id + 1) % n) != 1) {
+                                    violacoes.incrementAndGet();
+                                }
+                                emUso.decrementAndGet(id);
+                                emUso.decrementAndGet((id + 1) % n);
+                                mesa.soltarGarfos(id);
+                            }
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    });
+                    threads[i].start();
+                }
+                for (Thread t : threads) {
+                    t.join(10000);
+                    assertFalse(t.isAlive(), estrategia + " em " + mesa.getClass().getSimpleName() + ": travou");
+                }
+                assertEquals(0, violacoes.get(), "Dois filósofos usaram o mesmo garfo com " + estrategia);
+                for (int i = 0; i < n; i++) {
+                    assertEquals(100, mesa.getContadorRefeicoes(i));
+                }
+            }
+        }
+    }
+    
+    @Test
+    @DisplayName("Mesa deve tirar da fila quem é interrompido enquanto gira")
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    public void testMesaGirandoInterrompida() throws InterruptedException {
+        Mesa mesa = new Mesa(Topologia.anel(5), Relogio.SISTEMA, EstrategiaEspera.GIRAR);
+        mesa.pegarGarfos(0); // Segura os garfos 0 e 1
+        
+        AtomicBoolean interrompido = new AtomicBoolean(false);
+        Thread vizinho = new Thread(() -> {
+            try {
+                mesa.pegarGarfos(1); // Precisa do garfo 1: fica girando
+            } catch (InterruptedException e) {
+                interrompido.set(true);
+            }
+        });
+        vizinho.start();
+        while (!mesa.getEstadoMesa().endsWith("Fila: 1 filósofo(s)")) {
+            Thread.sleep(1);
+        }
+        vizinho.interrupt();
+        vizinho.join();
+        
+        assertTrue(interrompido.get(), "Deveria ter saído com InterruptedException");
+        assertTrue(mesa.getEstadoMesa().endsWith("Fila: 0 filósofo(s)"), mesa.getEstadoMesa());
+        mesa.soltarGarfos(0);
+        mesa.pegarGarfos(1); // A fila vazia não pode travar o próximo
+        mesa.soltarGarfos(1);
+    }
+    
+    @Test
+    @DisplayName("tryPegarGarfos deve recusar com o motivo e nunca deixar o filósofo na fila")
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    public void testTryPegarGarfos() throws InterruptedException {
+        Mesa mesa = new Mesa(5);
+        mesa.pegarGarfos(0); // Segura os garfos 0 e 1
+        
+        assertEquals(ResultadoTentativa.GARFOS_OCUPADOS, mesa.tryPegarGarfos(1));
+        assertEquals(ResultadoTentativa.GARFOS_OCUPADOS, mesa.tryPegarGarfos(4));
+        
+        long antes = System.nanoTime();
+        assertEquals(ResultadoTentativa.TEMPO_ESGOTADO, mesa.tryPegarGarfos(1, 50, TimeUnit.MILLISECONDS));
+        assertTrue(System.nanoTime() - antes >= TimeUnit.MILLISECONDS.toNanos(50), "Deveria ter esperado o prazo");
+        assertTrue(mesa.getEstadoMesa().endsWith("Fila: 0 filósofo(s)"), mesa.getEstadoMesa());
+        
+        // O 1 espera sem prazo e vira o primeiro da fila: o 3 tem os garfos livres, mas não a vez
+        Thread vizinho = new Thread(() -> {
+            try {
+                mesa.pegarGarfos(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        vizinho.start();
+        while (!mesa.getEstadoMesa().endsWith("Fila: 1 filósofo(s)")) {
+            Thread.sleep(1);
+        }
+        assertEquals(ResultadoTentativa.FORA_DA_VEZ, mesa.tryPegarGarfos(3));
+        assertEquals(ResultadoTentativa.TEMPO_ESGOTADO, mesa.tryPegarGarfos(3, 20, TimeUnit.MILLISECONDS));
+        assertTrue(mesa.getEstadoMesa().endsWith("Fila: 1 filósofo(s)"), "Só o 1 continua na fila");
+        
+        mesa.soltarGarfos(0);
+        vizinho.join();
+        assertEquals(ResultadoTentativa.OBTIDOS, mesa.tryPegarGarfos(3, 1, TimeUnit.SECONDS));
+        assertEquals(0, mesa.getContadorRefeicoes(3));
+        mesa.soltarGarfos(1);
+        mesa.soltarGarfos(3);
+        assertEquals(1, mesa.getContadorRefeicoes(3));
+        assertTrue(mesa.tryPegarGarfos(0).isSucesso(), "Mesa vazia: deveria conseguir");
+    }
+    
+    @Test
+    @DisplayName("Mesa com entrega direta deve passar os garfos a quem espera antes de acordá-lo")
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    public void testMesaEntregaDireta() throws InterruptedException {
+        Mesa mesa = new Mesa(Topologia.anel(5), Relogio.SISTEMA, EstrategiaEspera.BLOQUEAR, true);
+        assertTrue(mesa.isEntregaDireta());
+        mesa.pegarGarfos(0); // Segura os garfos 0 e 1
+        
+        CountDownLatch comendo = new CountDownLatch(1);
+        CountDownLatch terminar = new CountDownLatch(1);
+        Thread vizinho = new Thread(() -> {
+            try {
+                mesa.pegarGarfos(1);
+                comendo.countDown();
+                terminar.await();
+                mesa.soltarGarfos(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        vizinho.start();
+        while (!mesa.getEstadoMesa().endsWith("Fila: 1 filósofo(s)")) {
+            Thread.sleep(1);
+        }
+        
+        mesa.soltarGarfos(0);
+        // Ao voltar de soltarGarfos os garfos já são do 1, acordado ou não: ninguém fura a vez
+        assertTrue(mesa.getEstadoMesa().endsWith("Fila: 0 filósofo(s)"), mesa.getEstadoMesa());
+        assertEquals(ResultadoTentativa.GARFOS_OCUPADOS, mesa.tryPegarGarfos(2));
+        assertEquals(ResultadoTentativa.GARFOS_OCUPADOS, mesa.tryPegarGarfos(0));
+        comendo.await();
+        
+        // Interrompido na espera: sai da fila e não deixa garfo preso
+        AtomicBoolean interrompido = new AtomicBoolean(false);
+        Thread outro = new Thread(() -> {
+            try {
+                mesa.pegarGarfos(2); // Precisa do garfo 2, com o 1
+            } catch (InterruptedException e) {
+                interrompido.set(true);
+            }
+        });
+        outro.start();
+        while (!mesa.getEstadoMesa().endsWith("Fila: 1 filósofo(s)")) {
+            Thread.sleep(1);
+        }
+        outro.interrupt();
+        outro.join();
+        assertTrue(interrompido.get(), "Deveria ter saído com InterruptedException");
+        assertEquals(ResultadoTentativa.TEMPO_ESGOTADO, mesa.tryPegarGarfos(2, 20, TimeUnit.MILLISECONDS));
+        
+        terminar.countDown();
+        vizinho.join();
+        assertEquals(1, mesa.getContadorRefeicoes(1));
+        assertEquals(0, mesa.getContadorRefeicoes(2), "Desistências não contam refeição");
+        assertEquals(ResultadoTentativa.OBTIDOS, mesa.tryPegarGarfos(2, 1, TimeUnit.SECONDS));
+        mesa.soltarGarfos(2);
+    }
+    
+    @Test
+    @DisplayName("Entrega direta deve respeitar a regra do dobro de espera")
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    public void testMesaEntregaDiretaPrioridade() throws InterruptedException {
+        for (boolean envelhecido : new boolean[] {true, false}) {
+            RelogioManual relogio = new RelogioManual();
+            Mesa mesa = new Mesa(Topologia.anel(8), relogio, EstrategiaEspera.BLOQUEAR, true);
+            mesa.pegarGarfos(2);
+            relogio.avancar(1000);
+            mesa.soltarGarfos(2); // O 2 comeu em t=1000; o 5 ainda não comeu (t=0)
+            mesa.pegarGarfos(1); // Garfos 1 e 2
+            mesa.pegarGarfos(6); // Garfos 6 e 7
+            
+            Thread primeiro = esperarNaFila(mesa, 2, 1); // Garfo 2 ocupado: primeiro da fila
+            Thread atrasado = esperarNaFila(mesa, 5, 2); // Garfo 6 ocupado: atrás do 2
+            if (!envelhecido) {
+                relogio.avancar(10_000); // 11000 > 2 * 10000: o 5 não passa à frente
+            }
+            mesa.soltarGarfos(6);
+            
+            if (envelhecido) {
+                // 1000 > 2 * 0: o 5 recebe os garfos antes do primeiro da fila
+                atrasado.join();
+                assertTrue(mesa.getEstadoMesa().endsWith("Fila: 1 filósofo(s)"), mesa.getEstadoMesa());
+                assertEquals(ResultadoTentativa.GARFOS_OCUPADOS, mesa.tryPegarGarfos(4));
+                mesa.soltarGarfos(1);
+            } else {
+                assertTrue(mesa.getEstadoMesa().endsWith("Fila: 2 filósofo(s)"), mesa.getEstadoMesa());
+                assertEquals(ResultadoTentativa.FORA_DA_VEZ, mesa.tryPegarGarfos(6));
+                mesa.soltarGarfos(1); // Serve o 2 e, com ele fora da fila, o 5
+                atrasado.join();
+            }
+            primeiro.join();
+            assertTrue(mesa.getEstadoMesa().endsWith("Fila: 0 filósofo(s)"), mesa.getEstadoMesa());
+        }
+    }
+    
+    @Test
+    @DisplayName("Fator de envelhecimento trocado por JMX deve valer na hora")
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    public void testMesaFatorEnvelhecimentoJmx() throws Exception {
+        RelogioManual relogio = new RelogioManual();
+        Mesa mesa = new Mesa(Topologia.anel(8), relogio, EstrategiaEspera.BLOQUEAR, true);
+        mesa.pegarGarfos(2);
+        relogio.avancar(1000);
+        mesa.soltarGarfos(2);
+        mesa.pegarGarfos(1);
+        mesa.pegarGarfos(6);
+        Thread primeiro = esperarNaFila(mesa, 2, 1);
+        Thread atrasado = esperarNaFila(mesa, 5, 2);
+        relogio.avancar(10_000);
+        mesa.soltarGarfos(6); // 11000 > 2 * 10000? Não: o 5 continua atrás do 2
+        assertEquals(2, mesa.getTamanhoFila());
+        
+        MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+        RegistroJmx.registrar("Mesa", "teste", mesa, MesaMBean.class);
+        ObjectName nome = RegistroJmx.nome("Mesa", "teste");
+        try {
+            assertEquals(2.0, servidor.getAttribute(nome, "FatorEnvelhecimento"));
+            assertThrows(RuntimeMBeanException.class,
+                    () -> servidor.setAttribute(nome, new Attribute("FatorEnvelhecimento", 0.5)));
+            
+            servidor.setAttribute(nome, new Attribute("FatorEnvelhecimento", 1.0)); // 11000 > 1 * 10000
+            atrasado.join();
+            assertEquals(1, servidor.getAttribute(nome, "TamanhoFila"));
+            assertEquals(2L, servidor.getAttribute(nome, "RefeicoesTotal")); // O 2 e o 6 já soltaram
+        } finally {
+            servidor.unregisterMBean(nome);
+        }
+        mesa.soltarGarfos(1);
+        primeiro.join();
+        assertEquals(0, mesa.getTamanhoFila());
+    }
+    
+    private static Thread esperarNaFila(Mesa mesa, int id, int tamanhoFila) throws InterruptedException {
+        Thread thread = new Thread(() -> {
+            try {
+                mesa.pegarGarfos(id);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        thread.start();
+        while (!mesa.getEstadoMesa().endsWith("Fila: " + tamanhoFila + " filósofo(s)")) {
+            Thread.sleep(1);
+        }
+        return thread;
+    }
+    
+    @Test
+    @DisplayName("MesaAssincrona deve entregar os garfos a quem tem a vez ao soltar")
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    public void testMesaAssincronaEntrega() throws InterruptedException {
+        MesaAssincrona mesa = new MesaAssincrona(5);
+        Permissao p0 = mesa.pedirGarfos(0).join(); // Garfos 0 e 1 livres: concedido na hora
+        
+        CompletableFuture<Permissao> f1 = mesa.pedirGarfos(1); // Precisa do garfo 1
+        assertFalse(f1.isDone());
+        CompletableFuture<Permissao> f3 = mesa.pedirGarfos(3); // Garfos 3 e 4 livres, ninguém antes
+        assertTrue(f3.isDone());
+        CompletableFuture<Permissao> f2 = mesa.pedirGarfos(2); // Garfo 3 ocupado e o 1 pediu o 2 antes
+        assertFalse(f2.isDone());
+        assertThrows(IllegalStateException.class, () -> mesa.pedirGarfos(1), "Pedido em dobro");
+        
+        f1.cancel(false);
+        assertEquals(1, mesa.getPedidosPendentes(), "Cancelado sai da mesa");
+        
+        f3.join().soltar(); // Quem solta entrega o garfo 3 ao 2
+        assertTrue(f2.isDone(), "Deveria ter sido concedido por quem soltou");
+        assertEquals(2, f2.join().getIdFilosofo());
+        
+        p0.soltar();
+        p0.soltar(); // Não faz nada
+        assertEquals(1, mesa.getContadorRefeicoes(0));
+        f2.join().soltar();
+        assertEquals(0, mesa.getPedidosPendentes());
+        
+        mesa.pegarGarfos(1); // Também serve como Arbitro bloqueante
+        mesa.soltarGarfos(1);
+        assertThrows(IllegalStateException.class, () -> mesa.soltarGarfos(1));
+        assertEquals(1, mesa.getContadorRefeicoes(1), "O pedido cancelado não conta como refeição");
+    }
+    
+    @Test
+    @DisplayName("MesaAssincrona deve atender 10000 filósofos com um executor de 2 threads")
+    @Timeout(value = 30, unit = TimeUnit.SECONDS)
+    public void testMesaAssincronaMilhares() throws Exception {
+        int n = 10000;
+        int refeicoes = 20;
+        MesaAssincrona mesa = new MesaAssincrona(n);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        AtomicIntegerArray emUso = new AtomicIntegerArray(n);
+        AtomicInteger violacoes = new AtomicInteger(0);
+        
+        try {
+            CompletableFuture<?>[] fins = new CompletableFuture<?>[n];
+            for (int i = 0; i < n; i++) {
+                fins[i] = comerAssincrono(mesa, i, refeicoes, executor, emUso, violacoes);
+            }
+            CompletableFuture.allOf(fins).get(25, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        assertEquals(0, violacoes.get(), "Dois filósofos usaram o mesmo garfo");
+        assertEquals(0, mesa.getPedidosPendentes());
+        for (int i = 0; i < n; i++) {
+            assertEquals(refeicoes, mesa.getContadorRefeicoes(i));
+        }
+    }
+    
+    @Test
+    @DisplayName("FilosofoAssincrono deve terminar com erro e soltar os garfos se o executor recusar")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testFilosofoAssincronoExecutorDesligado() throws Exception {
+        MesaAssincrona mesa = new MesaAssincrona(3);
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        FilosofoAssincrono filosofo = new FilosofoAssincrono(0, mesa, executor, 1, 3);
+        
+        filosofo.iniciar();
+        while (mesa.getContadorRefeicoes(0) < 3) {
+            Thread.sleep(1);
+        }
+        executor.shutdown(); // Os passos já agendados rodam; o próximo é recusado
+        
+        ExecutionException erro = assertThrows(ExecutionException.class,
+                () -> filosofo.getTermino().get(5, TimeUnit.SECONDS));
+        assertTrue(erro.getCause() instanceof RejectedExecutionException);
+        for (int vizinho = 1; vizinho < 3; vizinho++) {
+            Permissao permissao = mesa.pedirGarfos(vizinho).get(1, TimeUnit.SECONDS);
+            permissao.soltar();
+        }
+    }
+    
+    @Test
+    @DisplayName("FilosofoAssincrono não deve contar refeição se o executor recusar o comer")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testFilosofoAssincronoRecusaAntesDeComer() throws Exception {
+        MesaAssincrona mesa = new MesaAssincrona(3);
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        FilosofoAssincrono filosofo = new FilosofoAssincrono(0, mesa, executor, 1, 2);
+        Permissao vizinho = mesa.pedirGarfos(1).get(1, TimeUnit.SECONDS);
+        
+        filosofo.iniciar();
+        while (mesa.getPedidosPendentes() == 0) {
+            Thread.sleep(1);
+        }
+        executor.shutdown();
+        vizinho.soltar(); // Concede ao filósofo 0, mas o executor recusa o comer
+        
+        ExecutionException erro = assertThrows(ExecutionException.class,
+                () -> filosofo.getTermino().get(5, TimeUnit.SECONDS));
+        assertTrue(erro.getCause() instanceof RejectedExecutionException);
+        assertEquals(0, mesa.getContadorRefeicoes(0), "Refeição recusada não deve contar");
+        mesa.pedirGarfos(2).get(1, TimeUnit.SECONDS).soltar();
+    }
+    
+    @Test
+    @DisplayName("ArbitroRegistrado deve informar posse e espera sem apontar ciclos")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testArbitroRegistrado() throws InterruptedException {
+        RegistroPosse registro = new RegistroPosse(3, 3);
+        Arbitro mesa = new ArbitroRegistrado(new Mesa(3), registro);
+        int[] garfos0 = mesa.getTopologia().garfosDe(0);
+        int[] garfos1 = mesa.getTopologia().garfosDe(1);
+        int compartilhado = garfos0[1] == garfos1[0] ? garfos0[1] : garfos0[0];
+        
+        mesa.pegarGarfos(0);
+        for (int garfo : garfos0) {
+            assertEquals(0, registro.getDono(garfo));
+        }
+        Thread vizinho = new Thread(() -> {
+            try {
+                mesa.pegarGarfos(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        vizinho.start();
+        while (registro.getAguardados(1).length < 2) {
+            Thread.sleep(1);
+        }
+        assertArrayEquals(new int[] {1}, registro.getEsperando(compartilhado));
+        
+        mesa.soltarGarfos(0);
+        vizinho.join();
+        for (int garfo : garfos1) {
+            assertEquals(1, registro.getDono(garfo));
+        }
+        assertEquals(0, registro.getAguardados(1).length);
+        mesa.soltarGarfos(1);
+        for (int garfo = 0; garfo < 3; garfo++) {
+            assertEquals(RegistroPosse.LIVRE, registro.getDono(garfo));
+        }
+        assertTrue(registro.getCiclos().isEmpty(), "A Mesa pega todos os garfos de uma vez");
+    }
+    
+    private static CompletableFuture<Void> comerAssincrono(MesaAssincrona mesa, int id, int restantes,
+            Executor executor, AtomicIntegerArray emUso, AtomicInteger violacoes) {
+        if (restantes == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        int n = mesa.getTopologia().getNumLugares();
+        return mesa.pedirGarfos(id).thenComposeAsync(permissao -> {
+            if (emUso.incrementAndGet(id) != 1 || emUso.incrementAndGet((id + 1) % n) != 1) {
+                violacoes.incrementAndGet();
+            }
+            emUso.decrementAndGet(id);
+            emUso.decrementAndGet((id + 1) % n);
+            permissao.soltar();
+            return comerAssincrono(mesa, id, restantes - 1, executor, emUso, violacoes);
+        }, executor);
+    }
 }
@@ -0,0 +1,64 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import comum.Topologia;
+
+/**
+ * Testes para a Topologia da mesa
+ * Valida adjacência, ordem global dos garfos e limite seguro de admissão
+ */
+public class TopologiaTest {
+    
+    @Test
+    @DisplayName("Anel de 5 deve reproduzir o jantar clássico")
+    public void testAnelClassico() {
+        Topologia anel = Topologia.anel(5);
+        
+        assertEquals(5, anel.getNumLugares());
+        assertEquals(5, anel.getNumGarfos());
+        assertArrayEquals(new int[] {4, 0}, anel.garfosDe(4), "Lugar 4: esquerdo 4, direito 0");
+        assertArrayEquals(new int[] {0, 4}, anel.garfosEmOrdemCrescente(4), "Só o último lugar inverte");
+        assertArrayEquals(new int[] {1, 2}, anel.garfosEmOrdemCrescente(1));
+        assertArrayEquals(new int[] {0, 2}, anel.vizinhosDe(1));
+        assertEquals(5, anel.getCintura());
+        assertEquals(4, anel.getLimiteAdmissaoSeguro(), "Mesmo limite do semáforo da Tarefa 3");
+    }
+    
+    @Test
+    @DisplayName("Grade e grupos completos devem ter cintura 4 e 3")
+    public void testGradeECompletos() {
+        Topologia grade = Topologia.grade(3, 4);
+        assertEquals(12, grade.getNumLugares());
+        assertEquals(17, grade.getNumGarfos(), "3x3 horizontais + 2x4 verticais");
+        assertEquals(4, grade.garfosDe(5).length, "Lugar interno tem 4 vizinhos");
+        assertEquals(2, grade.garfosDe(0).length, "Canto tem 2 vizinhos");
+        assertEquals(3, grade.getLimiteAdmissaoSeguro());
+        
+        Topologia completos = Topologia.completos(2, 4);
+        assertEquals(3, completos.garfosDe(0).length);
+        assertArrayEquals(new int[] {1, 2, 3}, completos.vizinhosDe(0), "Grupos não se misturam");
+        assertEquals(2, completos.getLimiteAdmissaoSeguro());
+        
+        assertEquals(Topologia.SEM_CICLO, Topologia.grade(1, 6).getCintura(), "Uma linha não tem ciclo");
+        assertEquals(6, Topologia.grade(1, 6).getLimiteAdmissaoSeguro());
+    }
+    
+    @Test
+    @DisplayName("Construtor deve calcular a cintura de um grafo qualquer")
+    public void testConstrutorCintura() {
+        Topologia quadradoComDiagonal = Topologia.construtor(4)
+                .compartilhar(0, 1).compartilhar(1, 2).compartilhar(2, 3).compartilhar(3, 0)
+                .compartilhar(0, 2)
+                .construir();
+        assertEquals(3, quadradoComDiagonal.getCintura());
+        assertEquals(2, quadradoComDiagonal.getLimiteAdmissaoSeguro());
+        
+        Topologia garfosDuplos = Topologia.construtor(2).compartilhar(0, 1).compartilhar(0, 1).construir();
+        assertEquals(2, garfosDuplos.getCintura(), "Dois garfos entre o mesmo par já formam ciclo");
+        assertEquals(1, garfosDuplos.getLimiteAdmissaoSeguro());
+        
+        assertThrows(IllegalArgumentException.class, () -> Topologia.construtor(2).compartilhar(1, 1));
+        assertThrows(IllegalArgumentException.class, () -> Topologia.anel(1));
+    }
+}